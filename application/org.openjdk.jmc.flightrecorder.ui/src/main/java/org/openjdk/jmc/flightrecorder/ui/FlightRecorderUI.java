@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2022, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -200,6 +200,10 @@ public final class FlightRecorderUI extends MCAbstractUIPlugin {
 		return getPreferenceStore().getBoolean(PreferenceKeys.PROPERTY_ALLOW_INCOMPLETE_RECORDING_FILE);
 	}
 
+	public boolean useParseCache() {
+		return getPreferenceStore().getBoolean(PreferenceKeys.PROPERTY_USE_PARSE_CACHE);
+	}
+
 	public void setPageStructureLocked(boolean lock) {
 		getPreferences().putBoolean(PAGE_STRUCTURE_LOCK_ID, lock);
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -40,6 +40,7 @@ import java.text.MessageFormat;
 import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.logging.Level;
 import java.util.stream.Collectors;
 
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -78,6 +79,7 @@ import org.openjdk.jmc.ui.wizards.OnePageWizardDialog;
 public class RecordingLoader extends Job {
 
 	private static final int UNZIPPED_FILE_TO_MEMORY_QUOTA = 4;
+	private static final String PARSE_CACHE_FILE_SUFFIX = ".cache"; //$NON-NLS-1$
 	private static int zippedFileMemoryFactor = UNZIPPED_FILE_TO_MEMORY_QUOTA * 10;
 	private final JfrEditor editor;
 	private final ProgressIndicator ui;
@@ -119,12 +121,12 @@ public class RecordingLoader extends Job {
 		IQuantity startTime = null;
 		IQuantity endTime = null;
 		for (EventArray typeEntry : events.getArrays()) {
-			IItem[] ea = typeEntry.getEvents();
 			IMemberAccessor<IQuantity, IItem> stAccessor = JfrAttributes.START_TIME.getAccessor(typeEntry.getType());
 			IMemberAccessor<IQuantity, IItem> etAccessor = JfrAttributes.END_TIME.getAccessor(typeEntry.getType());
-			if (ea.length > 0 && stAccessor != null && etAccessor != null) {
-				IQuantity arrayStart = stAccessor.getMember(ea[0]);
-				IQuantity arrayEnd = etAccessor.getMember(ea[ea.length - 1]);
+			int size = typeEntry.getSize();
+			if (size > 0 && stAccessor != null && etAccessor != null) {
+				IQuantity arrayStart = stAccessor.getMember(typeEntry.getEvent(0));
+				IQuantity arrayEnd = etAccessor.getMember(typeEntry.getEvent(size - 1));
 				if (startTime == null || startTime.compareTo(arrayStart) > 0) {
 					startTime = arrayStart;
 				}
@@ -166,20 +168,68 @@ public class RecordingLoader extends Job {
 		System.gc();
 		Runtime runtime = Runtime.getRuntime();
 		long availableMemory = runtime.maxMemory() - runtime.totalMemory() + runtime.freeMemory();
+		boolean hideExperimentals = !FlightRecorderUI.getDefault().includeExperimentalEventsAndFields();
+		boolean ignoreTruncatedChunk = FlightRecorderUI.getDefault().allowIncompleteRecordingFile();
+		File cacheFile = FlightRecorderUI.getDefault().useParseCache() ? getParseCacheFile(file) : null;
+		if (cacheFile != null) {
+			try {
+				EventArrays cached = FlightRecordingLoader.readParseCache(cacheFile, file, hideExperimentals,
+						ignoreTruncatedChunk);
+				if (cached != null) {
+					return cached;
+				}
+			} catch (IOException | OutOfMemoryError e) {
+				FlightRecorderUI.getDefault().getLogger().log(Level.FINE,
+						"Could not read parse cache " + cacheFile, e); //$NON-NLS-1$
+			}
+		}
 		if (availableMemory > (zippedFileMemoryFactor * file.length())) { // Try load from stream
 			try (InputStream stream = IOToolkit.openUncompressedStream(file)) {
-				boolean hideExperimentals = !FlightRecorderUI.getDefault().includeExperimentalEventsAndFields();
-				boolean ignoreTruncatedChunk = FlightRecorderUI.getDefault().allowIncompleteRecordingFile();
-				return FlightRecordingLoader.loadStream(stream, hideExperimentals, ignoreTruncatedChunk);
+				EventArrays events = FlightRecordingLoader.loadStream(stream, hideExperimentals, ignoreTruncatedChunk);
+				writeParseCache(cacheFile, file, events, hideExperimentals, ignoreTruncatedChunk);
+				return events;
 			} catch (NotEnoughMemoryException | OutOfMemoryError e) {
 				// Try to load part of the file
 			}
 		}
-		String fileName = file.getName();
+		File recordingFile = file;
 		if (IOToolkit.isCompressedFile(file)) {
 			file = unzipFile(file);
 		}
-		return loadFromUnzippedFile(file, fileName, lm, availableMemory);
+		return loadFromUnzippedFile(file, recordingFile, cacheFile, lm, availableMemory);
+	}
+
+	/**
+	 * @return a file in the temporary recordings folder that is unique for the recording file, or
+	 *         {@code null} if there is no such folder
+	 */
+	private static File getParseCacheFile(File file) {
+		try {
+			return new File(FlightRecorderUI.getDefault().getTempRecordingsDir(), file.getName() + '.'
+					+ Integer.toHexString(file.getAbsolutePath().hashCode()) + PARSE_CACHE_FILE_SUFFIX);
+		} catch (IOException e) {
+			FlightRecorderUI.getDefault().getLogger().log(Level.FINE, "Could not create parse cache folder", //$NON-NLS-1$
+					e);
+			return null;
+		}
+	}
+
+	/**
+	 * Write the parse cache for a fully loaded recording. Failures are logged, since the recording
+	 * has already been loaded.
+	 */
+	private static void writeParseCache(
+		File cacheFile, File recording, EventArrays events, boolean hideExperimentals,
+		boolean ignoreTruncatedChunk) {
+		if (cacheFile != null) {
+			try {
+				FlightRecordingLoader.writeParseCache(cacheFile, recording, hideExperimentals, ignoreTruncatedChunk,
+						events);
+			} catch (IOException | OutOfMemoryError e) {
+				FlightRecorderUI.getDefault().getLogger().log(Level.WARNING,
+						"Could not write parse cache " + cacheFile, e); //$NON-NLS-1$
+			}
+		}
 	}
 
 	private static void checkForJRockitRecording(EventArrays events) {
@@ -198,20 +248,20 @@ public class RecordingLoader extends Job {
 	}
 
 	private EventArrays loadFromUnzippedFile(
-		File unzippedFile, String recordingFileName, ProgressMonitor lm, long availableMemory)
+		File unzippedFile, File recordingFile, File cacheFile, ProgressMonitor lm, long availableMemory)
 			throws IOException, CouldNotLoadRecordingException {
+		String recordingFileName = recordingFile.getName();
 		boolean hideExperimentals = !FlightRecorderUI.getDefault().includeExperimentalEventsAndFields();
 		boolean ignoreTruncatedChunk = FlightRecorderUI.getDefault().allowIncompleteRecordingFile();
 		try (RandomAccessFile raf = new RandomAccessFile(unzippedFile, "r")) { //$NON-NLS-1$
 			List<ChunkInfo> allChunks = FlightRecordingLoader
-					.readChunkInfo(FlightRecordingLoader.createChunkSupplier(raf));
+					.readChunkInfo(FlightRecordingLoader.createChunkSupplier(raf.getChannel()));
 			IRange<IQuantity> fullRange = getRange(allChunks);
 			long maxLoadSize = availableMemory / UNZIPPED_FILE_TO_MEMORY_QUOTA;
 			List<ChunkInfo> toLoad = (unzippedFile.length() > maxLoadSize) ? getLastChunks(allChunks, maxLoadSize)
 					: allChunks;
 			while (!toLoad.isEmpty()) {
 				try {
-					raf.seek(0);
 					if (toLoad.size() != allChunks.size()) {
 						IRange<IQuantity> toLoadRange = getRange(toLoad);
 						IRange<IQuantity> confirmedRange = confirmRangeWizard(toLoadRange, fullRange,
@@ -221,12 +271,16 @@ public class RecordingLoader extends Job {
 						}
 						lm.setWorkSize(toLoad.size());
 						return FlightRecordingLoader.readChunks(lm,
-								FlightRecordingLoader.createChunkSupplier(raf, toLoad), hideExperimentals,
+								FlightRecordingLoader.createChunkSupplier(raf.getChannel(), toLoad), hideExperimentals,
 								ignoreTruncatedChunk);
 					} else {
 						lm.setWorkSize(allChunks.size());
-						return FlightRecordingLoader.readChunks(lm, FlightRecordingLoader.createChunkSupplier(raf),
-								hideExperimentals, ignoreTruncatedChunk);
+						EventArrays events = FlightRecordingLoader.readChunks(lm,
+								FlightRecordingLoader.createChunkSupplier(raf.getChannel()), hideExperimentals,
+								ignoreTruncatedChunk);
+						// Only a fully loaded recording is cached
+						writeParseCache(cacheFile, recordingFile, events, hideExperimentals, ignoreTruncatedChunk);
+						return events;
 					}
 				} catch (NotEnoughMemoryException nem) {
 					// Try again with lower loadQuota
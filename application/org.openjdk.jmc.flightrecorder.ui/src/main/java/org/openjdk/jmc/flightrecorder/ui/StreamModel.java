@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -40,6 +40,7 @@ import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import org.openjdk.jmc.common.item.IItem;
@@ -85,11 +86,11 @@ public class StreamModel {
 			IType<IItem> eventType = ea.getType();
 			Predicate<IItem> predicate = filter.getPredicate(eventType);
 			if (PredicateToolkit.isTrueGuaranteed(predicate)) {
-				return ItemIterableToolkit.build(itemSupplier(ea.getEvents(), eventType, range), eventType);
+				return ItemIterableToolkit.build(itemSupplier(ea, range), eventType);
 			} else if (PredicateToolkit.isFalseGuaranteed(predicate)) {
 				return null;
 			} else {
-				return ItemIterableToolkit.build(itemSupplier(ea.getEvents(), eventType, range, predicate::test),
+				return ItemIterableToolkit.build(itemSupplier(ea, range, predicate::test),
 						eventType);
 			}
 		}).filter(Objects::nonNull).toArray(IItemIterable[]::new);
@@ -100,43 +101,47 @@ public class StreamModel {
 		return ItemCollectionToolkit.build(
 				() -> Arrays.stream(eventsByType)
 						.map(ea -> ItemIterableToolkit
-								.build(() -> itemSupplier(ea.getEvents(), ea.getType(), range).get(), ea.getType())),
+								.build(() -> itemSupplier(ea, range).get(), ea.getType())),
 				chunkRanges);
 	}
 
 	public IItemCollection getItems() {
 		return ItemCollectionToolkit.build(
 				() -> Arrays.stream(eventsByType)
-						.map(ea -> ItemIterableToolkit.build(() -> Arrays.stream(ea.getEvents()), ea.getType())),
+						.map(ea -> ItemIterableToolkit.build(() -> stream(ea, 0, ea.getSize()), ea.getType())),
 				chunkRanges);
 	}
 
-	private static Supplier<Stream<IItem>> itemSupplier(IItem[] events, IType<IItem> ofType, IRange<IQuantity> range) {
-		int start = findStart(events, ofType, range.getStart());
-		int end = findEnd(events, ofType, range.getEnd());
-		return () -> Arrays.stream(events, start, end);
+	private static Supplier<Stream<IItem>> itemSupplier(EventArray events, IRange<IQuantity> range) {
+		int start = findStart(events, range.getStart());
+		int end = findEnd(events, range.getEnd());
+		return () -> stream(events, start, end);
 	}
 
 	private static Supplier<Stream<IItem>> itemSupplier(
-		IItem[] events, IType<IItem> ofType, IRange<IQuantity> range, Predicate<? super IItem> predicate) {
-		int start = findStart(events, ofType, range.getStart());
-		int end = findEnd(events, ofType, range.getEnd());
-		return () -> Arrays.stream(events, start, end).filter(predicate);
+		EventArray events, IRange<IQuantity> range, Predicate<? super IItem> predicate) {
+		int start = findStart(events, range.getStart());
+		int end = findEnd(events, range.getEnd());
+		return () -> stream(events, start, end).filter(predicate);
 	}
 
-	private static int findStart(IItem[] events, IType<IItem> ofType, IQuantity boundary) {
-		IMemberAccessor<IQuantity, IItem> accessor = JfrAttributes.END_TIME.getAccessor(ofType);
+	private static Stream<IItem> stream(EventArray events, int start, int end) {
+		return IntStream.range(start, end).mapToObj(events::getEvent);
+	}
+
+	private static int findStart(EventArray events, IQuantity boundary) {
+		IMemberAccessor<IQuantity, IItem> accessor = JfrAttributes.END_TIME.getAccessor(events.getType());
 		int index = binarySearch(events, accessor, boundary);
-		while (index > 0 && accessor.getMember(events[index - 1]).compareTo(boundary) == 0) {
+		while (index > 0 && accessor.getMember(events.getEvent(index - 1)).compareTo(boundary) == 0) {
 			index--;
 		}
 		return index;
 	}
 
-	private static int findEnd(IItem[] events, IType<IItem> ofType, IQuantity boundary) {
-		IMemberAccessor<IQuantity, IItem> accessor = JfrAttributes.START_TIME.getAccessor(ofType);
+	private static int findEnd(EventArray events, IQuantity boundary) {
+		IMemberAccessor<IQuantity, IItem> accessor = JfrAttributes.START_TIME.getAccessor(events.getType());
 		int index = binarySearch(events, accessor, boundary);
-		while (index < events.length && accessor.getMember(events[index]).compareTo(boundary) == 0) {
+		while (index < events.getSize() && accessor.getMember(events.getEvent(index)).compareTo(boundary) == 0) {
 			index++;
 		}
 		return index;
@@ -149,12 +154,12 @@ public class StreamModel {
 	 * @return The insertion point in the sorted array {@code events} if {@code key} was not found,
 	 *         or an index of any item the {@code boundary} value if it was found.
 	 */
-	private static int binarySearch(IItem[] events, IMemberAccessor<IQuantity, IItem> accessor, IQuantity key) {
+	private static int binarySearch(EventArray events, IMemberAccessor<IQuantity, IItem> accessor, IQuantity key) {
 		int low = 0;
-		int high = events.length - 1;
+		int high = events.getSize() - 1;
 		while (low <= high) {
 			int middle = (low + high) >>> 1;
-			int comparison = key.compareTo(accessor.getMember(events[middle]));
+			int comparison = key.compareTo(accessor.getMember(events.getEvent(middle)));
 			if (comparison == 0) {
 				return middle;
 			} else if (comparison > 0) {
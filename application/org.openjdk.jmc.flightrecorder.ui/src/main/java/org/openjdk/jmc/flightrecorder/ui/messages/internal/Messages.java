@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2024, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -446,6 +446,7 @@ public class Messages extends NLS {
 	public static String PAGE_RENAME_MENU_ACTION;
 	public static String PAGE_UNNAMED;
 	public static String PREFERENCES_ALLOW_INCOMPLETE_RECORDING_FILE;
+	public static String PREFERENCES_USE_PARSE_CACHE;
 	public static String PREFERENCES_CONFIRM_REMOVE_TEMPLATE_TEXT;
 	public static String PREFERENCES_ENABLED_RULES;
 	public static String PREFERENCES_ENABLE_RECORDING_ANALYSIS;
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2022, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -112,6 +112,8 @@ public class GeneralPage extends PreferencePage implements IWorkbenchPreferenceP
 		includeExperimental.setLayoutData(new GridData(SWT.FILL, SWT.FILL, false, false));
 		Button allowIncompleteRecording = createAllowIncompleteRecordingFileCheckBox(container);
 		allowIncompleteRecording.setLayoutData(new GridData(SWT.FILL, SWT.FILL, false, false));
+		Button useParseCache = createUseParseCacheCheckBox(container);
+		useParseCache.setLayoutData(new GridData(SWT.FILL, SWT.FILL, false, false));
 
 		Group dumpDefaultGroup = new Group(container, SWT.NONE);
 		dumpDefaultGroup.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, false));
@@ -413,6 +415,10 @@ public class GeneralPage extends PreferencePage implements IWorkbenchPreferenceP
 				PreferenceKeys.PROPERTY_ALLOW_INCOMPLETE_RECORDING_FILE);
 	}
 
+	private Button createUseParseCacheCheckBox(Composite parent) {
+		return createCheckBox(parent, Messages.PREFERENCES_USE_PARSE_CACHE, PreferenceKeys.PROPERTY_USE_PARSE_CACHE);
+	}
+
 	@Override
 	protected void performDefaults() {
 		for (CheckBox checkBox : checkBoxes) {
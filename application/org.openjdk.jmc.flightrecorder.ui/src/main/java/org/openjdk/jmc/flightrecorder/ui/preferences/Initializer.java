@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -51,6 +51,7 @@ public class Initializer extends AbstractPreferenceInitializer {
 		store.setDefault(PreferenceKeys.PROPERTY_ENABLE_RECORDING_ANALYSIS, true);
 		store.setDefault(PreferenceKeys.PROPERTY_INCLUDE_EXPERIMENTAL_EVENTS_AND_FIELDS, false);
 		store.setDefault(PreferenceKeys.PROPERTY_ALLOW_INCOMPLETE_RECORDING_FILE, true);
+		store.setDefault(PreferenceKeys.PROPERTY_USE_PARSE_CACHE, true);
 		store.setDefault(PreferenceKeys.PROPERTY_DEFAULT_DUMP_TIMESPAN,
 				PreferenceKeys.DUMP_TIMESPAN_DEFAULT.persistableString());
 		store.setDefault(PreferenceKeys.PROPERTY_DEFAULT_DUMP_TYPE, PreferenceKeys.NO_DEFAULT_DUMP);
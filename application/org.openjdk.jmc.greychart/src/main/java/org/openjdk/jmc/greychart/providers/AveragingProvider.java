@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2023, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -131,12 +131,14 @@ public final class AveragingProvider implements OptimizingProvider {
 	}
 
 	private AveragingSampleBuffer createSampleBuffer(int width) {
-		Iterator<IXYData> it = m_dataSeries.createIterator(m_requestedStartX, m_requestedEndX);
+		long worldWidth = m_xAxis.getMax().longValue() - m_xAxis.getMin().longValue();
+		long leftEdge = m_xAxis.getMin().longValue();
+		// the values are averaged per sample anyway, so the series may hand out pre-aggregated values
+		long resolution = width > 0 ? worldWidth / width : 0;
+		Iterator<IXYData> it = m_dataSeries.createIterator(m_requestedStartX, m_requestedEndX, resolution);
 		if (!it.hasNext()) {
 			return new AveragingSampleBuffer(0);
 		}
-		long worldWidth = m_xAxis.getMax().longValue() - m_xAxis.getMin().longValue();
-		long leftEdge = m_xAxis.getMin().longValue();
 		AveragingSampleBuffer sampleBuffer = new AveragingSampleBuffer(width);
 
 		IXYData data = addFirstBoundaryPoint(sampleBuffer, it, worldWidth, leftEdge);
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -58,6 +58,7 @@ import org.eclipse.ui.part.EditorPart;
 
 import org.openjdk.jmc.flightrecorder.ui.FlightRecorderUI;
 import org.openjdk.jmc.joverflow.heap.model.Snapshot;
+import org.openjdk.jmc.joverflow.stats.ReferrerIndex;
 import org.openjdk.jmc.joverflow.ui.model.ModelLoader;
 import org.openjdk.jmc.joverflow.ui.model.ModelLoaderListener;
 import org.openjdk.jmc.joverflow.ui.model.ReferenceChain;
@@ -75,6 +76,7 @@ public class JOverflowEditor extends EditorPart {
 
 	private ModelLoader mLoader;
 	private Snapshot mSnapshot;
+	private volatile ReferrerIndex mReferrerIndex;
 	private Collection<ReferenceChain> mModel;
 	private Future<?> mBackground;
 
@@ -114,6 +116,7 @@ public class JOverflowEditor extends EditorPart {
 			mSnapshot.discard();
 			mSnapshot = null;
 		}
+		mReferrerIndex = null;
 
 		setPartName(input.getName());
 
@@ -230,6 +233,7 @@ public class JOverflowEditor extends EditorPart {
 		if (mSnapshot != null) {
 			mSnapshot.discard();
 		}
+		mReferrerIndex = null;
 	}
 
 	@Override
@@ -275,6 +279,24 @@ public class JOverflowEditor extends EditorPart {
 		return mSnapshot;
 	}
 
+	/**
+	 * Returns the referrer index of the current snapshot, building it on the first call, or null if
+	 * no snapshot is loaded. Building the index reads the whole heap, so this should not be called
+	 * in the UI thread.
+	 */
+	synchronized ReferrerIndex getReferrerIndex() {
+		Snapshot snapshot = mSnapshot;
+		if (snapshot == null) {
+			return null;
+		}
+		ReferrerIndex referrerIndex = mReferrerIndex;
+		if (referrerIndex == null || referrerIndex.getSnapshot() != snapshot) {
+			referrerIndex = ReferrerIndex.build(snapshot);
+			mReferrerIndex = referrerIndex;
+		}
+		return referrerIndex;
+	}
+
 	void addUiLoadedListener(UiLoadedListener listener) {
 		mUiLoadedListeners.add(listener);
 		if (mJOverflowUi != null) {
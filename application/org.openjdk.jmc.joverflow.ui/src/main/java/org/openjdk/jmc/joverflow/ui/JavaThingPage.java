@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * Copyright (c) 2019, Red Hat Inc. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
@@ -47,6 +47,7 @@ import org.eclipse.swt.widgets.Control;
 import org.eclipse.ui.part.Page;
 
 import org.openjdk.jmc.joverflow.heap.model.JavaHeapObject;
+import org.openjdk.jmc.joverflow.stats.ReferrerIndex;
 import org.openjdk.jmc.joverflow.support.RefChainElement;
 import org.openjdk.jmc.joverflow.ui.model.JavaThingItem;
 import org.openjdk.jmc.joverflow.ui.model.ModelListener;
@@ -69,6 +70,7 @@ public class JavaThingPage extends Page implements ModelListener {
 	private boolean mTaskCancelled = false;
 
 	private Object mInput;
+	private ReferrerIndex mReferrerIndex;
 
 	JavaThingPage(JOverflowEditor editor) {
 		mEditor = editor;
@@ -78,6 +80,7 @@ public class JavaThingPage extends Page implements ModelListener {
 	public void createControl(Composite parent) {
 		mTreeViewer = new JavaThingTreeViewer<>(parent, SWT.BORDER | SWT.FULL_SELECTION);
 		updateInput();
+		updateReferrerIndex(mReferrerIndex);
 	}
 
 	@Override
@@ -120,6 +123,7 @@ public class JavaThingPage extends Page implements ModelListener {
 		int instanceCount = mTotalInstancesCount;
 
 		updateInput(null);
+		updateReferrerIndex(null);
 
 		mTaskCancelled = false;
 		mCurrentTask = new FutureTask<>(() -> {
@@ -142,6 +146,13 @@ public class JavaThingPage extends Page implements ModelListener {
 
 			DisplayToolkit.inDisplayThread().execute(() -> updateInput(items));
 
+			// The paths from GC roots are added once the referrer index is available, which takes a
+			// scan of the whole heap the first time
+			ReferrerIndex referrerIndex = mEditor.getReferrerIndex();
+			if (!mTaskCancelled && referrerIndex != null) {
+				DisplayToolkit.inDisplayThread().execute(() -> updateReferrerIndex(referrerIndex));
+			}
+
 			return null;
 		});
 		mBackground = EXECUTOR_SERVICE.submit(mCurrentTask);
@@ -161,6 +172,13 @@ public class JavaThingPage extends Page implements ModelListener {
 		}
 	}
 
+	private void updateReferrerIndex(ReferrerIndex referrerIndex) {
+		mReferrerIndex = referrerIndex;
+		if (mTreeViewer != null) {
+			mTreeViewer.setReferrerIndex(mReferrerIndex);
+		}
+	}
+
 	private JavaHeapObject getObjectAtPosition(int globalObjectPos) {
 		return mEditor.getSnapshot().getObjectAtGlobalIndex(globalObjectPos);
 	}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.joverflow.ui.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmc.joverflow.heap.model.JavaHeapObject;
+import org.openjdk.jmc.joverflow.stats.ReferrerIndex;
+
+/**
+ * A {@code TreeItem} for the shortest reference path from a GC root, or a class, to a
+ * {@code JavaHeapObject}. The path is looked up in a {@code ReferrerIndex} when the children of
+ * the item are first requested.
+ */
+public class GcRootPathItem extends JavaThingItem {
+	private static final String NAME = "<path from GC root>"; //$NON-NLS-1$
+	private static final String UNREACHABLE = "<unreachable>"; //$NON-NLS-1$
+
+	private final ReferrerIndex referrerIndex;
+	private final JavaHeapObject object;
+
+	public GcRootPathItem(int level, ReferrerIndex referrerIndex, JavaHeapObject object) {
+		super(level, NAME, "", 0, null); //$NON-NLS-1$
+		this.referrerIndex = referrerIndex;
+		this.object = object;
+	}
+
+	@Override
+	public Iterable<JavaThingItem> getChildItems() {
+		Iterable<JavaThingItem> children = super.getChildItems();
+		if (children == null) {
+			List<JavaThingItem> items = new ArrayList<>();
+			List<JavaHeapObject> path = referrerIndex.getPathFromGcRoot(object);
+			if (path == null) {
+				items.add(new JavaThingItem(getLevel() + 1, UNREACHABLE, "", 0, null)); //$NON-NLS-1$
+			} else {
+				for (int i = 0; i < path.size(); i++) {
+					items.add(new JavaThingItem(getLevel() + 1, "[" + i + "]", path.get(i))); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+			}
+			setChildItems(items);
+			children = items;
+		}
+		return children;
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * Copyright (c) 2019, 2021, Red Hat Inc. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
@@ -49,10 +49,13 @@ import org.eclipse.swt.events.SelectionEvent;
 import org.eclipse.swt.events.SelectionListener;
 import org.eclipse.swt.widgets.Composite;
 import org.openjdk.jmc.joverflow.heap.model.JavaField;
+import org.openjdk.jmc.joverflow.heap.model.JavaHeapObject;
 import org.openjdk.jmc.joverflow.heap.model.JavaObject;
 import org.openjdk.jmc.joverflow.heap.model.JavaObjectArray;
 import org.openjdk.jmc.joverflow.heap.model.JavaThing;
 import org.openjdk.jmc.joverflow.heap.model.JavaValueArray;
+import org.openjdk.jmc.joverflow.stats.ReferrerIndex;
+import org.openjdk.jmc.joverflow.ui.model.GcRootPathItem;
 import org.openjdk.jmc.joverflow.ui.model.JavaThingItem;
 
 public class JavaThingTreeViewer<T extends JavaThingItem> extends TreeViewer {
@@ -61,6 +64,8 @@ public class JavaThingTreeViewer<T extends JavaThingItem> extends TreeViewer {
 	private static final String SIZE_COLUMN = "Size"; //$NON-NLS-1$
 	private static final String VALUE_COLUMN = "Value"; //$NON-NLS-1$
 
+	private ReferrerIndex mReferrerIndex;
+
 	public JavaThingTreeViewer(Composite parent, int style) {
 		super(parent, style);
 
@@ -101,6 +106,25 @@ public class JavaThingTreeViewer<T extends JavaThingItem> extends TreeViewer {
 		});
 	}
 
+	/**
+	 * Sets the index used to show the path from a GC root to each top level object, or null if
+	 * there is none. Since building the index requires reading the whole heap, it may be set after
+	 * the input, in which case the children of top level objects are collected again.
+	 */
+	@SuppressWarnings("unchecked")
+	public void setReferrerIndex(ReferrerIndex referrerIndex) {
+		if (mReferrerIndex == referrerIndex) {
+			return;
+		}
+		mReferrerIndex = referrerIndex;
+		if (getInput() != null) {
+			for (JavaThingItem item : (List<JavaThingItem>) getInput()) {
+				item.setChildItems(null);
+			}
+			refresh();
+		}
+	}
+
 	private void createTreeViewerColumn(String label, Function<T, String> labelProvider) {
 		TreeViewerColumn column = new TreeViewerColumn(this, SWT.NONE);
 		column.getColumn().setWidth(300);
@@ -176,6 +200,9 @@ public class JavaThingTreeViewer<T extends JavaThingItem> extends TreeViewer {
 					}
 
 				}
+				if (item.getLevel() == 0 && mReferrerIndex != null && thing instanceof JavaHeapObject) {
+					items.add(new GcRootPathItem(item.getLevel() + 1, mReferrerIndex, (JavaHeapObject) thing));
+				}
 				item.setChildItems(items);
 				return items.toArray();
 			}
@@ -192,6 +219,10 @@ public class JavaThingTreeViewer<T extends JavaThingItem> extends TreeViewer {
 		public boolean hasChildren(Object element) {
 			JavaThingItem item = (JavaThingItem) element;
 			JavaThing thing = item.getContent();
+			if (item instanceof GcRootPathItem
+					|| item.getLevel() == 0 && mReferrerIndex != null && thing instanceof JavaHeapObject) {
+				return true;
+			}
 			return thing instanceof JavaObject && ((JavaObject) thing).getClazz().getFieldsForInstance().length > 0
 					|| thing instanceof JavaObjectArray && ((JavaObjectArray) thing).getLength() > 0
 					|| thing instanceof JavaValueArray && ((JavaValueArray) thing).getLength() > 0;
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -40,8 +40,8 @@ import org.openjdk.jmc.joverflow.heap.parser.ReadBuffer;
 /*
  * Base class for lazily read Java heap objects (JavaObject, JavaObjectArray and JavaValueArray).
  * Contains a long offset into the heap dump, at which the contents of this object are located. Also
- * contains a pointer back into an array in JavaObjectTable where the data from which this object
- * gets created is contained.
+ * contains a pointer back into an array in the object table where the tag word of this object,
+ * which holds the various "visited" bits and the internal id, is contained.
  */
 public abstract class JavaLazyReadObject extends JavaHeapObject {
 
@@ -66,20 +66,20 @@ public abstract class JavaLazyReadObject extends JavaHeapObject {
 	/** File offset from which this object data starts */
 	private final long objOfsInFile;
 
-	/** Data chunk in JavaObjectTable where data for this object is stored */
-	private final int[] dataChunk;
+	/** Chunk in the object table where the tag word for this object is stored */
+	private final int[] tagsChunk;
 
-	/** Offset in dataChunk at which the data for this object is stored */
-	private final int startPosInChunk;
+	/** Offset in tagsChunk at which the tag word for this object is stored */
+	private final int tagsPos;
 
 	private final int globalObjectIndex;
 
-	protected JavaLazyReadObject(JavaClass clazz, long objOfsInFile, int[] dataChunk, int startPosInChunk,
+	protected JavaLazyReadObject(JavaClass clazz, long objOfsInFile, int[] tagsChunk, int tagsPos,
 			int globalObjectIndex) {
 		this.clazz = clazz;
 		this.objOfsInFile = objOfsInFile;
-		this.dataChunk = dataChunk;
-		this.startPosInChunk = startPosInChunk;
+		this.tagsChunk = tagsChunk;
+		this.tagsPos = tagsPos;
 		this.globalObjectIndex = globalObjectIndex;
 	}
 
@@ -138,15 +138,13 @@ public abstract class JavaLazyReadObject extends JavaHeapObject {
 	 */
 	@Override
 	public boolean isVisited() {
-		int tagsPos = startPosInChunk + 2;
-		return (dataChunk[tagsPos] & VISITED_MASK) != 0;
+		return (tagsChunk[tagsPos] & VISITED_MASK) != 0;
 	}
 
 	/** @see #isVisited() */
 	@Override
 	public void setVisited() {
-		int tagsPos = startPosInChunk + 2;
-		dataChunk[tagsPos] |= VISITED_MASK;
+		tagsChunk[tagsPos] |= VISITED_MASK;
 	}
 
 	/**
@@ -173,14 +171,12 @@ public abstract class JavaLazyReadObject extends JavaHeapObject {
 	 * Strings and those that are standalone (independent).
 	 */
 	public boolean isVisitedAsCollectionImpl() {
-		int tagsPos = startPosInChunk + 2;
-		return (dataChunk[tagsPos] & VISITED_COLLECTION_IMPL_MASK) != 0;
+		return (tagsChunk[tagsPos] & VISITED_COLLECTION_IMPL_MASK) != 0;
 	}
 
 	/** @see #isVisitedAsCollectionImpl() */
 	public void setVisitedAsCollectionImpl() {
-		int tagsPos = startPosInChunk + 2;
-		dataChunk[tagsPos] |= VISITED_COLLECTION_IMPL_MASK;
+		tagsChunk[tagsPos] |= VISITED_COLLECTION_IMPL_MASK;
 	}
 
 	/**
@@ -191,14 +187,12 @@ public abstract class JavaLazyReadObject extends JavaHeapObject {
 	 * referenced from an Object[] array multiple times.
 	 */
 	public boolean isVisitedAsOther() {
-		int tagsPos = startPosInChunk + 2;
-		return (dataChunk[tagsPos] & VISITED_OTHER) != 0;
+		return (tagsChunk[tagsPos] & VISITED_OTHER) != 0;
 	}
 
 	/** @see #isVisitedAsOther() */
 	public void setVisitedAsOther() {
-		int tagsPos = startPosInChunk + 2;
-		dataChunk[tagsPos] |= VISITED_OTHER;
+		tagsChunk[tagsPos] |= VISITED_OTHER;
 	}
 
 	/**
@@ -208,14 +202,12 @@ public abstract class JavaLazyReadObject extends JavaHeapObject {
 	 * id. Each String or array with a different logical value has a different id.
 	 */
 	public int getInternalId() {
-		int tagsPos = startPosInChunk + 2;
-		return dataChunk[tagsPos] & INTERNAL_ID_MASK;
+		return tagsChunk[tagsPos] & INTERNAL_ID_MASK;
 	}
 
 	/** See {@link #getInternalId()} */
 	public void setInternalId(int id) {
-		int tagsPos = startPosInChunk + 2;
-		dataChunk[tagsPos] |= id;
+		tagsChunk[tagsPos] |= id;
 	}
 
 	protected abstract byte[] readValue() throws IOException;
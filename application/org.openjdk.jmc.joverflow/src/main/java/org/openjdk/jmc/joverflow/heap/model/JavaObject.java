@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -43,8 +43,8 @@ import org.openjdk.jmc.joverflow.util.StringInterner;
  */
 public class JavaObject extends JavaLazyReadObject {
 
-	public JavaObject(JavaClass clazz, long objOfsInFile, int[] dataChunk, int startPosInChunk, int globalObjectIndex) {
-		super(clazz, objOfsInFile, dataChunk, startPosInChunk, globalObjectIndex);
+	public JavaObject(JavaClass clazz, long objOfsInFile, int[] tagsChunk, int tagsPos, int globalObjectIndex) {
+		super(clazz, objOfsInFile, tagsChunk, tagsPos, globalObjectIndex);
 	}
 
 	/**
@@ -139,7 +139,7 @@ public class JavaObject extends JavaLazyReadObject {
 
 	@Override
 	public void visitReferencedObjects(JavaHeapObjectVisitor v) {
-		JavaThing[] flds = getFields();
+		JavaThing[] flds = getFields(false);
 		for (int i = 0; i < flds.length; i++) {
 			if (flds[i] != null) {
 				if (v.mightExclude()
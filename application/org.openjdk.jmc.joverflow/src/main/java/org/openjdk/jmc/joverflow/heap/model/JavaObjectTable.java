@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -42,7 +42,8 @@ import java.util.NoSuchElementException;
  * Contains the base information about all instances and arrays (but not classes) of the heap dump
  * in the compact table form. Provides a method for creating an instance of JavaLazyReadObject that
  * in effect contains the same information as the table, but in a more manageable form. Also
- * provides a method to iterate over all objects in the table.
+ * provides a method to iterate over all objects in the table. The global index of each object is
+ * its position in the table.
  * <p>
  * The internal table is organized, conceptually, as an array of ints. However, in reality it
  * consists of multiple 1MB "chunks", to facilitate building this table incrementally and to avoid
@@ -54,15 +55,18 @@ import java.util.NoSuchElementException;
  * arrays the fourth int contains the array's length.
  * <p>
  * Since we currently use ints to index objects, and objects on average take 3.5 slots in the table,
- * the maximum number of objects that this table can accomodate is 2^31 / 3.5 ~= 613 million.
+ * the maximum number of objects that this table can accomodate is 2^31 / 3.5 ~= 613 million. For
+ * bigger heap dumps, {@link MappedObjectTable} should be used.
  */
-class JavaObjectTable {
+class JavaObjectTable extends ObjectTable {
 
 	private static final int CHUNK_MAGNITUDE = 20; // Corresponds to 1024*1024
 	private static final int CHUNK_SIZE = 1 << CHUNK_MAGNITUDE;
 
 	private static final int POS_IN_CHUNK_MASK = CHUNK_SIZE - 1;
 
+	private static final int MAX_CHUNKS = 1 << (31 - CHUNK_MAGNITUDE);
+
 	private static final long LONG_LOW_WORD_MASK = 0x0FFFFFFFFL;
 
 	// The following variables control how the high int of the two ints (that
@@ -89,6 +93,7 @@ class JavaObjectTable {
 		this.objOfsHighWordMask = arrayMask - 1;
 	}
 
+	@Override
 	JavaLazyReadObject getObject(int objPosInTable) {
 		int chunkIdx = objPosInTable >> CHUNK_MAGNITUDE;
 		int[] chunk = objects[chunkIdx];
@@ -104,19 +109,21 @@ class JavaObjectTable {
 		if (isArray) {
 			int length = chunk[posInCurChunk + 1];
 			if (clazz.isSingleDimPrimitiveArray()) {
-				return new JavaValueArray(clazz, objOfsInFile, length, chunk, startPosInCurChunk, objPosInTable);
+				return new JavaValueArray(clazz, objOfsInFile, length, chunk, startPosInCurChunk + 2, objPosInTable);
 			} else {
-				return new JavaObjectArray(clazz, objOfsInFile, length, chunk, startPosInCurChunk, objPosInTable);
+				return new JavaObjectArray(clazz, objOfsInFile, length, chunk, startPosInCurChunk + 2, objPosInTable);
 			}
 		} else {
-			return new JavaObject(clazz, objOfsInFile, chunk, startPosInCurChunk, objPosInTable);
+			return new JavaObject(clazz, objOfsInFile, chunk, startPosInCurChunk + 2, objPosInTable);
 		}
 	}
 
+	@Override
 	int size() {
 		return numObjs;
 	}
 
+	@Override
 	Collection<JavaLazyReadObject> getObjects() {
 		return new AbstractCollection<JavaLazyReadObject>() {
 			@Override
@@ -164,6 +171,7 @@ class JavaObjectTable {
 		};
 	}
 
+	@Override
 	Collection<JavaLazyReadObject> getUnvisitedObjects() {
 
 		class UnvisitedObjIterator implements Iterator<JavaLazyReadObject> {
@@ -239,7 +247,7 @@ class JavaObjectTable {
 		};
 	}
 
-	static class Builder {
+	static class Builder extends ObjectTable.Builder {
 
 		private final int classIdxShift;
 		private final int arrayMask;
@@ -273,12 +281,14 @@ class JavaObjectTable {
 			posInCurChunk = 1;
 		}
 
-		JavaObjectTable buildJavaObjectTable(JavaClass[] classes) {
+		@Override
+		JavaObjectTable build(JavaClass[] classes) {
 			int[][] objects = chunksAsList.toArray(new int[chunksAsList.size()][]);
 			int lastObjEndPos = curChunkIdx * CHUNK_SIZE + posInCurChunk;
 			return new JavaObjectTable(objects, classes, numObjs, lastObjEndPos, classIdxShift, arrayMask);
 		}
 
+		@Override
 		int addJavaObject(int classIdx, long objOfsInFile) {
 			if (posInCurChunk > CHUNK_SIZE - 4) {
 				addChunk();
@@ -290,6 +300,7 @@ class JavaObjectTable {
 			return curAbsPos;
 		}
 
+		@Override
 		int addJavaArray(int classIdx, long objOfsInFile, int length) {
 			if (posInCurChunk > CHUNK_SIZE - 4) {
 				addChunk();
@@ -302,6 +313,7 @@ class JavaObjectTable {
 			return curAbsPos;
 		}
 
+		@Override
 		int getNumObjects() {
 			return numObjs;
 		}
@@ -318,6 +330,10 @@ class JavaObjectTable {
 		}
 
 		private void addChunk() {
+			if (curChunkIdx == MAX_CHUNKS - 1) {
+				throw new IllegalStateException("Too many objects for the in-memory object table, "
+						+ "see Snapshot.Builder.setMappedObjTableThreshold()");
+			}
 			curChunkIdx++;
 			curChunk = new int[CHUNK_SIZE];
 			chunksAsList.add(curChunk);
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -46,9 +46,9 @@ import org.openjdk.jmc.joverflow.util.StringInterner;
 public class JavaValueArray extends JavaLazyReadObject implements ArrayTypeCodes {
 	private final int length;
 
-	public JavaValueArray(JavaClass clazz, long objOfsInFile, int length, int[] dataChunk, int startPosInChunk,
+	public JavaValueArray(JavaClass clazz, long objOfsInFile, int length, int[] tagsChunk, int tagsPos,
 			int globalObjectIndex) {
-		super(clazz, objOfsInFile, dataChunk, startPosInChunk, globalObjectIndex);
+		super(clazz, objOfsInFile, tagsChunk, tagsPos, globalObjectIndex);
 		this.length = length;
 	}
 
@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.joverflow.heap.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An object table for heap dumps with more objects than {@link JavaObjectTable} can accomodate.
+ * The global index of each object is its ordinal number in the table plus one, so up to 2^31 - 1
+ * objects can be held.
+ * <p>
+ * Each object takes a 16-byte record: the object's offset in the dump (a long, with the highest bit
+ * specifying whether the object is an array), its class index (a full int, so the number of
+ * classes is not limited by the dump size) and the array length. Records are addressed with long
+ * positions and kept outside the Java heap, in a temporary file that is memory-mapped in 1GB
+ * regions. The file is deleted as soon as the table is built, or when the JVM exits on platforms
+ * that don't allow deleting mapped files. The tag words of objects, that are updated all the time
+ * during heap analysis, are kept in the Java heap in 1MB int chunks, in the same way as in
+ * JavaObjectTable.
+ */
+class MappedObjectTable extends ObjectTable {
+
+	private static final int RECORD_SIZE = 16;
+	private static final long ARRAY_MASK = 1L << 63;
+
+	private static final int REGION_MAGNITUDE = 30; // Corresponds to 1024*1024*1024
+	private static final long REGION_SIZE = 1L << REGION_MAGNITUDE;
+	private static final int POS_IN_REGION_MASK = (int) REGION_SIZE - 1;
+
+	private static final int TAGS_CHUNK_MAGNITUDE = 20; // Corresponds to 1024*1024
+	private static final int TAGS_CHUNK_SIZE = 1 << TAGS_CHUNK_MAGNITUDE;
+	private static final int POS_IN_TAGS_CHUNK_MASK = TAGS_CHUNK_SIZE - 1;
+
+	private final ByteBuffer[] regions;
+	private final int[][] tags;
+	private final JavaClass[] classes;
+	private final int numObjs;
+
+	private MappedObjectTable(ByteBuffer[] regions, int[][] tags, JavaClass[] classes, int numObjs) {
+		this.regions = regions;
+		this.tags = tags;
+		this.classes = classes;
+		this.numObjs = numObjs;
+	}
+
+	@Override
+	JavaLazyReadObject getObject(int globalIndex) {
+		int objIdx = globalIndex - 1;
+		long recordPos = (long) objIdx * RECORD_SIZE;
+		ByteBuffer region = regions[(int) (recordPos >> REGION_MAGNITUDE)];
+		int posInRegion = (int) recordPos & POS_IN_REGION_MASK;
+		long ofsAndArrayBit = region.getLong(posInRegion);
+		JavaClass clazz = classes[region.getInt(posInRegion + 8)];
+		long objOfsInFile = ofsAndArrayBit & ~ARRAY_MASK;
+		int[] tagsChunk = tags[objIdx >> TAGS_CHUNK_MAGNITUDE];
+		int tagsPos = objIdx & POS_IN_TAGS_CHUNK_MASK;
+		if ((ofsAndArrayBit & ARRAY_MASK) != 0) {
+			int length = region.getInt(posInRegion + 12);
+			if (clazz.isSingleDimPrimitiveArray()) {
+				return new JavaValueArray(clazz, objOfsInFile, length, tagsChunk, tagsPos, globalIndex);
+			} else {
+				return new JavaObjectArray(clazz, objOfsInFile, length, tagsChunk, tagsPos, globalIndex);
+			}
+		} else {
+			return new JavaObject(clazz, objOfsInFile, tagsChunk, tagsPos, globalIndex);
+		}
+	}
+
+	@Override
+	int size() {
+		return numObjs;
+	}
+
+	@Override
+	Collection<JavaLazyReadObject> getObjects() {
+		return new AbstractCollection<JavaLazyReadObject>() {
+			@Override
+			public Iterator<JavaLazyReadObject> iterator() {
+				return new ObjIterator(false);
+			}
+
+			@Override
+			public int size() {
+				return numObjs;
+			}
+		};
+	}
+
+	@Override
+	Collection<JavaLazyReadObject> getUnvisitedObjects() {
+		return new AbstractCollection<JavaLazyReadObject>() {
+			@Override
+			public Iterator<JavaLazyReadObject> iterator() {
+				return new ObjIterator(true);
+			}
+
+			@Override
+			public int size() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	private class ObjIterator implements Iterator<JavaLazyReadObject> {
+		private final boolean skipVisited;
+		private int nextObjIdx;
+
+		ObjIterator(boolean skipVisited) {
+			this.skipVisited = skipVisited;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (skipVisited) {
+				while (nextObjIdx < numObjs && JavaLazyReadObject
+						.isVisited(tags[nextObjIdx >> TAGS_CHUNK_MAGNITUDE][nextObjIdx & POS_IN_TAGS_CHUNK_MASK])) {
+					nextObjIdx++;
+				}
+			}
+			return nextObjIdx < numObjs;
+		}
+
+		@Override
+		public JavaLazyReadObject next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			int objIdx = nextObjIdx++;
+			return getObject(objIdx + 1);
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	static class Builder extends ObjectTable.Builder {
+		private static final int MAX_OBJECTS = Integer.MAX_VALUE - 1;
+
+		private final File file;
+		private final RandomAccessFile raf;
+		private final ArrayList<ByteBuffer> regions = new ArrayList<>();
+		private final ArrayList<int[]> tagsChunks = new ArrayList<>();
+
+		private ByteBuffer curRegion;
+		private int posInCurRegion = (int) REGION_SIZE;
+		private int numObjs;
+
+		/**
+		 * Creates a builder that keeps the table in a temporary file in the given directory, or in
+		 * the default temporary file directory if dir is null.
+		 */
+		Builder(File dir) throws IOException {
+			file = File.createTempFile("joverflow", ".objtable", dir);
+			file.deleteOnExit();
+			raf = new RandomAccessFile(file, "rw");
+		}
+
+		@Override
+		int addJavaObject(int classIdx, long objOfsInFile) {
+			return addRecord(objOfsInFile, classIdx, 0);
+		}
+
+		@Override
+		int addJavaArray(int classIdx, long objOfsInFile, int length) {
+			return addRecord(objOfsInFile | ARRAY_MASK, classIdx, length);
+		}
+
+		@Override
+		int getNumObjects() {
+			return numObjs;
+		}
+
+		@Override
+		MappedObjectTable build(JavaClass[] classes) {
+			try {
+				raf.close();
+			} catch (IOException ex) {
+				// Mapped regions stay valid after the file is closed, so we don't care
+			}
+			file.delete();
+			return new MappedObjectTable(regions.toArray(new ByteBuffer[regions.size()]),
+					tagsChunks.toArray(new int[tagsChunks.size()][]), classes, numObjs);
+		}
+
+		private int addRecord(long ofsAndArrayBit, int classIdx, int length) {
+			if (numObjs == MAX_OBJECTS) {
+				throw new IllegalStateException("Too many objects for the object table: " + numObjs);
+			}
+			if (posInCurRegion == REGION_SIZE) {
+				addRegion();
+			}
+			if ((numObjs & POS_IN_TAGS_CHUNK_MASK) == 0) {
+				tagsChunks.add(new int[TAGS_CHUNK_SIZE]);
+			}
+			curRegion.putLong(posInCurRegion, ofsAndArrayBit);
+			curRegion.putInt(posInCurRegion + 8, classIdx);
+			curRegion.putInt(posInCurRegion + 12, length);
+			posInCurRegion += RECORD_SIZE;
+			return ++numObjs; // Global index is object number plus one
+		}
+
+		private void addRegion() {
+			try {
+				curRegion = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, regions.size() * REGION_SIZE,
+						REGION_SIZE);
+			} catch (IOException ex) {
+				throw new RuntimeException("Could not map the object table file " + file, ex);
+			}
+			regions.add(curRegion);
+			posInCurRegion = 0;
+		}
+	}
+}
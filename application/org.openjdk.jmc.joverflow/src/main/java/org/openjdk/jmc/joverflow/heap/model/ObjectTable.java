@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.joverflow.heap.model;
+
+import java.util.Collection;
+
+/**
+ * Contains the base information about all instances and arrays (but not classes) of the heap dump,
+ * and creates instances of JavaLazyReadObject from it. Each object in the table has a positive int
+ * index, that is returned by {@link JavaHeapObject#getGlobalObjectIndex()}. Indices are assigned in
+ * the order in which objects are added to the table, but they are not necessarily consecutive.
+ * <p>
+ * There are two implementations. {@link JavaObjectTable} keeps the table in the Java heap in a
+ * very compact form, but can hold at most ~613 million objects. {@link MappedObjectTable} keeps
+ * most of the table in a memory-mapped file outside the Java heap, takes a little more space per
+ * object, and can hold as many objects as there are positive int numbers.
+ */
+abstract class ObjectTable {
+
+	/**
+	 * Returns the object with the given global index.
+	 */
+	abstract JavaLazyReadObject getObject(int globalIndex);
+
+	abstract int size();
+
+	/**
+	 * Returns all objects in the table, in the order of their global indices.
+	 */
+	abstract Collection<JavaLazyReadObject> getObjects();
+
+	/**
+	 * Returns all objects in the table that are not visited, in the order of their global indices.
+	 * An object visited while iterating over the result may or may not be skipped by the iterator.
+	 */
+	abstract Collection<JavaLazyReadObject> getUnvisitedObjects();
+
+	abstract static class Builder {
+
+		/**
+		 * Adds an instance to the table and returns its global index.
+		 */
+		abstract int addJavaObject(int classIdx, long objOfsInFile);
+
+		/**
+		 * Adds an array to the table and returns its global index.
+		 */
+		abstract int addJavaArray(int classIdx, long objOfsInFile, int length);
+
+		abstract int getNumObjects();
+
+		abstract ObjectTable build(JavaClass[] classes);
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -32,6 +32,7 @@
  */
 package org.openjdk.jmc.joverflow.heap.model;
 
+import java.io.File;
 import java.io.IOException;
 import java.lang.ref.SoftReference;
 import java.util.ArrayList;
@@ -79,7 +80,7 @@ public class Snapshot {
 	/** All GC roots in this heap dump */
 	private final ArrayList<Root> roots;
 
-	private final JavaObjectTable objectTable;
+	private final ObjectTable objectTable;
 
 	private final NumberToIntMap objIdToPosInObjectTable;
 
@@ -139,7 +140,7 @@ public class Snapshot {
 	private final VerboseOutputCollector vc;
 
 	private Snapshot(int hprofPointerSize, int pointerSize, int objHeaderSize, int objAlignment,
-			boolean usingNarrowPointers, long roughTotalObjectSize, ArrayList<Root> roots, JavaObjectTable objectTable,
+			boolean usingNarrowPointers, long roughTotalObjectSize, ArrayList<Root> roots, ObjectTable objectTable,
 			NumberToIntMap objIdToPosInObjectTable, JavaClass[] classes,
 			HashMap<String, JavaClass> classNameToJavaClass, LongToObjectMap<JavaClass> classIdToJavaClass,
 			ReadBuffer readBuf, VerboseOutputCollector vc, boolean unresolvedObjectsOk) {
@@ -486,6 +487,13 @@ public class Snapshot {
 		 */
 		private static final int EXPECTED_OBJ_SIZE_IN_FILE = 70;
 
+		/**
+		 * Heap dumps bigger than this are read into a MappedObjectTable. With the above expected
+		 * object size, JavaObjectTable can accomodate the objects of a ~43GB heap dump, so we switch
+		 * a bit earlier, in case the objects in the dump are smaller than usual.
+		 */
+		private static final long DEFAULT_MAPPED_OBJ_TABLE_THRESHOLD = 32L * 1024 * 1024 * 1024;
+
 		private int hprofPointerSize;
 
 		/** Object pointer size in the JVM that generated this heap dump */
@@ -497,9 +505,12 @@ public class Snapshot {
 
 		private static ObjTableSizePolicy objTableSizePolicy;
 
+		private static long mappedObjTableThreshold = DEFAULT_MAPPED_OBJ_TABLE_THRESHOLD;
+		private static File mappedObjTableDir;
+
 		private final ArrayList<Root> roots = new ArrayList<>();
 
-		private final JavaObjectTable.Builder objTableBuilder;
+		private final ObjectTable.Builder objTableBuilder;
 
 		private final NumberToIntMap objIdToPosInObjectTable;
 
@@ -566,7 +577,7 @@ public class Snapshot {
 
 			// Set the approximate size for objIdToPosInObjectTable to avoid excessive rehashing
 			int objTableSize = objTableSizePolicy != null ? objTableSizePolicy.getInitialObjTableSize(hprofFileSize)
-					: (int) (hprofFileSize / EXPECTED_OBJ_SIZE_IN_FILE);
+					: (int) Math.min(hprofFileSize / EXPECTED_OBJ_SIZE_IN_FILE, Integer.MAX_VALUE);
 			if (pointerSize == 4) {
 				objIdToPosInObjectTable = new IntToIntMap(objTableSize);
 			} else {
@@ -574,7 +585,15 @@ public class Snapshot {
 			}
 
 			classList = new ArrayList<>(objTableSize / 2000);
-			objTableBuilder = new JavaObjectTable.Builder(hprofFileSize);
+			if (hprofFileSize > mappedObjTableThreshold) {
+				try {
+					objTableBuilder = new MappedObjectTable.Builder(mappedObjTableDir);
+				} catch (IOException ex) {
+					throw new RuntimeException("Could not create the object table file", ex);
+				}
+			} else {
+				objTableBuilder = new JavaObjectTable.Builder(hprofFileSize);
+			}
 
 			classIdToJavaClass = new LongToObjectMap<>(objTableSize / 2000, false);
 			classNameToJavaClass = new HashMap<>(objTableSize / 2000);
@@ -588,6 +607,25 @@ public class Snapshot {
 			objTableSizePolicy = policy;
 		}
 
+		/**
+		 * Sets the .hprof file size above which the objects of a heap dump are kept in a table
+		 * outside the Java heap, in a memory-mapped temporary file. Such a table can hold more than
+		 * ~613 million objects, that the default in-heap table is limited to. By default, it's used
+		 * for files bigger than 32GB. Pass 0 to always use it, or Long.MAX_VALUE to never use it.
+		 */
+		public static void setMappedObjTableThreshold(long hprofFileSize) {
+			mappedObjTableThreshold = hprofFileSize;
+		}
+
+		/**
+		 * Sets the directory for the temporary file of the object table that is used for big heap
+		 * dumps, see {@link #setMappedObjTableThreshold(long)}. If it's null, which is the default,
+		 * the default temporary file directory is used.
+		 */
+		public static void setMappedObjTableDir(File dir) {
+			mappedObjTableDir = dir;
+		}
+
 		/**
 		 * Perform potentially memory-consuming operations once all objects are read. This should be
 		 * called before buildSnapshot(), i.e. before a ReadBuffer, that may take quite some memory,
@@ -602,7 +640,7 @@ public class Snapshot {
 			checkForMissingJavaClasses();
 
 			JavaClass[] classes = classList.toArray(new JavaClass[classList.size()]);
-			JavaObjectTable objectTable = objTableBuilder.buildJavaObjectTable(classes);
+			ObjectTable objectTable = objTableBuilder.build(classes);
 			resolveSuperclasses(classes);
 			recheckPointerSize(objectTable, readBuf);
 			roots.sort(null); // More interesting roots will be scanned first
@@ -820,7 +858,7 @@ public class Snapshot {
 		 * size in the JVM that generated this heap dump. This is only relevant for 64-bit heap
 		 * dumps.
 		 */
-		private void recheckPointerSize(JavaObjectTable objectTable, ReadBuffer readBuf) {
+		private void recheckPointerSize(ObjectTable objectTable, ReadBuffer readBuf) {
 			if (hprofPointerSize == 4) {
 				return; // 32-bit mode, nothing to check
 			}
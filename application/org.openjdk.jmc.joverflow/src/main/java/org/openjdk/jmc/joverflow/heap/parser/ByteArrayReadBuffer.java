@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -71,6 +71,11 @@ public class ByteArrayReadBuffer extends ReadBuffer {
 		return (((long) getInt(pos)) << 32) | ((getInt(pos + 4)) & 0xFFFFFFFFL);
 	}
 
+	@Override
+	public boolean supportsConcurrentReads() {
+		return true;
+	}
+
 	@Override
 	public void close() {
 		// Nothing to do
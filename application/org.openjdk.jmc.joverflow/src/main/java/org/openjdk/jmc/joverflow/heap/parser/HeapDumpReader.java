@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -58,7 +58,18 @@ public abstract class HeapDumpReader {
 	public static HeapDumpReader createReader(
 		ReadBuffer.Factory bufFactory, int explicitPointerSize, VerboseOutputCollector vc)
 			throws DumpCorruptedException {
-		return new HprofReader(bufFactory, false, explicitPointerSize, vc);
+		return createReader(bufFactory, explicitPointerSize, Runtime.getRuntime().availableProcessors(), vc);
+	}
+
+	/**
+	 * Create a reader for a heap dump, like {@link #createReader(ReadBuffer.Factory, int, VerboseOutputCollector)},
+	 * that uses the given number of threads to parse the segments of a segmented heap dump. If
+	 * parserThreads is 1, everything is parsed by the thread calling read().
+	 */
+	public static HeapDumpReader createReader(
+		ReadBuffer.Factory bufFactory, int explicitPointerSize, int parserThreads, VerboseOutputCollector vc)
+			throws DumpCorruptedException {
+		return new HprofReader(bufFactory, false, explicitPointerSize, parserThreads, vc);
 	}
 
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -38,10 +38,20 @@ import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.openjdk.jmc.joverflow.heap.model.ArrayTypeCodes;
 import org.openjdk.jmc.joverflow.heap.model.JavaBoolean;
@@ -61,6 +71,8 @@ import org.openjdk.jmc.joverflow.heap.model.Snapshot;
 import org.openjdk.jmc.joverflow.heap.model.StackFrame;
 import org.openjdk.jmc.joverflow.heap.model.StackTrace;
 import org.openjdk.jmc.joverflow.util.FileUtils;
+import org.openjdk.jmc.joverflow.util.IntArrayList;
+import org.openjdk.jmc.joverflow.util.LongArrayList;
 import org.openjdk.jmc.joverflow.util.LongToObjectMap;
 import org.openjdk.jmc.joverflow.util.MiscUtils;
 import org.openjdk.jmc.joverflow.util.VerboseOutputCollector;
@@ -187,12 +199,30 @@ class HprofReader extends HeapDumpReader /* imports */ implements ArrayTypeCodes
 	// If > 0, use this instead of the value that we half-read/half-guess from the snapshot
 	private final int explicitPointerSize;
 
+	// Number of threads used to parse heap dump segments. If it's 1, each segment is parsed as
+	// soon as it's found in the file; otherwise segments are first indexed, then parsed together.
+	private final int parserThreads;
+
+	// Heap dump segments that have been indexed but not parsed yet
+	private final ArrayList<HeapDumpSegment> segments = new ArrayList<>();
+
+	// Total length of indexed segments that have not been parsed yet, used for progress tracking
+	private final AtomicLong unparsedSegmentBytes = new AtomicLong();
+
+	private final SnapshotSink snapshotSink = new SnapshotSink();
+
+	// Maximum number of records in a batch handed over from a parser thread. Changed in tests.
+	static int batchRecords = 64 * 1024;
+
+	// Maximum number of batches of a segment that are parsed ahead of the ones added to the snapshot
+	private static final int MAX_QUEUED_BATCHES = 4;
+
 	// Diagnostics and progress tracking
 	private final VerboseOutputCollector vc;
 	private volatile boolean cancelled;
 
-	HprofReader(ReadBuffer.Factory bufFactory, boolean callStack, int explicitPointerSize, VerboseOutputCollector vc)
-			throws DumpCorruptedException {
+	HprofReader(ReadBuffer.Factory bufFactory, boolean callStack, int explicitPointerSize, int parserThreads,
+			VerboseOutputCollector vc) throws DumpCorruptedException {
 		this.bufFactory = bufFactory;
 		String fileName = bufFactory.getFileName();
 		int dumpNumber = 1;
@@ -231,6 +261,7 @@ class HprofReader extends HeapDumpReader /* imports */ implements ArrayTypeCodes
 
 		this.dumpsToSkip = dumpNumber - 1;
 		this.explicitPointerSize = explicitPointerSize;
+		this.parserThreads = Math.max(1, parserThreads);
 		names = new LongToObjectMap<>((int) (fileSize / 100000), false);
 		threadObjects = new HashMap<>(43);
 		classNameFromObjectID = new LongToObjectMap<>(1000, false);
@@ -321,7 +352,7 @@ class HprofReader extends HeapDumpReader /* imports */ implements ArrayTypeCodes
 	@Override
 	public synchronized int getProgressPercentage() {
 		if (in != null) {
-			return (int) (in.position() * 100 / fileSize);
+			return (int) ((in.position() - unparsedSegmentBytes.get()) * 100 / fileSize);
 		} else {
 			return 0;
 		}
@@ -350,7 +381,7 @@ class HprofReader extends HeapDumpReader /* imports */ implements ArrayTypeCodes
 		skipBytes(8); // long creationDate = in.readLong();
 //		System.out.println("Dump file created " + (new Date(creationDate)));
 
-		while (true) {
+		readRecords: while (true) {
 			int type;
 			try {
 				type = in.readUnsignedByte();
@@ -379,7 +410,7 @@ class HprofReader extends HeapDumpReader /* imports */ implements ArrayTypeCodes
 				long classID = readID();
 				in.readInt(); // int stackTraceSerialNo, unused
 				long classNameID = readID();
-				String nm = getNameFromID(classNameID).replace('/', '.');
+				String nm = getNameFromID(classNameID, snapshotSink).replace('/', '.');
 				classNameFromObjectID.put(classID, nm);
 				if (classNameFromSerialNo != null) {
 					classNameFromSerialNo.put(serialNo, nm);
@@ -389,9 +420,10 @@ class HprofReader extends HeapDumpReader /* imports */ implements ArrayTypeCodes
 
 			case HPROF_HEAP_DUMP: {
 				if (dumpsToSkip <= 0) {
+					parseSegments();
 					try {
 						vc.debug("Sub-dump of length " + length + " starts at position " + in.position());
-						readHeapDump(length);
+						new HeapDumpParser(in, snapshotSink, false).readHeapDump(length);
 					} catch (EOFException exp) {
 						handleEOF(exp);
 					}
@@ -408,6 +440,7 @@ class HprofReader extends HeapDumpReader /* imports */ implements ArrayTypeCodes
 				if (version >= VERSION_JDK6) {
 					if (dumpsToSkip <= 0) {
 						skipBytes(length); // should be no-op
+						parseSegments();
 						return;
 					} else {
 						// skip this dump (of the end record for a sequence of dump segments)
@@ -424,12 +457,26 @@ class HprofReader extends HeapDumpReader /* imports */ implements ArrayTypeCodes
 			case HPROF_HEAP_DUMP_SEGMENT: {
 				if (version >= VERSION_JDK6) {
 					if (dumpsToSkip <= 0) {
-						try {
-							vc.debug("Segment of length " + length + " starts at position " + in.position());
-							// read the dump segment
-							readHeapDump(length);
-						} catch (EOFException exp) {
-							handleEOF(exp);
+						vc.debug("Segment of length " + length + " starts at position " + in.position());
+						if (parserThreads > 1) {
+							// Only remember where the segment is, it's parsed later along with the others
+							long segmentStart = in.position();
+							segments.add(new HeapDumpSegment(segmentStart, length));
+							unparsedSegmentBytes.addAndGet(length);
+							if (segmentStart + length > fileSize) {
+								// Truncated dump. Parsing this segment will run into the end of file
+								break readRecords;
+							}
+							skipBytes(length);
+						} else {
+							try {
+								// read the dump segment
+								new HeapDumpParser(in, snapshotSink, false).readHeapDump(length);
+							} catch (EOFException exp) {
+								handleEOF(exp);
+								// Whatever is left of the file is not a record
+								break readRecords;
+							}
 						}
 					} else {
 						// all segments comprising the heap dump will be skipped
@@ -448,9 +495,9 @@ class HprofReader extends HeapDumpReader /* imports */ implements ArrayTypeCodes
 					skipBytes(length);
 				} else {
 					long id = readID();
-					String methodName = getNameFromID(readID());
-					String methodSig = getNameFromID(readID());
-					String sourceFile = getNameFromID(readID());
+					String methodName = getNameFromID(readID(), snapshotSink);
+					String methodSig = getNameFromID(readID(), snapshotSink);
+					String sourceFile = getNameFromID(readID(), snapshotSink);
 					int classSer = in.readInt();
 					String className = classNameFromSerialNo.get(Integer.valueOf(classSer));
 					int lineNumber = in.readInt();
@@ -502,12 +549,26 @@ class HprofReader extends HeapDumpReader /* imports */ implements ArrayTypeCodes
 			}
 			}
 		}
+		parseSegments();
 	}
 
 	private void skipBytes(long length) throws IOException, DumpCorruptedException {
+		skipBytes(in, length);
+	}
+
+	private void skipBytes(PositionDataInputStream in, long length) throws IOException, DumpCorruptedException {
+		skipBytes(in, length, fileSize);
+	}
+
+	/**
+	 * Skips length bytes of the stream, which may be more than fit in an int, in chunks of at most
+	 * Integer.MAX_VALUE bytes.
+	 */
+	static void skipBytes(PositionDataInputStream in, long length, long fileSize)
+			throws IOException, DumpCorruptedException {
 		long remainingBytes = length;
 		do {
-			int skippedBytes = in.skipBytes((int) length);
+			int skippedBytes = in.skipBytes((int) Math.min(remainingBytes, Integer.MAX_VALUE));
 			remainingBytes -= skippedBytes;
 			if (remainingBytes > 0) {
 				if (in.position() >= fileSize) {
@@ -544,485 +605,991 @@ class HprofReader extends HeapDumpReader /* imports */ implements ArrayTypeCodes
 		throw new DumpCorruptedException("version string not recognized at byte " + (pos + 3));
 	}
 
-	private void readHeapDump(long dumpLength)
+	private long readID() throws IOException {
+		return readID(in);
+	}
+
+	private long readID(PositionDataInputStream in) throws IOException {
+		return (identifierSize == 4) ? (Snapshot.SMALL_ID_MASK & in.readInt()) : in.readLong();
+	}
+
+	private ThreadObject getThreadObjectFromSequence(int threadSeq) throws DumpCorruptedException, IOException {
+		ThreadObject to = threadObjects.get(Integer.valueOf(threadSeq));
+		if (to == null) {
+			throw new DumpCorruptedException("thread " + threadSeq + " not found for JNI local ref");
+		}
+		return to;
+	}
+
+	private String getNameFromID(long id, HeapDumpSink sink) {
+		if (id == 0L) {
+			return "";
+		}
+		String result = names.get(id);
+		if (result == null) {
+			sink.addWarning("name not found", "at " + toHex(id));
+			return "unresolved name " + toHex(id);
+		}
+		return result;
+	}
+
+	private StackTrace getStackTraceFromSerial(int ser) throws IOException {
+		if (stackTraces == null) {
+			return null;
+		}
+		StackTrace result = stackTraces.get(Integer.valueOf(ser));
+		if (result == null) {
+			vc.addWarning("Stack trace not found", "for serial # " + ser);
+		}
+		return result;
+	}
+
+	private String toHex(long addr) {
+		return MiscUtils.toHex(addr);
+	}
+
+	private byte signatureFromTypeId(byte typeId) throws DumpCorruptedException, IOException {
+		switch (typeId) {
+		case T_CLASS:
+			return (byte) 'L';
+		case T_BOOLEAN:
+			return (byte) 'Z';
+		case T_CHAR:
+			return (byte) 'C';
+		case T_FLOAT:
+			return (byte) 'F';
+		case T_DOUBLE:
+			return (byte) 'D';
+		case T_BYTE:
+			return (byte) 'B';
+		case T_SHORT:
+			return (byte) 'S';
+		case T_INT:
+			return (byte) 'I';
+		case T_LONG:
+			return (byte) 'J';
+		default:
+			throw new DumpCorruptedException("invalid type id of " + typeId);
+		}
+	}
+
+	/**
+	 * Parses the heap dump segments indexed so far. Segments are parsed by several threads, each
+	 * into batches of {@link SegmentRecords}, which are added to the snapshot in file order as soon
+	 * as they are parsed. Thus the snapshot is built exactly as if the segments were parsed one
+	 * after another. To bound the memory used by the records, only a limited number of segments are
+	 * parsed ahead of the one that is being added, and each of them only a few batches ahead.
+	 */
+	private void parseSegments() throws DumpCorruptedException, IOException, HprofParsingCancelledException {
+		if (segments.isEmpty()) {
+			return;
+		}
+		vc.debug("Parsing " + segments.size() + " heap dump segments using " + parserThreads + " threads");
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(parserThreads, segments.size()), r -> {
+			Thread thread = new Thread(r, "JOverflow heap dump parser");
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			ArrayDeque<SegmentBatches> parsedSegments = new ArrayDeque<>();
+			int nextSegment = 0;
+			while (nextSegment < segments.size() || !parsedSegments.isEmpty()) {
+				while (nextSegment < segments.size() && parsedSegments.size() < 2 * parserThreads) {
+					HeapDumpSegment segment = segments.get(nextSegment++);
+					SegmentBatches batches = new SegmentBatches();
+					batches.task = executor.submit(() -> parseSegment(segment, batches));
+					parsedSegments.add(batches);
+				}
+				SegmentBatches batches = parsedSegments.remove();
+				SegmentRecords records;
+				do {
+					records = batches.take();
+					records.replay(snapshotSink);
+					checkForCancellation();
+				} while (!records.last);
+				getSegmentResult(batches.task);
+				if (records.eof != null) {
+					handleEOF(records.eof);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+			segments.clear();
+			unparsedSegmentBytes.set(0);
+		}
+	}
+
+	/**
+	 * Parses one heap dump segment, reading it through a stream of its own. Called from the parser
+	 * threads. The last batch is always handed over, also when parsing fails, so that the thread
+	 * adding the batches to the snapshot doesn't wait forever.
+	 */
+	private Void parseSegment(HeapDumpSegment segment, SegmentBatches batches)
 			throws DumpCorruptedException, IOException, HprofParsingCancelledException {
-		long startPos = in.position();
-		long endPos = startPos + dumpLength;
-		// "Chunks" below are used to check for cancellation periodically
-		int curChunk = (int) (in.position() >> 19); // Check every 512K
-
-		long id, pos;
-		while ((pos = in.position()) < endPos) {
-			int recordType = in.readUnsignedByte();
-
-			int newCurChunk = (int) (pos >> 19);
-			if (newCurChunk > curChunk) {
-				curChunk = newCurChunk;
-				checkForCancellation();
+		EOFException eof = null;
+		try {
+			PositionDataInputStream segmentIn = openSegmentStream(segment.start);
+			HeapDumpParser parser = new HeapDumpParser(segmentIn, batches, true);
+			try {
+				parser.readHeapDump(segment.length);
+			} catch (EOFException exp) {
+				eof = exp;
+			} finally {
+				segmentIn.close();
+				parser.reportProgress(segment.start + segment.length);
 			}
+		} finally {
+			batches.finish(eof);
+		}
+		return null;
+	}
 
-			switch (recordType) {
-			case HPROF_GC_INSTANCE_DUMP: {
-				readInstance();
-				break;
+	private PositionDataInputStream openSegmentStream(long position) throws IOException {
+		InputStream segmentIn;
+		if (hprofFile != null) {
+			FileInputStream fileIn = new FileInputStream(hprofFile);
+			try {
+				fileIn.getChannel().position(position);
+			} catch (IOException ex) {
+				fileIn.close();
+				throw ex;
 			}
-			case HPROF_GC_OBJ_ARRAY_DUMP: {
-				readArray(false);
-				break;
+			segmentIn = new BufferedInputStream(fileIn);
+		} else {
+			int offset = (int) position;
+			segmentIn = new ByteArrayInputStream(fileImageBytes, offset, fileImageBytes.length - offset);
+		}
+		return new PositionDataInputStream(new PositionInputStream(segmentIn, position));
+	}
+
+	private static void getSegmentResult(Future<Void> future)
+			throws DumpCorruptedException, IOException, HprofParsingCancelledException {
+		try {
+			future.get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new HprofParsingCancelledException();
+		} catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof DumpCorruptedException) {
+				throw (DumpCorruptedException) cause;
+			} else if (cause instanceof IOException) {
+				throw (IOException) cause;
+			} else if (cause instanceof HprofParsingCancelledException) {
+				throw (HprofParsingCancelledException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
 			}
-			case HPROF_GC_PRIM_ARRAY_DUMP: {
-				readArray(true);
-				break;
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	private void handlePossibleBBBorder(long thisObjStartOfs) {
+		if (thisObjStartOfs >= currentBBMaxOfs) {
+			if (prevObjStartOfs > 0) {
+				// Normal case
+				mappedBBEndOfs.add(prevObjStartOfs - 1);
+			} else {
+				// Seems to happen only in tests, when maxBBSize is small
+				mappedBBEndOfs.add(Long.valueOf(MAX_BB_SIZE));
 			}
+			currentBBMaxOfs = mappedBBEndOfs.get(mappedBBEndOfs.size() - 1) + MAX_BB_SIZE;
+		}
+		prevObjStartOfs = thisObjStartOfs;
+	}
 
-			case HPROF_GC_ROOT_UNKNOWN: {
-				id = readID();
-				snpBuilder.addRoot(new Root(id, 0, Root.UNKNOWN, ""));
-				break;
+	private void handleEOF(EOFException exp) {
+		vc.addWarning("Unexpected EOF", "Will miss information");
+		// we have EOF, we have to tolerate missing references
+		snpBuilder.setUnresolvedObjectsOk(true);
+	}
+
+	private void checkForCancellation() throws HprofParsingCancelledException {
+		if (cancelled) {
+			throw new HprofParsingCancelledException();
+		}
+	}
+
+	/**
+	 * Receives the contents of a heap dump, or a heap dump segment, in the order it's read.
+	 */
+	private interface HeapDumpSink {
+		void addJavaObject(long id, long classID, long objOfsInFile, int objDataSize);
+
+		void addJavaObjectArray(long id, long classID, long objOfsInFile, int length, int objDataSize);
+
+		void addJavaValueArray(long id, char primitiveSignature, long objOfsInFile, int length, int objDataSize);
+
+		void addClass(ClassDump classDump);
+
+		void addThreadObject(long threadId, int threadSeq, int stackSeq);
+
+		/**
+		 * Adds a GC root of the given HPROF_GC_ROOT_* type. The thread sequence number and stack
+		 * depth are only meaningful for roots that refer to a thread.
+		 */
+		void addRoot(int rootType, long id, int threadSeq, int depth) throws DumpCorruptedException, IOException;
+
+		void addWarning(String warningKind, String msg);
+	}
+
+	/**
+	 * Adds the heap dump contents directly to the snapshot being built.
+	 */
+	private class SnapshotSink implements HeapDumpSink {
+		@Override
+		public void addJavaObject(long id, long classID, long objOfsInFile, int objDataSize) {
+			snpBuilder.addJavaObject(id, classID, objOfsInFile, objDataSize);
+			if (longFile) {
+				handlePossibleBBBorder(objOfsInFile);
 			}
-			case HPROF_GC_ROOT_THREAD_OBJ: {
-				id = readID();
-				int threadSeq = in.readInt();
-				int stackSeq = in.readInt();
-				threadObjects.put(threadSeq, new ThreadObject(id, stackSeq));
-				break;
+		}
+
+		@Override
+		public void addJavaObjectArray(long id, long classID, long objOfsInFile, int length, int objDataSize) {
+			snpBuilder.addJavaObjectArray(id, classID, objOfsInFile, length, objDataSize);
+			if (longFile) {
+				handlePossibleBBBorder(objOfsInFile);
+			}
+		}
+
+		@Override
+		public void addJavaValueArray(
+			long id, char primitiveSignature, long objOfsInFile, int length, int objDataSize) {
+			snpBuilder.addJavaValueArray(id, primitiveSignature, objOfsInFile, length, objDataSize);
+			if (longFile) {
+				handlePossibleBBBorder(objOfsInFile);
 			}
-			case HPROF_GC_ROOT_JNI_GLOBAL: {
-				id = readID();
-				readID(); // long globalRefId, ignored for now
+		}
+
+		@Override
+		public void addClass(ClassDump cd) {
+			JavaClass c = new JavaClass(cd.id, cd.name, cd.superId, cd.classLoaderId, cd.signersId, cd.protDomainId,
+					cd.fields, cd.staticFields, cd.staticValues, cd.fieldsSize,
+					snpBuilder.getInMemoryInstanceSize(cd.fieldsSize));
+			snpBuilder.addClass(c);
+		}
+
+		@Override
+		public void addThreadObject(long threadId, int threadSeq, int stackSeq) {
+			threadObjects.put(threadSeq, new ThreadObject(threadId, stackSeq));
+		}
+
+		@Override
+		public void addRoot(int rootType, long id, int threadSeq, int depth)
+				throws DumpCorruptedException, IOException {
+			switch (rootType) {
+			case HPROF_GC_ROOT_UNKNOWN:
+				snpBuilder.addRoot(new Root(id, 0, Root.UNKNOWN, ""));
+				break;
+			case HPROF_GC_ROOT_JNI_GLOBAL:
 				snpBuilder.addRoot(new Root(id, 0, Root.JNI_GLOBAL, ""));
 				break;
-			}
-			case HPROF_GC_ROOT_JNI_LOCAL: {
-				id = readID();
-				int threadSeq = in.readInt();
-				int depth = in.readInt();
-				ThreadObject to = getThreadObjectFromSequence(threadSeq);
-				StackTrace st = getStackTraceFromSerial(to.stackSeq);
-				if (st != null) {
-					st = st.traceForDepth(depth + 1);
-				}
-				snpBuilder.addRoot(new Root(id, to.threadId, Root.JNI_LOCAL, "", st));
+			case HPROF_GC_ROOT_JNI_LOCAL:
+				snpBuilder.addRoot(createThreadRoot(id, threadSeq, depth, Root.JNI_LOCAL));
 				break;
-			}
-			case HPROF_GC_ROOT_JAVA_FRAME: {
-				id = readID();
-				int threadSeq = in.readInt();
-				int depth = in.readInt();
-				ThreadObject to = getThreadObjectFromSequence(threadSeq);
-				StackTrace st = getStackTraceFromSerial(to.stackSeq);
-				if (st != null) {
-					st = st.traceForDepth(depth + 1);
-				}
-				snpBuilder.addRoot(new Root(id, to.threadId, Root.JAVA_LOCAL, "", st));
+			case HPROF_GC_ROOT_JAVA_FRAME:
+				snpBuilder.addRoot(createThreadRoot(id, threadSeq, depth, Root.JAVA_LOCAL));
 				break;
-			}
-			case HPROF_GC_ROOT_NATIVE_STACK: {
-				id = readID();
-				int threadSeq = in.readInt();
-				ThreadObject to = getThreadObjectFromSequence(threadSeq);
-				StackTrace st = getStackTraceFromSerial(to.stackSeq);
-				snpBuilder.addRoot(new Root(id, to.threadId, Root.NATIVE_STACK, "", st));
+			case HPROF_GC_ROOT_NATIVE_STACK:
+				snpBuilder.addRoot(createThreadRoot(id, threadSeq, -1, Root.NATIVE_STACK));
 				break;
-			}
-			case HPROF_GC_ROOT_STICKY_CLASS: {
-				id = readID();
+			case HPROF_GC_ROOT_STICKY_CLASS:
 				snpBuilder.addRoot(new Root(id, 0, Root.SYSTEM_CLASS, ""));
 				break;
-			}
-			case HPROF_GC_ROOT_THREAD_BLOCK: {
-				id = readID();
-				int threadSeq = in.readInt();
-				ThreadObject to = getThreadObjectFromSequence(threadSeq);
-				StackTrace st = getStackTraceFromSerial(to.stackSeq);
-				snpBuilder.addRoot(new Root(id, to.threadId, Root.THREAD_BLOCK, "", st));
+			case HPROF_GC_ROOT_THREAD_BLOCK:
+				snpBuilder.addRoot(createThreadRoot(id, threadSeq, -1, Root.THREAD_BLOCK));
 				break;
-			}
-			case HPROF_GC_ROOT_MONITOR_USED: {
-				id = readID();
+			case HPROF_GC_ROOT_MONITOR_USED:
 				snpBuilder.addRoot(new Root(id, 0, Root.BUSY_MONITOR, ""));
 				break;
-			}
-			case HPROF_GC_CLASS_DUMP: {
-				readClass();
-				break;
-			}
-			default: {
-				throw new DumpCorruptedException("unrecognized heap dump sub-record type:  " + recordType
-						+ ". Technical info: position = " + pos + ", bytes left = " + (endPos - pos));
-			}
+			default:
+				throw new IllegalArgumentException("Unexpected root type " + rootType);
 			}
 		}
 
-		if (pos != endPos) {
-			vc.addWarning("Error reading heap dump or heap dump segment",
-					"Byte count is " + pos + " instead of " + endPos + ". Difference is " + (endPos - pos));
-			skipBytes(endPos - pos);
+		/**
+		 * Creates a root referenced from a thread. If depth is negative, the root refers to the
+		 * whole stack trace of the thread rather than to a frame in it.
+		 */
+		private Root createThreadRoot(long id, int threadSeq, int depth, int type)
+				throws DumpCorruptedException, IOException {
+			ThreadObject to = getThreadObjectFromSequence(threadSeq);
+			StackTrace st = getStackTraceFromSerial(to.stackSeq);
+			if (st != null && depth >= 0) {
+				st = st.traceForDepth(depth + 1);
+			}
+			return new Root(id, to.threadId, type, "", st);
 		}
-	}
 
-	private long readID() throws IOException {
-		return (identifierSize == 4) ? (Snapshot.SMALL_ID_MASK & in.readInt()) : in.readLong();
+		@Override
+		public void addWarning(String warningKind, String msg) {
+			vc.addWarning(warningKind, msg);
+		}
 	}
 
 	/**
-	 * Read a java value. If result is non-null, it's expected to be an array of one element. We use
-	 * it to fake multiple return values. Returns the number of bytes read.
+	 * Hands over the contents of a heap dump segment from the thread parsing it to the thread adding
+	 * it to the snapshot, in batches of a bounded size. The parser thread waits when the thread
+	 * adding the batches is too far behind.
 	 */
-	private int readValue(JavaThing[] resultArr) throws DumpCorruptedException, IOException {
-		byte type = in.readByte();
-		return 1 + readValueForType(type, resultArr);
-	}
+	private static class SegmentBatches implements HeapDumpSink {
+		private final BlockingQueue<SegmentRecords> batches = new ArrayBlockingQueue<>(MAX_QUEUED_BATCHES);
+		private SegmentRecords current = new SegmentRecords();
+		Future<Void> task;
+
+		@Override
+		public void addJavaObject(long id, long classID, long objOfsInFile, int objDataSize) {
+			current.addJavaObject(id, classID, objOfsInFile, objDataSize);
+			handOverIfFull();
+		}
 
-	private int readValueForType(byte type, JavaThing[] resultArr) throws DumpCorruptedException, IOException {
-		if (version >= VERSION_JDK12BETA4) {
-			type = signatureFromTypeId(type);
+		@Override
+		public void addJavaObjectArray(long id, long classID, long objOfsInFile, int length, int objDataSize) {
+			current.addJavaObjectArray(id, classID, objOfsInFile, length, objDataSize);
+			handOverIfFull();
 		}
-		return readValueForTypeSignature(type, resultArr);
-	}
 
-	private int readValueForTypeSignature(byte type, JavaThing[] resultArr) throws DumpCorruptedException, IOException {
-		switch (type) {
-		case '[':
-		case 'L': {
-			long id = readID();
-			if (resultArr != null) {
-				resultArr[0] = new JavaObjectRef(id);
-			}
-			return identifierSize;
+		@Override
+		public void addJavaValueArray(
+			long id, char primitiveSignature, long objOfsInFile, int length, int objDataSize) {
+			current.addJavaValueArray(id, primitiveSignature, objOfsInFile, length, objDataSize);
+			handOverIfFull();
 		}
-		case 'Z': {
-			int b = in.readByte();
-			if (b != 0 && b != 1) {
-				vc.addWarning("Illegal boolean value read", Integer.toString(b));
-			}
-			if (resultArr != null) {
-				resultArr[0] = new JavaBoolean(b != 0);
-			}
-			return 1;
+
+		@Override
+		public void addClass(ClassDump classDump) {
+			current.addClass(classDump);
+			handOverIfFull();
 		}
-		case 'B': {
-			byte b = in.readByte();
-			if (resultArr != null) {
-				resultArr[0] = new JavaByte(b);
-			}
-			return 1;
+
+		@Override
+		public void addThreadObject(long threadId, int threadSeq, int stackSeq) {
+			current.addThreadObject(threadId, threadSeq, stackSeq);
+			handOverIfFull();
 		}
-		case 'S': {
-			short s = in.readShort();
-			if (resultArr != null) {
-				resultArr[0] = new JavaShort(s);
-			}
-			return 2;
+
+		@Override
+		public void addRoot(int rootType, long id, int threadSeq, int depth) {
+			current.addRoot(rootType, id, threadSeq, depth);
+			handOverIfFull();
 		}
-		case 'C': {
-			char ch = in.readChar();
-			if (resultArr != null) {
-				resultArr[0] = new JavaChar(ch);
-			}
-			return 2;
+
+		@Override
+		public void addWarning(String warningKind, String msg) {
+			current.addWarning(warningKind, msg);
+			handOverIfFull();
 		}
-		case 'I': {
-			int val = in.readInt();
-			if (resultArr != null) {
-				resultArr[0] = new JavaInt(val);
+
+		private void handOverIfFull() {
+			if (current.size() >= batchRecords) {
+				put(current);
+				current = new SegmentRecords();
 			}
-			return 4;
 		}
-		case 'J': {
-			long val = in.readLong();
-			if (resultArr != null) {
-				resultArr[0] = new JavaLong(val);
-			}
-			return 8;
+
+		/**
+		 * Hands over the last batch of the segment.
+		 *
+		 * @param eof
+		 *            non-null if the end of file was reached while parsing the segment
+		 */
+		void finish(EOFException eof) {
+			current.eof = eof;
+			current.last = true;
+			put(current);
+			current = null;
 		}
-		case 'F': {
-			float val = in.readFloat();
-			if (resultArr != null) {
-				resultArr[0] = new JavaFloat(val);
+
+		private void put(SegmentRecords records) {
+			try {
+				batches.put(records);
+			} catch (InterruptedException ex) {
+				// Parsing was stopped, nobody will take the batch
+				Thread.currentThread().interrupt();
+				throw new CancellationException();
 			}
-			return 4;
 		}
-		case 'D': {
-			double val = in.readDouble();
-			if (resultArr != null) {
-				resultArr[0] = new JavaDouble(val);
+
+		SegmentRecords take() throws HprofParsingCancelledException {
+			try {
+				return batches.take();
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new HprofParsingCancelledException();
 			}
-			return 8;
 		}
-		default: {
-			throw new DumpCorruptedException("Bad value signature:  " + type);
+	}
+
+	/**
+	 * Stores the contents of a part of a heap dump segment parsed in parallel with other segments,
+	 * so that they can later be added to the snapshot in file order. Values are kept in primitive
+	 * arrays to keep the overhead per object low.
+	 */
+	private static class SegmentRecords implements HeapDumpSink {
+		private static final int JAVA_OBJECT = 0;
+		private static final int JAVA_OBJECT_ARRAY = 1;
+		private static final int JAVA_VALUE_ARRAY = 2;
+		private static final int CLASS = 3;
+		private static final int THREAD_OBJECT = 4;
+		private static final int ROOT = 5;
+		private static final int WARNING = 6;
+
+		private final IntArrayList kinds = new IntArrayList(1024);
+		private final LongArrayList longs = new LongArrayList(3072);
+		private final IntArrayList ints = new IntArrayList(2048);
+		private final ArrayList<Object> others = new ArrayList<>();
+
+		// True for the last batch of a segment
+		boolean last;
+
+		// Non-null if the end of file was reached while parsing the segment
+		EOFException eof;
+
+		int size() {
+			return kinds.size();
 		}
+
+		@Override
+		public void addJavaObject(long id, long classID, long objOfsInFile, int objDataSize) {
+			kinds.add(JAVA_OBJECT);
+			longs.add(id);
+			longs.add(classID);
+			longs.add(objOfsInFile);
+			ints.add(objDataSize);
 		}
-	}
 
-	private ThreadObject getThreadObjectFromSequence(int threadSeq) throws DumpCorruptedException, IOException {
-		ThreadObject to = threadObjects.get(Integer.valueOf(threadSeq));
-		if (to == null) {
-			throw new DumpCorruptedException("thread " + threadSeq + " not found for JNI local ref");
+		@Override
+		public void addJavaObjectArray(long id, long classID, long objOfsInFile, int length, int objDataSize) {
+			kinds.add(JAVA_OBJECT_ARRAY);
+			longs.add(id);
+			longs.add(classID);
+			longs.add(objOfsInFile);
+			ints.add(length);
+			ints.add(objDataSize);
 		}
-		return to;
-	}
 
-	private String getNameFromID(long id) throws IOException {
-		if (id == 0L) {
-			return "";
+		@Override
+		public void addJavaValueArray(
+			long id, char primitiveSignature, long objOfsInFile, int length, int objDataSize) {
+			kinds.add(JAVA_VALUE_ARRAY);
+			longs.add(id);
+			longs.add(objOfsInFile);
+			ints.add(primitiveSignature);
+			ints.add(length);
+			ints.add(objDataSize);
 		}
-		String result = names.get(id);
-		if (result == null) {
-			vc.addWarning("name not found", "at " + toHex(id));
-			return "unresolved name " + toHex(id);
+
+		@Override
+		public void addClass(ClassDump classDump) {
+			kinds.add(CLASS);
+			others.add(classDump);
 		}
-		return result;
-	}
 
-	private StackTrace getStackTraceFromSerial(int ser) throws IOException {
-		if (stackTraces == null) {
-			return null;
+		@Override
+		public void addThreadObject(long threadId, int threadSeq, int stackSeq) {
+			kinds.add(THREAD_OBJECT);
+			longs.add(threadId);
+			ints.add(threadSeq);
+			ints.add(stackSeq);
 		}
-		StackTrace result = stackTraces.get(Integer.valueOf(ser));
-		if (result == null) {
-			vc.addWarning("Stack trace not found", "for serial # " + ser);
+
+		@Override
+		public void addRoot(int rootType, long id, int threadSeq, int depth) {
+			kinds.add(ROOT);
+			longs.add(id);
+			ints.add(rootType);
+			ints.add(threadSeq);
+			ints.add(depth);
 		}
-		return result;
-	}
 
-	/** Handles a HPROF_GC_CLASS_DUMP. Returns the number of bytes read. */
-	private int readClass() throws DumpCorruptedException, IOException {
-		long id = readID();
-		skipBytes(4); // StackTrace stackTrace = getStackTraceFromSerial(in.readInt());
-		long superId = readID();
-		long classLoaderId = readID();
-		long signersId = readID();
-		long protDomainId = readID();
-		readID(); // long reserved1, unused
-		readID(); // long reserved2, unused
-		int fieldsSize = in.readInt();
-		int bytesRead = 7 * identifierSize + 8;
-
-		int numConstPoolEntries = in.readUnsignedShort();
-		bytesRead += 2;
-		for (int i = 0; i < numConstPoolEntries; i++) {
-			in.readUnsignedShort(); // int index, unused
-			bytesRead += 2;
-			bytesRead += readValue(null); // We ignore the values
-		}
-
-		int numStatics = in.readUnsignedShort();
-		bytesRead += 2;
-		// We may need additional quasi-fields for signers and protection domain
-		int numQuasiFields = (signersId != 0 || protDomainId != 0) ? 2 : 0;
-		int nAllStatics = numStatics + numQuasiFields;
-		JavaField[] staticFields = nAllStatics > 0 ? new JavaField[nAllStatics] : JavaClass.NO_FIELDS;
-		JavaThing[] staticValues = nAllStatics > 0 ? new JavaThing[nAllStatics] : JavaClass.NO_VALUES;
-		if (numStatics > 0) {
-			JavaThing[] valueBin = new JavaThing[1];
-			for (int i = 0; i < numStatics; i++) {
-				long nameId = readID();
-				bytesRead += identifierSize;
-				byte type = in.readByte();
-				bytesRead++;
-				bytesRead += readValueForType(type, valueBin);
-				String fieldName = getNameFromID(nameId);
-				if (version >= VERSION_JDK12BETA4) {
-					type = signatureFromTypeId(type);
+		@Override
+		public void addWarning(String warningKind, String msg) {
+			kinds.add(WARNING);
+			others.add(new String[] {warningKind, msg});
+		}
+
+		/**
+		 * Passes all stored contents to the given sink, in the order they were added.
+		 */
+		void replay(HeapDumpSink sink) throws DumpCorruptedException, IOException {
+			int l = 0, i = 0, o = 0;
+			for (int k = 0; k < kinds.size(); k++) {
+				switch (kinds.get(k)) {
+				case JAVA_OBJECT:
+					sink.addJavaObject(longs.get(l), longs.get(l + 1), longs.get(l + 2), ints.get(i));
+					l += 3;
+					i += 1;
+					break;
+				case JAVA_OBJECT_ARRAY:
+					sink.addJavaObjectArray(longs.get(l), longs.get(l + 1), longs.get(l + 2), ints.get(i),
+							ints.get(i + 1));
+					l += 3;
+					i += 2;
+					break;
+				case JAVA_VALUE_ARRAY:
+					sink.addJavaValueArray(longs.get(l), (char) ints.get(i), longs.get(l + 1), ints.get(i + 1),
+							ints.get(i + 2));
+					l += 2;
+					i += 3;
+					break;
+				case CLASS:
+					sink.addClass((ClassDump) others.get(o++));
+					break;
+				case THREAD_OBJECT:
+					sink.addThreadObject(longs.get(l), ints.get(i), ints.get(i + 1));
+					l += 1;
+					i += 2;
+					break;
+				case ROOT:
+					sink.addRoot(ints.get(i), longs.get(l), ints.get(i + 1), ints.get(i + 2));
+					l += 1;
+					i += 3;
+					break;
+				case WARNING:
+					String[] warning = (String[]) others.get(o++);
+					sink.addWarning(warning[0], warning[1]);
+					break;
 				}
-				staticFields[i] = JavaField.newInstance(fieldName, (char) type, snpBuilder.getPointerSize());
-				staticValues[i] = valueBin[0];
 			}
 		}
-		if (numQuasiFields > 0) {
-			JavaField.addStaticQuaziFields(staticFields);
+	}
+
+	/**
+	 * Reads the sub-records of a heap dump or heap dump segment from a stream, and passes their
+	 * contents to a sink. Several parsers may run concurrently, each on its own stream, provided
+	 * that the names and classes read from the top-level records don't change meanwhile.
+	 */
+	private class HeapDumpParser {
+		private final PositionDataInputStream in;
+		private final HeapDumpSink sink;
+		// If true, the bytes parsed are subtracted from unparsedSegmentBytes as parsing progresses
+		private final boolean trackSegmentProgress;
+		private long reportedPos;
+
+		HeapDumpParser(PositionDataInputStream in, HeapDumpSink sink, boolean trackSegmentProgress) {
+			this.in = in;
+			this.sink = sink;
+			this.trackSegmentProgress = trackSegmentProgress;
+			reportedPos = in.position();
 		}
 
-		int numFields = in.readUnsignedShort();
-		bytesRead += 2;
-		JavaField[] fields = numFields > 0 ? new JavaField[numFields] : JavaClass.NO_FIELDS;
-		for (int i = 0; i < numFields; i++) {
-			long nameId = readID();
-			bytesRead += identifierSize;
-			byte type = in.readByte();
-			bytesRead++;
-			String fieldName = getNameFromID(nameId);
-			if (version >= VERSION_JDK12BETA4) {
-				type = signatureFromTypeId(type);
+		void reportProgress(long pos) {
+			if (trackSegmentProgress && pos > reportedPos) {
+				unparsedSegmentBytes.addAndGet(reportedPos - pos);
+				reportedPos = pos;
 			}
-			fields[i] = JavaField.newInstance(fieldName, (char) type, snpBuilder.getPointerSize());
 		}
 
-		String name = classNameFromObjectID.get(id);
-		if (name == null) {
-			vc.addWarning("Class name not found", "for " + toHex(id));
-			name = "unknown-name@" + toHex(id);
+		private long readID() throws IOException {
+			return HprofReader.this.readID(in);
 		}
 
-		JavaClass c = new JavaClass(id, name, superId, classLoaderId, signersId, protDomainId, fields, staticFields,
-				staticValues, fieldsSize, snpBuilder.getInMemoryInstanceSize(fieldsSize));
-		snpBuilder.addClass(c);
+		private void skipBytes(long length) throws IOException, DumpCorruptedException {
+			if (in.position() + length > fileSize) {
+				// The dump is truncated, handle it like running into the end of file when reading
+				throw new EOFException("Reached end of file while trying to skip " + length + " bytes");
+			}
+			HprofReader.this.skipBytes(in, length);
+		}
 
-		return bytesRead;
-	}
+		private void readHeapDump(long dumpLength)
+				throws DumpCorruptedException, IOException, HprofParsingCancelledException {
+			long startPos = in.position();
+			long endPos = startPos + dumpLength;
+			// "Chunks" below are used to check for cancellation periodically
+			int curChunk = (int) (in.position() >> 19); // Check every 512K
+
+			long id, pos;
+			while ((pos = in.position()) < endPos) {
+				int recordType = in.readUnsignedByte();
+
+				int newCurChunk = (int) (pos >> 19);
+				if (newCurChunk > curChunk) {
+					curChunk = newCurChunk;
+					checkForCancellation();
+					reportProgress(pos);
+				}
 
-	private String toHex(long addr) {
-		return MiscUtils.toHex(addr);
-	}
+				switch (recordType) {
+				case HPROF_GC_INSTANCE_DUMP: {
+					readInstance();
+					break;
+				}
+				case HPROF_GC_OBJ_ARRAY_DUMP: {
+					readArray(false);
+					break;
+				}
+				case HPROF_GC_PRIM_ARRAY_DUMP: {
+					readArray(true);
+					break;
+				}
 
-	/**
-	 * Handles a HPROF_GC_INSTANCE_DUMP Return number of bytes read
-	 */
-	private int readInstance() throws DumpCorruptedException, IOException {
-		long objOfsInFile = in.position();
-		long id = readID();
-		skipBytes(4); // StackTrace stackTrace = getStackTraceFromSerial(in.readInt());
-		long classID = readID();
-		int objDataSize = in.readInt();
-		int bytesRead = (2 * identifierSize) + 8 + objDataSize;
-		skipBytes(objDataSize);
-		snpBuilder.addJavaObject(id, classID, objOfsInFile, objDataSize);
-		if (longFile) {
-			handlePossibleBBBorder(objOfsInFile);
+				case HPROF_GC_ROOT_UNKNOWN:
+				case HPROF_GC_ROOT_STICKY_CLASS:
+				case HPROF_GC_ROOT_MONITOR_USED: {
+					sink.addRoot(recordType, readID(), 0, 0);
+					break;
+				}
+				case HPROF_GC_ROOT_THREAD_OBJ: {
+					id = readID();
+					int threadSeq = in.readInt();
+					int stackSeq = in.readInt();
+					sink.addThreadObject(id, threadSeq, stackSeq);
+					break;
+				}
+				case HPROF_GC_ROOT_JNI_GLOBAL: {
+					id = readID();
+					readID(); // long globalRefId, ignored for now
+					sink.addRoot(recordType, id, 0, 0);
+					break;
+				}
+				case HPROF_GC_ROOT_JNI_LOCAL:
+				case HPROF_GC_ROOT_JAVA_FRAME: {
+					id = readID();
+					int threadSeq = in.readInt();
+					int depth = in.readInt();
+					sink.addRoot(recordType, id, threadSeq, depth);
+					break;
+				}
+				case HPROF_GC_ROOT_NATIVE_STACK:
+				case HPROF_GC_ROOT_THREAD_BLOCK: {
+					id = readID();
+					int threadSeq = in.readInt();
+					sink.addRoot(recordType, id, threadSeq, 0);
+					break;
+				}
+				case HPROF_GC_CLASS_DUMP: {
+					readClass();
+					break;
+				}
+				default: {
+					throw new DumpCorruptedException("unrecognized heap dump sub-record type:  " + recordType
+							+ ". Technical info: position = " + pos + ", bytes left = " + (endPos - pos));
+				}
+				}
+			}
+
+			if (pos != endPos) {
+				sink.addWarning("Error reading heap dump or heap dump segment",
+						"Byte count is " + pos + " instead of " + endPos + ". Difference is " + (endPos - pos));
+				skipBytes(endPos - pos);
+			}
 		}
-		return bytesRead;
-	}
 
-	/**
-	 * Handles a HPROF_GC_OBJ_ARRAY_DUMP or HPROF_GC_PRIM_ARRAY_DUMP. Returns number of bytes read.
-	 */
-	private int readArray(boolean isPrimitive) throws DumpCorruptedException, IOException {
-		long objOfsInFile = in.position();
-		long id = readID();
-		skipBytes(4); // StackTrace stackTrace = getStackTraceFromSerial(in.readInt());
-		int num = in.readInt();
-		int bytesRead = identifierSize + 8;
-		long arrayClassID;
-		if (isPrimitive) {
-			arrayClassID = in.readByte();
-			bytesRead++;
-		} else {
-			arrayClassID = readID();
-			bytesRead += identifierSize;
-		}
-
-		// Check for primitive arrays:
-		char primitiveSignature = 0x00;
-		int elSize = 0;
-		if (isPrimitive || version < VERSION_JDK12BETA4) {
-			switch ((int) arrayClassID) {
-			case T_BOOLEAN: {
-				primitiveSignature = 'Z';
-				elSize = 1;
-				break;
+		/**
+		 * Read a java value. If result is non-null, it's expected to be an array of one element. We use
+		 * it to fake multiple return values. Returns the number of bytes read.
+		 */
+		private int readValue(JavaThing[] resultArr) throws DumpCorruptedException, IOException {
+			byte type = in.readByte();
+			return 1 + readValueForType(type, resultArr);
+		}
+
+		private int readValueForType(byte type, JavaThing[] resultArr) throws DumpCorruptedException, IOException {
+			if (version >= VERSION_JDK12BETA4) {
+				type = signatureFromTypeId(type);
 			}
-			case T_CHAR: {
-				primitiveSignature = 'C';
-				elSize = 2;
-				break;
+			return readValueForTypeSignature(type, resultArr);
+		}
+
+		private int readValueForTypeSignature(byte type, JavaThing[] resultArr)
+				throws DumpCorruptedException, IOException {
+			switch (type) {
+			case '[':
+			case 'L': {
+				long id = readID();
+				if (resultArr != null) {
+					resultArr[0] = new JavaObjectRef(id);
+				}
+				return identifierSize;
 			}
-			case T_FLOAT: {
-				primitiveSignature = 'F';
-				elSize = 4;
-				break;
+			case 'Z': {
+				int b = in.readByte();
+				if (b != 0 && b != 1) {
+					sink.addWarning("Illegal boolean value read", Integer.toString(b));
+				}
+				if (resultArr != null) {
+					resultArr[0] = new JavaBoolean(b != 0);
+				}
+				return 1;
 			}
-			case T_DOUBLE: {
-				primitiveSignature = 'D';
-				elSize = 8;
-				break;
+			case 'B': {
+				byte b = in.readByte();
+				if (resultArr != null) {
+					resultArr[0] = new JavaByte(b);
+				}
+				return 1;
 			}
-			case T_BYTE: {
-				primitiveSignature = 'B';
-				elSize = 1;
-				break;
+			case 'S': {
+				short s = in.readShort();
+				if (resultArr != null) {
+					resultArr[0] = new JavaShort(s);
+				}
+				return 2;
 			}
-			case T_SHORT: {
-				primitiveSignature = 'S';
-				elSize = 2;
-				break;
+			case 'C': {
+				char ch = in.readChar();
+				if (resultArr != null) {
+					resultArr[0] = new JavaChar(ch);
+				}
+				return 2;
 			}
-			case T_INT: {
-				primitiveSignature = 'I';
-				elSize = 4;
-				break;
+			case 'I': {
+				int val = in.readInt();
+				if (resultArr != null) {
+					resultArr[0] = new JavaInt(val);
+				}
+				return 4;
 			}
-			case T_LONG: {
-				primitiveSignature = 'J';
-				elSize = 8;
-				break;
+			case 'J': {
+				long val = in.readLong();
+				if (resultArr != null) {
+					resultArr[0] = new JavaLong(val);
+				}
+				return 8;
 			}
+			case 'F': {
+				float val = in.readFloat();
+				if (resultArr != null) {
+					resultArr[0] = new JavaFloat(val);
+				}
+				return 4;
+			}
+			case 'D': {
+				double val = in.readDouble();
+				if (resultArr != null) {
+					resultArr[0] = new JavaDouble(val);
+				}
+				return 8;
+			}
+			default: {
+				throw new DumpCorruptedException("Bad value signature:  " + type);
 			}
-			if (version >= VERSION_JDK12BETA4 && primitiveSignature == 0x00) {
-				throw new DumpCorruptedException("unrecognized typecode: " + arrayClassID);
 			}
 		}
 
-		int dataSize = isPrimitive ? elSize * num : identifierSize * num;
-		if (in.position() + dataSize > fileSize) {
-			throw new DumpCorruptedException((isPrimitive ? "Primitive" : "Object") + " array at position "
-					+ in.position() + " is " + dataSize + " bytes long, that does not fit into the dump file");
-		}
+		/** Handles a HPROF_GC_CLASS_DUMP. Returns the number of bytes read. */
+		private int readClass() throws DumpCorruptedException, IOException {
+			long id = readID();
+			skipBytes(4); // StackTrace stackTrace = getStackTraceFromSerial(in.readInt());
+			long superId = readID();
+			long classLoaderId = readID();
+			long signersId = readID();
+			long protDomainId = readID();
+			readID(); // long reserved1, unused
+			readID(); // long reserved2, unused
+			int fieldsSize = in.readInt();
+			int bytesRead = 7 * identifierSize + 8;
+
+			int numConstPoolEntries = in.readUnsignedShort();
+			bytesRead += 2;
+			for (int i = 0; i < numConstPoolEntries; i++) {
+				in.readUnsignedShort(); // int index, unused
+				bytesRead += 2;
+				bytesRead += readValue(null); // We ignore the values
+			}
 
-		bytesRead += dataSize;
-		skipBytes(dataSize);
+			int numStatics = in.readUnsignedShort();
+			bytesRead += 2;
+			// We may need additional quasi-fields for signers and protection domain
+			int numQuasiFields = (signersId != 0 || protDomainId != 0) ? 2 : 0;
+			int nAllStatics = numStatics + numQuasiFields;
+			JavaField[] staticFields = nAllStatics > 0 ? new JavaField[nAllStatics] : JavaClass.NO_FIELDS;
+			JavaThing[] staticValues = nAllStatics > 0 ? new JavaThing[nAllStatics] : JavaClass.NO_VALUES;
+			if (numStatics > 0) {
+				JavaThing[] valueBin = new JavaThing[1];
+				for (int i = 0; i < numStatics; i++) {
+					long nameId = readID();
+					bytesRead += identifierSize;
+					byte type = in.readByte();
+					bytesRead++;
+					bytesRead += readValueForType(type, valueBin);
+					String fieldName = getNameFromID(nameId, sink);
+					if (version >= VERSION_JDK12BETA4) {
+						type = signatureFromTypeId(type);
+					}
+					staticFields[i] = JavaField.newInstance(fieldName, (char) type, snpBuilder.getPointerSize());
+					staticValues[i] = valueBin[0];
+				}
+			}
+			if (numQuasiFields > 0) {
+				JavaField.addStaticQuaziFields(staticFields);
+			}
 
-		if (isPrimitive) {
-			snpBuilder.addJavaValueArray(id, primitiveSignature, objOfsInFile, num, dataSize);
-		} else {
-			snpBuilder.addJavaObjectArray(id, arrayClassID, objOfsInFile, num, dataSize);
+			int numFields = in.readUnsignedShort();
+			bytesRead += 2;
+			JavaField[] fields = numFields > 0 ? new JavaField[numFields] : JavaClass.NO_FIELDS;
+			for (int i = 0; i < numFields; i++) {
+				long nameId = readID();
+				bytesRead += identifierSize;
+				byte type = in.readByte();
+				bytesRead++;
+				String fieldName = getNameFromID(nameId, sink);
+				if (version >= VERSION_JDK12BETA4) {
+					type = signatureFromTypeId(type);
+				}
+				fields[i] = JavaField.newInstance(fieldName, (char) type, snpBuilder.getPointerSize());
+			}
+
+			String name = classNameFromObjectID.get(id);
+			if (name == null) {
+				sink.addWarning("Class name not found", "for " + toHex(id));
+				name = "unknown-name@" + toHex(id);
+			}
+
+			sink.addClass(new ClassDump(id, name, superId, classLoaderId, signersId, protDomainId, fields, staticFields,
+					staticValues, fieldsSize));
+
+			return bytesRead;
 		}
-		if (longFile) {
-			handlePossibleBBBorder(objOfsInFile);
+
+		/**
+		 * Handles a HPROF_GC_INSTANCE_DUMP Return number of bytes read
+		 */
+		private int readInstance() throws DumpCorruptedException, IOException {
+			long objOfsInFile = in.position();
+			long id = readID();
+			skipBytes(4); // StackTrace stackTrace = getStackTraceFromSerial(in.readInt());
+			long classID = readID();
+			int objDataSize = in.readInt();
+			int bytesRead = (2 * identifierSize) + 8 + objDataSize;
+			skipBytes(objDataSize);
+			sink.addJavaObject(id, classID, objOfsInFile, objDataSize);
+			return bytesRead;
 		}
 
-		return bytesRead;
-	}
+		/**
+		 * Handles a HPROF_GC_OBJ_ARRAY_DUMP or HPROF_GC_PRIM_ARRAY_DUMP. Returns number of bytes read.
+		 */
+		private int readArray(boolean isPrimitive) throws DumpCorruptedException, IOException {
+			long objOfsInFile = in.position();
+			long id = readID();
+			skipBytes(4); // StackTrace stackTrace = getStackTraceFromSerial(in.readInt());
+			int num = in.readInt();
+			int bytesRead = identifierSize + 8;
+			long arrayClassID;
+			if (isPrimitive) {
+				arrayClassID = in.readByte();
+				bytesRead++;
+			} else {
+				arrayClassID = readID();
+				bytesRead += identifierSize;
+			}
 
-	private byte signatureFromTypeId(byte typeId) throws DumpCorruptedException, IOException {
-		switch (typeId) {
-		case T_CLASS:
-			return (byte) 'L';
-		case T_BOOLEAN:
-			return (byte) 'Z';
-		case T_CHAR:
-			return (byte) 'C';
-		case T_FLOAT:
-			return (byte) 'F';
-		case T_DOUBLE:
-			return (byte) 'D';
-		case T_BYTE:
-			return (byte) 'B';
-		case T_SHORT:
-			return (byte) 'S';
-		case T_INT:
-			return (byte) 'I';
-		case T_LONG:
-			return (byte) 'J';
-		default:
-			throw new DumpCorruptedException("invalid type id of " + typeId);
-		}
-	}
+			// Check for primitive arrays:
+			char primitiveSignature = 0x00;
+			int elSize = 0;
+			if (isPrimitive || version < VERSION_JDK12BETA4) {
+				switch ((int) arrayClassID) {
+				case T_BOOLEAN: {
+					primitiveSignature = 'Z';
+					elSize = 1;
+					break;
+				}
+				case T_CHAR: {
+					primitiveSignature = 'C';
+					elSize = 2;
+					break;
+				}
+				case T_FLOAT: {
+					primitiveSignature = 'F';
+					elSize = 4;
+					break;
+				}
+				case T_DOUBLE: {
+					primitiveSignature = 'D';
+					elSize = 8;
+					break;
+				}
+				case T_BYTE: {
+					primitiveSignature = 'B';
+					elSize = 1;
+					break;
+				}
+				case T_SHORT: {
+					primitiveSignature = 'S';
+					elSize = 2;
+					break;
+				}
+				case T_INT: {
+					primitiveSignature = 'I';
+					elSize = 4;
+					break;
+				}
+				case T_LONG: {
+					primitiveSignature = 'J';
+					elSize = 8;
+					break;
+				}
+				}
+				if (version >= VERSION_JDK12BETA4 && primitiveSignature == 0x00) {
+					throw new DumpCorruptedException("unrecognized typecode: " + arrayClassID);
+				}
+			}
 
-	private void handlePossibleBBBorder(long thisObjStartOfs) {
-		if (thisObjStartOfs >= currentBBMaxOfs) {
-			if (prevObjStartOfs > 0) {
-				// Normal case
-				mappedBBEndOfs.add(prevObjStartOfs - 1);
+			int dataSize = isPrimitive ? elSize * num : identifierSize * num;
+			if (in.position() + dataSize > fileSize) {
+				throw new DumpCorruptedException((isPrimitive ? "Primitive" : "Object") + " array at position "
+						+ in.position() + " is " + dataSize + " bytes long, that does not fit into the dump file");
+			}
+
+			bytesRead += dataSize;
+			skipBytes(dataSize);
+
+			if (isPrimitive) {
+				sink.addJavaValueArray(id, primitiveSignature, objOfsInFile, num, dataSize);
 			} else {
-				// Seems to happen only in tests, when maxBBSize is small
-				mappedBBEndOfs.add(Long.valueOf(MAX_BB_SIZE));
+				sink.addJavaObjectArray(id, arrayClassID, objOfsInFile, num, dataSize);
 			}
-			currentBBMaxOfs = mappedBBEndOfs.get(mappedBBEndOfs.size() - 1) + MAX_BB_SIZE;
+
+			return bytesRead;
 		}
-		prevObjStartOfs = thisObjStartOfs;
 	}
 
-	private void handleEOF(EOFException exp) {
-		vc.addWarning("Unexpected EOF", "Will miss information");
-		// we have EOF, we have to tolerate missing references
-		snpBuilder.setUnresolvedObjectsOk(true);
+	/**
+	 * The location of a heap dump segment in the file.
+	 */
+	private static class HeapDumpSegment {
+		final long start;
+		final long length;
+
+		HeapDumpSegment(long start, long length) {
+			this.start = start;
+			this.length = length;
+		}
 	}
 
-	private void checkForCancellation() throws HprofParsingCancelledException {
-		if (cancelled) {
-			throw new HprofParsingCancelledException();
+	/**
+	 * The contents of a HPROF_GC_CLASS_DUMP, from which a JavaClass is created once it's added to
+	 * the snapshot.
+	 */
+	private static class ClassDump {
+		final long id;
+		final String name;
+		final long superId;
+		final long classLoaderId;
+		final long signersId;
+		final long protDomainId;
+		final JavaField[] fields;
+		final JavaField[] staticFields;
+		final JavaThing[] staticValues;
+		final int fieldsSize;
+
+		ClassDump(long id, String name, long superId, long classLoaderId, long signersId, long protDomainId,
+				JavaField[] fields, JavaField[] staticFields, JavaThing[] staticValues, int fieldsSize) {
+			this.id = id;
+			this.name = name;
+			this.superId = superId;
+			this.classLoaderId = classLoaderId;
+			this.signersId = signersId;
+			this.protDomainId = protDomainId;
+			this.fields = fields;
+			this.staticFields = staticFields;
+			this.staticValues = staticValues;
+			this.fieldsSize = fieldsSize;
 		}
 	}
 
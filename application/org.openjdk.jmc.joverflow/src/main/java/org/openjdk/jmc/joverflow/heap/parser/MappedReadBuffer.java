@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -46,33 +46,37 @@ class MappedReadBuffer extends ReadBuffer {
 		this.buf = buf;
 	}
 
+	// All reads use absolute positions, that don't change the state of the buffer,
+	// so this class needs no synchronization.
+
+	@Override
+	public void get(long pos, byte[] res) throws IOException {
+		buf.get(index(pos), res);
+	}
+
 	@Override
-	public synchronized void get(long pos, byte[] res) throws IOException {
-		seek(pos);
-		buf.get(res);
+	public void get(long pos, byte[] res, int num) throws IOException {
+		buf.get(index(pos), res, 0, num);
 	}
 
 	@Override
-	public synchronized void get(long pos, byte[] res, int num) throws IOException {
-		seek(pos);
-		buf.get(res, 0, num);
+	public int getInt(long pos) throws IOException {
+		return buf.getInt(index(pos));
 	}
 
 	@Override
-	public synchronized int getInt(long pos) throws IOException {
-		seek(pos);
-		return buf.getInt();
+	public long getLong(long pos) throws IOException {
+		return buf.getLong(index(pos));
 	}
 
 	@Override
-	public synchronized long getLong(long pos) throws IOException {
-		seek(pos);
-		return buf.getLong();
+	public boolean supportsConcurrentReads() {
+		return true;
 	}
 
-	private void seek(long pos) throws IOException {
+	private static int index(long pos) {
 		assert pos <= Integer.MAX_VALUE : "position overflow";
-		buf.position((int) pos);
+		return (int) pos;
 	}
 
 	@Override
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -51,42 +51,52 @@ class MappedReadMultiBuffer extends ReadBuffer {
 		this.maxBufSize = maxBufSize;
 	}
 
-	private MappedByteBuffer seek(long pos) throws IOException {
+	// All reads use absolute positions within the buffers, that don't change the state of
+	// the buffers, so this class needs no synchronization.
+
+	private int getBufIdx(long pos) {
 		int bufIdx = (int) (pos / maxBufSize);
 		while (pos > mappedBBEndOfs[bufIdx]) {
 			bufIdx++;
 		}
-		MappedByteBuffer buf = bufs[bufIdx];
+		return bufIdx;
+	}
+
+	private int getPosInBuf(int bufIdx, long pos) {
 		if (bufIdx > 0) {
-			buf.position((int) (pos - mappedBBEndOfs[bufIdx - 1] - 1));
+			return (int) (pos - mappedBBEndOfs[bufIdx - 1] - 1);
 		} else {
-			buf.position((int) pos);
+			return (int) pos;
 		}
-		return buf;
 	}
 
 	@Override
 	public void get(long pos, byte[] res) throws IOException {
-		MappedByteBuffer buf = seek(pos);
-		buf.get(res);
+		int bufIdx = getBufIdx(pos);
+		bufs[bufIdx].get(getPosInBuf(bufIdx, pos), res);
 	}
 
 	@Override
 	public void get(long pos, byte[] res, int num) throws IOException {
-		MappedByteBuffer buf = seek(pos);
-		buf.get(res, 0, num);
+		int bufIdx = getBufIdx(pos);
+		bufs[bufIdx].get(getPosInBuf(bufIdx, pos), res, 0, num);
 	}
 
 	@Override
 	public int getInt(long pos) throws IOException {
-		MappedByteBuffer buf = seek(pos);
-		return buf.getInt();
+		int bufIdx = getBufIdx(pos);
+		return bufs[bufIdx].getInt(getPosInBuf(bufIdx, pos));
 	}
 
 	@Override
 	public long getLong(long pos) throws IOException {
-		MappedByteBuffer buf = seek(pos);
-		return buf.getLong();
+		int bufIdx = getBufIdx(pos);
+		return bufs[bufIdx].getLong(getPosInBuf(bufIdx, pos));
+	}
+
+	@Override
+	public boolean supportsConcurrentReads() {
+		return true;
 	}
 
 	@Override
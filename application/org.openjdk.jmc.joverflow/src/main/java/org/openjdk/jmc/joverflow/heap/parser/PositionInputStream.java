@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -47,6 +47,15 @@ public class PositionInputStream extends FilterInputStream {
 		super(in);
 	}
 
+	/**
+	 * Creates a stream whose position starts at the given value, for an input stream that doesn't
+	 * start at the beginning of the underlying data.
+	 */
+	public PositionInputStream(InputStream in, long position) {
+		super(in);
+		this.position = position;
+	}
+
 	@Override
 	public int read() throws IOException {
 		int res = super.read();
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -210,5 +210,12 @@ public abstract class ReadBuffer {
 
 	public abstract long getLong(long pos) throws IOException;
 
+	/**
+	 * Returns true if this buffer can be read by several threads at the same time.
+	 */
+	public boolean supportsConcurrentReads() {
+		return false;
+	}
+
 	public abstract void close();
 }
@@ -0,0 +1,364 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.joverflow.stats;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+import org.openjdk.jmc.joverflow.heap.model.JavaClass;
+import org.openjdk.jmc.joverflow.heap.model.JavaHeapObject;
+import org.openjdk.jmc.joverflow.heap.model.Root;
+import org.openjdk.jmc.joverflow.heap.model.Snapshot;
+import org.openjdk.jmc.joverflow.util.Dominators;
+import org.openjdk.jmc.joverflow.util.IntGraph;
+
+/**
+ * The dominator tree of a heap dump, and the retained sizes derived from it. Object d dominates
+ * object o if every reference path from the GC roots to o goes through d. The retained size of d is
+ * the total shallow size of d and all objects that it dominates, i.e. the amount of memory that
+ * would be freed if d became unreachable.
+ * <p>
+ * The reference graph is built by HeapGraph in a single pass over the snapshot, into int arrays
+ * where classes and objects are numbered by their position in the class list and the object table.
+ * A virtual root node references all GC roots and all classes. Classes are treated as roots because
+ * hprof files don't contain references from class loaders to their classes. Objects that are not
+ * reachable from the roots have no dominator and their retained size is 0.
+ * <p>
+ * Calculating the dominator tree for a big heap dump takes a while, so the results can be saved
+ * to a file next to the dump, and read from it when the same dump is opened again.
+ */
+public class DominatorTree {
+	/**
+	 * Returned by {@link #getImmediateDominator(int)} for objects that are dominated only by the GC
+	 * roots.
+	 */
+	public static final int ROOT_INDEX = Integer.MIN_VALUE;
+
+	/**
+	 * Returned by {@link #getImmediateDominator(int)} for objects that are not reachable from the
+	 * GC roots.
+	 */
+	public static final int UNREACHABLE_INDEX = Integer.MIN_VALUE + 1;
+
+	private static final String FILE_SUFFIX = ".dom";
+	private static final int FILE_MAGIC = 0x4a4f4454; // "JODT"
+	private static final int FILE_VERSION = 1;
+
+	// Node 0 is the virtual root, nodes 1..numClasses are classes in the snapshot's class list,
+	// and the following nodes are objects in the snapshot's object table.
+	private final int numClasses;
+	// Global object indices of objects, in table order, thus sorted
+	private final int[] objGlobalIndices;
+	// Immediate dominator node for each node, or Dominators.NONE for unreachable nodes
+	private final int[] idom;
+	private final long[] retainedSizes;
+	// Retained size of all instances of each class, by class list index
+	private final long[] classRetainedSizes;
+
+	private DominatorTree(int numClasses, int[] objGlobalIndices, int[] idom, long[] retainedSizes,
+			long[] classRetainedSizes) {
+		this.numClasses = numClasses;
+		this.objGlobalIndices = objGlobalIndices;
+		this.idom = idom;
+		this.retainedSizes = retainedSizes;
+		this.classRetainedSizes = classRetainedSizes;
+	}
+
+	/**
+	 * Calculates the dominator tree for the given snapshot, reading objects from the dump with as
+	 * many threads as there are available processors.
+	 */
+	public static DominatorTree calculate(Snapshot snapshot) {
+		return calculate(snapshot, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Calculates the dominator tree for the given snapshot, reading objects from the dump with the
+	 * given number of threads.
+	 */
+	public static DominatorTree calculate(Snapshot snapshot, int numThreads) {
+		HeapGraph heapGraph = new HeapGraph(snapshot);
+		int numClasses = heapGraph.getNumClasses();
+		int[] objGlobalIndices = heapGraph.getObjGlobalIndices();
+		int numNodes = 1 + heapGraph.getNumNodes();
+
+		int[] sizes = new int[numNodes];
+		int[] nodeClasses = new int[numNodes];
+		nodeClasses[0] = -1;
+
+		IntGraph.Builder builder = new IntGraph.Builder(numNodes);
+		for (int i = 0; i < numClasses; i++) {
+			builder.addEdge(0, i + 1);
+		}
+		for (Root root : snapshot.getRoots()) {
+			JavaHeapObject obj = snapshot.getObjectForId(root.getId());
+			if (obj != null && obj.getGlobalObjectIndex() > 0) {
+				int node = heapGraph.toNode(obj.getGlobalObjectIndex());
+				if (node >= 0) {
+					builder.addEdge(0, node + 1);
+				}
+			}
+		}
+		// References to classes are skipped, since classes are referenced directly by the root and
+		// thus dominated only by it.
+		heapGraph.collectReferences(builder, 1, false, sizes, nodeClasses, numThreads);
+
+		IntGraph successors = builder.build();
+		Dominators dominators = Dominators.calculate(successors, successors.reverse(), 0);
+		successors = null;
+
+		long[] retainedSizes = new long[numNodes];
+		for (int i = dominators.getNumReachableNodes() - 1; i > 0; i--) {
+			int n = dominators.getReachableNode(i);
+			retainedSizes[n] += sizes[n];
+			retainedSizes[dominators.getImmediateDominator(n)] += retainedSizes[n];
+		}
+		int[] idom = dominators.getImmediateDominators();
+		long[] classRetainedSizes = calculateClassRetainedSizes(dominators, idom, nodeClasses, retainedSizes,
+				numClasses);
+		return new DominatorTree(numClasses, objGlobalIndices, idom, retainedSizes, classRetainedSizes);
+	}
+
+	/**
+	 * The retained size of all instances of a class is the sum of retained sizes of those instances
+	 * that are not dominated by another instance of the same class. To find them, the dominator
+	 * tree is traversed depth-first while counting the instances of each class on the current path.
+	 */
+	private static long[] calculateClassRetainedSizes(
+		Dominators dominators, int[] idom, int[] nodeClasses, long[] retainedSizes, int numClasses) {
+		int numNodes = idom.length;
+		int numReachable = dominators.getNumReachableNodes();
+		int[] firstChild = new int[numNodes + 1];
+		for (int i = 1; i < numReachable; i++) {
+			firstChild[idom[dominators.getReachableNode(i)] + 1]++;
+		}
+		for (int i = 0; i < numNodes; i++) {
+			firstChild[i + 1] += firstChild[i];
+		}
+		int[] nextChild = Arrays.copyOf(firstChild, numNodes);
+		int[] children = new int[Math.max(numReachable - 1, 0)];
+		for (int i = 1; i < numReachable; i++) {
+			int n = dominators.getReachableNode(i);
+			children[nextChild[idom[n]]++] = n;
+		}
+		System.arraycopy(firstChild, 0, nextChild, 0, numNodes);
+
+		long[] classRetainedSizes = new long[numClasses];
+		int[] instancesOnPath = new int[numClasses];
+		int[] stack = new int[numReachable];
+		int stackSize = 0;
+		stack[stackSize++] = dominators.getRoot();
+		while (stackSize > 0) {
+			int n = stack[stackSize - 1];
+			if (nextChild[n] < firstChild[n + 1]) {
+				int child = children[nextChild[n]++];
+				int classIdx = nodeClasses[child];
+				if (classIdx >= 0 && instancesOnPath[classIdx]++ == 0) {
+					classRetainedSizes[classIdx] += retainedSizes[child];
+				}
+				stack[stackSize++] = child;
+			} else {
+				int classIdx = nodeClasses[n];
+				if (classIdx >= 0) {
+					instancesOnPath[classIdx]--;
+				}
+				stackSize--;
+			}
+		}
+		return classRetainedSizes;
+	}
+
+	/**
+	 * Returns the global index (see {@link JavaHeapObject#getGlobalObjectIndex()}) of the immediate
+	 * dominator of the object with the given global index. Returns {@link #ROOT_INDEX} if the
+	 * object is dominated only by the GC roots, and {@link #UNREACHABLE_INDEX} if it is not
+	 * reachable from them.
+	 */
+	public int getImmediateDominator(int globalObjectIndex) {
+		int dominator = idom[toNode(globalObjectIndex)];
+		if (dominator == Dominators.NONE) {
+			return UNREACHABLE_INDEX;
+		} else if (dominator == 0) {
+			return ROOT_INDEX;
+		} else if (dominator <= numClasses) {
+			return -(dominator - 1);
+		} else {
+			return objGlobalIndices[dominator - numClasses - 1];
+		}
+	}
+
+	/**
+	 * Returns the retained size of the object with the given global index.
+	 */
+	public long getRetainedSize(int globalObjectIndex) {
+		return retainedSizes[toNode(globalObjectIndex)];
+	}
+
+	public long getRetainedSize(JavaHeapObject obj) {
+		return getRetainedSize(obj.getGlobalObjectIndex());
+	}
+
+	/**
+	 * Returns the retained size of all instances of the given class, that is, the amount of memory
+	 * that would be freed if all of them became unreachable.
+	 */
+	public long getInstancesRetainedSize(JavaClass clazz) {
+		return classRetainedSizes[-clazz.getGlobalObjectIndex()];
+	}
+
+	/**
+	 * Returns the total size of all objects and classes reachable from the GC roots.
+	 */
+	public long getTotalReachableSize() {
+		return retainedSizes[0];
+	}
+
+	private int toNode(int globalObjectIndex) {
+		if (globalObjectIndex <= 0) {
+			return 1 - globalObjectIndex;
+		}
+		int idx = Arrays.binarySearch(objGlobalIndices, globalObjectIndex);
+		if (idx < 0) {
+			throw new IllegalArgumentException("No object with global index " + globalObjectIndex);
+		}
+		return numClasses + 1 + idx;
+	}
+
+	/**
+	 * Returns the file, next to the given heap dump file, that the dominator tree for that dump is
+	 * saved to.
+	 */
+	public static File getDominatorTreeFile(File dumpFile) {
+		return new File(dumpFile.getPath() + FILE_SUFFIX);
+	}
+
+	/**
+	 * Returns the dominator tree saved next to the given heap dump file, if it's there and up to
+	 * date. Otherwise, calculates it and tries to save it next to the dump file, adding a warning
+	 * to the snapshot's VerboseOutputCollector if that fails.
+	 */
+	public static DominatorTree readOrCalculate(Snapshot snapshot, File dumpFile) {
+		DominatorTree tree = null;
+		try {
+			tree = read(snapshot, dumpFile);
+		} catch (IOException ex) {
+			snapshot.getVerboseOutputCollector().addWarning("Could not read saved dominator tree", ex.toString());
+		}
+		if (tree == null) {
+			tree = calculate(snapshot);
+			try {
+				tree.write(dumpFile);
+			} catch (IOException ex) {
+				snapshot.getVerboseOutputCollector().addWarning("Could not save dominator tree", ex.toString());
+			}
+		}
+		return tree;
+	}
+
+	/**
+	 * Reads the dominator tree saved next to the given heap dump file, which the given snapshot has
+	 * been read from. Returns null if there is no saved tree, or if it was saved for another
+	 * version of the dump file.
+	 */
+	public static DominatorTree read(Snapshot snapshot, File dumpFile) throws IOException {
+		File file = getDominatorTreeFile(dumpFile);
+		if (!file.isFile()) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			int numClasses = snapshot.getNumClasses();
+			if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION || in.readLong() != dumpFile.length()
+					|| in.readLong() != dumpFile.lastModified() || in.readInt() != numClasses) {
+				return null;
+			}
+			int numObjects = in.readInt();
+			int[] objGlobalIndices = HeapGraph.getObjGlobalIndices(snapshot);
+			if (numObjects != objGlobalIndices.length) {
+				return null;
+			}
+			int numNodes = 1 + numClasses + numObjects;
+			int[] idom = new int[numNodes];
+			long[] retainedSizes = new long[numNodes];
+			for (int i = 0; i < numNodes; i++) {
+				idom[i] = in.readInt();
+				retainedSizes[i] = in.readLong();
+			}
+			long[] classRetainedSizes = new long[numClasses];
+			for (int i = 0; i < numClasses; i++) {
+				classRetainedSizes[i] = in.readLong();
+			}
+			return new DominatorTree(numClasses, objGlobalIndices, idom, retainedSizes, classRetainedSizes);
+		}
+	}
+
+	/**
+	 * Saves this dominator tree next to the given heap dump file, which the tree has been
+	 * calculated for. The tree is written to a temporary file first and then moved into place, so
+	 * a partially written tree is never read.
+	 */
+	public void write(File dumpFile) throws IOException {
+		File file = getDominatorTreeFile(dumpFile);
+		File tmpFile = new File(file.getPath() + ".tmp");
+		boolean written = false;
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+			out.writeInt(FILE_MAGIC);
+			out.writeInt(FILE_VERSION);
+			out.writeLong(dumpFile.length());
+			out.writeLong(dumpFile.lastModified());
+			out.writeInt(numClasses);
+			out.writeInt(objGlobalIndices.length);
+			for (int i = 0; i < idom.length; i++) {
+				out.writeInt(idom[i]);
+				out.writeLong(retainedSizes[i]);
+			}
+			for (long size : classRetainedSizes) {
+				out.writeLong(size);
+			}
+			written = true;
+		} finally {
+			if (!written) {
+				tmpFile.delete();
+			}
+		}
+		Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.joverflow.stats;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.openjdk.jmc.joverflow.heap.model.JavaClass;
+import org.openjdk.jmc.joverflow.heap.model.JavaField;
+import org.openjdk.jmc.joverflow.heap.model.JavaHeapObject;
+import org.openjdk.jmc.joverflow.heap.model.JavaHeapObjectVisitor;
+import org.openjdk.jmc.joverflow.heap.model.JavaLazyReadObject;
+import org.openjdk.jmc.joverflow.heap.model.Snapshot;
+import org.openjdk.jmc.joverflow.util.IntGraph;
+
+/**
+ * Numbers the classes and objects of a snapshot as nodes of a graph, and collects the references
+ * between them into an {@link IntGraph}. Classes are nodes 0..numClasses-1, in the order of the
+ * snapshot's class list, and objects are the following nodes, in the order of the object table.
+ * <p>
+ * Collecting references means reading every object from the dump, which is the expensive part of
+ * building any whole-heap graph. If the snapshot's read buffer supports concurrent reads, objects
+ * are read by several threads, each handling a range of nodes, and the per-range results are put
+ * together in node order. Thus the resulting graph is the same regardless of the number of threads.
+ */
+class HeapGraph {
+	private static final int NODES_PER_TASK = 1 << 16;
+
+	private final Snapshot snapshot;
+	private final JavaClass[] classes;
+	// Global object indices of objects, in table order, thus sorted
+	private final int[] objGlobalIndices;
+
+	HeapGraph(Snapshot snapshot) {
+		this.snapshot = snapshot;
+		this.classes = snapshot.getClasses();
+		this.objGlobalIndices = getObjGlobalIndices(snapshot);
+	}
+
+	int getNumNodes() {
+		return classes.length + objGlobalIndices.length;
+	}
+
+	int getNumClasses() {
+		return classes.length;
+	}
+
+	int[] getObjGlobalIndices() {
+		return objGlobalIndices;
+	}
+
+	/**
+	 * Returns the node for the class or object with the given global index (see
+	 * {@link JavaHeapObject#getGlobalObjectIndex()}), or -1 if there is no such object.
+	 */
+	int toNode(int globalObjectIndex) {
+		if (globalObjectIndex <= 0) {
+			return -globalObjectIndex < classes.length ? -globalObjectIndex : -1;
+		}
+		int idx = Arrays.binarySearch(objGlobalIndices, globalObjectIndex);
+		return idx >= 0 ? classes.length + idx : -1;
+	}
+
+	int toGlobalObjectIndex(int node) {
+		return node < classes.length ? -node : objGlobalIndices[node - classes.length];
+	}
+
+	JavaHeapObject getObject(int node) {
+		return node < classes.length ? classes[node] : snapshot.getObjectAtGlobalIndex(toGlobalObjectIndex(node));
+	}
+
+	/**
+	 * Receives the references collected by
+	 * {@link HeapGraph#collectReferences(PartConsumer, int, boolean, int[], int[], int)} as a
+	 * sequence of graph parts, in the order of their source nodes.
+	 */
+	interface PartConsumer {
+		/**
+		 * Accepts a part of the graph where the source nodes are numbered from 0, and thus should
+		 * be shifted by firstSource, and the target nodes are final.
+		 */
+		void accept(int firstSource, IntGraph part);
+	}
+
+	/**
+	 * Adds an edge for each reference from a class or object to another object, and optionally to
+	 * a class, to the given builder. All nodes are shifted by nodeOffset, so that the caller may
+	 * add nodes of its own before the heap nodes. If the sizes and classIndices arrays are not
+	 * null, the shallow size of each node and the class list index of each object (-1 for
+	 * classes) are stored in them, also at shifted positions.
+	 */
+	void collectReferences(
+		IntGraph.Builder builder, int nodeOffset, boolean includeClassTargets, int[] sizes, int[] classIndices,
+		int numThreads) {
+		collectReferences(builder::addEdges, nodeOffset, includeClassTargets, sizes, classIndices, numThreads);
+	}
+
+	/**
+	 * Like {@link #collectReferences(IntGraph.Builder, int, boolean, int[], int[], int)}, but
+	 * passes the references to the given consumer in parts, each covering a range of nodes, as
+	 * they are collected. Thus the whole graph is never kept in memory unless the consumer does
+	 * so.
+	 */
+	void collectReferences(
+		PartConsumer consumer, int nodeOffset, boolean includeClassTargets, int[] sizes, int[] classIndices,
+		int numThreads) {
+		IntGraph.Builder classBuilder = new IntGraph.Builder(classes.length);
+		EdgeCollector collector = new EdgeCollector(classBuilder, nodeOffset, includeClassTargets);
+		for (int node = 0; node < classes.length; node++) {
+			if (sizes != null) {
+				sizes[nodeOffset + node] = classes[node].getSize();
+			}
+			if (classIndices != null) {
+				classIndices[nodeOffset + node] = -1;
+			}
+			collector.source = node;
+			classes[node].visitReferencedObjects(collector);
+		}
+		consumer.accept(nodeOffset, classBuilder.build());
+
+		int numObjects = objGlobalIndices.length;
+		if (numThreads <= 1 || numObjects <= NODES_PER_TASK || !snapshot.getReadBuffer().supportsConcurrentReads()) {
+			for (int start = 0; start < numObjects; start += NODES_PER_TASK) {
+				int end = Math.min(start + NODES_PER_TASK, numObjects);
+				IntGraph part = collectObjectReferences(start, end, nodeOffset, includeClassTargets, sizes,
+						classIndices);
+				consumer.accept(nodeOffset + classes.length + start, part);
+			}
+			return;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads, r -> {
+			Thread thread = new Thread(r, "JOverflow heap graph builder");
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			ArrayDeque<Future<IntGraph>> parts = new ArrayDeque<>();
+			int nextStart = 0;
+			int partStart = 0;
+			while (nextStart < numObjects || !parts.isEmpty()) {
+				while (nextStart < numObjects && parts.size() < 2 * numThreads) {
+					int start = nextStart;
+					int end = Math.min(start + NODES_PER_TASK, numObjects);
+					parts.add(executor.submit(() -> collectObjectReferences(start, end, nodeOffset,
+							includeClassTargets, sizes, classIndices)));
+					nextStart = end;
+				}
+				IntGraph part = getPart(parts.remove());
+				consumer.accept(nodeOffset + classes.length + partStart, part);
+				partStart += part.getNumNodes();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Collects the references from objects start..end-1, in table order, into a graph where the
+	 * source nodes are numbered from 0 and the target nodes are final.
+	 */
+	private IntGraph collectObjectReferences(
+		int start, int end, int nodeOffset, boolean includeClassTargets, int[] sizes, int[] classIndices) {
+		IntGraph.Builder partBuilder = new IntGraph.Builder(end - start);
+		EdgeCollector collector = new EdgeCollector(partBuilder, nodeOffset, includeClassTargets);
+		int firstNode = nodeOffset + classes.length + start;
+		for (int i = start; i < end; i++) {
+			JavaHeapObject obj = snapshot.getObjectAtGlobalIndex(objGlobalIndices[i]);
+			int node = firstNode + i - start;
+			if (sizes != null) {
+				sizes[node] = obj.getSize();
+			}
+			if (classIndices != null) {
+				classIndices[node] = -obj.getClazz().getGlobalObjectIndex();
+			}
+			collector.source = i - start;
+			obj.visitReferencedObjects(collector);
+		}
+		return partBuilder.build();
+	}
+
+	private static IntGraph getPart(Future<IntGraph> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while collecting heap references", ex);
+		} catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new RuntimeException(cause);
+		}
+	}
+
+	static int[] getObjGlobalIndices(Snapshot snapshot) {
+		Collection<JavaLazyReadObject> objects = snapshot.getObjects();
+		int[] objGlobalIndices = new int[objects.size()];
+		int i = 0;
+		for (JavaLazyReadObject obj : objects) {
+			objGlobalIndices[i++] = obj.getGlobalObjectIndex();
+		}
+		return objGlobalIndices;
+	}
+
+	/**
+	 * Adds an edge from the current source node to each object, and optionally class, that it
+	 * references.
+	 */
+	private class EdgeCollector implements JavaHeapObjectVisitor {
+		private final IntGraph.Builder builder;
+		private final int nodeOffset;
+		private final boolean includeClassTargets;
+		int source;
+
+		EdgeCollector(IntGraph.Builder builder, int nodeOffset, boolean includeClassTargets) {
+			this.builder = builder;
+			this.nodeOffset = nodeOffset;
+			this.includeClassTargets = includeClassTargets;
+		}
+
+		@Override
+		public void visit(JavaHeapObject other) {
+			int globalObjectIndex = other.getGlobalObjectIndex();
+			if (globalObjectIndex > 0 || includeClassTargets) {
+				int target = toNode(globalObjectIndex);
+				if (target >= 0) {
+					builder.addEdge(source, nodeOffset + target);
+				}
+			}
+		}
+
+		@Override
+		public boolean exclude(JavaClass clazz, JavaField f) {
+			return false;
+		}
+
+		@Override
+		public boolean mightExclude() {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.joverflow.stats;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.openjdk.jmc.joverflow.heap.model.JavaHeapObject;
+import org.openjdk.jmc.joverflow.heap.model.Root;
+import org.openjdk.jmc.joverflow.heap.model.Snapshot;
+import org.openjdk.jmc.joverflow.util.IntArrayList;
+import org.openjdk.jmc.joverflow.util.IntGraph;
+import org.openjdk.jmc.joverflow.util.IntToIntMap;
+
+/**
+ * An index of inbound references in a heap dump, i.e. of the classes and objects that refer to each
+ * class or object. A snapshot only knows the outbound references of each object, which are read
+ * lazily from the dump, so without this index finding the referrers of an object, or a reference
+ * path to it from a GC root, requires a scan of the whole heap.
+ * <p>
+ * The index is built once, in two passes over the snapshot (see HeapGraph): the first one counts
+ * the referrers of each class or object, and the second one puts them into the index. This way
+ * the outbound references are never all held in memory, which would double the peak footprint,
+ * at the cost of reading the objects twice. The index is kept in the compressed sparse row form:
+ * 8 bytes per class or object and 4 bytes per reference. After that, referrers of any object can
+ * be obtained in time proportional to their number.
+ * <p>
+ * Classes and objects are identified by their global indices, see
+ * {@link JavaHeapObject#getGlobalObjectIndex()}.
+ */
+public class ReferrerIndex {
+	private final Snapshot snapshot;
+	private final HeapGraph heapGraph;
+	// For each node, nodes that refer to it, in ascending order
+	private final IntGraph referrers;
+	// Nodes of objects that are GC roots
+	private final BitSet gcRoots;
+
+	private ReferrerIndex(Snapshot snapshot, HeapGraph heapGraph, IntGraph referrers, BitSet gcRoots) {
+		this.snapshot = snapshot;
+		this.heapGraph = heapGraph;
+		this.referrers = referrers;
+		this.gcRoots = gcRoots;
+	}
+
+	/**
+	 * Builds the index for the given snapshot, reading objects from the dump with as many threads
+	 * as there are available processors.
+	 */
+	public static ReferrerIndex build(Snapshot snapshot) {
+		return build(snapshot, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Builds the index for the given snapshot, reading objects from the dump with the given number
+	 * of threads.
+	 */
+	public static ReferrerIndex build(Snapshot snapshot, int numThreads) {
+		HeapGraph heapGraph = new HeapGraph(snapshot);
+		// References are collected twice, rather than kept in a forward graph that is then
+		// reversed, so that only the reverse graph is in memory once built
+		IntGraph.ReverseBuilder builder = new IntGraph.ReverseBuilder(heapGraph.getNumNodes());
+		heapGraph.collectReferences(builder::countEdges, 0, true, null, null, numThreads);
+		builder.startPlacing();
+		heapGraph.collectReferences(builder::placeEdges, 0, true, null, null, numThreads);
+		IntGraph referrers = builder.build();
+
+		BitSet gcRoots = new BitSet(heapGraph.getNumNodes());
+		for (Root root : snapshot.getRoots()) {
+			JavaHeapObject obj = snapshot.getObjectForId(root.getId());
+			if (obj != null && obj.getGlobalObjectIndex() > 0) {
+				int node = heapGraph.toNode(obj.getGlobalObjectIndex());
+				if (node >= 0) {
+					gcRoots.set(node);
+				}
+			}
+		}
+		return new ReferrerIndex(snapshot, heapGraph, referrers, gcRoots);
+	}
+
+	/**
+	 * Returns the snapshot that this index was built for.
+	 */
+	public Snapshot getSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * Returns the number of distinct classes and objects that refer to the class or object with
+	 * the given global index.
+	 */
+	public int getNumReferrers(int globalObjectIndex) {
+		int node = toNode(globalObjectIndex);
+		int result = 0;
+		int prevReferrer = -1;
+		for (long edge = referrers.getFirstEdge(node), end = referrers.getEdgesEnd(node); edge < end; edge++) {
+			int referrer = referrers.getTarget(edge);
+			if (referrer != prevReferrer) {
+				result++;
+				prevReferrer = referrer;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the global indices of distinct classes and objects that refer to the class or object
+	 * with the given global index. Classes come first, in class list order, followed by objects in
+	 * object table order.
+	 */
+	public int[] getReferrers(int globalObjectIndex) {
+		int node = toNode(globalObjectIndex);
+		int[] result = new int[getNumReferrers(globalObjectIndex)];
+		int i = 0;
+		int prevReferrer = -1;
+		for (long edge = referrers.getFirstEdge(node), end = referrers.getEdgesEnd(node); edge < end; edge++) {
+			int referrer = referrers.getTarget(edge);
+			if (referrer != prevReferrer) {
+				result[i++] = heapGraph.toGlobalObjectIndex(referrer);
+				prevReferrer = referrer;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the distinct classes and objects that refer to the given class or object.
+	 */
+	public List<JavaHeapObject> getReferrers(JavaHeapObject obj) {
+		int[] globalIndices = getReferrers(obj.getGlobalObjectIndex());
+		List<JavaHeapObject> result = new ArrayList<>(globalIndices.length);
+		for (int globalIndex : globalIndices) {
+			result.add(snapshot.getObjectAtGlobalIndex(globalIndex));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns true if the object with the given global index is a GC root. Note that classes are
+	 * not GC roots in this sense, even though they are always reachable.
+	 */
+	public boolean isGcRoot(int globalObjectIndex) {
+		return gcRoots.get(toNode(globalObjectIndex));
+	}
+
+	/**
+	 * Returns a shortest reference path to the class or object with the given global index, from
+	 * a GC root or a class. Classes are treated as path starts because hprof files don't contain
+	 * references from class loaders to their classes. The path is returned as global indices of
+	 * its elements, starting with the GC root or class and ending with the given class or object.
+	 * Returns null if the class or object is not reachable.
+	 * <p>
+	 * The path is found by a breadth-first search over referrers, so the time it takes depends on
+	 * how many objects are closer to the given one than the nearest GC root or class.
+	 */
+	public int[] getPathFromGcRoot(int globalObjectIndex) {
+		int target = toNode(globalObjectIndex);
+		int numClasses = heapGraph.getNumClasses();
+		// For each node visited, the next node on the path from it to the target
+		IntToIntMap nextOnPath = new IntToIntMap(64);
+		nextOnPath.put(target, target);
+		IntArrayList queue = new IntArrayList(64);
+		queue.add(target);
+		for (int i = 0; i < queue.size(); i++) {
+			int node = queue.get(i);
+			if (node < numClasses || gcRoots.get(node)) {
+				return getPath(node, target, nextOnPath);
+			}
+			for (long edge = referrers.getFirstEdge(node), end = referrers.getEdgesEnd(node); edge < end; edge++) {
+				int referrer = referrers.getTarget(edge);
+				if (nextOnPath.get(referrer) == -1) {
+					nextOnPath.put(referrer, node);
+					queue.add(referrer);
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns a shortest reference path to the given class or object, as described in
+	 * {@link #getPathFromGcRoot(int)}, or null if it is not reachable.
+	 */
+	public List<JavaHeapObject> getPathFromGcRoot(JavaHeapObject obj) {
+		int[] globalIndices = getPathFromGcRoot(obj.getGlobalObjectIndex());
+		if (globalIndices == null) {
+			return null;
+		}
+		List<JavaHeapObject> result = new ArrayList<>(globalIndices.length);
+		for (int globalIndex : globalIndices) {
+			result.add(snapshot.getObjectAtGlobalIndex(globalIndex));
+		}
+		return result;
+	}
+
+	private int[] getPath(int start, int target, IntToIntMap nextOnPath) {
+		IntArrayList path = new IntArrayList(16);
+		int node = start;
+		path.add(heapGraph.toGlobalObjectIndex(node));
+		while (node != target) {
+			node = nextOnPath.get(node);
+			path.add(heapGraph.toGlobalObjectIndex(node));
+		}
+		return path.toArray();
+	}
+
+	private int toNode(int globalObjectIndex) {
+		int node = heapGraph.toNode(globalObjectIndex);
+		if (node < 0) {
+			throw new IllegalArgumentException("No object with global index " + globalObjectIndex);
+		}
+		return node;
+	}
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.joverflow.util;
+
+import java.util.Arrays;
+
+/**
+ * Immediate dominators of the nodes of an {@link IntGraph} reachable from a given root. Node d
+ * dominates node n if every path from the root to n goes through d; the immediate dominator of n
+ * is the dominator of n closest to it.
+ * <p>
+ * The dominators are calculated with the Semi-NCA algorithm: semidominators are found as in the
+ * Lengauer-Tarjan algorithm, with path compression, and then each immediate dominator is found as
+ * the nearest common ancestor of the node's DFS parent and its semidominator, in the part of the
+ * dominator tree built so far. All the work is done in int arrays indexed by DFS number, and the
+ * depth-first search and path compression are iterative, so long reference chains in a heap don't
+ * cause a StackOverflowError.
+ */
+public class Dominators {
+	/** Returned by {@link #getImmediateDominator(int)} for nodes unreachable from the root. */
+	public static final int NONE = -1;
+
+	private final int root;
+	// For each node, its immediate dominator, or NONE if it is unreachable
+	private final int[] idom;
+	// The reachable nodes in DFS preorder. Each node comes after all of its dominators.
+	private final int[] preorder;
+	private final int numReachable;
+
+	private Dominators(int root, int[] idom, int[] preorder, int numReachable) {
+		this.root = root;
+		this.idom = idom;
+		this.preorder = preorder;
+		this.numReachable = numReachable;
+	}
+
+	/**
+	 * Calculates the dominators of the nodes in the given graph. The predecessors graph should be
+	 * the reverse of the successors graph, see {@link IntGraph#reverse()}.
+	 */
+	public static Dominators calculate(IntGraph successors, IntGraph predecessors, int root) {
+		int numNodes = successors.getNumNodes();
+
+		// Number the nodes reachable from the root in DFS preorder. All arrays except dfsNum and
+		// vertex are indexed by these numbers.
+		int[] dfsNum = new int[numNodes];
+		Arrays.fill(dfsNum, NONE);
+		int[] vertex = new int[numNodes];
+		int[] parent = new int[numNodes];
+		int[] stack = new int[numNodes];
+		long[] nextEdge = new long[numNodes];
+		int numReachable = 0;
+		int stackSize = 0;
+
+		dfsNum[root] = numReachable;
+		vertex[numReachable++] = root;
+		stack[stackSize] = root;
+		nextEdge[stackSize++] = successors.getFirstEdge(root);
+		while (stackSize > 0) {
+			int node = stack[stackSize - 1];
+			long edge = nextEdge[stackSize - 1];
+			long edgesEnd = successors.getEdgesEnd(node);
+			while (edge < edgesEnd && dfsNum[successors.getTarget(edge)] != NONE) {
+				edge++;
+			}
+			if (edge == edgesEnd) {
+				stackSize--;
+				continue;
+			}
+			nextEdge[stackSize - 1] = edge + 1;
+			int child = successors.getTarget(edge);
+			dfsNum[child] = numReachable;
+			parent[numReachable] = dfsNum[node];
+			vertex[numReachable++] = child;
+			stack[stackSize] = child;
+			nextEdge[stackSize++] = successors.getFirstEdge(child);
+		}
+		nextEdge = null;
+
+		// Calculate semidominators, processing the nodes in reverse preorder. The ancestor and
+		// label arrays represent the forest of processed nodes, with path compression.
+		int[] semi = new int[numReachable];
+		int[] label = new int[numReachable];
+		int[] ancestor = new int[numReachable];
+		for (int i = 0; i < numReachable; i++) {
+			semi[i] = i;
+			label[i] = i;
+			ancestor[i] = NONE;
+		}
+		for (int w = numReachable - 1; w > 0; w--) {
+			int node = vertex[w];
+			for (long edge = predecessors.getFirstEdge(node), end = predecessors.getEdgesEnd(node); edge < end;
+					edge++) {
+				int v = dfsNum[predecessors.getTarget(edge)];
+				if (v != NONE) {
+					int u = eval(v, ancestor, label, semi, stack);
+					if (semi[u] < semi[w]) {
+						semi[w] = semi[u];
+					}
+				}
+			}
+			ancestor[w] = parent[w];
+		}
+		ancestor = null;
+
+		// Calculate immediate dominators in preorder, so that the dominators of the parent are
+		// already known. The label array is not needed anymore and is reused to save memory.
+		int[] idomNum = label;
+		idomNum[0] = 0;
+		for (int w = 1; w < numReachable; w++) {
+			int x = parent[w];
+			while (x > semi[w]) {
+				x = idomNum[x];
+			}
+			idomNum[w] = x;
+		}
+
+		// Convert from DFS numbers to nodes, in place
+		int[] idom = dfsNum;
+		for (int node = 0; node < numNodes; node++) {
+			if (dfsNum[node] != NONE) {
+				idom[node] = vertex[idomNum[dfsNum[node]]];
+			}
+		}
+		return new Dominators(root, idom, vertex, numReachable);
+	}
+
+	/**
+	 * Returns the node with the minimum semidominator on the path from v to the root of its tree in
+	 * the forest, excluding that root, and compresses the path.
+	 */
+	private static int eval(int v, int[] ancestor, int[] label, int[] semi, int[] path) {
+		if (ancestor[v] == NONE) {
+			return v;
+		}
+		int pathLength = 0;
+		for (int x = v; ancestor[ancestor[x]] != NONE; x = ancestor[x]) {
+			path[pathLength++] = x;
+		}
+		while (pathLength > 0) {
+			int x = path[--pathLength];
+			int a = ancestor[x];
+			if (semi[label[a]] < semi[label[x]]) {
+				label[x] = label[a];
+			}
+			ancestor[x] = ancestor[a];
+		}
+		return label[v];
+	}
+
+	public int getRoot() {
+		return root;
+	}
+
+	/**
+	 * Returns the immediate dominator of the given node, the root itself for the root, or
+	 * {@link #NONE} if the node is unreachable from the root.
+	 */
+	public int getImmediateDominator(int node) {
+		return idom[node];
+	}
+
+	/**
+	 * Returns the immediate dominators of all nodes, as returned by
+	 * {@link #getImmediateDominator(int)}. The returned array is not a copy, and should not be
+	 * modified.
+	 */
+	public int[] getImmediateDominators() {
+		return idom;
+	}
+
+	public int getNumReachableNodes() {
+		return numReachable;
+	}
+
+	/**
+	 * Returns the reachable node with the given index, 0 &lt;= index &lt; getNumReachableNodes(). The
+	 * reachable nodes are in DFS preorder, so each node has a greater index than its immediate
+	 * dominator, and the root has index 0.
+	 */
+	public int getReachableNode(int index) {
+		return preorder[index];
+	}
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.joverflow.util;
+
+import java.util.ArrayList;
+
+/**
+ * A directed graph over int nodes 0..N-1, stored in the compressed sparse row form: the targets of
+ * all edges, grouped by source node, are kept in a single conceptual int array, and for each node
+ * the offset of its first edge in that array is kept in a long array. Thus the graph takes 4 bytes
+ * per edge and 8 bytes per node, and no Java object is created per node or edge.
+ * <p>
+ * Like in JavaObjectTable, the array of targets
+ * consists of multiple 1M-int chunks, so that it can be built incrementally and can hold more than
+ * 2^31 edges.
+ */
+public class IntGraph {
+	private static final int CHUNK_MAGNITUDE = 20; // Corresponds to 1024*1024
+	private static final int CHUNK_SIZE = 1 << CHUNK_MAGNITUDE;
+	private static final int POS_IN_CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private final int numNodes;
+	private final long[] edgeOffsets; // Edges of node i are at edgeOffsets[i]..edgeOffsets[i + 1] - 1
+	private final int[][] targets;
+
+	private IntGraph(int numNodes, long[] edgeOffsets, int[][] targets) {
+		this.numNodes = numNodes;
+		this.edgeOffsets = edgeOffsets;
+		this.targets = targets;
+	}
+
+	public int getNumNodes() {
+		return numNodes;
+	}
+
+	public long getNumEdges() {
+		return edgeOffsets[numNodes];
+	}
+
+	/** Returns the index of the first edge going out of the given node. */
+	public long getFirstEdge(int node) {
+		return edgeOffsets[node];
+	}
+
+	/** Returns the index that follows the last edge going out of the given node. */
+	public long getEdgesEnd(int node) {
+		return edgeOffsets[node + 1];
+	}
+
+	/** Returns the node that the edge with the given index points to. */
+	public int getTarget(long edge) {
+		return targets[(int) (edge >> CHUNK_MAGNITUDE)][(int) edge & POS_IN_CHUNK_MASK];
+	}
+
+	/**
+	 * Returns a graph with the same nodes as this one, and all edges reversed. The edges going out
+	 * of each node of the result are ordered by their target node.
+	 */
+	public IntGraph reverse() {
+		long numEdges = getNumEdges();
+		long[] reverseOffsets = new long[numNodes + 1];
+		for (long edge = 0; edge < numEdges; edge++) {
+			reverseOffsets[getTarget(edge) + 1]++;
+		}
+		for (int node = 0; node < numNodes; node++) {
+			reverseOffsets[node + 1] += reverseOffsets[node];
+		}
+
+		int[][] reverseTargets = allocateChunks(numEdges);
+		long[] nextEdge = new long[numNodes];
+		System.arraycopy(reverseOffsets, 0, nextEdge, 0, numNodes);
+		for (int node = 0; node < numNodes; node++) {
+			for (long edge = edgeOffsets[node], end = edgeOffsets[node + 1]; edge < end; edge++) {
+				long reverseEdge = nextEdge[getTarget(edge)]++;
+				reverseTargets[(int) (reverseEdge >> CHUNK_MAGNITUDE)][(int) reverseEdge & POS_IN_CHUNK_MASK] = node;
+			}
+		}
+		return new IntGraph(numNodes, reverseOffsets, reverseTargets);
+	}
+
+	private static int[][] allocateChunks(long numEdges) {
+		int numChunks = (int) ((numEdges + CHUNK_SIZE - 1) >> CHUNK_MAGNITUDE);
+		int[][] chunks = new int[numChunks][];
+		for (int i = 0; i < numChunks; i++) {
+			chunks[i] = new int[i < numChunks - 1 ? CHUNK_SIZE : (int) (numEdges - ((long) i << CHUNK_MAGNITUDE))];
+		}
+		return chunks;
+	}
+
+	/**
+	 * Builds the reverse of a graph without keeping the graph itself in memory, from parts of it
+	 * that are supplied twice, e.g. by reading them from the heap dump twice. In the first pass
+	 * each part is given to {@link #countEdges(int, IntGraph)}, which only counts the edges going
+	 * into each node. Then {@link #startPlacing()} allocates the result, and in the second pass
+	 * each part is given to {@link #placeEdges(int, IntGraph)}, which puts its edges into it. Thus
+	 * only one part at a time needs to exist besides the result, at the cost of producing the
+	 * parts twice. Parts should be supplied in the order of their source nodes in both passes, so
+	 * that, like with {@link IntGraph#reverse()}, the edges going out of each node of the result
+	 * are ordered by their target node.
+	 */
+	public static class ReverseBuilder {
+		private final int numNodes;
+		// In the first pass, edgeOffsets[i + 1] is the number of edges into node i. In the second
+		// pass, edgeOffsets[i] is where the next edge into node i is placed.
+		private final long[] edgeOffsets;
+		private int[][] targets;
+		private long numEdges;
+		private long numPlacedEdges;
+
+		public ReverseBuilder(int numNodes) {
+			this.numNodes = numNodes;
+			edgeOffsets = new long[numNodes + 1];
+		}
+
+		/**
+		 * Counts the edges of the given part of the graph, with its source nodes shifted by
+		 * firstSource.
+		 */
+		public void countEdges(int firstSource, IntGraph part) {
+			if (targets != null) {
+				throw new IllegalStateException("Edges counted after placing has started");
+			}
+			for (long edge = 0, end = part.getNumEdges(); edge < end; edge++) {
+				edgeOffsets[part.getTarget(edge) + 1]++;
+			}
+			numEdges += part.getNumEdges();
+		}
+
+		/**
+		 * Ends the first pass and allocates the result.
+		 */
+		public void startPlacing() {
+			for (int node = 0; node < numNodes; node++) {
+				edgeOffsets[node + 1] += edgeOffsets[node];
+			}
+			targets = allocateChunks(numEdges);
+		}
+
+		/**
+		 * Places the edges of the given part of the graph, which should be the same as in the
+		 * first pass, with its source nodes shifted by firstSource.
+		 */
+		public void placeEdges(int firstSource, IntGraph part) {
+			if (targets == null) {
+				throw new IllegalStateException("Edges placed before placing has started");
+			}
+			for (int node = 0; node < part.numNodes; node++) {
+				for (long edge = part.edgeOffsets[node], end = part.edgeOffsets[node + 1]; edge < end; edge++) {
+					long reverseEdge = edgeOffsets[part.getTarget(edge)]++;
+					int[] chunk = targets[(int) (reverseEdge >> CHUNK_MAGNITUDE)];
+					chunk[(int) reverseEdge & POS_IN_CHUNK_MASK] = firstSource + node;
+				}
+			}
+			numPlacedEdges += part.getNumEdges();
+		}
+
+		public IntGraph build() {
+			if (targets == null || numPlacedEdges != numEdges) {
+				throw new IllegalStateException(
+						"Placed " + numPlacedEdges + " edges out of " + numEdges + " counted");
+			}
+			// Now edgeOffsets[i] is the end of the edges into node i, i.e. the start of those into
+			// node i + 1
+			System.arraycopy(edgeOffsets, 0, edgeOffsets, 1, numNodes);
+			edgeOffsets[0] = 0;
+			return new IntGraph(numNodes, edgeOffsets, targets);
+		}
+	}
+
+	/**
+	 * Builds an IntGraph from edges that are added in the order of their source nodes.
+	 */
+	public static class Builder {
+		private final int numNodes;
+		private final long[] edgeOffsets;
+		private final ArrayList<int[]> chunksAsList = new ArrayList<>();
+
+		private int[] curChunk;
+		private int posInCurChunk = CHUNK_SIZE;
+		private long numEdges;
+		private int curSource;
+
+		public Builder(int numNodes) {
+			this.numNodes = numNodes;
+			edgeOffsets = new long[numNodes + 1];
+		}
+
+		/**
+		 * Adds an edge. The source of each added edge should be the same as, or greater than, the
+		 * source of the previously added one.
+		 */
+		public void addEdge(int source, int target) {
+			if (source < curSource) {
+				throw new IllegalArgumentException(
+						"Edge from " + source + " added after an edge from " + curSource);
+			}
+			while (curSource < source) {
+				edgeOffsets[++curSource] = numEdges;
+			}
+			if (posInCurChunk == CHUNK_SIZE) {
+				curChunk = new int[CHUNK_SIZE];
+				chunksAsList.add(curChunk);
+				posInCurChunk = 0;
+			}
+			curChunk[posInCurChunk++] = target;
+			numEdges++;
+		}
+
+		/**
+		 * Adds all edges of the given graph, with its source nodes shifted by firstSource. This
+		 * allows parts of a graph built separately, e.g. in parallel, to be put together. The same
+		 * ordering requirement as for {@link #addEdge(int, int)} applies.
+		 */
+		public void addEdges(int firstSource, IntGraph part) {
+			for (int node = 0; node < part.numNodes; node++) {
+				for (long edge = part.edgeOffsets[node], end = part.edgeOffsets[node + 1]; edge < end; edge++) {
+					addEdge(firstSource + node, part.getTarget(edge));
+				}
+			}
+		}
+
+		public IntGraph build() {
+			while (curSource < numNodes) {
+				edgeOffsets[++curSource] = numEdges;
+			}
+			int[][] targets = chunksAsList.toArray(new int[chunksAsList.size()][]);
+			return new IntGraph(numNodes, edgeOffsets, targets);
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -46,6 +46,9 @@ package org.openjdk.jmc.joverflow.util;
  */
 public abstract class NumberToIntMap {
 
+	/** Close to the maximum array size supported by JVMs */
+	private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
 	protected int[] values;
 
 	protected int size, capacity, threshold;
@@ -56,7 +59,7 @@ public abstract class NumberToIntMap {
 		if (expectedMaxSize < 11) {
 			expectedMaxSize = 11; // Protect ourselves from stupidly small capacity
 		}
-		capacity = (4 * expectedMaxSize) / 3;
+		capacity = capacityFor(4L * expectedMaxSize / 3);
 		createTable();
 	}
 
@@ -78,8 +81,8 @@ public abstract class NumberToIntMap {
 	 * 10% larger or smaller than size * 4 / 3. If not, capacity is adjusted and table is rehashed.
 	 */
 	public void adjustCapacityIfNeeded() {
-		int optimalCapacity = (4 * size / 3 + 10) | 1;
-		int avgCapacityValue = (optimalCapacity + capacity) / 2;
+		int optimalCapacity = capacityFor((4L * size / 3 + 10) | 1);
+		long avgCapacityValue = ((long) optimalCapacity + capacity) / 2;
 		if (((double) Math.abs(optimalCapacity - capacity)) / avgCapacityValue > 0.1) {
 			rehash(optimalCapacity);
 		}
@@ -88,10 +91,27 @@ public abstract class NumberToIntMap {
 	protected void finishPut() {
 		size++;
 		if (size > threshold) {
-			rehash((capacity * 3 / 2) | 1);
+			if (capacity < MAX_CAPACITY) {
+				rehash(capacityFor((capacity * 3L / 2) | 1));
+			} else if (threshold < capacity - 2) {
+				// Can't grow any more, so let the table fill up, keeping at least one free slot
+				// for the lookups of missing keys to terminate
+				threshold = capacity - 2;
+			} else {
+				throw new IllegalStateException("Too many entries for the table: " + size);
+			}
 		}
 	}
 
+	/**
+	 * Returns the given capacity, or the maximum capacity if the former is too big for an array.
+	 * Capacity is calculated in long numbers, since for tables with more than ~500 million entries
+	 * it overflows int.
+	 */
+	private static int capacityFor(long capacity) {
+		return (int) Math.min(capacity, MAX_CAPACITY);
+	}
+
 	protected final int nextKeyIndex(int idx) {
 		// It looks like avoiding '%' operation here, using 'if' instead,
 		// improves performance noticeably.
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -39,7 +39,8 @@ import java.util.List;
 /**
  * This object is used to collect various kinds of data that should be printed only in verbose mode.
  * However, in normal mode we still record verbose warnings, so that at least a short summary can be
- * presented to the user.
+ * presented to the user. Warnings and debug messages can be added by several threads at the same
+ * time.
  */
 public class VerboseOutputCollector {
 	private final HashSet<String> warningKinds;
@@ -52,12 +53,12 @@ public class VerboseOutputCollector {
 		debug = new ArrayList<>();
 	}
 
-	public void addWarning(String warningKind, String msg) {
+	public synchronized void addWarning(String warningKind, String msg) {
 		warnings.add("WARNING: " + warningKind + ' ' + msg);
 		warningKinds.add(warningKind);
 	}
 
-	public void debug(String msg) {
+	public synchronized void debug(String msg) {
 		debug.add(msg);
 	}
 
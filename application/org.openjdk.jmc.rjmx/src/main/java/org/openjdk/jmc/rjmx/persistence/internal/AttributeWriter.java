@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2023, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -33,10 +33,14 @@
 package org.openjdk.jmc.rjmx.persistence.internal;
 
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.logging.Level;
 
@@ -47,11 +51,16 @@ import org.openjdk.jmc.rjmx.common.subscription.IMRIValueListener;
 import org.openjdk.jmc.rjmx.common.subscription.MRI;
 import org.openjdk.jmc.rjmx.common.subscription.MRIValueEvent;
 
-class AttributeWriter implements IMRIValueListener {
+public class AttributeWriter implements IMRIValueListener {
 
-	static final String SERIES_FILE_NAME = "series.info"; //$NON-NLS-1$
-	private long currentFileSize;
-	private DataOutputStream currentFileStream;
+	public static final String SERIES_FILE_NAME = "series.info"; //$NON-NLS-1$
+	// the number of values after which the current block is written to disk
+	private static final int FLUSH_INTERVAL = 64;
+	private long currentBlockOffset;
+	private CompressedBlock.Encoder currentBlock;
+	private int writtenPayloadLength;
+	private int unflushedCount;
+	private FileChannel currentChannel;
 	private File currentFile;
 	private File dir;
 	private final MRI mri;
@@ -59,7 +68,7 @@ class AttributeWriter implements IMRIValueListener {
 	private Boolean isRunning;
 	private long maxFileSize;
 
-	AttributeWriter(MRI mri, File persistenceDir, long maxFileSize) {
+	public AttributeWriter(MRI mri, File persistenceDir, long maxFileSize) {
 		this.mri = mri;
 		setMaxFileSize(maxFileSize);
 		setPersistenceDir(persistenceDir);
@@ -74,8 +83,7 @@ class AttributeWriter implements IMRIValueListener {
 		if (!persistenceDir.equals(dir)) {
 			// Directory changed
 			dir = persistenceDir;
-			IOToolkit.closeSilently(currentFileStream);
-			currentFileStream = null;
+			closeCurrentFile();
 			currentFile = null;
 			if (dir.isDirectory()) {
 				ArrayList<PersistenceFile> existingFiles = new ArrayList<>();
@@ -94,8 +102,12 @@ class AttributeWriter implements IMRIValueListener {
 				}
 				existingFiles.sort(PersistenceFile.PERSISTENCE_FILE_START_COMPARATOR);
 				if (existingFiles.size() > 0) {
-					currentFile = existingFiles.get(existingFiles.size() - 1).file;
-					currentFileSize = currentFile.length();
+					// only files in the compressed format are appended to
+					PersistenceFile lastFile = existingFiles.get(existingFiles.size() - 1);
+					if (lastFile.compressed) {
+						currentFile = lastFile.file;
+						currentBlockOffset = lastFile.getNextBlockOffset();
+					}
 				}
 			}
 			if (!Boolean.FALSE.equals(isRunning)) {
@@ -104,7 +116,7 @@ class AttributeWriter implements IMRIValueListener {
 		}
 	}
 
-	synchronized void setEnabled(boolean enabled) {
+	public synchronized void setEnabled(boolean enabled) {
 		isEnabled = enabled;
 	}
 
@@ -112,14 +124,13 @@ class AttributeWriter implements IMRIValueListener {
 		return isEnabled;
 	}
 
-	synchronized void start() {
+	public synchronized void start() {
 		isRunning = null;
 	}
 
-	synchronized void stop() {
+	public synchronized void stop() {
 		isRunning = false;
-		IOToolkit.closeSilently(currentFileStream);
-		currentFileStream = null;
+		closeCurrentFile();
 	}
 
 	@Override
@@ -153,8 +164,8 @@ class AttributeWriter implements IMRIValueListener {
 					createNewWriter();
 					doWrite(timestamp, value);
 				} catch (IOException e1) {
-					IOToolkit.closeSilently(currentFileStream);
-					currentFileStream = null;
+					IOToolkit.closeSilently(currentChannel);
+					currentChannel = null;
 					currentFile = null;
 					RJMXPlugin.getDefault().getLogger().log(Level.WARNING, "Failed to write event", e1); //$NON-NLS-1$
 				}
@@ -176,18 +187,25 @@ class AttributeWriter implements IMRIValueListener {
 	}
 
 	private void doWrite(long timestamp, double value) throws IOException {
-		currentFileStream.writeLong(timestamp);
-		currentFileStream.writeDouble(value);
-		currentFileSize += PersistenceFile.EVENT_SIZE;
+		if (!currentBlock.append(timestamp, value)) {
+			flushBlock();
+			currentBlockOffset += CompressedBlock.BLOCK_SIZE;
+			startBlock();
+			if (currentBlockOffset + CompressedBlock.BLOCK_SIZE > maxFileSize) {
+				createNewWriter();
+			}
+			currentBlock.append(timestamp, value);
+		}
+		if (++unflushedCount >= FLUSH_INTERVAL) {
+			flushBlock();
+		}
 	}
 
 	private void ensureWriter() throws IOException {
-		if (currentFileSize + PersistenceFile.EVENT_SIZE > maxFileSize) {
-			createNewWriter();
-		} else if (currentFileStream == null) {
-			if (currentFile != null) {
-				currentFileStream = new DataOutputStream(
-						new BufferedOutputStream(new FileOutputStream(currentFile, true)));
+		if (currentChannel == null) {
+			if (currentFile != null && currentBlockOffset + CompressedBlock.BLOCK_SIZE <= maxFileSize) {
+				currentChannel = FileChannel.open(currentFile.toPath(), StandardOpenOption.WRITE);
+				startBlock();
 			} else {
 				createNewWriter();
 			}
@@ -195,17 +213,67 @@ class AttributeWriter implements IMRIValueListener {
 	}
 
 	private void createNewWriter() throws IOException {
-		IOToolkit.closeSilently(currentFileStream);
-		currentFileStream = null;
+		closeCurrentFile();
 		File file;
 		do {
-			String fileName = "values_" + System.currentTimeMillis() + PersistenceFile.FILE_EXT; //$NON-NLS-1$
+			String fileName = "values_" + System.currentTimeMillis() + PersistenceFile.COMPRESSED_FILE_EXT; //$NON-NLS-1$
 			file = new File(dir, fileName);
 		} while (file.exists());
-		currentFileStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
-		currentFileStream.writeUTF(mri.getQualifiedName());
-		currentFileStream.flush();
-		currentFileSize = file.length();
+		ByteArrayOutputStream header = new ByteArrayOutputStream();
+		DataOutputStream headerStream = new DataOutputStream(header);
+		headerStream.writeInt(PersistenceFile.COMPRESSED_MAGIC);
+		headerStream.writeByte(PersistenceFile.COMPRESSED_VERSION);
+		headerStream.writeUTF(mri.getQualifiedName());
+		currentChannel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
 		currentFile = file;
+		writeFully(ByteBuffer.wrap(header.toByteArray()), 0);
+		currentBlockOffset = header.size();
+		startBlock();
+	}
+
+	private void startBlock() {
+		currentBlock = new CompressedBlock.Encoder();
+		writtenPayloadLength = 0;
+		unflushedCount = 0;
+	}
+
+	/**
+	 * Write the data added to the current block since the last flush. The payload is written
+	 * before the header, so that the value count in the header never covers data that is not yet
+	 * on disk.
+	 */
+	private void flushBlock() throws IOException {
+		if (currentChannel == null || currentBlock == null || currentBlock.getCount() == 0) {
+			return;
+		}
+		int payloadLength = currentBlock.getPayloadLength();
+		// the last byte of the previous write may have been partially filled
+		int from = Math.max(writtenPayloadLength - 1, 0);
+		writeFully(ByteBuffer.wrap(currentBlock.getPayload(), from, payloadLength - from),
+				currentBlockOffset + CompressedBlock.HEADER_SIZE + from);
+		ByteBuffer header = ByteBuffer.allocate(CompressedBlock.HEADER_SIZE);
+		header.putLong(CompressedBlock.FIRST_TIMESTAMP_OFFSET, currentBlock.getFirstTimestamp());
+		header.putLong(CompressedBlock.LAST_TIMESTAMP_OFFSET, currentBlock.getLastTimestamp());
+		header.putInt(CompressedBlock.COUNT_OFFSET, currentBlock.getCount());
+		writeFully(header, currentBlockOffset);
+		writtenPayloadLength = payloadLength;
+		unflushedCount = 0;
+	}
+
+	private void writeFully(ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			position += currentChannel.write(buffer, position);
+		}
+	}
+
+	private void closeCurrentFile() {
+		try {
+			flushBlock();
+		} catch (IOException e) {
+			RJMXPlugin.getDefault().getLogger().log(Level.WARNING, "Failed to write events", e); //$NON-NLS-1$
+		}
+		IOToolkit.closeSilently(currentChannel);
+		currentChannel = null;
+		currentBlock = null;
 	}
 }
@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.rjmx.persistence.internal;
+
+import java.nio.ByteBuffer;
+
+import org.openjdk.jmc.common.xydata.DefaultTimestampedData;
+import org.openjdk.jmc.common.xydata.ITimestampedData;
+
+/**
+ * Encoding of a fixed size block of persisted attribute values.
+ * <p>
+ * A block starts with a header holding the first and last timestamp of the block, in epoch ns, and
+ * the number of values in the block. The header is followed by a bit stream where the timestamps are
+ * stored as delta-of-deltas and the values as XOR:s with the previous value, as described in
+ * "Gorilla: A Fast, Scalable, In-Memory Time Series Database". The timestamps are stored with
+ * millisecond precision, which is the precision of the attribute value events.
+ */
+public final class CompressedBlock {
+
+	public static final int BLOCK_SIZE = 4096;
+	public static final int HEADER_SIZE = 8 + 8 + 4;
+	public static final int FIRST_TIMESTAMP_OFFSET = 0;
+	public static final int LAST_TIMESTAMP_OFFSET = 8;
+	public static final int COUNT_OFFSET = 16;
+	private static final int PAYLOAD_SIZE = BLOCK_SIZE - HEADER_SIZE;
+	private static final long NANOS_PER_MILLI = 1000 * 1000L;
+	// the largest possible encoding of a value: delta-of-delta escape and value with a new window
+	private static final int MAX_VALUE_BITS = 4 + 32 + 2 + 5 + 6 + 64;
+
+	private CompressedBlock() {
+		throw new AssertionError("Not to be instantiated!"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Appends values to a block. The block content is available through {@link #getPayload()} and
+	 * the header getters.
+	 */
+	public static final class Encoder {
+		private final byte[] payload = new byte[PAYLOAD_SIZE];
+		private int bitPosition;
+		private int count;
+		private long firstTimestamp;
+		private long lastTimestamp;
+		private long previousMillis;
+		private long previousDelta;
+		private long previousValueBits;
+		private int previousLeadingZeros = -1;
+		private int previousTrailingZeros;
+
+		/**
+		 * @return {@code true} if the value was added, {@code false} if the block is full
+		 */
+		public boolean append(long timestamp, double value) {
+			long millis = Math.floorDiv(timestamp, NANOS_PER_MILLI);
+			long valueBits = Double.doubleToRawLongBits(value);
+			if (count == 0) {
+				firstTimestamp = timestamp;
+				lastTimestamp = timestamp;
+				previousMillis = millis;
+				previousDelta = 0;
+				previousValueBits = valueBits;
+				writeBits(valueBits, 64);
+				count++;
+				return true;
+			}
+			long delta = millis - previousMillis;
+			long deltaOfDelta = delta - previousDelta;
+			if (bitPosition + MAX_VALUE_BITS > PAYLOAD_SIZE * 8 || deltaOfDelta <= Integer.MIN_VALUE
+					|| deltaOfDelta > Integer.MAX_VALUE) {
+				return false;
+			}
+			writeTimestamp(deltaOfDelta);
+			writeValue(valueBits);
+			lastTimestamp = timestamp;
+			previousMillis = millis;
+			previousDelta = delta;
+			count++;
+			return true;
+		}
+
+		private void writeTimestamp(long deltaOfDelta) {
+			if (deltaOfDelta == 0) {
+				writeBits(0, 1);
+			} else if (deltaOfDelta >= -63 && deltaOfDelta <= 64) {
+				writeBits(0b10, 2);
+				writeBits(deltaOfDelta, 7);
+			} else if (deltaOfDelta >= -255 && deltaOfDelta <= 256) {
+				writeBits(0b110, 3);
+				writeBits(deltaOfDelta, 9);
+			} else if (deltaOfDelta >= -2047 && deltaOfDelta <= 2048) {
+				writeBits(0b1110, 4);
+				writeBits(deltaOfDelta, 12);
+			} else {
+				writeBits(0b1111, 4);
+				writeBits(deltaOfDelta, 32);
+			}
+		}
+
+		private void writeValue(long valueBits) {
+			long xor = valueBits ^ previousValueBits;
+			previousValueBits = valueBits;
+			if (xor == 0) {
+				writeBits(0, 1);
+				return;
+			}
+			int leadingZeros = Math.min(Long.numberOfLeadingZeros(xor), 31);
+			int trailingZeros = Long.numberOfTrailingZeros(xor);
+			if (previousLeadingZeros >= 0 && leadingZeros >= previousLeadingZeros
+					&& trailingZeros >= previousTrailingZeros) {
+				// the meaningful bits fit in the previous window
+				writeBits(0b10, 2);
+				writeBits(xor >>> previousTrailingZeros, 64 - previousLeadingZeros - previousTrailingZeros);
+			} else {
+				int significantBits = 64 - leadingZeros - trailingZeros;
+				writeBits(0b11, 2);
+				writeBits(leadingZeros, 5);
+				// 64 significant bits are stored as 0
+				writeBits(significantBits, 6);
+				writeBits(xor >>> trailingZeros, significantBits);
+				previousLeadingZeros = leadingZeros;
+				previousTrailingZeros = trailingZeros;
+			}
+		}
+
+		private void writeBits(long bits, int length) {
+			for (int i = length - 1; i >= 0; i--) {
+				if (((bits >>> i) & 1) != 0) {
+					payload[bitPosition >>> 3] |= (byte) (0x80 >>> (bitPosition & 7));
+				}
+				bitPosition++;
+			}
+		}
+
+		public int getCount() {
+			return count;
+		}
+
+		public long getFirstTimestamp() {
+			return firstTimestamp;
+		}
+
+		public long getLastTimestamp() {
+			return lastTimestamp;
+		}
+
+		public byte[] getPayload() {
+			return payload;
+		}
+
+		/**
+		 * @return the number of payload bytes that contain data
+		 */
+		public int getPayloadLength() {
+			return (bitPosition + 7) >>> 3;
+		}
+	}
+
+	/**
+	 * Decode the values of a block.
+	 *
+	 * @param buffer
+	 *            a buffer with the block data
+	 * @param offset
+	 *            the position of the block in the buffer
+	 * @param count
+	 *            the number of values to decode
+	 * @param target
+	 *            the array to store the values in
+	 * @param targetIndex
+	 *            the position of the first value in the target array
+	 * @throws IndexOutOfBoundsException
+	 *             if the values extend past the end of the block or the buffer
+	 */
+	public static void decode(ByteBuffer buffer, int offset, int count, ITimestampedData[] target, int targetIndex) {
+		if (count == 0) {
+			return;
+		}
+		BitReader reader = new BitReader(buffer, offset + HEADER_SIZE,
+				Math.min((long) offset + BLOCK_SIZE, buffer.limit()));
+		long timestamp = buffer.getLong(offset + FIRST_TIMESTAMP_OFFSET);
+		long millis = Math.floorDiv(timestamp, NANOS_PER_MILLI);
+		long delta = 0;
+		long valueBits = reader.readBits(64);
+		int leadingZeros = 0;
+		int trailingZeros = 0;
+		target[targetIndex] = new DefaultTimestampedData(timestamp, Double.longBitsToDouble(valueBits));
+		for (int i = 1; i < count; i++) {
+			delta += readDeltaOfDelta(reader);
+			millis += delta;
+			if (reader.readBit()) {
+				if (reader.readBit()) {
+					leadingZeros = (int) reader.readBits(5);
+					int significantBits = (int) reader.readBits(6);
+					if (significantBits == 0) {
+						significantBits = 64;
+					}
+					trailingZeros = 64 - leadingZeros - significantBits;
+				}
+				valueBits ^= reader.readBits(64 - leadingZeros - trailingZeros) << trailingZeros;
+			}
+			target[targetIndex + i] = new DefaultTimestampedData(millis * NANOS_PER_MILLI,
+					Double.longBitsToDouble(valueBits));
+		}
+	}
+
+	private static long readDeltaOfDelta(BitReader reader) {
+		if (!reader.readBit()) {
+			return 0;
+		} else if (!reader.readBit()) {
+			return reader.readSignedBits(7);
+		} else if (!reader.readBit()) {
+			return reader.readSignedBits(9);
+		} else if (!reader.readBit()) {
+			return reader.readSignedBits(12);
+		}
+		return reader.readSignedBits(32);
+	}
+
+	private static final class BitReader {
+		private final ByteBuffer buffer;
+		private final long endBitPosition;
+		private long bitPosition;
+
+		BitReader(ByteBuffer buffer, int offset, long end) {
+			this.buffer = buffer;
+			this.bitPosition = offset * 8L;
+			this.endBitPosition = end * 8;
+		}
+
+		boolean readBit() {
+			if (bitPosition >= endBitPosition) {
+				throw new IndexOutOfBoundsException("Read past the end of the block"); //$NON-NLS-1$
+			}
+			int b = buffer.get((int) (bitPosition >>> 3));
+			boolean bit = (b & (0x80 >>> (bitPosition & 7))) != 0;
+			bitPosition++;
+			return bit;
+		}
+
+		long readBits(int length) {
+			long bits = 0;
+			for (int i = 0; i < length; i++) {
+				bits = (bits << 1) | (readBit() ? 1 : 0);
+			}
+			return bits;
+		}
+
+		/**
+		 * Read a two's complement value. The range of the delta-of-delta buckets are shifted by one
+		 * compared to the signed range of the bit length, so the largest value wraps around to the
+		 * smallest negative value, which is never written.
+		 */
+		long readSignedBits(int length) {
+			long bits = readBits(length);
+			long value = (bits << (64 - length)) >> (64 - length);
+			return value == -(1L << (length - 1)) ? 1L << (length - 1) : value;
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2023, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -38,6 +38,10 @@ import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Locale;
 
@@ -45,15 +49,29 @@ import org.openjdk.jmc.common.xydata.DefaultTimestampedData;
 import org.openjdk.jmc.common.xydata.ITimestampedData;
 import org.openjdk.jmc.rjmx.common.subscription.MRI;
 
-class PersistenceFile {
+/**
+ * A file with persisted attribute values. There are two formats:
+ * <ul>
+ * <li>The original format where the values are stored as raw timestamp and double pairs.</li>
+ * <li>The compressed format where the values are stored in fixed size {@link CompressedBlock
+ * blocks}. The headers of the blocks are used as a time index, so that only the blocks that
+ * overlap a requested time range need to be decoded.</li>
+ * </ul>
+ * New data is always written in the compressed format.
+ */
+public class PersistenceFile {
 
 	static final String FILE_EXT = ".persisted_jmx_data"; //$NON-NLS-1$
+	static final String COMPRESSED_FILE_EXT = ".persisted_jmx_blocks"; //$NON-NLS-1$
+	static final int COMPRESSED_MAGIC = 0x4A4D4342; // JMCB
+	static final byte COMPRESSED_VERSION = 1;
 
 	public static final FilenameFilter FILTER = new FilenameFilter() {
 
 		@Override
 		public boolean accept(File dir, String name) {
-			return name.toLowerCase(Locale.ENGLISH).endsWith(FILE_EXT);
+			String lowerCaseName = name.toLowerCase(Locale.ENGLISH);
+			return lowerCaseName.endsWith(FILE_EXT) || lowerCaseName.endsWith(COMPRESSED_FILE_EXT);
 		}
 	};
 
@@ -66,6 +84,7 @@ class PersistenceFile {
 
 	static final int EVENT_SIZE = 8 + 8;
 	final File file;
+	final boolean compressed;
 	ITimestampedData[] events;
 	final long eventsStart;
 	final int eventCount;
@@ -73,13 +92,36 @@ class PersistenceFile {
 	final long end;
 	final MRI mri;
 	final long fileLen;
+	// the time index of the compressed format
+	private int[] blockOffsets;
+	private long[] blockStarts;
+	private long[] blockEnds;
+	private int[] blockCounts;
+	private boolean truncated;
 
-	PersistenceFile(File file) throws IOException {
+	public PersistenceFile(File file) throws IOException {
 		this.file = file;
+		compressed = file.getName().toLowerCase(Locale.ENGLISH).endsWith(COMPRESSED_FILE_EXT);
 		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) { //$NON-NLS-1$
+			if (compressed) {
+				if (raf.readInt() != COMPRESSED_MAGIC || raf.readByte() != COMPRESSED_VERSION) {
+					throw new IOException("Unsupported file format: " + file.getPath()); //$NON-NLS-1$
+				}
+			}
 			mri = MRI.createFromQualifiedName(raf.readUTF());
 			fileLen = raf.length();
 			eventsStart = raf.getFilePointer();
+			if (compressed) {
+				eventCount = readBlockIndex(raf.getChannel());
+				if (eventCount > 0) {
+					start = blockStarts[0];
+					end = blockEnds[blockEnds.length - 1];
+				} else {
+					start = Long.MAX_VALUE;
+					end = Long.MAX_VALUE;
+				}
+				return;
+			}
 			eventCount = (int) ((fileLen - eventsStart) / EVENT_SIZE);
 			if (eventCount > 0) {
 				start = raf.readLong();
@@ -92,11 +134,129 @@ class PersistenceFile {
 		}
 	}
 
-	boolean isCorrupt() {
+	private int readBlockIndex(FileChannel channel) throws IOException {
+		if (fileLen > Integer.MAX_VALUE) {
+			throw new IOException("File too large: " + file.getPath()); //$NON-NLS-1$
+		}
+		ByteBuffer header = ByteBuffer.allocate(CompressedBlock.HEADER_SIZE);
+		int blockCount = (int) ((fileLen - eventsStart + CompressedBlock.BLOCK_SIZE - 1) / CompressedBlock.BLOCK_SIZE);
+		blockOffsets = new int[blockCount];
+		blockStarts = new long[blockCount];
+		blockEnds = new long[blockCount];
+		blockCounts = new int[blockCount];
+		int validBlocks = 0;
+		int totalCount = 0;
+		for (int i = 0; i < blockCount; i++) {
+			int offset = (int) (eventsStart + (long) i * CompressedBlock.BLOCK_SIZE);
+			if (offset + CompressedBlock.HEADER_SIZE > fileLen) {
+				// blocks are always written with some payload after the header
+				throw new IOException("Truncated block header in file " + file.getPath()); //$NON-NLS-1$
+			}
+			header.clear();
+			readFully(channel, header, offset);
+			int count = header.getInt(CompressedBlock.COUNT_OFFSET);
+			if (count < 0) {
+				throw new IOException("Corrupt block in file " + file.getPath()); //$NON-NLS-1$
+			}
+			if (count > 0) {
+				blockOffsets[validBlocks] = offset;
+				blockStarts[validBlocks] = header.getLong(CompressedBlock.FIRST_TIMESTAMP_OFFSET);
+				blockEnds[validBlocks] = header.getLong(CompressedBlock.LAST_TIMESTAMP_OFFSET);
+				blockCounts[validBlocks] = count;
+				validBlocks++;
+				totalCount += count;
+			}
+		}
+		blockOffsets = Arrays.copyOf(blockOffsets, validBlocks);
+		blockStarts = Arrays.copyOf(blockStarts, validBlocks);
+		blockEnds = Arrays.copyOf(blockEnds, validBlocks);
+		blockCounts = Arrays.copyOf(blockCounts, validBlocks);
+		if (validBlocks > 0) {
+			// only the last block can be cut short by an interrupted write
+			int last = validBlocks - 1;
+			try {
+				CompressedBlock.decode(readBlocks(channel, last, last), 0, blockCounts[last],
+						new ITimestampedData[blockCounts[last]], 0);
+			} catch (IndexOutOfBoundsException e) {
+				truncated = true;
+			}
+		}
+		return totalCount;
+	}
+
+	/**
+	 * Read the bytes of a range of blocks. The file is read rather than mapped, so that no mapping
+	 * outlives the query.
+	 *
+	 * @return a buffer starting at the first block, which is shorter than the blocks if the file is
+	 *         truncated
+	 */
+	private ByteBuffer readBlocks(FileChannel channel, int fromBlock, int toBlock) throws IOException {
+		long end = Math.min((long) blockOffsets[toBlock] + CompressedBlock.BLOCK_SIZE, fileLen);
+		ByteBuffer buffer = ByteBuffer.allocate((int) (end - blockOffsets[fromBlock]));
+		readFully(channel, buffer, blockOffsets[fromBlock]);
+		return buffer;
+	}
+
+	private void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new IOException("Unexpected end of file " + file.getPath()); //$NON-NLS-1$
+			}
+		}
+	}
+
+	public boolean isCorrupt() {
+		if (compressed) {
+			// truncated block headers are rejected when the file is opened
+			return truncated;
+		}
 		return eventsStart + (long) eventCount * EVENT_SIZE != fileLen;
 	}
 
-	synchronized ITimestampedData[] getEvents(long min, long max) throws IOException {
+	/**
+	 * @return the offset where the next block should be written when appending to a compressed file
+	 */
+	public long getNextBlockOffset() {
+		long blocks = (fileLen - eventsStart + CompressedBlock.BLOCK_SIZE - 1) / CompressedBlock.BLOCK_SIZE;
+		return eventsStart + blocks * CompressedBlock.BLOCK_SIZE;
+	}
+
+	/**
+	 * Get the events of the file. For compressed files, only the blocks overlapping the range and
+	 * the blocks next to them are read, so that there are events on both sides of the range.
+	 *
+	 * @throws IOException
+	 *             if the file could not be read or a block is truncated
+	 */
+	public synchronized ITimestampedData[] getEvents(long min, long max) throws IOException {
+		if (compressed) {
+			int fromBlock = Math.max(firstBlockEndingAtOrAfter(min) - 1, 0);
+			int toBlock = Math.min(firstBlockEndingAtOrAfter(max) + 1, blockCounts.length - 1);
+			if (toBlock < fromBlock) {
+				return new ITimestampedData[0];
+			}
+			int count = 0;
+			for (int i = fromBlock; i <= toBlock; i++) {
+				count += blockCounts[i];
+			}
+			ITimestampedData[] rangeEvents = new ITimestampedData[count];
+			ByteBuffer blockData;
+			try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+				blockData = readBlocks(channel, fromBlock, toBlock);
+			}
+			int index = 0;
+			try {
+				for (int i = fromBlock; i <= toBlock; i++) {
+					CompressedBlock.decode(blockData, blockOffsets[i] - blockOffsets[fromBlock], blockCounts[i],
+							rangeEvents, index);
+					index += blockCounts[i];
+				}
+			} catch (IndexOutOfBoundsException e) {
+				throw new IOException("Truncated block in file " + file.getPath(), e); //$NON-NLS-1$
+			}
+			return rangeEvents;
+		}
 		if (events == null) {
 			// TODO: For now read all data
 			events = new ITimestampedData[eventCount];
@@ -107,6 +267,20 @@ class PersistenceFile {
 		return events;
 	}
 
+	private int firstBlockEndingAtOrAfter(long x) {
+		int low = 0;
+		int high = blockEnds.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (blockEnds[mid] < x) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
 	MRI getMRI() {
 		return mri;
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2023, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -65,15 +65,37 @@ public class PersistenceReader implements IMRIService, IAttributeStorageService
 	private static class FileIterator implements Iterator<ITimestampedData> {
 		int nextIndex;
 		ITimestampedData[] currentFileData;
-		Iterator<PersistenceFile> files;
+		List<PersistenceFile> files;
+		int nextFile;
 		long min;
 		long max;
+		long queryMin;
+		long queryMax;
+		boolean pastQuery;
 		ITimestampedData next;
 
-		FileIterator(Iterator<PersistenceFile> data, long min, long max) {
+		/**
+		 * @param data
+		 *            the files, sorted by start time
+		 * @param min
+		 *            the start of the series
+		 * @param max
+		 *            the end of the series
+		 * @param queryMin
+		 *            the start of the requested range
+		 * @param queryMax
+		 *            the end of the requested range
+		 */
+		FileIterator(List<PersistenceFile> data, long min, long max, long queryMin, long queryMax) {
 			files = data;
 			this.min = min;
 			this.max = max;
+			this.queryMin = queryMin;
+			this.queryMax = queryMax;
+			// start with the last file before the requested range, so that there is data to the left of it
+			while (nextFile + 1 < files.size() && files.get(nextFile + 1).start < queryMin) {
+				nextFile++;
+			}
 			if (max > min) {
 				binarySearchFirst();
 			}
@@ -115,6 +137,10 @@ public class PersistenceReader implements IMRIService, IAttributeStorageService
 			} else {
 				next = null;
 			}
+			if (next == null) {
+				// drop the decoded events as soon as the iteration is done
+				currentFileData = null;
+			}
 			return tmp;
 		}
 
@@ -125,14 +151,19 @@ public class PersistenceReader implements IMRIService, IAttributeStorageService
 
 		private boolean findNextFile() {
 			currentFileData = null;
-			while (files.hasNext()) {
-				PersistenceFile file = files.next();
+			while (nextFile < files.size() && !pastQuery) {
+				PersistenceFile file = files.get(nextFile++);
 				if (file.end >= min) {
 					if (file.start >= max) {
 						return false;
 					}
+					/*
+					 * Stop after the first file reaching past the requested range. The events read
+					 * from it include data to the right of the range, so later files are not needed.
+					 */
+					pastQuery = file.end > queryMax;
 					try {
-						currentFileData = file.getEvents(min, max);
+						currentFileData = file.getEvents(queryMin, queryMax);
 						if (currentFileData.length > 0) {
 							nextIndex = 0;
 							return true;
@@ -167,7 +198,7 @@ public class PersistenceReader implements IMRIService, IAttributeStorageService
 		@Override
 		public Iterator<ITimestampedData> createIterator(long min, long max) {
 			if (this.min <= max && this.max >= min) {
-				return new FileIterator(files.iterator(), this.min, this.max);
+				return new FileIterator(files, this.min, this.max, min, max);
 			} else {
 				return Collections.<ITimestampedData> emptyList().iterator();
 			}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2020 Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026 Oracle and/or its affiliates. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -50,7 +50,7 @@ public class TestJavaObjectTable {
 
 		int objPosInTable = builder.addJavaObject(0, 10);
 
-		JavaObjectTable table = builder.buildJavaObjectTable(classes);
+		JavaObjectTable table = builder.build(classes);
 
 		JavaLazyReadObject obj = table.getObject(objPosInTable);
 		Assert.assertTrue(JavaObject.class.isInstance(obj));
@@ -87,7 +87,7 @@ public class TestJavaObjectTable {
 			objPosInTable[i] = objIdxInTable;
 		}
 
-		JavaObjectTable table = builder.buildJavaObjectTable(classes);
+		JavaObjectTable table = builder.build(classes);
 
 		Assert.assertEquals(numObjects, table.size());
 
@@ -168,7 +168,7 @@ public class TestJavaObjectTable {
 			objPosInTable[i] = objIdxInTable;
 		}
 
-		JavaObjectTable table = builder.buildJavaObjectTable(classes);
+		JavaObjectTable table = builder.build(classes);
 
 		Assert.assertEquals(numObjects, table.size());
 
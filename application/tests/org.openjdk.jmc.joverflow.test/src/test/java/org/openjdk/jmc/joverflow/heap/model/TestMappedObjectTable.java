@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.joverflow.heap.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ */
+public class TestMappedObjectTable {
+
+	@Test
+	public void testTableWithSingleObject() throws Exception {
+		MappedObjectTable.Builder builder = new MappedObjectTable.Builder(null);
+
+		JavaClass[] classes = new JavaClass[1];
+		JavaClass fooClass = new JavaClass("FooClass", 0, 0, 0, 0, JavaClass.NO_FIELDS, JavaClass.NO_FIELDS,
+				JavaClass.NO_VALUES, 0, 0);
+		classes[0] = fooClass;
+
+		int globalIndex = builder.addJavaObject(0, 10);
+		Assert.assertEquals(1, globalIndex);
+
+		MappedObjectTable table = builder.build(classes);
+
+		JavaLazyReadObject obj = table.getObject(globalIndex);
+		Assert.assertTrue(JavaObject.class.isInstance(obj));
+		Assert.assertEquals(fooClass, obj.getClazz());
+		Assert.assertEquals(10, obj.getObjOfsInFile());
+		Assert.assertEquals(globalIndex, obj.getGlobalObjectIndex());
+	}
+
+	@Test
+	public void testTableWithManyObjects() throws Exception {
+		int numObjects = 1000000;
+		// Offsets beyond 4GB, that need the whole long
+		long firstObjOfsInFile = 5L << 32;
+		long objSizeInFile = 8000;
+
+		MappedObjectTable.Builder builder = new MappedObjectTable.Builder(null);
+
+		// More classes than the in-memory table can handle for files of this size
+		int numClasses = 70000;
+		JavaClass[] classes = new JavaClass[numClasses];
+		for (int i = 0; i < numClasses; i++) {
+			String name = i % 2 == 0 ? "FooClass" + i : "[BarClass" + i;
+			classes[i] = new JavaClass(name, 0, 0, 0, 0, JavaClass.NO_FIELDS, JavaClass.NO_FIELDS, JavaClass.NO_VALUES,
+					0, 0);
+		}
+
+		int arrLen = 20;
+		int[] globalIndices = new int[numObjects];
+
+		for (int i = 0; i < numObjects; i++) {
+			long objOfsInFile = firstObjOfsInFile + i * objSizeInFile;
+			if (i % 2 == 0) {
+				globalIndices[i] = builder.addJavaObject(i % numClasses, objOfsInFile);
+			} else {
+				globalIndices[i] = builder.addJavaArray(i % numClasses, objOfsInFile, arrLen);
+			}
+		}
+
+		MappedObjectTable table = builder.build(classes);
+
+		Assert.assertEquals(numObjects, table.size());
+
+		for (int i = 0; i < numObjects; i++) {
+			JavaLazyReadObject obj = table.getObject(globalIndices[i]);
+			Assert.assertEquals(classes[i % numClasses], obj.getClazz());
+			Assert.assertEquals(firstObjOfsInFile + i * objSizeInFile, obj.getObjOfsInFile());
+			Assert.assertEquals(globalIndices[i], obj.getGlobalObjectIndex());
+
+			if (i % 2 == 0) {
+				Assert.assertTrue(JavaObject.class.isInstance(obj));
+				obj.setVisited();
+				Assert.assertTrue(obj.isVisited());
+				Assert.assertFalse(obj.isVisitedAsCollectionImpl());
+			} else {
+				Assert.assertTrue(JavaObjectArray.class.isInstance(obj));
+				Assert.assertEquals(arrLen, ((JavaObjectArray) obj).getLength());
+				obj.setVisitedAsCollectionImpl();
+				Assert.assertFalse(obj.isVisited());
+				Assert.assertTrue(obj.isVisitedAsCollectionImpl());
+			}
+		}
+
+		int i = 0;
+		for (JavaLazyReadObject obj : table.getObjects()) {
+			Assert.assertEquals("i = " + i, firstObjOfsInFile + i * objSizeInFile, obj.getObjOfsInFile());
+			Assert.assertEquals("i = " + i, i % 2 == 0, obj.isVisited());
+			Assert.assertEquals("i = " + i, i % 2 != 0, obj.isVisitedAsCollectionImpl());
+			i++;
+		}
+		Assert.assertEquals(numObjects, i);
+	}
+
+	@Test
+	public void testIteratingUnvisitedObjects() throws Exception {
+		int numObjects = 1000000;
+		long objSizeInFile = 200;
+
+		MappedObjectTable.Builder builder = new MappedObjectTable.Builder(null);
+
+		JavaClass[] classes = new JavaClass[1];
+		classes[0] = new JavaClass("FooClass", 0, 0, 0, 0, JavaClass.NO_FIELDS, JavaClass.NO_FIELDS,
+				JavaClass.NO_VALUES, 0, 0);
+		for (int i = 0; i < numObjects; i++) {
+			builder.addJavaObject(0, i * objSizeInFile);
+		}
+
+		MappedObjectTable table = builder.build(classes);
+
+		int i = 0;
+		int numUnvisitedObjs = 0;
+		for (JavaLazyReadObject obj : table.getObjects()) {
+			if (i % 3 != 0) {
+				obj.setVisited();
+			} else {
+				numUnvisitedObjs++;
+			}
+			i++;
+		}
+
+		i = 0;
+		for (JavaLazyReadObject obj : table.getUnvisitedObjects()) {
+			Assert.assertFalse("i = " + i, obj.isVisited());
+			Assert.assertEquals("i = " + i, i * 3 * objSizeInFile, obj.getObjOfsInFile());
+			i++;
+		}
+		Assert.assertEquals(numUnvisitedObjs, i);
+	}
+}
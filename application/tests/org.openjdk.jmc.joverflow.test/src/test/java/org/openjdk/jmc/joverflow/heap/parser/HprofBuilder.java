@@ -0,0 +1,427 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.joverflow.heap.parser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes small synthetic .hprof files in the segmented 1.0.2 format, for tests that need heap
+ * dumps with a known content. All instance fields are references. The size of an instance in the
+ * snapshot is the size of its fields in the file, 8 bytes per field including inherited ones, plus
+ * the 12 byte object header that JOverflow assumes for small 64-bit dumps, rounded up to a multiple
+ * of 8. The classes that every Snapshot needs, such as java.lang.Object and java.lang.String, are
+ * created up front.
+ * <p>
+ * Object ids are spaced so that they don't look like the addresses of consecutive objects, which
+ * would make the reader guess the pointer size from them.
+ */
+public class HprofBuilder {
+	public static final int ID_SIZE = 8;
+
+	/** Element type codes for primitive arrays */
+	public static final byte T_BOOLEAN = 4;
+	public static final byte T_CHAR = 5;
+	public static final byte T_BYTE = 8;
+	public static final byte T_INT = 10;
+	public static final byte T_LONG = 11;
+
+	private static final int HEADER_SIZE = 19 + 4 + 8;
+	private static final int RECORD_HEADER_SIZE = 1 + 4 + 4;
+	private static final byte T_OBJECT = 2;
+	private static final int ID_SPACING = 0x100;
+
+	private final int maxSegmentSize;
+	private final Map<String, Long> names = new LinkedHashMap<>();
+	private final Map<Long, ClassDef> classes = new LinkedHashMap<>();
+	private final List<byte[]> heapRecords = new ArrayList<>();
+	private long nextId = 0x10000;
+
+	private final long objectClassId;
+	private final long classLoaderClassId;
+	private final long stringClassId;
+
+	private static class ClassDef {
+		final long id;
+		final String name;
+		final long superId;
+		long loaderId;
+		final String[] fieldNames;
+		final List<String> staticNames = new ArrayList<>();
+		final List<Long> staticValues = new ArrayList<>();
+
+		ClassDef(long id, String name, long superId, String[] fieldNames) {
+			this.id = id;
+			this.name = name;
+			this.superId = superId;
+			this.fieldNames = fieldNames;
+		}
+	}
+
+	/**
+	 * @param maxSegmentSize
+	 *            the size above which a new heap dump segment is started. Records are never split
+	 *            between segments, so a segment can be bigger by the size of one record.
+	 */
+	public HprofBuilder(int maxSegmentSize) {
+		this.maxSegmentSize = maxSegmentSize;
+		objectClassId = addClass("java.lang.Object", 0);
+		addClass("java.lang.Class", objectClassId);
+		classLoaderClassId = addClass("java.lang.ClassLoader", objectClassId);
+		stringClassId = addClass("java.lang.String", objectClassId, "value");
+		addClass("java.lang.ref.Reference", objectClassId, "referent");
+	}
+
+	public long getObjectClassId() {
+		return objectClassId;
+	}
+
+	public long getClassLoaderClassId() {
+		return classLoaderClassId;
+	}
+
+	public long getStringClassId() {
+		return stringClassId;
+	}
+
+	/**
+	 * Adds a class that declares the given reference fields. The class is loaded by the bootstrap
+	 * class loader, unless {@link #setClassLoader(long, long)} is called.
+	 *
+	 * @return the id of the class
+	 */
+	public long addClass(String name, long superId, String ... fieldNames) {
+		long id = newId();
+		classes.put(id, new ClassDef(id, name, superId, fieldNames));
+		nameId(name.replace('.', '/'));
+		for (String fieldName : fieldNames) {
+			nameId(fieldName);
+		}
+		return id;
+	}
+
+	/**
+	 * Sets the class loader of a class. The objects referenced from the static fields of a class
+	 * that has a class loader are not roots.
+	 */
+	public void setClassLoader(long classId, long loaderId) {
+		classes.get(classId).loaderId = loaderId;
+	}
+
+	/**
+	 * Adds a static reference field to a class. The objects referenced from the static fields of
+	 * the classes loaded by the bootstrap class loader become roots of the snapshot.
+	 */
+	public void addStaticField(long classId, String name, long valueId) {
+		ClassDef c = classes.get(classId);
+		c.staticNames.add(name);
+		c.staticValues.add(valueId);
+		nameId(name);
+	}
+
+	/**
+	 * Adds an instance of a class.
+	 *
+	 * @param fieldValues
+	 *            the ids of the objects that the fields reference, 0 for null. The fields of the
+	 *            class itself come first, followed by the fields of the superclasses.
+	 * @return the id of the object
+	 */
+	public long addInstance(long classId, long ... fieldValues) {
+		return addInstanceWithId(newId(), classId, fieldValues);
+	}
+
+	/**
+	 * Adds an instance with an id returned by {@link #reserveId()}, so that objects added earlier
+	 * can reference it.
+	 *
+	 * @return the id of the object
+	 */
+	public long addInstanceWithId(long id, long classId, long ... fieldValues) {
+		if (fieldValues.length != getNumFields(classId)) {
+			throw new IllegalArgumentException("Wrong number of field values for " + classes.get(classId).name);
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			out.writeByte(HprofReader.HPROF_GC_INSTANCE_DUMP);
+			out.writeLong(id);
+			out.writeInt(0); // stack trace serial number
+			out.writeLong(classId);
+			out.writeInt(fieldValues.length * ID_SIZE);
+			for (long value : fieldValues) {
+				out.writeLong(value);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		heapRecords.add(bytes.toByteArray());
+		return id;
+	}
+
+	/**
+	 * Returns a new object id, for an object that is added later.
+	 */
+	public long reserveId() {
+		return newId();
+	}
+
+	/**
+	 * Adds an object array of a class with a name like "[Ljava.lang.Object;".
+	 *
+	 * @return the id of the array
+	 */
+	public long addObjectArray(long arrayClassId, long ... elements) {
+		long id = newId();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			out.writeByte(HprofReader.HPROF_GC_OBJ_ARRAY_DUMP);
+			out.writeLong(id);
+			out.writeInt(0); // stack trace serial number
+			out.writeInt(elements.length);
+			out.writeLong(arrayClassId);
+			for (long element : elements) {
+				out.writeLong(element);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		heapRecords.add(bytes.toByteArray());
+		return id;
+	}
+
+	/**
+	 * Adds a zero-filled primitive array.
+	 *
+	 * @param type
+	 *            one of the T_ type codes
+	 * @return the id of the array
+	 */
+	public long addPrimitiveArray(byte type, int length) {
+		long id = newId();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			out.writeByte(HprofReader.HPROF_GC_PRIM_ARRAY_DUMP);
+			out.writeLong(id);
+			out.writeInt(0); // stack trace serial number
+			out.writeInt(length);
+			out.writeByte(type);
+			out.write(new byte[length * elementSize(type)]);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		heapRecords.add(bytes.toByteArray());
+		return id;
+	}
+
+	/**
+	 * Adds a JNI global root for an object.
+	 */
+	public void addRoot(long objId) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			out.writeByte(HprofReader.HPROF_GC_ROOT_JNI_GLOBAL);
+			out.writeLong(objId);
+			out.writeLong(0); // JNI global reference id
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		heapRecords.add(bytes.toByteArray());
+	}
+
+	/**
+	 * Returns the dump. The strings and classes come first, followed by the heap dump segments
+	 * with the class dumps and then the other records in the order they were added.
+	 */
+	public byte[] toByteArray() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			out.write("JAVA PROFILE 1.0.2\0".getBytes(StandardCharsets.US_ASCII));
+			out.writeInt(ID_SIZE);
+			out.writeLong(System.currentTimeMillis());
+			for (Map.Entry<String, Long> name : names.entrySet()) {
+				byte[] chars = name.getKey().getBytes(StandardCharsets.UTF_8);
+				writeRecordHeader(out, HprofReader.HPROF_UTF8, ID_SIZE + chars.length);
+				out.writeLong(name.getValue());
+				out.write(chars);
+			}
+			int serialNo = 1;
+			for (ClassDef c : classes.values()) {
+				writeRecordHeader(out, HprofReader.HPROF_LOAD_CLASS, 4 + ID_SIZE + 4 + ID_SIZE);
+				out.writeInt(serialNo++);
+				out.writeLong(c.id);
+				out.writeInt(0); // stack trace serial number
+				out.writeLong(names.get(c.name.replace('.', '/')));
+			}
+			List<byte[]> records = new ArrayList<>();
+			for (ClassDef c : classes.values()) {
+				records.add(classDump(c));
+			}
+			records.addAll(heapRecords);
+			ByteArrayOutputStream segment = new ByteArrayOutputStream();
+			for (byte[] record : records) {
+				segment.write(record);
+				if (segment.size() >= maxSegmentSize) {
+					writeSegment(out, segment);
+				}
+			}
+			if (segment.size() > 0) {
+				writeSegment(out, segment);
+			}
+			writeRecordHeader(out, HprofReader.HPROF_HEAP_DUMP_END, 0);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	public void write(File file) throws IOException {
+		Files.write(file.toPath(), toByteArray());
+	}
+
+	/**
+	 * Returns the file offsets of the contents of the heap dump segments in a dump written by this
+	 * class, as pairs of start and end offsets.
+	 */
+	public static List<long[]> findSegments(byte[] dump) {
+		List<long[]> segments = new ArrayList<>();
+		int pos = HEADER_SIZE;
+		while (pos + RECORD_HEADER_SIZE <= dump.length) {
+			int type = dump[pos] & 0xff;
+			long length = readInt(dump, pos + 5) & 0xffffffffL;
+			long start = pos + RECORD_HEADER_SIZE;
+			if (type == HprofReader.HPROF_HEAP_DUMP_SEGMENT) {
+				segments.add(new long[] {start, start + length});
+			}
+			pos = (int) (start + length);
+		}
+		return segments;
+	}
+
+	private int getNumFields(long classId) {
+		int numFields = 0;
+		for (ClassDef c = classes.get(classId); c != null; c = classes.get(c.superId)) {
+			numFields += c.fieldNames.length;
+		}
+		return numFields;
+	}
+
+	private byte[] classDump(ClassDef c) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeByte(HprofReader.HPROF_GC_CLASS_DUMP);
+		out.writeLong(c.id);
+		out.writeInt(0); // stack trace serial number
+		out.writeLong(c.superId);
+		out.writeLong(c.loaderId);
+		out.writeLong(0); // signers
+		out.writeLong(0); // protection domain
+		out.writeLong(0); // reserved
+		out.writeLong(0); // reserved
+		out.writeInt(getNumFields(c.id) * ID_SIZE);
+		out.writeShort(0); // constant pool size
+		out.writeShort(c.staticNames.size());
+		for (int i = 0; i < c.staticNames.size(); i++) {
+			out.writeLong(names.get(c.staticNames.get(i)));
+			out.writeByte(T_OBJECT);
+			out.writeLong(c.staticValues.get(i));
+		}
+		out.writeShort(c.fieldNames.length);
+		for (String fieldName : c.fieldNames) {
+			out.writeLong(names.get(fieldName));
+			out.writeByte(T_OBJECT);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static void writeSegment(DataOutputStream out, ByteArrayOutputStream segment) throws IOException {
+		writeRecordHeader(out, HprofReader.HPROF_HEAP_DUMP_SEGMENT, segment.size());
+		segment.writeTo(out);
+		segment.reset();
+	}
+
+	private static void writeRecordHeader(DataOutputStream out, int type, int length) throws IOException {
+		out.writeByte(type);
+		out.writeInt(0); // time
+		out.writeInt(length);
+	}
+
+	private long nameId(String name) {
+		Long id = names.get(name);
+		if (id == null) {
+			id = (long) names.size() + 1;
+			names.put(name, id);
+		}
+		return id;
+	}
+
+	private long newId() {
+		long id = nextId;
+		nextId += ID_SPACING;
+		return id;
+	}
+
+	private static int elementSize(byte type) {
+		switch (type) {
+		case T_BOOLEAN:
+		case T_BYTE:
+			return 1;
+		case T_CHAR:
+			return 2;
+		case T_INT:
+			return 4;
+		case T_LONG:
+			return 8;
+		default:
+			throw new IllegalArgumentException("Unsupported type " + type);
+		}
+	}
+
+	private static int readInt(byte[] bytes, int pos) {
+		return ((bytes[pos] & 0xff) << 24) | ((bytes[pos + 1] & 0xff) << 16) | ((bytes[pos + 2] & 0xff) << 8)
+				| (bytes[pos + 3] & 0xff);
+	}
+}
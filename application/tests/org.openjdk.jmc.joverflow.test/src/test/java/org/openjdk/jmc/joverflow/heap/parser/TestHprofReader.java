@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.joverflow.heap.parser;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openjdk.jmc.joverflow.heap.model.JavaClass;
+import org.openjdk.jmc.joverflow.heap.model.JavaField;
+import org.openjdk.jmc.joverflow.heap.model.JavaHeapObject;
+import org.openjdk.jmc.joverflow.heap.model.JavaHeapObjectVisitor;
+import org.openjdk.jmc.joverflow.heap.model.JavaLazyReadObject;
+import org.openjdk.jmc.joverflow.heap.model.Root;
+import org.openjdk.jmc.joverflow.heap.model.Snapshot;
+import org.openjdk.jmc.joverflow.util.VerboseOutputCollector;
+
+/**
+ */
+public class TestHprofReader {
+	private static final int NUM_NODES = 3000;
+	private static final int FORWARD_DISTANCE = 300;
+	private static final int SEGMENT_SIZE = 8 * 1024;
+
+	@Rule
+	public TemporaryFolder tmpDir = new TemporaryFolder();
+
+	@Test
+	public void testSegmentsParsedInParallel() throws Exception {
+		byte[] dump = createDump();
+		Assert.assertTrue(HprofBuilder.findSegments(dump).size() > 10);
+
+		VerboseOutputCollector vc = new VerboseOutputCollector();
+		Snapshot snapshot = read(new ReadBuffer.ByteArrayBufferFactory(dump), 1, vc);
+		Assert.assertTrue(vc.getWarnings().toString(), vc.getWarnings().isEmpty());
+		// The nodes, the array of every 10th node and every 100th node's string with its value
+		Assert.assertEquals(NUM_NODES + 1 + 2 * NUM_NODES / 100, snapshot.getNumObjects());
+		Assert.assertNotNull(snapshot.getClassForName("Node"));
+		Assert.assertNotNull(snapshot.getClassForName("[LNode;"));
+		List<String> expected = describe(snapshot);
+
+		for (int threads : new int[] {2, 4, 16}) {
+			vc = new VerboseOutputCollector();
+			Assert.assertEquals("Threads: " + threads, expected,
+					describe(read(new ReadBuffer.ByteArrayBufferFactory(dump), threads, vc)));
+			Assert.assertTrue(vc.getWarnings().toString(), vc.getWarnings().isEmpty());
+		}
+	}
+
+	@Test
+	public void testSegmentsParsedInParallelFromFile() throws Exception {
+		byte[] dump = createDump();
+		File file = tmpDir.newFile("segments.hprof");
+		Files.write(file.toPath(), dump);
+
+		List<String> expected = describe(
+				read(new ReadBuffer.ByteArrayBufferFactory(dump), 1, new VerboseOutputCollector()));
+		for (int threads : new int[] {1, 4}) {
+			Snapshot snapshot = read(new ReadBuffer.MmappedBufferFactory(file.getPath()), threads,
+					new VerboseOutputCollector());
+			Assert.assertEquals("Threads: " + threads, expected, describe(snapshot));
+			snapshot.discard();
+		}
+	}
+
+	@Test
+	public void testSegmentsHandedOverInBatches() throws Exception {
+		byte[] dump = createDump();
+		List<String> expected = describe(
+				read(new ReadBuffer.ByteArrayBufferFactory(dump), 1, new VerboseOutputCollector()));
+		int batchRecords = HprofReader.batchRecords;
+		try {
+			// Several batches per segment, more than can be queued for a segment
+			HprofReader.batchRecords = 7;
+			for (int threads : new int[] {2, 4}) {
+				VerboseOutputCollector vc = new VerboseOutputCollector();
+				Assert.assertEquals("Threads: " + threads, expected,
+						describe(read(new ReadBuffer.ByteArrayBufferFactory(dump), threads, vc)));
+				Assert.assertTrue(vc.getWarnings().toString(), vc.getWarnings().isEmpty());
+			}
+		} finally {
+			HprofReader.batchRecords = batchRecords;
+		}
+	}
+
+	@Test
+	public void testTruncatedLastSegment() throws Exception {
+		byte[] dump = createDump();
+		List<long[]> segments = HprofBuilder.findSegments(dump);
+		long[] lastSegment = segments.get(segments.size() - 1);
+		Snapshot snapshot = read(new ReadBuffer.ByteArrayBufferFactory(dump), 1, new VerboseOutputCollector());
+		int numAllObjects = snapshot.getNumObjects();
+		// Cut the dump in the field values of a node in the middle of the last segment
+		long middle = (lastSegment[0] + lastSegment[1]) / 2;
+		long nodeOfs = 0;
+		for (JavaLazyReadObject obj : snapshot.getObjects()) {
+			if (obj.getObjOfsInFile() > middle && obj.getClazz().getName().equals("Node")) {
+				nodeOfs = obj.getObjOfsInFile();
+				break;
+			}
+		}
+		Assert.assertTrue(nodeOfs > 0);
+		byte[] truncated = Arrays.copyOf(dump, (int) nodeOfs + 2 * HprofBuilder.ID_SIZE + 8 + 5);
+
+		List<String> expected = null;
+		for (int threads : new int[] {1, 4}) {
+			VerboseOutputCollector vc = new VerboseOutputCollector();
+			snapshot = read(new ReadBuffer.ByteArrayBufferFactory(truncated), threads, vc);
+			Assert.assertTrue(vc.getWarningKinds().contains("Unexpected EOF"));
+			// The references to the objects in the lost part of the dump are tolerated
+			Assert.assertFalse(vc.getWarningKinds().contains("Failed to resolve object"));
+			Assert.assertTrue(snapshot.getNumObjects() < numAllObjects);
+			Assert.assertTrue(snapshot.getNumObjects() > numAllObjects - SEGMENT_SIZE / 50);
+
+			List<String> description = describe(snapshot);
+			if (expected == null) {
+				expected = description;
+			} else {
+				Assert.assertEquals("Threads: " + threads, expected, description);
+			}
+		}
+	}
+
+	@Test
+	public void testSkipMoreThanMaxInt() throws Exception {
+		long length = 3L * Integer.MAX_VALUE + 5;
+		SkippingInputStream skipping = new SkippingInputStream(Long.MAX_VALUE);
+		PositionDataInputStream in = new PositionDataInputStream(new PositionInputStream(skipping, 100));
+		HprofReader.skipBytes(in, length, Long.MAX_VALUE);
+		Assert.assertEquals(length, skipping.skipped);
+		Assert.assertEquals(100 + length, in.position());
+	}
+
+	@Test(expected = DumpCorruptedException.class)
+	public void testSkipPastEndOfFile() throws Exception {
+		long fileSize = 2L * Integer.MAX_VALUE;
+		PositionDataInputStream in = new PositionDataInputStream(
+				new PositionInputStream(new SkippingInputStream(fileSize), 0));
+		HprofReader.skipBytes(in, fileSize + 1, fileSize);
+	}
+
+	/**
+	 * A stream of the given size, that skips at most 1 GB at a time.
+	 */
+	private static class SkippingInputStream extends InputStream {
+		private final long size;
+		long skipped;
+
+		SkippingInputStream(long size) {
+			this.size = size;
+		}
+
+		@Override
+		public int read() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public long skip(long n) {
+			long s = Math.max(0, Math.min(Math.min(n, 1L << 30), size - skipped));
+			skipped += s;
+			return s;
+		}
+	}
+
+	private static Snapshot read(ReadBuffer.Factory bufFactory, int threads, VerboseOutputCollector vc)
+			throws Exception {
+		return HeapDumpReader.createReader(bufFactory, 0, threads, vc).read();
+	}
+
+	/**
+	 * Creates a dump with a linked list of nodes that spans many segments. Each node also
+	 * references a node further on, which usually is in a later segment, and every 100th node has
+	 * a string.
+	 */
+	private static byte[] createDump() {
+		HprofBuilder builder = new HprofBuilder(SEGMENT_SIZE);
+		long nodeClass = builder.addClass("Node", builder.getObjectClassId(), "next", "forward", "string");
+		long arrayClass = builder.addClass("[LNode;", builder.getObjectClassId());
+		long[] nodes = new long[NUM_NODES];
+		for (int i = 0; i < NUM_NODES; i++) {
+			nodes[i] = builder.reserveId();
+		}
+		long[] everyTenth = new long[NUM_NODES / 10];
+		for (int i = 0; i < everyTenth.length; i++) {
+			everyTenth[i] = nodes[i * 10];
+		}
+		builder.addRoot(builder.addObjectArray(arrayClass, everyTenth));
+		for (int i = 0; i < NUM_NODES; i++) {
+			long next = i + 1 < NUM_NODES ? nodes[i + 1] : 0;
+			long forward = i + FORWARD_DISTANCE < NUM_NODES ? nodes[i + FORWARD_DISTANCE] : 0;
+			long string = 0;
+			if (i % 100 == 0) {
+				long value = builder.addPrimitiveArray(HprofBuilder.T_BYTE, i % 7);
+				string = builder.addInstance(builder.getStringClassId(), value);
+			}
+			builder.addInstanceWithId(nodes[i], nodeClass, next, forward, string);
+		}
+		builder.addRoot(nodes[0]);
+		return builder.toByteArray();
+	}
+
+	/**
+	 * Describes the classes, roots and objects of a snapshot, with their positions in the
+	 * snapshot, sizes and references.
+	 */
+	private static List<String> describe(Snapshot snapshot) {
+		List<String> result = new ArrayList<>();
+		for (JavaClass clazz : snapshot.getClasses()) {
+			result.add("Class " + clazz.getClassListIdx() + " " + clazz.getName() + " " + clazz.readId() + " "
+					+ clazz.getInstanceSize());
+		}
+		List<String> roots = new ArrayList<>();
+		for (Root root : snapshot.getRoots()) {
+			roots.add("Root " + root.getId() + " " + root.getType());
+		}
+		roots.sort(null);
+		result.addAll(roots);
+		for (JavaLazyReadObject obj : snapshot.getObjects()) {
+			StringBuilder sb = new StringBuilder();
+			sb.append(obj.getGlobalObjectIndex()).append(' ').append(obj.getObjOfsInFile()).append(' ')
+					.append(obj.readId()).append(' ').append(obj.getClazz().getName()).append(' ')
+					.append(obj.getSize()).append(" ->");
+			obj.visitReferencedObjects(new JavaHeapObjectVisitor() {
+				@Override
+				public void visit(JavaHeapObject other) {
+					sb.append(' ').append(other.readId());
+				}
+
+				@Override
+				public boolean exclude(JavaClass clazz, JavaField f) {
+					return false;
+				}
+
+				@Override
+				public boolean mightExclude() {
+					return false;
+				}
+			});
+			result.add(sb.toString());
+		}
+		return result;
+	}
+}
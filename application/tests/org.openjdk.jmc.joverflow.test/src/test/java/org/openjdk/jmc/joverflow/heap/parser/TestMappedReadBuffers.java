@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.joverflow.heap.parser;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Checks that the memory-mapped read buffers return the right data when read by several threads
+ * at the same time.
+ */
+public class TestMappedReadBuffers {
+	private static final int FILE_SIZE = 1000000;
+	private static final long[] MAPPED_BB_END_OFS = {299999, 649999, FILE_SIZE - 1};
+	private static final int MAX_BUF_SIZE = 350000;
+	private static final int THREADS = 8;
+	private static final int READS_PER_THREAD = 200000;
+
+	@Rule
+	public TemporaryFolder tmpDir = new TemporaryFolder();
+
+	@Test
+	public void testConcurrentReads() throws Exception {
+		byte[] bytes = new byte[FILE_SIZE];
+		new Random(17).nextBytes(bytes);
+		File file = tmpDir.newFile("buffer.bin");
+		Files.write(file.toPath(), bytes);
+
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+			FileChannel ch = raf.getChannel();
+			ReadBuffer single = new MappedReadBuffer(ch.map(FileChannel.MapMode.READ_ONLY, 0, FILE_SIZE));
+			MappedByteBuffer[] bufs = new MappedByteBuffer[MAPPED_BB_END_OFS.length];
+			long startOfs = 0;
+			for (int i = 0; i < bufs.length; i++) {
+				bufs[i] = ch.map(FileChannel.MapMode.READ_ONLY, startOfs, MAPPED_BB_END_OFS[i] - startOfs + 1);
+				startOfs = MAPPED_BB_END_OFS[i] + 1;
+			}
+			ReadBuffer multi = new MappedReadMultiBuffer(bufs, MAPPED_BB_END_OFS, MAX_BUF_SIZE);
+
+			checkConcurrentReads(new ByteArrayReadBuffer(bytes), bytes);
+			checkConcurrentReads(single, bytes);
+			checkConcurrentReads(multi, bytes);
+		}
+	}
+
+	private static void checkConcurrentReads(ReadBuffer buffer, byte[] bytes) throws Exception {
+		Assert.assertTrue(buffer.supportsConcurrentReads());
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<?>> results = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				int seed = t;
+				results.add(executor.submit(() -> {
+					checkReads(buffer, bytes, new Random(seed));
+					return null;
+				}));
+			}
+			for (Future<?> result : results) {
+				result.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static void checkReads(ReadBuffer buffer, byte[] bytes, Random random) throws Exception {
+		byte[] res = new byte[16];
+		for (int i = 0; i < READS_PER_THREAD; i++) {
+			// Reads never cross the border between two mapped buffers, just like objects in a dump
+			int buf = random.nextInt(MAPPED_BB_END_OFS.length);
+			long bufStart = buf == 0 ? 0 : MAPPED_BB_END_OFS[buf - 1] + 1;
+			long bufEnd = MAPPED_BB_END_OFS[buf] + 1;
+			long pos = bufStart + random.nextInt((int) (bufEnd - bufStart - res.length));
+			switch (random.nextInt(4)) {
+			case 0:
+				Assert.assertEquals(getLong(bytes, (int) pos) >>> 32, buffer.getInt(pos) & 0xffffffffL);
+				break;
+			case 1:
+				Assert.assertEquals(getLong(bytes, (int) pos), buffer.getLong(pos));
+				break;
+			case 2:
+				buffer.get(pos, res);
+				for (int b = 0; b < res.length; b++) {
+					Assert.assertEquals(bytes[(int) pos + b], res[b]);
+				}
+				break;
+			default:
+				int num = 1 + random.nextInt(res.length);
+				buffer.get(pos, res, num);
+				for (int b = 0; b < num; b++) {
+					Assert.assertEquals(bytes[(int) pos + b], res[b]);
+				}
+			}
+		}
+	}
+
+	private static long getLong(byte[] bytes, int pos) {
+		long result = 0;
+		for (int i = 0; i < 8; i++) {
+			result = (result << 8) | (bytes[pos + i] & 0xff);
+		}
+		return result;
+	}
+}
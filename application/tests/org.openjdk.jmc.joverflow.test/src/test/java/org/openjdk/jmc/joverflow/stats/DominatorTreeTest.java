@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.joverflow.stats;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.openjdk.jmc.joverflow.heap.model.JavaClass;
+import org.openjdk.jmc.joverflow.heap.model.JavaHeapObject;
+import org.openjdk.jmc.joverflow.heap.model.JavaLazyReadObject;
+import org.openjdk.jmc.joverflow.heap.model.Snapshot;
+import org.openjdk.jmc.joverflow.heap.parser.HeapDumpReader;
+import org.openjdk.jmc.joverflow.heap.parser.HprofBuilder;
+import org.openjdk.jmc.joverflow.heap.parser.ReadBuffer;
+import org.openjdk.jmc.joverflow.util.VerboseOutputCollector;
+
+/**
+ * Tests the dominator tree and retained sizes on a small synthetic heap dump:
+ *
+ * <pre>
+ * root -> r1:A -> x:B -> z:Leaf
+ *               -> y:B ---^
+ * root -> r2:A -> p:A -> q:Leaf
+ * java.lang.Object.s -> s:Leaf   (java.lang.Object has a class loader, so s is not a root)
+ * u:B                            (unreachable)
+ * </pre>
+ *
+ * With narrow pointers, instances of A (2 fields) are 32 bytes, of B (1 field) 24 bytes and of
+ * Leaf and java.lang.ClassLoader (no fields) 16 bytes.
+ */
+public class DominatorTreeTest {
+	private static final int SIZE_A = 32;
+	private static final int SIZE_B = 24;
+	private static final int SIZE_LEAF = 16;
+
+	@Rule
+	public TemporaryFolder tmpDir = new TemporaryFolder();
+
+	private byte[] dump;
+	private Snapshot snapshot;
+	private long r1, x, y, z, r2, p, q, u, s, loader;
+
+	@Before
+	public void setUp() throws Exception {
+		HprofBuilder builder = new HprofBuilder(1024);
+		long objectClass = builder.getObjectClassId();
+		long classA = builder.addClass("A", objectClass, "a1", "a2");
+		long classB = builder.addClass("B", objectClass, "b");
+		long classLeaf = builder.addClass("Leaf", objectClass);
+		z = builder.addInstance(classLeaf);
+		x = builder.addInstance(classB, z);
+		y = builder.addInstance(classB, z);
+		r1 = builder.addInstance(classA, x, y);
+		q = builder.addInstance(classLeaf);
+		p = builder.addInstance(classA, q, 0);
+		r2 = builder.addInstance(classA, p, 0);
+		u = builder.addInstance(classB, 0);
+		s = builder.addInstance(classLeaf);
+		loader = builder.addInstance(builder.getClassLoaderClassId());
+		builder.setClassLoader(objectClass, loader);
+		builder.addStaticField(objectClass, "s", s);
+		builder.addRoot(r1);
+		builder.addRoot(r2);
+		dump = builder.toByteArray();
+		snapshot = read(dump);
+
+		Assert.assertEquals(SIZE_A, snapshot.getClassForName("A").getInstanceSize());
+		Assert.assertEquals(SIZE_B, snapshot.getClassForName("B").getInstanceSize());
+		Assert.assertEquals(SIZE_LEAF, snapshot.getClassForName("Leaf").getInstanceSize());
+		Assert.assertEquals(0, snapshot.getClassForName("java.lang.Object").getGlobalObjectIndex());
+	}
+
+	@Test
+	public void testRetainedSizes() {
+		DominatorTree tree = DominatorTree.calculate(snapshot, 1);
+		Assert.assertEquals(SIZE_LEAF, tree.getRetainedSize(obj(z)));
+		Assert.assertEquals(SIZE_B, tree.getRetainedSize(obj(x)));
+		Assert.assertEquals(SIZE_B, tree.getRetainedSize(obj(y)));
+		// z is reachable through both x and y, so only r1 retains it
+		Assert.assertEquals(SIZE_A + 2 * SIZE_B + SIZE_LEAF, tree.getRetainedSize(obj(r1)));
+		Assert.assertEquals(SIZE_LEAF, tree.getRetainedSize(obj(q)));
+		Assert.assertEquals(SIZE_A + SIZE_LEAF, tree.getRetainedSize(obj(p)));
+		Assert.assertEquals(2 * SIZE_A + SIZE_LEAF, tree.getRetainedSize(obj(r2)));
+		Assert.assertEquals(0, tree.getRetainedSize(obj(u)));
+		Assert.assertEquals(SIZE_LEAF, tree.getRetainedSize(obj(s)));
+		Assert.assertEquals(SIZE_LEAF, tree.getRetainedSize(obj(loader)));
+
+		JavaClass objectClass = snapshot.getClassForName("java.lang.Object");
+		Assert.assertEquals(objectClass.getSize() + SIZE_LEAF, tree.getRetainedSize(objectClass));
+
+		long totalSize = 0;
+		for (JavaClass clazz : snapshot.getClasses()) {
+			totalSize += clazz.getSize();
+		}
+		totalSize += (SIZE_A + 2 * SIZE_B + SIZE_LEAF) + (2 * SIZE_A + SIZE_LEAF) + SIZE_LEAF + SIZE_LEAF;
+		Assert.assertEquals(totalSize, tree.getTotalReachableSize());
+	}
+
+	@Test
+	public void testInstancesRetainedSizes() {
+		DominatorTree tree = DominatorTree.calculate(snapshot, 1);
+		// p is dominated by r2, another instance of A, so it's only counted as part of r2
+		Assert.assertEquals((SIZE_A + 2 * SIZE_B + SIZE_LEAF) + (2 * SIZE_A + SIZE_LEAF),
+				tree.getInstancesRetainedSize(snapshot.getClassForName("A")));
+		// u is unreachable
+		Assert.assertEquals(2 * SIZE_B, tree.getInstancesRetainedSize(snapshot.getClassForName("B")));
+		Assert.assertEquals(3 * SIZE_LEAF, tree.getInstancesRetainedSize(snapshot.getClassForName("Leaf")));
+		Assert.assertEquals(SIZE_LEAF,
+				tree.getInstancesRetainedSize(snapshot.getClassForName("java.lang.ClassLoader")));
+		Assert.assertEquals(0, tree.getInstancesRetainedSize(snapshot.getClassForName("java.lang.String")));
+	}
+
+	@Test
+	public void testImmediateDominators() {
+		DominatorTree tree = DominatorTree.calculate(snapshot, 1);
+		Assert.assertEquals(DominatorTree.ROOT_INDEX, tree.getImmediateDominator(obj(r1)));
+		Assert.assertEquals(DominatorTree.ROOT_INDEX, tree.getImmediateDominator(obj(r2)));
+		Assert.assertEquals(obj(r1), tree.getImmediateDominator(obj(x)));
+		Assert.assertEquals(obj(r1), tree.getImmediateDominator(obj(y)));
+		Assert.assertEquals(obj(r1), tree.getImmediateDominator(obj(z)));
+		Assert.assertEquals(obj(r2), tree.getImmediateDominator(obj(p)));
+		Assert.assertEquals(obj(p), tree.getImmediateDominator(obj(q)));
+		Assert.assertEquals(DominatorTree.UNREACHABLE_INDEX, tree.getImmediateDominator(obj(u)));
+		// s is only referenced from a static field of the class with index 0
+		Assert.assertEquals(0, tree.getImmediateDominator(obj(s)));
+		// The class loader is referenced from java.lang.Object, and is a root too
+		Assert.assertEquals(DominatorTree.ROOT_INDEX, tree.getImmediateDominator(obj(loader)));
+
+		for (JavaClass clazz : snapshot.getClasses()) {
+			Assert.assertEquals(DominatorTree.ROOT_INDEX, tree.getImmediateDominator(clazz.getGlobalObjectIndex()));
+		}
+	}
+
+	@Test
+	public void testGlobalIndexMapping() {
+		DominatorTree tree = DominatorTree.calculate(snapshot, 1);
+		// Dominators are returned as the global indices of classes and objects in the snapshot
+		for (JavaLazyReadObject obj : snapshot.getObjects()) {
+			int idom = tree.getImmediateDominator(obj.getGlobalObjectIndex());
+			if (idom != DominatorTree.ROOT_INDEX && idom != DominatorTree.UNREACHABLE_INDEX) {
+				JavaHeapObject dominator = snapshot.getObjectAtGlobalIndex(idom);
+				Assert.assertNotNull(dominator);
+				Assert.assertTrue(tree.getRetainedSize(idom) > tree.getRetainedSize(obj));
+			}
+		}
+		int maxIndex = 0;
+		for (JavaLazyReadObject obj : snapshot.getObjects()) {
+			maxIndex = Math.max(maxIndex, obj.getGlobalObjectIndex());
+		}
+		try {
+			tree.getRetainedSize(maxIndex + 1);
+			Assert.fail("No exception for an index past the last object");
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+
+	@Test
+	public void testWriteAndRead() throws Exception {
+		File dumpFile = writeDump(dump);
+		DominatorTree tree = DominatorTree.calculate(snapshot, 1);
+		tree.write(dumpFile);
+		File treeFile = DominatorTree.getDominatorTreeFile(dumpFile);
+		Assert.assertTrue(treeFile.isFile());
+		Assert.assertFalse(new File(treeFile.getPath() + ".tmp").exists());
+
+		DominatorTree readTree = DominatorTree.read(snapshot, dumpFile);
+		Assert.assertNotNull(readTree);
+		assertTreesEqual(tree, readTree);
+
+		// Writing again replaces the file
+		tree.write(dumpFile);
+		assertTreesEqual(tree, DominatorTree.read(snapshot, dumpFile));
+		assertTreesEqual(tree, DominatorTree.readOrCalculate(snapshot, dumpFile));
+	}
+
+	@Test
+	public void testChangedDumpRejected() throws Exception {
+		File dumpFile = writeDump(dump);
+		long lastModified = dumpFile.lastModified();
+		DominatorTree.calculate(snapshot, 1).write(dumpFile);
+		Assert.assertNotNull(DominatorTree.read(snapshot, dumpFile));
+
+		Assert.assertTrue(dumpFile.setLastModified(lastModified - 10000));
+		Assert.assertNull(DominatorTree.read(snapshot, dumpFile));
+		Assert.assertTrue(dumpFile.setLastModified(lastModified));
+		Assert.assertNotNull(DominatorTree.read(snapshot, dumpFile));
+
+		try (FileOutputStream out = new FileOutputStream(dumpFile, true)) {
+			out.write(0);
+		}
+		Assert.assertTrue(dumpFile.setLastModified(lastModified));
+		Assert.assertNull(DominatorTree.read(snapshot, dumpFile));
+	}
+
+	@Test
+	public void testChangedSnapshotRejected() throws Exception {
+		File dumpFile = writeDump(dump);
+		DominatorTree.calculate(snapshot, 1).write(dumpFile);
+
+		// Same classes, one more object
+		HprofBuilder builder = createBaseBuilder();
+		builder.addInstance(builder.getObjectClassId());
+		Snapshot moreObjects = read(builder.toByteArray());
+		Assert.assertEquals(snapshot.getNumClasses(), moreObjects.getNumClasses());
+		Assert.assertNull(DominatorTree.read(moreObjects, dumpFile));
+
+		// One more class, same number of objects
+		builder = createBaseBuilder();
+		builder.addClass("Extra", builder.getObjectClassId());
+		Snapshot moreClasses = read(builder.toByteArray());
+		Assert.assertEquals(snapshot.getNumObjects(), moreClasses.getNumObjects());
+		Assert.assertNull(DominatorTree.read(moreClasses, dumpFile));
+
+		// A stale file is replaced
+		DominatorTree tree = DominatorTree.readOrCalculate(moreClasses, dumpFile);
+		assertTreesEqual(tree, DominatorTree.read(moreClasses, dumpFile));
+	}
+
+	/**
+	 * Returns a builder for a dump with the same classes and objects as the one used by the tests.
+	 */
+	private HprofBuilder createBaseBuilder() {
+		HprofBuilder builder = new HprofBuilder(1024);
+		long objectClass = builder.getObjectClassId();
+		builder.addClass("A", objectClass, "a1", "a2");
+		builder.addClass("B", objectClass, "b");
+		long classLeaf = builder.addClass("Leaf", objectClass);
+		for (int i = 0; i < snapshot.getNumObjects(); i++) {
+			builder.addInstance(classLeaf);
+		}
+		return builder;
+	}
+
+	private void assertTreesEqual(DominatorTree expected, DominatorTree actual) {
+		for (JavaClass clazz : snapshot.getClasses()) {
+			int index = clazz.getGlobalObjectIndex();
+			Assert.assertEquals(expected.getImmediateDominator(index), actual.getImmediateDominator(index));
+			Assert.assertEquals(expected.getRetainedSize(index), actual.getRetainedSize(index));
+			Assert.assertEquals(expected.getInstancesRetainedSize(clazz), actual.getInstancesRetainedSize(clazz));
+		}
+		for (JavaLazyReadObject obj : snapshot.getObjects()) {
+			int index = obj.getGlobalObjectIndex();
+			Assert.assertEquals(expected.getImmediateDominator(index), actual.getImmediateDominator(index));
+			Assert.assertEquals(expected.getRetainedSize(index), actual.getRetainedSize(index));
+		}
+		Assert.assertEquals(expected.getTotalReachableSize(), actual.getTotalReachableSize());
+	}
+
+	private int obj(long id) {
+		return snapshot.getObjectForId(id).getGlobalObjectIndex();
+	}
+
+	private File writeDump(byte[] bytes) throws IOException {
+		File file = tmpDir.newFile("test.hprof");
+		Files.write(file.toPath(), bytes);
+		return file;
+	}
+
+	private static Snapshot read(byte[] bytes) throws Exception {
+		return HeapDumpReader.createReader(new ReadBuffer.ByteArrayBufferFactory(bytes), 0, 1,
+				new VerboseOutputCollector()).read();
+	}
+}
@@ -0,0 +1,364 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.joverflow.stats;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.openjdk.jmc.joverflow.heap.model.JavaClass;
+import org.openjdk.jmc.joverflow.heap.model.JavaField;
+import org.openjdk.jmc.joverflow.heap.model.JavaHeapObject;
+import org.openjdk.jmc.joverflow.heap.model.JavaHeapObjectVisitor;
+import org.openjdk.jmc.joverflow.heap.model.JavaLazyReadObject;
+import org.openjdk.jmc.joverflow.heap.model.Root;
+import org.openjdk.jmc.joverflow.heap.model.Snapshot;
+import org.openjdk.jmc.joverflow.heap.parser.HeapDumpReader;
+import org.openjdk.jmc.joverflow.heap.parser.HprofBuilder;
+import org.openjdk.jmc.joverflow.heap.parser.ReadBuffer;
+import org.openjdk.jmc.joverflow.util.VerboseOutputCollector;
+
+/**
+ * Tests ReferrerIndex against a forward scan of the references in a synthetic heap dump. The dump
+ * has more objects than HeapGraph handles in one task, so that the references are collected by
+ * several threads.
+ */
+public class ReferrerIndexTest {
+	private static final int NUM_NODES = 150000;
+	private static final int NUM_ARRAYS = 2000;
+	private static final int NUM_ROOTS = 2000;
+	private static final int THREADS = 4;
+
+	@ClassRule
+	public static TemporaryFolder tmpDir = new TemporaryFolder();
+
+	private static Snapshot snapshot;
+	private static Snapshot mappedSnapshot;
+	private static int numClasses;
+	private static int[] objGlobalIndices;
+	// Forward references, as (source rank << 32 | target rank), sorted
+	private static long[] references;
+	// The same references, as (target rank << 32 | source rank), sorted
+	private static long[] inverseReferences;
+	private static BitSet gcRoots;
+	private static BitSet reachable;
+
+	@BeforeClass
+	public static void setUp() throws Exception {
+		byte[] dump = createDump();
+		snapshot = HeapDumpReader
+				.createReader(new ReadBuffer.ByteArrayBufferFactory(dump), 0, new VerboseOutputCollector()).read();
+		File file = tmpDir.newFile("referrers.hprof");
+		Files.write(file.toPath(), dump);
+		mappedSnapshot = HeapDumpReader
+				.createReader(new ReadBuffer.MmappedBufferFactory(file.getPath()), 0, new VerboseOutputCollector())
+				.read();
+		Assert.assertTrue(snapshot.getNumObjects() > 65536);
+		Assert.assertTrue(snapshot.getReadBuffer().supportsConcurrentReads());
+		Assert.assertTrue(mappedSnapshot.getReadBuffer().supportsConcurrentReads());
+
+		numClasses = snapshot.getNumClasses();
+		objGlobalIndices = new int[snapshot.getNumObjects()];
+		int i = 0;
+		for (JavaLazyReadObject obj : snapshot.getObjects()) {
+			objGlobalIndices[i++] = obj.getGlobalObjectIndex();
+		}
+		scanReferences();
+		gcRoots = new BitSet();
+		for (Root root : snapshot.getRoots()) {
+			JavaHeapObject obj = snapshot.getObjectForId(root.getId());
+			if (obj != null && obj.getGlobalObjectIndex() > 0) {
+				gcRoots.set(rank(obj.getGlobalObjectIndex()));
+			}
+		}
+		findReachable();
+	}
+
+	@AfterClass
+	public static void tearDown() {
+		mappedSnapshot.discard();
+	}
+
+	@Test
+	public void testReferrersMatchForwardScan() {
+		ReferrerIndex index = ReferrerIndex.build(snapshot, THREADS);
+		int start = 0;
+		for (int rank = 0; rank < numClasses + snapshot.getNumObjects(); rank++) {
+			int end = start;
+			while (end < inverseReferences.length && (int) (inverseReferences[end] >>> 32) == rank) {
+				end++;
+			}
+			int[] expected = new int[end - start];
+			for (int i = start; i < end; i++) {
+				expected[i - start] = globalIndex((int) inverseReferences[i]);
+			}
+			int globalIndex = globalIndex(rank);
+			Assert.assertArrayEquals("Referrers of " + globalIndex, expected, index.getReferrers(globalIndex));
+			Assert.assertEquals(expected.length, index.getNumReferrers(globalIndex));
+			Assert.assertEquals(gcRoots.get(rank), index.isGcRoot(globalIndex));
+			start = end;
+		}
+		Assert.assertEquals(inverseReferences.length, start);
+	}
+
+	@Test
+	public void testThreadsGiveSameResult() {
+		ReferrerIndex expected = ReferrerIndex.build(snapshot, 1);
+		assertIndexesEqual(expected, ReferrerIndex.build(snapshot, THREADS));
+		assertIndexesEqual(expected, ReferrerIndex.build(mappedSnapshot, 1));
+		assertIndexesEqual(expected, ReferrerIndex.build(mappedSnapshot, THREADS));
+	}
+
+	@Test
+	public void testPathsFromGcRoots() {
+		ReferrerIndex index = ReferrerIndex.build(snapshot, THREADS);
+		int numUnreachable = 0;
+		for (JavaLazyReadObject obj : snapshot.getObjects()) {
+			int globalIndex = obj.getGlobalObjectIndex();
+			int[] path = index.getPathFromGcRoot(globalIndex);
+			List<JavaHeapObject> objectPath = index.getPathFromGcRoot(obj);
+			if (!reachable.get(rank(globalIndex))) {
+				Assert.assertNull(path);
+				Assert.assertNull(objectPath);
+				numUnreachable++;
+				continue;
+			}
+			Assert.assertNotNull("No path to reachable object " + globalIndex, path);
+			Assert.assertEquals(path.length, objectPath.size());
+			for (int i = 0; i < path.length; i++) {
+				Assert.assertEquals(path[i], objectPath.get(i).getGlobalObjectIndex());
+			}
+			Assert.assertTrue(path[0] <= 0 || gcRoots.get(rank(path[0])));
+			Assert.assertEquals(globalIndex, path[path.length - 1]);
+			for (int i = 0; i + 1 < path.length; i++) {
+				long edge = ((long) rank(path[i]) << 32) | rank(path[i + 1]);
+				Assert.assertTrue("No reference from " + path[i] + " to " + path[i + 1],
+						Arrays.binarySearch(references, edge) >= 0);
+				if (i > 0) {
+					// A path ends at the first GC root or class that is found
+					Assert.assertTrue(path[i] > 0 && !gcRoots.get(rank(path[i])));
+				}
+			}
+		}
+		// The dump is random, make sure that both cases are covered
+		Assert.assertTrue(numUnreachable > 0);
+		Assert.assertTrue(numUnreachable < snapshot.getNumObjects() / 2);
+	}
+
+	@Test
+	public void testDominatorTreeThreadsGiveSameResult() {
+		DominatorTree expected = DominatorTree.calculate(snapshot, 1);
+		DominatorTree[] trees = {DominatorTree.calculate(snapshot, THREADS),
+				DominatorTree.calculate(mappedSnapshot, THREADS)};
+		for (DominatorTree tree : trees) {
+			for (int rank = 0; rank < numClasses + snapshot.getNumObjects(); rank++) {
+				int globalIndex = globalIndex(rank);
+				Assert.assertEquals(expected.getImmediateDominator(globalIndex),
+						tree.getImmediateDominator(globalIndex));
+				Assert.assertEquals(expected.getRetainedSize(globalIndex), tree.getRetainedSize(globalIndex));
+			}
+			for (JavaClass clazz : snapshot.getClasses()) {
+				Assert.assertEquals(expected.getInstancesRetainedSize(clazz), tree.getInstancesRetainedSize(clazz));
+			}
+		}
+	}
+
+	private static void assertIndexesEqual(ReferrerIndex expected, ReferrerIndex actual) {
+		for (int rank = 0; rank < numClasses + snapshot.getNumObjects(); rank++) {
+			int globalIndex = globalIndex(rank);
+			Assert.assertArrayEquals(expected.getReferrers(globalIndex), actual.getReferrers(globalIndex));
+			Assert.assertEquals(expected.isGcRoot(globalIndex), actual.isGcRoot(globalIndex));
+			if (rank % 101 == 0) {
+				Assert.assertArrayEquals(expected.getPathFromGcRoot(globalIndex),
+						actual.getPathFromGcRoot(globalIndex));
+			}
+		}
+	}
+
+	/**
+	 * Creates a dump with nodes that reference random other nodes, arrays of random nodes, and a
+	 * class with static references to some nodes. Some of the nodes and arrays are GC roots.
+	 */
+	private static byte[] createDump() {
+		Random random = new Random(4711);
+		HprofBuilder builder = new HprofBuilder(1024 * 1024);
+		long nodeClass = builder.addClass("Node", builder.getObjectClassId(), "f1", "f2", "f3");
+		long arrayClass = builder.addClass("[LNode;", builder.getObjectClassId());
+		long holderClass = builder.addClass("Holder", builder.getObjectClassId());
+		long loader = builder.addInstance(builder.getClassLoaderClassId());
+		builder.setClassLoader(holderClass, loader);
+		long[] nodes = new long[NUM_NODES];
+		for (int i = 0; i < NUM_NODES; i++) {
+			nodes[i] = builder.reserveId();
+		}
+		for (int i = 0; i < 10; i++) {
+			builder.addStaticField(holderClass, "s" + i, nodes[random.nextInt(NUM_NODES)]);
+		}
+		List<Long> roots = new ArrayList<>();
+		for (int i = 0; i < NUM_NODES; i++) {
+			long[] fields = new long[3];
+			for (int f = 0; f < fields.length; f++) {
+				int choice = random.nextInt(10);
+				if (choice < 3) {
+					fields[f] = 0;
+				} else if (choice == 3) {
+					// Duplicate references and references to itself
+					fields[f] = f > 0 ? fields[f - 1] : nodes[i];
+				} else {
+					fields[f] = nodes[random.nextInt(NUM_NODES)];
+				}
+			}
+			builder.addInstanceWithId(nodes[i], nodeClass, fields);
+			if (i % (NUM_NODES / NUM_ROOTS) == 0) {
+				roots.add(nodes[i]);
+			}
+			if (i % (NUM_NODES / NUM_ARRAYS) == 0) {
+				long[] elements = new long[random.nextInt(20)];
+				for (int e = 0; e < elements.length; e++) {
+					elements[e] = nodes[random.nextInt(NUM_NODES)];
+				}
+				long array = builder.addObjectArray(arrayClass, elements);
+				if (random.nextBoolean()) {
+					roots.add(array);
+				}
+			}
+		}
+		for (long root : roots) {
+			builder.addRoot(root);
+		}
+		return builder.toByteArray();
+	}
+
+	/**
+	 * Collects the distinct references from all classes and objects with visitReferencedObjects.
+	 */
+	private static void scanReferences() {
+		long[][] refs = {new long[1024]};
+		int[] numRefs = {0};
+		int[] source = {0};
+		JavaHeapObjectVisitor visitor = new JavaHeapObjectVisitor() {
+			@Override
+			public void visit(JavaHeapObject other) {
+				if (numRefs[0] == refs[0].length) {
+					refs[0] = Arrays.copyOf(refs[0], refs[0].length * 2);
+				}
+				refs[0][numRefs[0]++] = ((long) source[0] << 32) | rank(other.getGlobalObjectIndex());
+			}
+
+			@Override
+			public boolean exclude(JavaClass clazz, JavaField f) {
+				return false;
+			}
+
+			@Override
+			public boolean mightExclude() {
+				return false;
+			}
+		};
+		for (JavaClass clazz : snapshot.getClasses()) {
+			source[0] = rank(clazz.getGlobalObjectIndex());
+			clazz.visitReferencedObjects(visitor);
+		}
+		for (JavaLazyReadObject obj : snapshot.getObjects()) {
+			source[0] = rank(obj.getGlobalObjectIndex());
+			obj.visitReferencedObjects(visitor);
+		}
+		references = distinct(Arrays.copyOf(refs[0], numRefs[0]));
+		inverseReferences = new long[references.length];
+		for (int i = 0; i < references.length; i++) {
+			inverseReferences[i] = (references[i] << 32) | (references[i] >>> 32);
+		}
+		inverseReferences = distinct(inverseReferences);
+	}
+
+	/**
+	 * Finds the objects that are reachable from the GC roots and classes.
+	 */
+	private static void findReachable() {
+		reachable = new BitSet();
+		int[] queue = new int[numClasses + snapshot.getNumObjects()];
+		int queueSize = 0;
+		for (int rank = 0; rank < queue.length; rank++) {
+			if (rank < numClasses || gcRoots.get(rank)) {
+				reachable.set(rank);
+				queue[queueSize++] = rank;
+			}
+		}
+		for (int i = 0; i < queueSize; i++) {
+			long first = (long) queue[i] << 32;
+			int edge = Arrays.binarySearch(references, first);
+			for (edge = edge >= 0 ? edge : -edge - 1; edge < references.length
+					&& (references[edge] >>> 32) == queue[i]; edge++) {
+				int target = (int) references[edge];
+				if (!reachable.get(target)) {
+					reachable.set(target);
+					queue[queueSize++] = target;
+				}
+			}
+		}
+	}
+
+	private static long[] distinct(long[] values) {
+		Arrays.sort(values);
+		int n = 0;
+		for (int i = 0; i < values.length; i++) {
+			if (n == 0 || values[i] != values[n - 1]) {
+				values[n++] = values[i];
+			}
+		}
+		return Arrays.copyOf(values, n);
+	}
+
+	/**
+	 * Classes and objects are ranked like in ReferrerIndex: classes in class list order, followed
+	 * by objects in object table order.
+	 */
+	private static int rank(int globalIndex) {
+		return globalIndex <= 0 ? -globalIndex : numClasses + Arrays.binarySearch(objGlobalIndices, globalIndex);
+	}
+
+	private static int globalIndex(int rank) {
+		return rank < numClasses ? -rank : objGlobalIndices[rank - numClasses];
+	}
+}
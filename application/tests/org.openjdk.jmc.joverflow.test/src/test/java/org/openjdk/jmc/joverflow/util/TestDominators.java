@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.joverflow.util;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ */
+public class TestDominators {
+
+	@Test
+	public void testLengauerTarjanExample() throws Exception {
+		// The example graph from the Lengauer-Tarjan paper, with nodes R, A, B, ... L numbered 0..12
+		int[][] edges = {{0, 1}, {0, 2}, {0, 3}, {1, 4}, {2, 1}, {2, 4}, {2, 5}, {3, 6}, {3, 7}, {4, 12}, {5, 8},
+				{6, 9}, {7, 9}, {7, 10}, {8, 5}, {8, 11}, {9, 11}, {10, 9}, {11, 9}, {11, 0}, {12, 8}};
+		IntGraph graph = buildGraph(13, edges);
+		Dominators dominators = Dominators.calculate(graph, graph.reverse(), 0);
+
+		int[] expected = {0, 0, 0, 0, 0, 0, 3, 3, 0, 0, 7, 0, 4};
+		for (int node = 0; node < expected.length; node++) {
+			Assert.assertEquals("node " + node, expected[node], dominators.getImmediateDominator(node));
+		}
+		Assert.assertEquals(13, dominators.getNumReachableNodes());
+		Assert.assertEquals(0, dominators.getReachableNode(0));
+	}
+
+	@Test
+	public void testRandomGraphs() throws Exception {
+		Random random = new Random(123);
+		for (int i = 0; i < 200; i++) {
+			int numNodes = 1 + random.nextInt(40);
+			int numEdges = random.nextInt(numNodes * 3);
+			int[][] edges = new int[numEdges][];
+			for (int e = 0; e < numEdges; e++) {
+				edges[e] = new int[] {random.nextInt(numNodes), random.nextInt(numNodes)};
+			}
+			Arrays.sort(edges, (e1, e2) -> Integer.compare(e1[0], e2[0]));
+			IntGraph graph = buildGraph(numNodes, edges);
+			Dominators dominators = Dominators.calculate(graph, graph.reverse(), 0);
+
+			int[] expected = calculateDominatorsNaively(graph, 0);
+			int numReachable = 0;
+			for (int node = 0; node < numNodes; node++) {
+				Assert.assertEquals("graph " + i + ", node " + node, expected[node],
+						dominators.getImmediateDominator(node));
+				if (expected[node] != Dominators.NONE) {
+					numReachable++;
+				}
+			}
+			Assert.assertEquals(numReachable, dominators.getNumReachableNodes());
+			boolean[] seen = new boolean[numNodes];
+			seen[0] = true;
+			for (int idx = 1; idx < numReachable; idx++) {
+				int node = dominators.getReachableNode(idx);
+				Assert.assertTrue(seen[dominators.getImmediateDominator(node)]);
+				seen[node] = true;
+			}
+		}
+	}
+
+	@Test
+	public void testLongChain() throws Exception {
+		// A chain that is too long for a recursive depth-first search, and a node that is unreachable
+		int numNodes = 1000000;
+		IntGraph.Builder builder = new IntGraph.Builder(numNodes + 1);
+		for (int node = 0; node < numNodes - 1; node++) {
+			builder.addEdge(node, node + 1);
+		}
+		builder.addEdge(numNodes, 0);
+		IntGraph graph = builder.build();
+		Dominators dominators = Dominators.calculate(graph, graph.reverse(), 0);
+
+		Assert.assertEquals(numNodes, dominators.getNumReachableNodes());
+		Assert.assertEquals(0, dominators.getImmediateDominator(0));
+		for (int node = 1; node < numNodes; node++) {
+			Assert.assertEquals(node - 1, dominators.getImmediateDominator(node));
+		}
+		Assert.assertEquals(Dominators.NONE, dominators.getImmediateDominator(numNodes));
+	}
+
+	private static IntGraph buildGraph(int numNodes, int[][] edges) {
+		IntGraph.Builder builder = new IntGraph.Builder(numNodes);
+		for (int[] edge : edges) {
+			builder.addEdge(edge[0], edge[1]);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Node d dominates node n if n is unreachable when d is removed. The immediate dominator of n
+	 * is its strict dominator that is dominated by all other strict dominators of n.
+	 */
+	private static int[] calculateDominatorsNaively(IntGraph graph, int root) {
+		int numNodes = graph.getNumNodes();
+		boolean[] reachable = reachableWithout(graph, root, -1);
+		boolean[][] dominates = new boolean[numNodes][];
+		for (int d = 0; d < numNodes; d++) {
+			boolean[] reachableWithoutD = reachableWithout(graph, root, d);
+			dominates[d] = new boolean[numNodes];
+			for (int n = 0; n < numNodes; n++) {
+				dominates[d][n] = reachable[n] && (n == d || !reachableWithoutD[n]);
+			}
+		}
+		int[] idom = new int[numNodes];
+		for (int n = 0; n < numNodes; n++) {
+			if (!reachable[n]) {
+				idom[n] = Dominators.NONE;
+			} else if (n == root) {
+				idom[n] = root;
+			} else {
+				for (int d = 0; d < numNodes; d++) {
+					if (d == n || !dominates[d][n]) {
+						continue;
+					}
+					boolean isImmediate = true;
+					for (int other = 0; other < numNodes; other++) {
+						if (other != n && other != d && dominates[other][n] && !dominates[other][d]) {
+							isImmediate = false;
+						}
+					}
+					if (isImmediate) {
+						idom[n] = d;
+					}
+				}
+			}
+		}
+		return idom;
+	}
+
+	private static boolean[] reachableWithout(IntGraph graph, int root, int removed) {
+		boolean[] reachable = new boolean[graph.getNumNodes()];
+		if (root == removed) {
+			return reachable;
+		}
+		ArrayDeque<Integer> queue = new ArrayDeque<>();
+		reachable[root] = true;
+		queue.add(root);
+		while (!queue.isEmpty()) {
+			int node = queue.remove();
+			for (long edge = graph.getFirstEdge(node); edge < graph.getEdgesEnd(node); edge++) {
+				int target = graph.getTarget(edge);
+				if (target != removed && !reachable[target]) {
+					reachable[target] = true;
+					queue.add(target);
+				}
+			}
+		}
+		return reachable;
+	}
+}
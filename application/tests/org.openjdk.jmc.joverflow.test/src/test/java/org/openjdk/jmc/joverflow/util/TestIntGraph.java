@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.joverflow.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ */
+public class TestIntGraph {
+
+	@Test
+	public void testReverse() throws Exception {
+		Random random = new Random(42);
+		int numNodes = 100;
+		List<List<Integer>> expected = new ArrayList<>();
+		for (int node = 0; node < numNodes; node++) {
+			expected.add(new ArrayList<>());
+		}
+		IntGraph.Builder builder = new IntGraph.Builder(numNodes);
+		for (int source = 0; source < numNodes; source += 1 + random.nextInt(3)) {
+			for (int i = random.nextInt(5); i > 0; i--) {
+				int target = random.nextInt(numNodes);
+				builder.addEdge(source, target);
+				expected.get(target).add(source);
+			}
+		}
+		IntGraph reverse = builder.build().reverse();
+
+		Assert.assertEquals(numNodes, reverse.getNumNodes());
+		for (int node = 0; node < numNodes; node++) {
+			Assert.assertEquals("node " + node, expected.get(node), getTargets(reverse, node));
+		}
+	}
+
+	@Test
+	public void testAddEdges() throws Exception {
+		IntGraph.Builder partBuilder = new IntGraph.Builder(3);
+		partBuilder.addEdge(0, 5);
+		partBuilder.addEdge(2, 0);
+		partBuilder.addEdge(2, 1);
+		IntGraph part = partBuilder.build();
+
+		IntGraph.Builder builder = new IntGraph.Builder(6);
+		builder.addEdge(0, 4);
+		builder.addEdges(2, part);
+		builder.addEdge(5, 3);
+		IntGraph graph = builder.build();
+
+		Assert.assertEquals(5, graph.getNumEdges());
+		Assert.assertEquals(List.of(4), getTargets(graph, 0));
+		Assert.assertEquals(List.of(), getTargets(graph, 1));
+		Assert.assertEquals(List.of(5), getTargets(graph, 2));
+		Assert.assertEquals(List.of(), getTargets(graph, 3));
+		Assert.assertEquals(List.of(0, 1), getTargets(graph, 4));
+		Assert.assertEquals(List.of(3), getTargets(graph, 5));
+	}
+
+	@Test
+	public void testReverseBuilder() throws Exception {
+		Random random = new Random(42);
+		int numNodes = 100;
+		List<IntGraph> parts = new ArrayList<>();
+		List<Integer> partStarts = new ArrayList<>();
+		IntGraph.Builder builder = new IntGraph.Builder(numNodes);
+		for (int partStart = 0; partStart < numNodes; partStart += 30) {
+			int partSize = Math.min(30, numNodes - partStart);
+			IntGraph.Builder partBuilder = new IntGraph.Builder(partSize);
+			for (int source = 0; source < partSize; source += 1 + random.nextInt(3)) {
+				for (int i = random.nextInt(5); i > 0; i--) {
+					int target = random.nextInt(numNodes);
+					partBuilder.addEdge(source, target);
+					builder.addEdge(partStart + source, target);
+				}
+			}
+			parts.add(partBuilder.build());
+			partStarts.add(partStart);
+		}
+		IntGraph expected = builder.build().reverse();
+
+		IntGraph.ReverseBuilder reverseBuilder = new IntGraph.ReverseBuilder(numNodes);
+		for (int i = 0; i < parts.size(); i++) {
+			reverseBuilder.countEdges(partStarts.get(i), parts.get(i));
+		}
+		reverseBuilder.startPlacing();
+		for (int i = 0; i < parts.size(); i++) {
+			reverseBuilder.placeEdges(partStarts.get(i), parts.get(i));
+		}
+		IntGraph reverse = reverseBuilder.build();
+
+		Assert.assertEquals(expected.getNumEdges(), reverse.getNumEdges());
+		for (int node = 0; node < numNodes; node++) {
+			Assert.assertEquals("node " + node, getTargets(expected, node), getTargets(reverse, node));
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testReverseBuilderMissingPart() throws Exception {
+		IntGraph.Builder partBuilder = new IntGraph.Builder(2);
+		partBuilder.addEdge(0, 1);
+		IntGraph part = partBuilder.build();
+
+		IntGraph.ReverseBuilder reverseBuilder = new IntGraph.ReverseBuilder(4);
+		reverseBuilder.countEdges(0, part);
+		reverseBuilder.countEdges(2, part);
+		reverseBuilder.startPlacing();
+		reverseBuilder.placeEdges(0, part);
+		reverseBuilder.build();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testEdgesOutOfOrder() throws Exception {
+		IntGraph.Builder builder = new IntGraph.Builder(2);
+		builder.addEdge(1, 0);
+		builder.addEdge(0, 1);
+	}
+
+	private static List<Integer> getTargets(IntGraph graph, int node) {
+		List<Integer> targets = new ArrayList<>();
+		for (long edge = graph.getFirstEdge(node); edge < graph.getEdgesEnd(node); edge++) {
+			targets.add(graph.getTarget(edge));
+		}
+		return targets;
+	}
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.rjmx.services.jfr.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.openjdk.jmc.flightrecorder.configuration.IRecordingDescriptor;
+import org.openjdk.jmc.rjmx.common.services.jfr.internal.IFlightRecorderCommunicationHelper;
+import org.openjdk.jmc.rjmx.common.services.jfr.internal.JfrRecordingInputStreamV2;
+
+/**
+ * Tests the prefetching recording stream against a stubbed FlightRecorderMXBean.
+ */
+@SuppressWarnings("nls")
+public class JfrRecordingInputStreamTest {
+	private static final long STREAM_ID = 17;
+	private static final int BLOCK_SIZE = 1000;
+
+	@Test
+	public void testPrefetchAndBulkRead() throws Exception {
+		StubHelper helper = new StubHelper(createBlocks(20));
+		try (InputStream in = new JfrRecordingInputStreamV2(helper, createDescriptor(), true)) {
+			assertEquals(0, in.read());
+			// The following blocks are fetched without the consumer asking for them
+			waitFor(() -> helper.reads.get() > 8);
+			assertTrue(helper.reads.get() < 20);
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			out.write(0);
+			byte[] buf = new byte[20 * BLOCK_SIZE];
+			int n = in.read(buf, 0, buf.length);
+			assertTrue("A bulk read should return all prefetched blocks", n > BLOCK_SIZE);
+			out.write(buf, 0, n);
+			while ((n = in.read(buf, 0, buf.length)) != -1) {
+				out.write(buf, 0, n);
+			}
+			assertArrayEquals(concat(helper.blocks), out.toByteArray());
+			assertEquals(-1, in.read());
+		}
+		assertTrue(helper.streamClosed);
+		assertTrue(helper.recordingClosed);
+	}
+
+	@Test
+	public void testSingleByteRead() throws Exception {
+		StubHelper helper = new StubHelper(createBlocks(3));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (InputStream in = new JfrRecordingInputStreamV2(helper, createDescriptor(), false)) {
+			int b;
+			while ((b = in.read()) != -1) {
+				out.write(b);
+			}
+		}
+		assertArrayEquals(concat(helper.blocks), out.toByteArray());
+		assertTrue(helper.streamClosed);
+		assertFalse(helper.recordingClosed);
+	}
+
+	@Test
+	public void testCloseWhileReading() throws Exception {
+		StubHelper helper = new StubHelper(createBlocks(5));
+		helper.hangAt = 1;
+		InputStream in = new JfrRecordingInputStreamV2(helper, createDescriptor(), true);
+		try {
+			byte[] buf = new byte[BLOCK_SIZE];
+			assertEquals(BLOCK_SIZE, in.read(buf, 0, buf.length));
+			AtomicInteger result = new AtomicInteger(0);
+			Thread reader = new Thread(() -> {
+				try {
+					result.set(in.read(buf, 0, buf.length));
+				} catch (IOException e) {
+					result.set(-2);
+				}
+			});
+			reader.start();
+			waitFor(() -> helper.reads.get() > 1);
+
+			// The fetcher never returns, so close must give up waiting for it
+			long start = System.nanoTime();
+			in.close();
+			assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 30);
+			reader.join(TimeUnit.SECONDS.toMillis(30));
+			assertFalse(reader.isAlive());
+			assertEquals(-1, result.get());
+			assertEquals(-1, in.read());
+			assertTrue(helper.streamClosed);
+			assertTrue(helper.recordingClosed);
+		} finally {
+			helper.hang.countDown();
+		}
+	}
+
+	@Test
+	public void testErrorPropagation() throws Exception {
+		StubHelper helper = new StubHelper(createBlocks(5));
+		helper.failAt = 2;
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		InputStream in = new JfrRecordingInputStreamV2(helper, createDescriptor(), true);
+		byte[] buf = new byte[BLOCK_SIZE];
+		try {
+			int n;
+			while ((n = in.read(buf, 0, buf.length)) != -1) {
+				out.write(buf, 0, n);
+			}
+			fail("Expected the read failure to be reported");
+		} catch (IOException e) {
+			assertEquals("Connection lost", e.getMessage());
+		}
+		assertArrayEquals(concat(helper.blocks.subList(0, 2)), out.toByteArray());
+		// The stream is closed when the failure is reported
+		assertTrue(helper.streamClosed);
+		assertTrue(helper.recordingClosed);
+		assertEquals(-1, in.read());
+	}
+
+	private static List<byte[]> createBlocks(int count) {
+		List<byte[]> blocks = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			byte[] block = new byte[BLOCK_SIZE];
+			for (int j = 0; j < block.length; j++) {
+				block[j] = (byte) (i * 31 + j);
+			}
+			blocks.add(block);
+		}
+		return blocks;
+	}
+
+	private static byte[] concat(List<byte[]> blocks) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (byte[] block : blocks) {
+			out.write(block, 0, block.length);
+		}
+		return out.toByteArray();
+	}
+
+	private static IRecordingDescriptor createDescriptor() {
+		return (IRecordingDescriptor) Proxy.newProxyInstance(IRecordingDescriptor.class.getClassLoader(),
+				new Class<?>[] {IRecordingDescriptor.class}, (proxy, method, args) -> {
+					switch (method.getName()) {
+					case "getId":
+						return Long.valueOf(1);
+					case "toString":
+						return "Stub recording";
+					default:
+						return null;
+					}
+				});
+	}
+
+	private static void waitFor(Condition condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		while (!condition.isTrue()) {
+			if (System.nanoTime() > deadline) {
+				fail("Timed out");
+			}
+			Thread.sleep(10);
+		}
+	}
+
+	private interface Condition {
+		boolean isTrue();
+	}
+
+	private static class StubHelper implements IFlightRecorderCommunicationHelper {
+		final List<byte[]> blocks;
+		final AtomicInteger reads = new AtomicInteger();
+		final CountDownLatch hang = new CountDownLatch(1);
+		volatile int hangAt = -1;
+		volatile int failAt = -1;
+		volatile boolean streamClosed;
+		volatile boolean recordingClosed;
+
+		StubHelper(List<byte[]> blocks) {
+			this.blocks = blocks;
+		}
+
+		@Override
+		public Object getAttribute(String attribute) {
+			return null;
+		}
+
+		@Override
+		public Object invokeOperation(String name, Object ... parameters) throws IOException {
+			switch (name) {
+			case "openStream":
+				return Long.valueOf(STREAM_ID);
+			case "readStream":
+				assertEquals(Long.valueOf(STREAM_ID), parameters[0]);
+				int i = reads.getAndIncrement();
+				if (i == hangAt) {
+					// Ignore interrupts, like a hung connection would
+					boolean released = false;
+					while (!released) {
+						try {
+							released = hang.await(1, TimeUnit.SECONDS);
+						} catch (InterruptedException e) {
+							// Keep hanging
+						}
+					}
+				}
+				if (i == failAt) {
+					throw new IOException("Connection lost");
+				}
+				return i < blocks.size() ? blocks.get(i) : null;
+			case "closeStream":
+				streamClosed = true;
+				return null;
+			default:
+				throw new IOException("Unexpected operation " + name);
+			}
+		}
+
+		@Override
+		public void closeRecording(IRecordingDescriptor descriptor) {
+			recordingClosed = true;
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -41,6 +41,6 @@ import org.junit.runners.Suite.SuiteClasses;
  */
 @RunWith(Suite.class)
 @SuiteClasses({EventMetadataTest.class, EventTemplateTest.class, JfrControlTest.class, RecordingOptionsTest.class,
-		OnlineEventOptionsTest.class})
+		OnlineEventOptionsTest.class, JfrRecordingInputStreamTest.class})
 public class JfrTestSuite {
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -37,6 +37,7 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 import org.openjdk.jmc.rjmx.test.internal.InternalTestSuite;
+import org.openjdk.jmc.rjmx.test.persistence.PersistenceTestSuite;
 import org.openjdk.jmc.rjmx.test.services.ServicesTestSuite;
 import org.openjdk.jmc.rjmx.test.subscription.SubscriptionTestSuite;
 import org.openjdk.jmc.rjmx.test.subscription.internal.SubscriptionInternalTestSuite;
@@ -48,9 +49,9 @@ import org.openjdk.jmc.rjmx.test.triggers.NotificationTestSuite;
  * launchers.
  */
 @RunWith(Suite.class)
-@SuiteClasses({RJMXTestSuite.class, InternalTestSuite.class, ServicesTestSuite.class, SubscriptionTestSuite.class,
-		SubscriptionInternalTestSuite.class, SyntheticTestSuite.class, NotificationTestSuite.class,
-		JVMSupportToolkitTest.class})
+@SuiteClasses({RJMXTestSuite.class, InternalTestSuite.class, PersistenceTestSuite.class, ServicesTestSuite.class,
+		SubscriptionTestSuite.class, SubscriptionInternalTestSuite.class, SyntheticTestSuite.class,
+		NotificationTestSuite.class, JVMSupportToolkitTest.class})
 public class AllRJMXTests {
 
 }
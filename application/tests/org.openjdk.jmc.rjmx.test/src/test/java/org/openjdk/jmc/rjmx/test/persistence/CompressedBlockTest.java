@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.rjmx.test.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Test;
+import org.openjdk.jmc.common.xydata.ITimestampedData;
+import org.openjdk.jmc.rjmx.persistence.internal.CompressedBlock;
+
+public class CompressedBlockTest {
+	private static final long NANOS_PER_MILLI = 1000 * 1000L;
+	private static final long START = 1700000000000L * NANOS_PER_MILLI;
+
+	@Test
+	public void testSpecialValues() {
+		double[] values = {Double.NaN, 0.0, -0.0, 0.0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+				Double.MIN_VALUE, -Double.MIN_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, Double.NaN, 1.0, -1.0,
+				Double.longBitsToDouble(0x7ff8000000000001L)};
+		long[] timestamps = new long[values.length];
+		for (int i = 0; i < values.length; i++) {
+			timestamps[i] = START + i * 1000 * NANOS_PER_MILLI;
+		}
+		assertRoundTrip(timestamps, values);
+	}
+
+	@Test
+	public void testEqualValues() {
+		long[] timestamps = new long[500];
+		double[] values = new double[timestamps.length];
+		for (int i = 0; i < timestamps.length; i++) {
+			timestamps[i] = START + i * 1000 * NANOS_PER_MILLI;
+			values[i] = i < 250 ? 42.5 : -3;
+		}
+		CompressedBlock.Encoder encoder = assertRoundTrip(timestamps, values);
+		// regular timestamps and repeated values only take a couple of bits each
+		assertTrue(encoder.getPayloadLength() < 8 + timestamps.length / 2);
+	}
+
+	@Test
+	public void testRandomValues() {
+		Random random = new Random(4711);
+		for (int round = 0; round < 20; round++) {
+			long[] timestamps = new long[100];
+			double[] values = new double[timestamps.length];
+			for (int i = 0; i < timestamps.length; i++) {
+				timestamps[i] = START + i * 1000 * NANOS_PER_MILLI;
+				switch (round % 4) {
+				case 0:
+					values[i] = random.nextDouble();
+					break;
+				case 1:
+					values[i] = Double.longBitsToDouble(random.nextLong());
+					break;
+				case 2:
+					values[i] = random.nextInt(1000);
+					break;
+				default:
+					values[i] = random.nextGaussian() * 1e9;
+				}
+			}
+			assertRoundTrip(timestamps, values);
+		}
+	}
+
+	@Test
+	public void testTimestampJitterGapsAndNegativeDeltas() {
+		Random random = new Random(17);
+		long[] timestamps = new long[200];
+		double[] values = new double[timestamps.length];
+		long millis = START / NANOS_PER_MILLI;
+		for (int i = 0; i < timestamps.length; i++) {
+			switch (i % 10) {
+			case 3:
+				// a gap of several hours
+				millis += 5 * 3600 * 1000L + random.nextInt(1000);
+				break;
+			case 6:
+				// a value arriving before the previous one
+				millis -= 1 + random.nextInt(3000);
+				break;
+			case 8:
+				// the largest buckets
+				millis += 2048 + random.nextInt(2);
+				break;
+			default:
+				// jitter around the one second update interval
+				millis += 1000 + random.nextInt(21) - 10;
+			}
+			timestamps[i] = millis * NANOS_PER_MILLI;
+			values[i] = i;
+		}
+		assertRoundTrip(timestamps, values);
+	}
+
+	@Test
+	public void testBucketEdges() {
+		long[] deltas = {0, 1, 64, -63, 65, -64, 256, -255, 257, -256, 2048, -2047, 2049, -2048, 100000, -100000,
+				Integer.MAX_VALUE, -Integer.MAX_VALUE};
+		long[] timestamps = new long[deltas.length + 2];
+		double[] values = new double[timestamps.length];
+		long millis = START / NANOS_PER_MILLI;
+		long delta = 0;
+		timestamps[0] = millis * NANOS_PER_MILLI;
+		for (int i = 0; i < deltas.length; i++) {
+			delta += deltas[i];
+			millis += delta;
+			timestamps[i + 1] = millis * NANOS_PER_MILLI;
+		}
+		millis += delta;
+		timestamps[timestamps.length - 1] = millis * NANOS_PER_MILLI;
+		assertRoundTrip(timestamps, values);
+	}
+
+	@Test
+	public void testSubMillisecondTimestamps() {
+		CompressedBlock.Encoder encoder = new CompressedBlock.Encoder();
+		assertTrue(encoder.append(START + 123456, 1));
+		assertTrue(encoder.append(START + 1000 * NANOS_PER_MILLI + 654321, 2));
+		ITimestampedData[] decoded = decode(encoder);
+		// the first timestamp is kept in the header, the others have millisecond precision
+		assertEquals(START + 123456, decoded[0].getX().longValue());
+		assertEquals(START + 1000 * NANOS_PER_MILLI, decoded[1].getX().longValue());
+		assertEquals(START + 1000 * NANOS_PER_MILLI + 654321, encoder.getLastTimestamp());
+	}
+
+	@Test
+	public void testTooLargeDeltaOfDelta() {
+		CompressedBlock.Encoder encoder = new CompressedBlock.Encoder();
+		assertTrue(encoder.append(START, 1));
+		assertFalse(encoder.append(START + (Integer.MAX_VALUE + 1L) * NANOS_PER_MILLI, 2));
+		assertFalse(encoder.append(START + Integer.MIN_VALUE * NANOS_PER_MILLI, 2));
+		assertEquals(1, encoder.getCount());
+	}
+
+	@Test
+	public void testFullBlock() {
+		Random random = new Random(1);
+		CompressedBlock.Encoder encoder = new CompressedBlock.Encoder();
+		int count = 0;
+		while (encoder.append(START + count * 1000 * NANOS_PER_MILLI, Double.longBitsToDouble(random.nextLong()))) {
+			count++;
+		}
+		assertEquals(count, encoder.getCount());
+		assertTrue(encoder.getPayloadLength() <= CompressedBlock.BLOCK_SIZE - CompressedBlock.HEADER_SIZE);
+		assertEquals(count, decode(encoder).length);
+	}
+
+	@Test
+	public void testTruncatedBlock() {
+		CompressedBlock.Encoder encoder = new CompressedBlock.Encoder();
+		for (int i = 0; i < 100; i++) {
+			encoder.append(START + i * 1000 * NANOS_PER_MILLI, i * 1.5);
+		}
+		ByteBuffer block = toBlock(encoder);
+		ByteBuffer truncated = ByteBuffer.wrap(block.array(), 0,
+				CompressedBlock.HEADER_SIZE + encoder.getPayloadLength() - 2).slice();
+		try {
+			CompressedBlock.decode(truncated, 0, encoder.getCount(), new ITimestampedData[encoder.getCount()], 0);
+			fail("Expected the truncated block to be detected");
+		} catch (IndexOutOfBoundsException e) {
+			// expected
+		}
+	}
+
+	private static CompressedBlock.Encoder assertRoundTrip(long[] timestamps, double[] values) {
+		CompressedBlock.Encoder encoder = new CompressedBlock.Encoder();
+		for (int i = 0; i < timestamps.length; i++) {
+			assertTrue("Value " + i + " did not fit", encoder.append(timestamps[i], values[i]));
+		}
+		assertEquals(timestamps.length, encoder.getCount());
+		assertEquals(timestamps[0], encoder.getFirstTimestamp());
+		assertEquals(timestamps[timestamps.length - 1], encoder.getLastTimestamp());
+		ITimestampedData[] decoded = decode(encoder);
+		for (int i = 0; i < timestamps.length; i++) {
+			assertEquals("Timestamp " + i, timestamps[i], decoded[i].getX().longValue());
+			assertEquals("Value " + i, Double.doubleToRawLongBits(values[i]),
+					Double.doubleToRawLongBits(decoded[i].getY().doubleValue()));
+		}
+		return encoder;
+	}
+
+	private static ITimestampedData[] decode(CompressedBlock.Encoder encoder) {
+		ITimestampedData[] decoded = new ITimestampedData[encoder.getCount() + 2];
+		CompressedBlock.decode(toBlock(encoder), 0, encoder.getCount(), decoded, 1);
+		assertEquals(null, decoded[0]);
+		assertEquals(null, decoded[decoded.length - 1]);
+		ITimestampedData[] result = new ITimestampedData[encoder.getCount()];
+		System.arraycopy(decoded, 1, result, 0, result.length);
+		return result;
+	}
+
+	private static ByteBuffer toBlock(CompressedBlock.Encoder encoder) {
+		ByteBuffer block = ByteBuffer.allocate(CompressedBlock.BLOCK_SIZE);
+		block.putLong(CompressedBlock.FIRST_TIMESTAMP_OFFSET, encoder.getFirstTimestamp());
+		block.putLong(CompressedBlock.LAST_TIMESTAMP_OFFSET, encoder.getLastTimestamp());
+		block.putInt(CompressedBlock.COUNT_OFFSET, encoder.getCount());
+		System.arraycopy(encoder.getPayload(), 0, block.array(), CompressedBlock.HEADER_SIZE,
+				encoder.getPayloadLength());
+		return block;
+	}
+}
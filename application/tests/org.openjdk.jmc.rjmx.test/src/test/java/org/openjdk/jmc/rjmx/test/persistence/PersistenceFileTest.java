@@ -0,0 +1,351 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.rjmx.test.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openjdk.jmc.common.util.StringToolkit;
+import org.openjdk.jmc.common.xydata.ITimestampedData;
+import org.openjdk.jmc.rjmx.common.services.IAttributeStorage;
+import org.openjdk.jmc.rjmx.common.services.MRIDataSeries;
+import org.openjdk.jmc.rjmx.common.subscription.MRI;
+import org.openjdk.jmc.rjmx.common.subscription.MRIValueEvent;
+import org.openjdk.jmc.rjmx.persistence.internal.AttributeWriter;
+import org.openjdk.jmc.rjmx.persistence.internal.CompressedBlock;
+import org.openjdk.jmc.rjmx.persistence.internal.PersistenceFile;
+import org.openjdk.jmc.rjmx.persistence.internal.PersistenceReader;
+
+@SuppressWarnings("nls")
+public class PersistenceFileTest {
+	private static final MRI ATTRIBUTE = MRI
+			.createFromQualifiedName("attribute://java.lang:type=Threading/ThreadCount");
+	private static final long NANOS_PER_MILLI = 1000 * 1000L;
+	private static final long START_MILLIS = 1700000000000L;
+	private static final long MAX_FILE_SIZE = 1024 * 1024;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testWriteAndAppend() throws IOException {
+		File root = folder.getRoot();
+		List<long[]> written = new ArrayList<>();
+		write(root, 0, 3000, written);
+		File[] files = getFiles(root);
+		assertEquals(1, files.length);
+		long firstLength = files[0].length();
+
+		// A new writer appends to the existing file, starting at the next block
+		write(root, 3000, 6000, written);
+		files = getFiles(root);
+		assertEquals(1, files.length);
+		assertTrue(files[0].length() > firstLength);
+
+		PersistenceFile file = new PersistenceFile(files[0]);
+		assertFalse(file.isCorrupt());
+		assertEvents(written, file.getEvents(Long.MIN_VALUE, Long.MAX_VALUE));
+	}
+
+	@Test
+	public void testFileRotation() throws IOException {
+		File root = folder.getRoot();
+		List<long[]> written = new ArrayList<>();
+		AttributeWriter writer = new AttributeWriter(ATTRIBUTE, root, 4 * CompressedBlock.BLOCK_SIZE);
+		writer.setEnabled(true);
+		writer.start();
+		Random random = new Random(3);
+		for (int i = 0; i < 5000; i++) {
+			long millis = START_MILLIS + i * 1000L;
+			long value = random.nextLong();
+			writer.valueChanged(new MRIValueEvent(ATTRIBUTE, millis, Double.longBitsToDouble(value)));
+			written.add(new long[] {millis * NANOS_PER_MILLI, value});
+		}
+		writer.stop();
+		File[] files = getFiles(root);
+		assertTrue(files.length > 1);
+		List<ITimestampedData> read = new ArrayList<>();
+		List<PersistenceFile> persistenceFiles = new ArrayList<>();
+		for (File f : files) {
+			PersistenceFile file = new PersistenceFile(f);
+			assertTrue(f.length() <= 4 * CompressedBlock.BLOCK_SIZE);
+			persistenceFiles.add(file);
+		}
+		persistenceFiles.sort(PersistenceFile.PERSISTENCE_FILE_START_COMPARATOR);
+		for (PersistenceFile file : persistenceFiles) {
+			for (ITimestampedData data : file.getEvents(Long.MIN_VALUE, Long.MAX_VALUE)) {
+				read.add(data);
+			}
+		}
+		assertEvents(written, read.toArray(new ITimestampedData[read.size()]));
+	}
+
+	@Test
+	public void testReaderStopsAfterRange() throws IOException {
+		File root = folder.getRoot();
+		List<long[]> written = new ArrayList<>();
+		AttributeWriter writer = new AttributeWriter(ATTRIBUTE, root, 4 * CompressedBlock.BLOCK_SIZE);
+		writer.setEnabled(true);
+		writer.start();
+		Random random = new Random(5);
+		for (int i = 0; i < 5000; i++) {
+			long millis = START_MILLIS + i * 1000L;
+			// random values compress badly, so that the values are spread over several files
+			long value = random.nextLong();
+			writer.valueChanged(new MRIValueEvent(ATTRIBUTE, millis, Double.longBitsToDouble(value)));
+			written.add(new long[] {millis * NANOS_PER_MILLI, value});
+		}
+		writer.stop();
+		List<PersistenceFile> files = new ArrayList<>();
+		for (File f : getFiles(root)) {
+			files.add(new PersistenceFile(f));
+		}
+		files.sort(PersistenceFile.PERSISTENCE_FILE_START_COMPARATOR);
+		assertTrue("Expected several files", files.size() > 3);
+
+		MRIDataSeries series = new PersistenceReader(root, null).getAttributeStorage(ATTRIBUTE).getDataSeries()
+				.get(0);
+		for (int f = 0; f < files.size() - 1; f++) {
+			PersistenceFile file = files.get(f);
+			long queryMin = file.getEvents(Long.MIN_VALUE, Long.MAX_VALUE)[1].getX();
+			long queryMax = (file.getEvents(Long.MIN_VALUE, Long.MAX_VALUE)[3].getX() + queryMin) / 2;
+			ITimestampedData[] events = toArray(series.createIterator(queryMin, queryMax));
+			// the events are consecutive and cover the range
+			int offset = 0;
+			while (written.get(offset)[0] < events[0].getX()) {
+				offset++;
+			}
+			for (int i = 0; i < events.length; i++) {
+				assertEquals(written.get(offset + i)[0], events[i].getX().longValue());
+			}
+			assertTrue(events[0].getX() < queryMin);
+			assertTrue(events[events.length - 1].getX() > queryMax);
+			// the next file is not read, as this file already has events after the range
+			ITimestampedData[] nextEvents = files.get(f + 1).getEvents(Long.MIN_VALUE, Long.MAX_VALUE);
+			assertTrue(events[events.length - 1].getX() < nextEvents[0].getX());
+		}
+	}
+
+	@Test
+	public void testGetEventsEdgeBlocks() throws IOException {
+		List<long[]> written = new ArrayList<>();
+		write(folder.getRoot(), 0, 5000, written);
+		PersistenceFile file = new PersistenceFile(getFiles(folder.getRoot())[0]);
+		assertTrue("Expected several blocks", file.getNextBlockOffset() > 5 * CompressedBlock.BLOCK_SIZE);
+		long first = written.get(0)[0];
+		long last = written.get(written.size() - 1)[0];
+		for (int i = 0; i < written.size(); i++) {
+			long x = written.get(i)[0];
+			assertRange(written, file, x, x);
+			assertRange(written, file, x + 1, x + 2);
+			if (i % 25 == 0) {
+				assertRange(written, file, x - 1, x + 1);
+				assertRange(written, file, first - 1000, x);
+				assertRange(written, file, x, last + 1000);
+			}
+		}
+		assertRange(written, file, Long.MIN_VALUE, Long.MAX_VALUE);
+		assertRange(written, file, Long.MIN_VALUE, first - 1);
+		assertRange(written, file, last + 1, Long.MAX_VALUE);
+	}
+
+	@Test
+	public void testTruncatedLastBlock() throws IOException {
+		List<long[]> written = new ArrayList<>();
+		write(folder.getRoot(), 0, 3000, written);
+		File f = getFiles(folder.getRoot())[0];
+		PersistenceFile complete = new PersistenceFile(f);
+		long lastBlock = complete.getNextBlockOffset() - CompressedBlock.BLOCK_SIZE;
+		assertTrue("Expected several blocks", lastBlock > 3 * CompressedBlock.BLOCK_SIZE);
+		long firstX = complete.getEvents(Long.MIN_VALUE, Long.MIN_VALUE)[0].getX();
+
+		try (RandomAccessFile raf = new RandomAccessFile(f, "rw")) {
+			raf.setLength(lastBlock + CompressedBlock.HEADER_SIZE + 4);
+		}
+		PersistenceFile truncated = new PersistenceFile(f);
+		assertTrue(truncated.isCorrupt());
+		try {
+			truncated.getEvents(Long.MIN_VALUE, Long.MAX_VALUE);
+			fail("Expected the truncated block to be reported");
+		} catch (IOException e) {
+			// expected
+		}
+		// blocks far from the truncated one can still be read
+		assertEquals(firstX, truncated.getEvents(Long.MIN_VALUE, Long.MIN_VALUE)[0].getX().longValue());
+
+		// a writer does not append after a truncated block
+		write(folder.getRoot(), 3000, 3100, new ArrayList<>());
+		assertEquals(2, getFiles(folder.getRoot()).length);
+
+		try (RandomAccessFile raf = new RandomAccessFile(f, "rw")) {
+			raf.setLength(lastBlock + CompressedBlock.HEADER_SIZE - 4);
+		}
+		try {
+			new PersistenceFile(f);
+			fail("Expected the truncated block header to be reported");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testOldFormatNextToNewFormat() throws IOException {
+		File root = folder.getRoot();
+		File attributeDir = new File(root, StringToolkit.encodeFilename(ATTRIBUTE.getQualifiedName()));
+		assertTrue(attributeDir.mkdirs());
+		List<long[]> oldWritten = new ArrayList<>();
+		try (DataOutputStream out = new DataOutputStream(
+				new FileOutputStream(new File(attributeDir, "values_1.persisted_jmx_data")))) {
+			out.writeUTF(ATTRIBUTE.getQualifiedName());
+			for (int i = 0; i < 1000; i++) {
+				long x = (START_MILLIS + i * 1000L) * NANOS_PER_MILLI;
+				double value = i * 0.5;
+				out.writeLong(x);
+				out.writeDouble(value);
+				oldWritten.add(new long[] {x, Double.doubleToRawLongBits(value)});
+			}
+		}
+		try (DataOutputStream out = new DataOutputStream(
+				new FileOutputStream(new File(attributeDir, AttributeWriter.SERIES_FILE_NAME)))) {
+			out.writeLong(START_MILLIS * NANOS_PER_MILLI);
+		}
+		List<long[]> newWritten = new ArrayList<>();
+		write(root, 2000, 4000, newWritten);
+
+		File[] files = attributeDir.listFiles(PersistenceFile.FILTER);
+		assertEquals(2, files.length);
+		PersistenceFile oldFile = new PersistenceFile(new File(attributeDir, "values_1.persisted_jmx_data"));
+		assertFalse(oldFile.isCorrupt());
+		assertEvents(oldWritten, oldFile.getEvents(Long.MIN_VALUE, Long.MAX_VALUE));
+
+		IAttributeStorage storage = new PersistenceReader(root, null).getAttributeStorage(ATTRIBUTE);
+		assertNotNull(storage);
+		List<? extends MRIDataSeries> series = storage.getDataSeries();
+		assertEquals(2, series.size());
+		assertEvents(oldWritten, toArray(series.get(0).createIterator(Long.MIN_VALUE, Long.MAX_VALUE)));
+		assertEvents(newWritten, toArray(series.get(1).createIterator(Long.MIN_VALUE, Long.MAX_VALUE)));
+		assertEquals(oldWritten.get(0)[0], storage.getDataStart());
+		assertEquals(newWritten.get(newWritten.size() - 1)[0], storage.getDataEnd());
+	}
+
+	/**
+	 * Write values for the seconds {@code [from, to)} with a new writer.
+	 */
+	private static void write(File root, int from, int to, List<long[]> written) {
+		AttributeWriter writer = new AttributeWriter(ATTRIBUTE, root, MAX_FILE_SIZE);
+		writer.setEnabled(true);
+		writer.start();
+		Random random = new Random(from);
+		for (int i = from; i < to; i++) {
+			long millis = START_MILLIS + i * 1000L + random.nextInt(20);
+			double value = (i % 100 < 50) ? i : random.nextDouble();
+			writer.valueChanged(new MRIValueEvent(ATTRIBUTE, millis, value));
+			written.add(new long[] {millis * NANOS_PER_MILLI, Double.doubleToRawLongBits(value)});
+		}
+		writer.stop();
+	}
+
+	private static File[] getFiles(File root) {
+		File[] files = new File(root, StringToolkit.encodeFilename(ATTRIBUTE.getQualifiedName()))
+				.listFiles(PersistenceFile.FILTER);
+		assertNotNull(files);
+		return files;
+	}
+
+	private static ITimestampedData[] toArray(Iterator<ITimestampedData> iterator) {
+		List<ITimestampedData> list = new ArrayList<>();
+		iterator.forEachRemaining(list::add);
+		return list.toArray(new ITimestampedData[list.size()]);
+	}
+
+	private static void assertEvents(List<long[]> expected, ITimestampedData[] actual) {
+		assertEquals(expected.size(), actual.length);
+		for (int i = 0; i < actual.length; i++) {
+			assertEquals("Timestamp " + i, expected.get(i)[0], actual[i].getX().longValue());
+			assertEquals("Value " + i, expected.get(i)[1], Double.doubleToRawLongBits(actual[i].getY().doubleValue()));
+		}
+	}
+
+	/**
+	 * Check that the events returned for a range are consecutive written events that cover the
+	 * range, with at least one event on each side of it when there is one.
+	 */
+	private static void assertRange(List<long[]> written, PersistenceFile file, long min, long max)
+			throws IOException {
+		ITimestampedData[] events = file.getEvents(min, max);
+		assertTrue(events.length > 0);
+		int low = 0;
+		int high = written.size() - 1;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (written.get(mid)[0] < events[0].getX()) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		int offset = low;
+		for (int i = 0; i < events.length; i++) {
+			assertEquals(written.get(offset + i)[0], events[i].getX().longValue());
+			assertEquals(written.get(offset + i)[1], Double.doubleToRawLongBits(events[i].getY().doubleValue()));
+		}
+		long firstX = events[0].getX();
+		long lastX = events[events.length - 1].getX();
+		if (written.get(0)[0] < min) {
+			assertTrue("No event before " + min, firstX < min);
+		} else {
+			assertEquals(written.get(0)[0], firstX);
+		}
+		if (written.get(written.size() - 1)[0] > max) {
+			assertTrue("No event after " + max, lastX > max);
+		} else {
+			assertEquals(written.get(written.size() - 1)[0], lastX);
+		}
+	}
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.rjmx.test.subscription.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.Iterator;
+import java.util.Observer;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.openjdk.jmc.common.xydata.ITimestampedData;
+import org.openjdk.jmc.rjmx.common.services.AggregatedTimestampedData;
+import org.openjdk.jmc.rjmx.common.services.MRIDataSeries;
+import org.openjdk.jmc.rjmx.common.subscription.IMRISubscription;
+import org.openjdk.jmc.rjmx.common.subscription.IMRIValueListener;
+import org.openjdk.jmc.rjmx.common.subscription.ISubscriptionService;
+import org.openjdk.jmc.rjmx.common.subscription.MRI;
+import org.openjdk.jmc.rjmx.common.subscription.MRI.Type;
+import org.openjdk.jmc.rjmx.common.subscription.MRIValueEvent;
+import org.openjdk.jmc.rjmx.common.subscription.storage.internal.BufferingAttributeStorage;
+
+public class BufferingAttributeStorageTest {
+	private static final MRI ATTRIBUTE = new MRI(Type.ATTRIBUTE, "java.lang:type=Threading", "ThreadCount"); //$NON-NLS-1$ //$NON-NLS-2$
+
+	@Test
+	public void testResolution() {
+		SingleListenerService service = new SingleListenerService();
+		BufferingAttributeStorage storage = new BufferingAttributeStorage(ATTRIBUTE, service);
+		Observer observer = (o, arg) -> {
+		};
+		storage.addObserver(observer);
+		assertNotNull(service.listener);
+		// two hours of values, one per second
+		long start = TimeUnit.DAYS.toMillis(1);
+		int count = (int) TimeUnit.HOURS.toSeconds(2);
+		for (int i = 0; i < count; i++) {
+			service.listener.valueChanged(new MRIValueEvent(ATTRIBUTE, start + i * 1000L, i));
+		}
+		MRIDataSeries series = storage.getDataSeries().get(0);
+		long min = TimeUnit.MILLISECONDS.toNanos(start);
+		long max = min + TimeUnit.HOURS.toNanos(2);
+
+		assertEquals(count, count(series.createIterator(min, max)));
+		assertEquals(count, count(series.createIterator(min, max, TimeUnit.SECONDS.toNanos(1))));
+
+		Iterator<ITimestampedData> minutes = series.createIterator(min, max, TimeUnit.MINUTES.toNanos(5));
+		int buckets = 0;
+		while (minutes.hasNext()) {
+			AggregatedTimestampedData bucket = (AggregatedTimestampedData) minutes.next();
+			assertEquals(TimeUnit.MINUTES.toNanos(1), bucket.getWidth());
+			assertEquals(60, bucket.getCount());
+			assertEquals(bucket.getMin() + 59, bucket.getMax(), 0);
+			assertEquals((bucket.getMin() + bucket.getMax()) / 2, bucket.getY().doubleValue(), 1e-9);
+			buckets++;
+		}
+		assertEquals(120, buckets);
+
+		Iterator<ITimestampedData> hours = series.createIterator(min, max, TimeUnit.DAYS.toNanos(1));
+		assertEquals(3600, ((AggregatedTimestampedData) hours.next()).getCount());
+		assertEquals(3600, ((AggregatedTimestampedData) hours.next()).getCount());
+		assertFalse(hours.hasNext());
+
+		storage.deleteObserver(observer);
+		assertNull(service.listener);
+	}
+
+	private static int count(Iterator<ITimestampedData> iterator) {
+		int count = 0;
+		while (iterator.hasNext()) {
+			assertFalse(iterator.next() instanceof AggregatedTimestampedData);
+			count++;
+		}
+		return count;
+	}
+
+	private static class SingleListenerService implements ISubscriptionService {
+		IMRIValueListener listener;
+
+		@Override
+		public void addMRIValueListener(MRI mri, IMRIValueListener listener) {
+			this.listener = listener;
+		}
+
+		@Override
+		public void substituteMRIValueListener(IMRIValueListener oldListener, IMRIValueListener newListener) {
+			listener = newListener;
+		}
+
+		@Override
+		public void removeMRIValueListener(IMRIValueListener listener) {
+			this.listener = null;
+		}
+
+		@Override
+		public void removeMRIValueListener(MRI mri, IMRIValueListener listener) {
+			this.listener = null;
+		}
+
+		@Override
+		public IMRISubscription getMRISubscription(MRI mri) {
+			return null;
+		}
+
+		@Override
+		public MRIValueEvent getLastMRIValueEvent(MRI mri) {
+			return null;
+		}
+
+		@Override
+		public boolean isMRIUnavailable(MRI mri) {
+			return false;
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -41,6 +41,7 @@ import org.junit.runners.Suite.SuiteClasses;
  * #suite method...
  */
 @RunWith(Suite.class)
-@SuiteClasses({ConsoleAttributeInfoManagerTest.class, UpdatePolicyTest.class})
+@SuiteClasses({BufferingAttributeStorageTest.class, ConsoleAttributeInfoManagerTest.class, TimestampedDataBufferTest.class,
+		UpdatePolicyTest.class})
 public class SubscriptionInternalTestSuite {
 }
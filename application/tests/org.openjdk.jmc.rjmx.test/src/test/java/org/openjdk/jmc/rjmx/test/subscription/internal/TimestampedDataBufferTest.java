@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.rjmx.test.subscription.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+import org.openjdk.jmc.common.xydata.ITimestampedData;
+import org.openjdk.jmc.rjmx.common.services.AggregatedTimestampedData;
+import org.openjdk.jmc.rjmx.common.subscription.storage.internal.TimestampedDataBuffer;
+
+public class TimestampedDataBufferTest {
+
+	@Test
+	public void testGrowAndWrap() {
+		TimestampedDataBuffer buffer = new TimestampedDataBuffer(100);
+		assertEquals(Long.MAX_VALUE, buffer.getFirstX());
+		assertEquals(Long.MIN_VALUE, buffer.getLastX());
+		add(buffer, 0, 250);
+		assertEquals(100, buffer.getSize());
+		assertEquals(1500, buffer.getFirstX());
+		assertEquals(2490, buffer.getLastX());
+		assertValues(buffer.createIterator(Long.MIN_VALUE, Long.MAX_VALUE), 150, 250);
+	}
+
+	@Test
+	public void testRangeAcrossWrap() {
+		TimestampedDataBuffer buffer = new TimestampedDataBuffer(100);
+		add(buffer, 0, 250);
+		// The oldest value is in the middle of the ring, so this range spans its end
+		assertValues(buffer.createIterator(1900, 2100), 189, 212);
+		assertValues(buffer.createIterator(1905, 1906), 190, 192);
+		assertValues(buffer.createIterator(1900, 1900), 189, 192);
+		assertValues(buffer.createIterator(0, 1600), 150, 162);
+		assertValues(buffer.createIterator(2400, 3000), 239, 250);
+		assertValues(buffer.createIterator(3000, 4000), 249, 250);
+		assertValues(buffer.createIterator(0, 100), 150, 151);
+		assertFalse(buffer.createIterator(2000, 1000).hasNext());
+		assertFalse(new TimestampedDataBuffer(10).createIterator(0, 100).hasNext());
+	}
+
+	@Test
+	public void testShrinkAndGrow() {
+		TimestampedDataBuffer buffer = new TimestampedDataBuffer(100);
+		add(buffer, 0, 250);
+		buffer.setMaxSize(30);
+		assertEquals(30, buffer.getMaxSize());
+		assertEquals(30, buffer.getSize());
+		assertValues(buffer.createIterator(Long.MIN_VALUE, Long.MAX_VALUE), 220, 250);
+		add(buffer, 250, 260);
+		assertEquals(30, buffer.getSize());
+		assertValues(buffer.createIterator(Long.MIN_VALUE, Long.MAX_VALUE), 230, 260);
+
+		buffer.setMaxSize(200);
+		assertEquals(30, buffer.getSize());
+		add(buffer, 260, 400);
+		assertEquals(170, buffer.getSize());
+		assertValues(buffer.createIterator(Long.MIN_VALUE, Long.MAX_VALUE), 230, 400);
+		add(buffer, 400, 500);
+		assertEquals(200, buffer.getSize());
+		assertValues(buffer.createIterator(Long.MIN_VALUE, Long.MAX_VALUE), 300, 500);
+		assertValues(buffer.createIterator(3500, 4500), 349, 452);
+	}
+
+	@Test
+	public void testIteratorIsSnapshot() {
+		TimestampedDataBuffer buffer = new TimestampedDataBuffer(10);
+		add(buffer, 0, 10);
+		Iterator<ITimestampedData> iterator = buffer.createIterator(Long.MIN_VALUE, Long.MAX_VALUE);
+		add(buffer, 10, 15);
+		assertValues(iterator, 0, 10);
+	}
+
+	@Test
+	public void testAggregation() {
+		TimestampedDataBuffer buffer = new TimestampedDataBuffer(10, 100);
+		// ten values per bucket
+		add(buffer, 0, 50);
+		// out of order, merged into the latest bucket
+		buffer.add(50, 1000);
+		assertEquals(5, buffer.getSize());
+		assertEquals(0, buffer.getFirstX());
+		assertEquals(400, buffer.getLastX());
+		List<AggregatedTimestampedData> buckets = aggregates(buffer.createIterator(Long.MIN_VALUE, Long.MAX_VALUE));
+		assertEquals(5, buckets.size());
+		for (int i = 0; i < 4; i++) {
+			assertBucket(buckets.get(i), i * 100, i * 10, i * 10 + 9, 10);
+		}
+		AggregatedTimestampedData last = buckets.get(4);
+		assertEquals(400, last.getX().longValue());
+		assertEquals(100, last.getWidth());
+		assertEquals(40, last.getMin(), 0);
+		assertEquals(1000, last.getMax(), 0);
+		assertEquals(11, last.getCount());
+		assertEquals((445 + 1000) / 11.0, last.getY().doubleValue(), 1e-9);
+	}
+
+	@Test
+	public void testAggregatingShrinkAndGrow() {
+		TimestampedDataBuffer buffer = new TimestampedDataBuffer(10, 100);
+		add(buffer, 0, 250);
+		assertEquals(10, buffer.getSize());
+		assertEquals(1500, buffer.getFirstX());
+		buffer.setMaxSize(4);
+		assertEquals(4, buffer.getSize());
+		List<AggregatedTimestampedData> buckets = aggregates(buffer.createIterator(Long.MIN_VALUE, Long.MAX_VALUE));
+		assertEquals(4, buckets.size());
+		for (int i = 0; i < 4; i++) {
+			assertBucket(buckets.get(i), 2100 + i * 100, 210 + i * 10, 219 + i * 10, 10);
+		}
+		buffer.setMaxSize(20);
+		add(buffer, 250, 400);
+		assertEquals(19, buffer.getSize());
+		buckets = aggregates(buffer.createIterator(3000, 3200));
+		assertEquals(5, buckets.size());
+		for (int i = 0; i < 5; i++) {
+			assertBucket(buckets.get(i), 2900 + i * 100, 290 + i * 10, 299 + i * 10, 10);
+		}
+	}
+
+	private static List<AggregatedTimestampedData> aggregates(Iterator<ITimestampedData> iterator) {
+		List<AggregatedTimestampedData> aggregates = new ArrayList<>();
+		while (iterator.hasNext()) {
+			ITimestampedData data = iterator.next();
+			assertTrue(data instanceof AggregatedTimestampedData);
+			aggregates.add((AggregatedTimestampedData) data);
+		}
+		return aggregates;
+	}
+
+	private static void assertBucket(AggregatedTimestampedData bucket, long start, double min, double max, int count) {
+		assertEquals(start, bucket.getX().longValue());
+		assertEquals(min, bucket.getMin(), 0);
+		assertEquals(max, bucket.getMax(), 0);
+		assertEquals(count, bucket.getCount());
+		assertEquals((min + max) / 2, bucket.getY().doubleValue(), 1e-9);
+	}
+
+	private static void add(TimestampedDataBuffer buffer, int from, int to) {
+		for (int i = from; i < to; i++) {
+			buffer.add(i * 10, i);
+		}
+	}
+
+	/**
+	 * Check that the iterator returns the values added for the indices {@code [from, to)}.
+	 */
+	private static void assertValues(Iterator<ITimestampedData> iterator, int from, int to) {
+		List<Integer> indices = new ArrayList<>();
+		while (iterator.hasNext()) {
+			ITimestampedData data = iterator.next();
+			int index = (int) data.getY().doubleValue();
+			assertEquals(index * 10L, data.getX().longValue());
+			indices.add(index);
+		}
+		List<Integer> expected = new ArrayList<>();
+		for (int i = from; i < to; i++) {
+			expected.add(i);
+		}
+		assertEquals(expected, indices);
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2024, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -46,6 +46,7 @@ import org.openjdk.jmc.common.unit.KindOfQuantity;
 import org.openjdk.jmc.common.unit.LinearKindOfQuantity;
 import org.openjdk.jmc.common.unit.UnitLookup;
 import org.openjdk.jmc.common.util.PredicateToolkit;
+import org.openjdk.jmc.common.util.QuantileSketch;
 import org.openjdk.jmc.common.util.StringToolkit;
 
 public class Aggregators {
@@ -129,10 +130,33 @@ public class Aggregators {
 	private static abstract class QuantityConsumer<C> implements IItemConsumer<C> {
 
 		IMemberAccessor<? extends IQuantity, IItem> accessor;
+		/**
+		 * The accessor, if it can give values without creating quantities, otherwise {@code null}.
+		 */
+		final IQuantityMemberAccessor<IItem> quantityAccessor;
 
 		QuantityConsumer(IMemberAccessor<? extends IQuantity, IItem> accessor) {
 			this.accessor = accessor;
+			this.quantityAccessor = asQuantityAccessor(accessor);
 		}
+
+		/**
+		 * @return {@code true} if the value of the item can be read with
+		 *         {@link IQuantityMemberAccessor#getDouble(Object)} in the given unit, which is
+		 *         {@code null} for the first value
+		 */
+		boolean hasPrimitiveValue(IItem item, IUnit unit) {
+			if (quantityAccessor == null) {
+				return false;
+			}
+			IUnit itemUnit = quantityAccessor.getUnit(item);
+			return itemUnit != null && (unit == null || itemUnit == unit);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static IQuantityMemberAccessor<IItem> asQuantityAccessor(IMemberAccessor<?, IItem> accessor) {
+		return accessor instanceof IQuantityMemberAccessor ? (IQuantityMemberAccessor<IItem>) accessor : null;
 	}
 
 	private static class SumConsumer extends QuantityConsumer<SumConsumer> {
@@ -153,11 +177,17 @@ public class Aggregators {
 
 		@Override
 		public void consume(IItem item) {
-			IQuantity fieldValue = accessor.getMember(item);
-			if (unit == null) {
-				unit = fieldValue.getUnit();
+			double value;
+			if (hasPrimitiveValue(item, unit)) {
+				unit = quantityAccessor.getUnit(item);
+				value = quantityAccessor.getDouble(item);
+			} else {
+				IQuantity fieldValue = accessor.getMember(item);
+				if (unit == null) {
+					unit = fieldValue.getUnit();
+				}
+				value = fieldValue.doubleValueIn(unit);
 			}
-			double value = fieldValue.doubleValueIn(unit);
 			if ((predicate != null && predicate.test(value)) || (predicate == null)) {
 				sum += value;
 			}
@@ -275,15 +305,21 @@ public class Aggregators {
 
 		@Override
 		public void consume(IItem item) {
-			IQuantity fieldValue = accessor.getMember(item);
 			n++;
-			if (fieldValue == null) {
-				return;
-			}
-			if (unit == null) {
-				unit = fieldValue.getUnit();
+			double x;
+			if (hasPrimitiveValue(item, unit)) {
+				unit = quantityAccessor.getUnit(item);
+				x = quantityAccessor.getDouble(item);
+			} else {
+				IQuantity fieldValue = accessor.getMember(item);
+				if (fieldValue == null) {
+					return;
+				}
+				if (unit == null) {
+					unit = fieldValue.getUnit();
+				}
+				x = fieldValue.doubleValueIn(unit);
 			}
-			double x = fieldValue.doubleValueIn(unit);
 			double delta = x - mean;
 			mean = mean + delta / n;
 			M2 = M2 + delta * (x - mean);
@@ -326,16 +362,20 @@ public class Aggregators {
 
 		@Override
 		public void consume(IItem item) {
+			count++;
+			if (hasPrimitiveValue(item, unit)) {
+				unit = quantityAccessor.getUnit(item);
+				sum += quantityAccessor.getDouble(item);
+				return;
+			}
 			IQuantity fieldValue = accessor.getMember(item);
 			if (fieldValue == null) {
-				count++;
 				return;
 			}
 			if (unit == null) {
 				unit = fieldValue.getUnit();
 			}
 			sum += fieldValue.doubleValueIn(unit);
-			count++;
 		}
 
 		@Override
@@ -372,23 +412,153 @@ public class Aggregators {
 		}
 	}
 
+	/**
+	 * Consumer for estimating percentiles in one pass with bounded memory, using a
+	 * {@link QuantileSketch}. Consumers for parts of a data set can be merged.
+	 */
+	public static class PercentileConsumer extends QuantityConsumer<PercentileConsumer> {
+		public final QuantileSketch sketch = new QuantileSketch();
+		public IUnit unit = null;
+
+		public PercentileConsumer(IMemberAccessor<? extends IQuantity, IItem> accessor) {
+			super(accessor);
+		}
+
+		/**
+		 * Estimate the value at a percentile.
+		 *
+		 * @param percentile
+		 *            the percentile, between 0 and 100
+		 * @return the estimated value, or {@code null} if no values have been consumed
+		 */
+		public IQuantity getPercentile(double percentile) {
+			if (unit == null || sketch.isEmpty()) {
+				return null;
+			}
+			return unit.quantity(sketch.getQuantile(percentile / 100));
+		}
+
+		@Override
+		public void consume(IItem item) {
+			if (hasPrimitiveValue(item, unit)) {
+				unit = quantityAccessor.getUnit(item);
+				sketch.add(quantityAccessor.getDouble(item));
+				return;
+			}
+			IQuantity fieldValue = accessor.getMember(item);
+			if (fieldValue == null) {
+				return;
+			}
+			if (unit == null) {
+				unit = fieldValue.getUnit();
+			}
+			sketch.add(fieldValue.doubleValueIn(unit));
+		}
+
+		@Override
+		public PercentileConsumer merge(PercentileConsumer other) {
+			if (unit == null) {
+				return other;
+			}
+			if (other.unit != null) {
+				sketch.merge(other.sketch, other.unit.valueTransformTo(unit).getMultiplier());
+			}
+			return this;
+		}
+	}
+
+	public static abstract class Percentile extends FieldAggregatorBase<IQuantity, PercentileConsumer> {
+		private final double percentile;
+
+		public Percentile(String name, String description, LinearKindOfQuantity ct, double percentile) {
+			super(name, description, ct);
+			if (!(percentile >= 0 && percentile <= 100)) {
+				throw new IllegalArgumentException("Percentile must be between 0 and 100"); //$NON-NLS-1$
+			}
+			this.percentile = percentile;
+		}
+
+		@Override
+		public PercentileConsumer newItemConsumer(IType<IItem> type) {
+			return new PercentileConsumer(getAccessor(type));
+		}
+
+		@Override
+		public IQuantity getValue(PercentileConsumer consumer) {
+			return consumer.getPercentile(percentile);
+		}
+	}
+
 	public static class MinMaxConsumer<V extends Comparable<V>> implements IItemConsumer<MinMaxConsumer<V>> {
 
 		private final IMemberAccessor<? extends V, IItem> accessor;
+		private final IQuantityMemberAccessor<IItem> quantityAccessor;
 		private final boolean max;
 		private V value;
 		private IItem item;
+		/**
+		 * The unit of the value of {@link #item} if it is kept as a primitive value instead of in
+		 * {@link #value}, otherwise {@code null}.
+		 */
+		private IUnit unit;
+		private boolean isLong;
+		private long longValue;
+		private double doubleValue;
 
 		public MinMaxConsumer(IMemberAccessor<? extends V, IItem> accessor, boolean max) {
 			this.accessor = accessor;
+			this.quantityAccessor = asQuantityAccessor(accessor);
 			this.max = max;
 		}
 
 		@Override
 		public void consume(IItem item) {
+			if (quantityAccessor != null && value == null) {
+				IUnit itemUnit = quantityAccessor.getUnit(item);
+				if (itemUnit == null) {
+					return;
+				}
+				boolean itemIsLong = quantityAccessor.isLong(item);
+				if (this.item == null) {
+					setPrimitive(item, itemUnit, itemIsLong);
+					return;
+				}
+				if (itemUnit == unit && itemIsLong == isLong) {
+					// Compare in the same way as the quantities would for equal units
+					int comparison = isLong ? Long.compare(quantityAccessor.getLong(item), longValue)
+							: Double.compare(quantityAccessor.getDouble(item), doubleValue);
+					if (comparison > 0 == max) {
+						setPrimitive(item, itemUnit, itemIsLong);
+					}
+					return;
+				}
+				value = getValue();
+				unit = null;
+			}
 			add(accessor.getMember(item), item);
 		}
 
+		private void setPrimitive(IItem newItem, IUnit newUnit, boolean newIsLong) {
+			item = newItem;
+			unit = newUnit;
+			isLong = newIsLong;
+			if (newIsLong) {
+				longValue = quantityAccessor.getLong(newItem);
+			} else {
+				doubleValue = quantityAccessor.getDouble(newItem);
+			}
+		}
+
+		/**
+		 * @return the min or max value, or {@code null} if no values have been consumed
+		 */
+		V getValue() {
+			if (unit != null) {
+				return accessor.getMember(item);
+			}
+			return value;
+		}
+
 		// FIXME: "add" is not an ideal name for this method, rename to something better
 		private void add(V newValue, IItem newItem) {
 			if (newValue != null && (value == null || newValue.compareTo(value) > 0 == max)) {
@@ -399,7 +569,11 @@ public class Aggregators {
 
 		@Override
 		public MinMaxConsumer<V> merge(MinMaxConsumer<V> other) {
-			add(other.value, other.item);
+			if (unit != null) {
+				value = getValue();
+				unit = null;
+			}
+			add(other.getValue(), other.item);
 			return this;
 		}
 	}
@@ -419,7 +593,7 @@ public class Aggregators {
 
 		@Override
 		public V getValue(MinMaxConsumer<V> consumer) {
-			return consumer.value;
+			return consumer.getValue();
 		}
 	}
 
@@ -858,6 +1032,82 @@ public class Aggregators {
 		};
 	}
 
+	/**
+	 * Estimates a percentile for a linear quantity attribute. The estimate has a relative error of
+	 * at most {@link QuantileSketch#DEFAULT_RELATIVE_ACCURACY}, and the memory used does not depend
+	 * on the number of items.
+	 *
+	 * @param attribute
+	 *            the attribute to estimate the percentile for
+	 * @param percentile
+	 *            the percentile, between 0 and 100
+	 * @return an aggregator that estimates the percentile for the attribute
+	 */
+	public static IAggregator<IQuantity, ?> percentile(final IAttribute<IQuantity> attribute, double percentile) {
+		return percentile(getPercentileName(attribute.getName(), percentile), attribute.getDescription(), attribute,
+				percentile);
+	}
+
+	/**
+	 * Estimates a percentile for a linear quantity attribute.
+	 *
+	 * @param name
+	 *            aggregator name
+	 * @param description
+	 *            aggregator description
+	 * @param attribute
+	 *            the attribute to estimate the percentile for
+	 * @param percentile
+	 *            the percentile, between 0 and 100
+	 * @return an aggregator that estimates the percentile for the attribute
+	 * @see #percentile(IAttribute, double)
+	 */
+	public static IAggregator<IQuantity, ?> percentile(
+		String name, String description, final IAttribute<IQuantity> attribute, double percentile) {
+		ContentType<?> contentType = attribute.getContentType();
+		if (contentType instanceof LinearKindOfQuantity) {
+			return new Percentile(name, description, (LinearKindOfQuantity) contentType, percentile) {
+				@Override
+				protected IMemberAccessor<IQuantity, IItem> doGetAccessor(IType<IItem> type) {
+					return attribute.getAccessor(type);
+				}
+			};
+		}
+		throw new IllegalArgumentException("Can only use LinearKindOfQuantity"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Creates an aggregator whose value is a {@link PercentileConsumer} for a linear quantity
+	 * attribute, which can be used to get several percentiles from one pass over the items.
+	 *
+	 * @param attribute
+	 *            the attribute to estimate percentiles for
+	 * @return an aggregator that collects the distribution of the attribute
+	 */
+	public static IAggregator<PercentileConsumer, ?> percentiles(final IAttribute<IQuantity> attribute) {
+		if (!(attribute.getContentType() instanceof LinearKindOfQuantity)) {
+			throw new IllegalArgumentException("Can only use LinearKindOfQuantity"); //$NON-NLS-1$
+		}
+		return new MergingAggregator<PercentileConsumer, PercentileConsumer>(attribute.getName(),
+				attribute.getDescription(), UnitLookup.UNKNOWN) {
+
+			@Override
+			public boolean acceptType(IType<IItem> type) {
+				return attribute.getAccessor(type) != null;
+			}
+
+			@Override
+			public PercentileConsumer newItemConsumer(IType<IItem> type) {
+				return new PercentileConsumer(attribute.getAccessor(type));
+			}
+
+			@Override
+			public PercentileConsumer getValue(PercentileConsumer consumer) {
+				return consumer;
+			}
+		};
+	}
+
 	public static <V extends Comparable<V>> IAggregator<V, ?> min(final IAttribute<V> attribute) {
 		String name = getMinName(attribute.getName(), attribute.getContentType());
 		return new MinMax<V>(name, attribute.getDescription(), attribute.getContentType(), false) {
@@ -1190,6 +1440,10 @@ public class Aggregators {
 				+ " " + name; //$NON-NLS-1$
 	}
 
+	static String getPercentileName(String name, double percentile) {
+		return MessageFormat.format(Messages.getString(Messages.ItemAggregate_PERCENTILE), percentile, name);
+	}
+
 	static String getAvgName(String name) {
 		return Messages.getString(Messages.ItemAggregate_AVERAGE) + " " + name; //$NON-NLS-1$
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -33,6 +33,7 @@
 package org.openjdk.jmc.common.item;
 
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -67,6 +68,26 @@ public interface IItemCollection extends Iterable<IItemIterable> {
 	 */
 	<V, C extends IItemConsumer<C>> V getAggregate(IAggregator<V, C> aggregator);
 
+	/**
+	 * Calculates an aggregated value for the items in this collection, using a fork/join pool to
+	 * consume parts of the collection in parallel. The partial results are combined with
+	 * {@link IItemConsumer#merge(Object)}, so the item consumers of the aggregator must be
+	 * mergeable. Collections that cannot be divided compute the value on the calling thread.
+	 *
+	 * @param <V>
+	 *            aggregate result value type
+	 * @param <C>
+	 *            Item consumer type. See {@link IAggregator}.
+	 * @param aggregator
+	 *            the aggregator to calculate the value with
+	 * @param pool
+	 *            the pool to run the calculation in
+	 * @return the aggregated value
+	 */
+	default <V, C extends IItemConsumer<C>> V getAggregate(IAggregator<V, C> aggregator, ForkJoinPool pool) {
+		return getAggregate(aggregator);
+	}
+
 	/**
 	 * @return {@code true} if the collections contains items, {@code false} otherwise
 	 */
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.common.item;
+
+import org.openjdk.jmc.common.unit.IQuantity;
+import org.openjdk.jmc.common.unit.IUnit;
+
+/**
+ * A member accessor for quantities that can also give the numerical value and unit of a member
+ * without creating a quantity instance. Accessors for values that are stored as primitives, such as
+ * those of columnar event storage, implement this so that aggregators can process many items
+ * without allocating.
+ * <p>
+ * The unit is typically the same for all items of a type, but callers must not rely on that. The
+ * primitive methods may only be called for items where {@link #getUnit(Object)} is not
+ * {@code null}.
+ *
+ * @param <O>
+ *            Container class
+ */
+public interface IQuantityMemberAccessor<O> extends IMemberAccessor<IQuantity, O> {
+
+	/**
+	 * @param inObject
+	 *            Container object
+	 * @return the unit of the member, or {@code null} if the member is {@code null}
+	 */
+	IUnit getUnit(O inObject);
+
+	/**
+	 * @param inObject
+	 *            Container object
+	 * @return {@code true} if the member is an integral quantity, whose exact value is given by
+	 *         {@link #getLong(Object)}
+	 */
+	boolean isLong(O inObject);
+
+	/**
+	 * @param inObject
+	 *            Container object
+	 * @return the numerical value of the member, in the unit given by {@link #getUnit(Object)}
+	 */
+	long getLong(O inObject);
+
+	/**
+	 * @param inObject
+	 *            Container object
+	 * @return the numerical value of the member, in the unit given by {@link #getUnit(Object)}
+	 */
+	double getDouble(O inObject);
+}
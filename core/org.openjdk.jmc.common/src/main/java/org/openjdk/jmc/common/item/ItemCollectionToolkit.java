@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -111,7 +111,7 @@ public class ItemCollectionToolkit {
 	}
 
 	public static IItemCollection build(Supplier<Stream<IItemIterable>> items, Set<IRange<IQuantity>> chunkRanges) {
-		return new StreamBackedItemCollection(items, Collections.emptySet());
+		return new StreamBackedItemCollection(items, chunkRanges);
 	}
 
 	public static IItemCollection build(Supplier<Stream<IItemIterable>> items) {
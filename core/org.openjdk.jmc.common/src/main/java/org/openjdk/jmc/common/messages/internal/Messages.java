@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2023, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * Copyright (c) 2022, 2023, Datadog, Inc. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
@@ -50,6 +50,7 @@ public class Messages {
 	public static final String ItemAggregate_LONGEST = "ItemAggregate_LONGEST"; //$NON-NLS-1$
 	public static final String ItemAggregate_MAXIMUM = "ItemAggregate_MAXIMUM"; //$NON-NLS-1$
 	public static final String ItemAggregate_MINIMUM = "ItemAggregate_MINIMUM"; //$NON-NLS-1$
+	public static final String ItemAggregate_PERCENTILE = "ItemAggregate_PERCENTILE"; //$NON-NLS-1$
 	public static final String ItemAggregate_SHORTEST = "ItemAggregate_SHORTEST"; //$NON-NLS-1$
 	public static final String ItemAggregate_STDDEV = "ItemAggregate_STDDEV"; //$NON-NLS-1$
 	public static final String ItemAggregate_STDDEVP = "ItemAggregate_STDDEVP"; //$NON-NLS-1$
@@ -0,0 +1,346 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.common.util;
+
+/**
+ * A mergeable sketch of a distribution of values that can answer quantile queries with a bounded
+ * relative error, using logarithmically sized buckets.
+ * <p>
+ * A value {@code x} is counted in bucket {@code ceil(log(|x|) / log(gamma))}, where
+ * {@code gamma = (1 + a) / (1 - a)} for the relative accuracy {@code a}. Quantiles are estimated
+ * with a relative error of at most {@code a}, unless the number of buckets has exceeded the maximum
+ * and the buckets for the smallest values have been collapsed. Sketches with the same accuracy can
+ * be merged without any loss of accuracy, so sketches can be computed for parts of a data set and
+ * combined afterwards.
+ * <p>
+ * Values with an absolute value smaller than {@link Double#MIN_NORMAL} are counted as zero.
+ * <p>
+ * Instances of this class are not thread safe.
+ */
+public final class QuantileSketch {
+
+	/**
+	 * The default relative accuracy of quantiles, 1%.
+	 */
+	public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+
+	/**
+	 * The default maximum number of buckets for each sign. With the default accuracy, this covers
+	 * values that differ by a factor of more than 10<sup>17</sup> without collapsing any buckets.
+	 */
+	public static final int DEFAULT_MAX_BUCKETS = 2048;
+
+	private static final int INITIAL_BUCKETS = 64;
+
+	private final double relativeAccuracy;
+	private final double gamma;
+	private final double logGamma;
+	private final int maxBuckets;
+	private final BucketStore positive;
+	private final BucketStore negative;
+	private long zeroCount;
+	private long count;
+	private double min = Double.POSITIVE_INFINITY;
+	private double max = Double.NEGATIVE_INFINITY;
+
+	/**
+	 * Create an empty sketch with the default relative accuracy and maximum number of buckets.
+	 */
+	public QuantileSketch() {
+		this(DEFAULT_RELATIVE_ACCURACY, DEFAULT_MAX_BUCKETS);
+	}
+
+	/**
+	 * Create an empty sketch.
+	 *
+	 * @param relativeAccuracy
+	 *            the relative accuracy of quantiles, larger than 0 and smaller than 1
+	 * @param maxBuckets
+	 *            the maximum number of buckets for each sign, at least 1
+	 */
+	public QuantileSketch(double relativeAccuracy, int maxBuckets) {
+		if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+			throw new IllegalArgumentException("Relative accuracy must be between 0 and 1"); //$NON-NLS-1$
+		} else if (maxBuckets < 1) {
+			throw new IllegalArgumentException("There must be at least one bucket"); //$NON-NLS-1$
+		}
+		this.relativeAccuracy = relativeAccuracy;
+		this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+		this.logGamma = Math.log(gamma);
+		this.maxBuckets = maxBuckets;
+		this.positive = new BucketStore(maxBuckets);
+		this.negative = new BucketStore(maxBuckets);
+	}
+
+	/**
+	 * @return the relative accuracy of quantiles
+	 */
+	public double getRelativeAccuracy() {
+		return relativeAccuracy;
+	}
+
+	/**
+	 * Add a value to the sketch.
+	 *
+	 * @param value
+	 *            the value to add, must not be NaN
+	 */
+	public void add(double value) {
+		add(value, 1);
+	}
+
+	private void add(double value, long n) {
+		if (Double.isNaN(value)) {
+			throw new IllegalArgumentException("Cannot add NaN"); //$NON-NLS-1$
+		}
+		if (value >= Double.MIN_NORMAL) {
+			positive.add(index(value), n);
+		} else if (value <= -Double.MIN_NORMAL) {
+			negative.add(index(-value), n);
+		} else {
+			zeroCount += n;
+		}
+		count += n;
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+	}
+
+	/**
+	 * Add all values of another sketch to this sketch. The other sketch is not modified.
+	 *
+	 * @param other
+	 *            the sketch to add
+	 */
+	public void merge(QuantileSketch other) {
+		merge(other, 1);
+	}
+
+	/**
+	 * Add all values of another sketch to this sketch, multiplying them with a factor first. This
+	 * is used to merge sketches of values in different units. The other sketch is not modified.
+	 *
+	 * @param other
+	 *            the sketch to add
+	 * @param multiplier
+	 *            the positive factor to multiply the values of the other sketch with
+	 */
+	public void merge(QuantileSketch other, double multiplier) {
+		if (other.count == 0) {
+			return;
+		}
+		if (multiplier == 1 && other.gamma == gamma) {
+			positive.addAll(other.positive);
+			negative.addAll(other.negative);
+			zeroCount += other.zeroCount;
+			count += other.count;
+		} else {
+			for (int i = other.positive.minIndex; i <= other.positive.maxIndex; i++) {
+				long n = other.positive.get(i);
+				if (n > 0) {
+					add(other.value(i) * multiplier, n);
+				}
+			}
+			for (int i = other.negative.minIndex; i <= other.negative.maxIndex; i++) {
+				long n = other.negative.get(i);
+				if (n > 0) {
+					add(-other.value(i) * multiplier, n);
+				}
+			}
+			if (other.zeroCount > 0) {
+				add(0, other.zeroCount);
+			}
+		}
+		min = Math.min(min, other.min * multiplier);
+		max = Math.max(max, other.max * multiplier);
+	}
+
+	/**
+	 * @return the number of values in the sketch
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * @return {@code true} if no values have been added
+	 */
+	public boolean isEmpty() {
+		return count == 0;
+	}
+
+	/**
+	 * @return the smallest value in the sketch, or NaN if the sketch is empty
+	 */
+	public double getMin() {
+		return count == 0 ? Double.NaN : min;
+	}
+
+	/**
+	 * @return the largest value in the sketch, or NaN if the sketch is empty
+	 */
+	public double getMax() {
+		return count == 0 ? Double.NaN : max;
+	}
+
+	/**
+	 * Estimate the value at a quantile.
+	 *
+	 * @param quantile
+	 *            the quantile, between 0 and 1
+	 * @return the estimated value, or NaN if the sketch is empty
+	 */
+	public double getQuantile(double quantile) {
+		if (!(quantile >= 0 && quantile <= 1)) {
+			throw new IllegalArgumentException("Quantile must be between 0 and 1"); //$NON-NLS-1$
+		}
+		if (count == 0) {
+			return Double.NaN;
+		}
+		double rank = quantile * (count - 1);
+		long seen = 0;
+		for (int i = negative.maxIndex; i >= negative.minIndex; i--) {
+			seen += negative.get(i);
+			if (seen > rank) {
+				return clamp(-value(i));
+			}
+		}
+		seen += zeroCount;
+		if (seen > rank) {
+			return clamp(0);
+		}
+		for (int i = positive.minIndex; i <= positive.maxIndex; i++) {
+			seen += positive.get(i);
+			if (seen > rank) {
+				return clamp(value(i));
+			}
+		}
+		return max;
+	}
+
+	private double clamp(double value) {
+		return Math.max(min, Math.min(max, value));
+	}
+
+	private int index(double value) {
+		return (int) Math.ceil(Math.log(value) / logGamma);
+	}
+
+	/**
+	 * @return the value in the middle of a bucket, in the sense that the relative error is the same
+	 *         for the smallest and the largest value in the bucket
+	 */
+	private double value(int index) {
+		return 2 * Math.pow(gamma, index) / (gamma + 1);
+	}
+
+	/**
+	 * Counts for a contiguous range of bucket indexes. When the range would grow beyond the maximum
+	 * number of buckets, the lowest buckets are collapsed into one.
+	 */
+	private static final class BucketStore {
+		private final int maxBuckets;
+		private long[] counts;
+		private int offset;
+		// Empty range when no values have been added
+		int minIndex = 0;
+		int maxIndex = -1;
+
+		BucketStore(int maxBuckets) {
+			this.maxBuckets = maxBuckets;
+		}
+
+		long get(int index) {
+			return counts[index - offset];
+		}
+
+		void add(int index, long n) {
+			if (counts == null) {
+				counts = new long[Math.min(INITIAL_BUCKETS, maxBuckets)];
+				offset = index - counts.length / 2;
+				minIndex = index;
+				maxIndex = index;
+			} else if (index < minIndex && maxIndex - index >= maxBuckets) {
+				// Values below the lowest kept bucket end up in that bucket
+				index = maxIndex - maxBuckets + 1;
+			} else if (index > maxIndex && index - minIndex >= maxBuckets) {
+				collapseBelow(index - maxBuckets + 1);
+			}
+			extend(index);
+			counts[index - offset] += n;
+		}
+
+		void addAll(BucketStore other) {
+			for (int i = other.minIndex; i <= other.maxIndex; i++) {
+				long n = other.get(i);
+				if (n > 0) {
+					add(i, n);
+				}
+			}
+		}
+
+		private void collapseBelow(int newMinIndex) {
+			long collapsed = 0;
+			for (int i = minIndex; i < newMinIndex && i <= maxIndex; i++) {
+				collapsed += counts[i - offset];
+				counts[i - offset] = 0;
+			}
+			if (newMinIndex > maxIndex) {
+				counts = new long[counts.length];
+				offset = newMinIndex - counts.length / 2;
+				maxIndex = newMinIndex;
+			}
+			minIndex = newMinIndex;
+			extend(newMinIndex);
+			counts[newMinIndex - offset] += collapsed;
+		}
+
+		private void extend(int index) {
+			int newMin = Math.min(minIndex, index);
+			int newMax = Math.max(maxIndex, index);
+			if (newMin < offset || newMax >= offset + counts.length) {
+				int span = newMax - newMin + 1;
+				long[] newCounts = new long[Math.min(Math.max(span + span / 2, counts.length * 2), maxBuckets * 2)];
+				int newOffset = newMin - (newCounts.length - span) / 2;
+				int from = Math.max(offset, newOffset);
+				int to = Math.min(offset + counts.length, newOffset + newCounts.length);
+				if (from < to) {
+					System.arraycopy(counts, from - offset, newCounts, from - newOffset, to - from);
+				}
+				counts = newCounts;
+				offset = newOffset;
+			}
+			minIndex = newMin;
+			maxIndex = newMax;
+		}
+	}
+}
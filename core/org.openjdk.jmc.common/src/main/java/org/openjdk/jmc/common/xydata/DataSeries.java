@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2023, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -54,4 +54,22 @@ public interface DataSeries<T> {
 	 * @return an iterator of data points
 	 */
 	Iterator<T> createIterator(long min, long max);
+
+	/**
+	 * Return an iterator with data points matching a specified X interval, where the data may be
+	 * aggregated into points covering at most {@code resolution} X units each. As for
+	 * {@link #createIterator(long, long)}, the X interval is only a hint. The default
+	 * implementation does not aggregate the data.
+	 * 
+	 * @param min
+	 *            the minimum X value of returned data points
+	 * @param max
+	 *            the maximum X value of returned data points
+	 * @param resolution
+	 *            the largest X interval that may be aggregated into a single data point
+	 * @return an iterator of data points
+	 */
+	default Iterator<T> createIterator(long min, long max, long resolution) {
+		return createIterator(min, max);
+	}
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -45,6 +45,8 @@ import org.openjdk.jmc.flightrecorder.jdk.JdkFilters;
 import org.openjdk.jmc.flightrecorder.rules.tree.ITreeNode;
 import org.openjdk.jmc.flightrecorder.rules.tree.ItemTreeBuilder;
 import org.openjdk.jmc.flightrecorder.rules.util.RulesToolkit;
+import org.openjdk.jmc.flightrecorder.rules.util.SlidingWindowToolkit;
+import org.openjdk.jmc.flightrecorder.rules.util.SlidingWindowToolkit.IWindowAccumulator;
 import org.openjdk.jmc.flightrecorder.rules.util.SlidingWindowToolkit.IUnorderedWindowValueFunction;
 
 /**
@@ -61,7 +63,7 @@ public class HaltsProvider {
 	 */
 	public static IQuantity calculateGcPauseRatio(IItemCollection items) {
 		IRange<IQuantity> itemRange = createRange(items);
-		return calculateHaltsRatio(items, items.getAggregate(JdkAggregators.TOTAL_GC_PAUSE), itemRange.getStart(),
+		return calculateHaltsRatio(items.getAggregate(JdkAggregators.TOTAL_GC_PAUSE), itemRange.getStart(),
 				itemRange.getEnd());
 	}
 
@@ -77,7 +79,7 @@ public class HaltsProvider {
 	 * @return GC/total ratio in percent
 	 */
 	public static IQuantity calculateGcHaltsRatio(IItemCollection items, IQuantity startTime, IQuantity endTime) {
-		return calculateHaltsRatio(items, calculatePauseSum(items, JdkFilters.GC_PAUSE, startTime, endTime), startTime,
+		return calculateHaltsRatio(calculatePauseSum(items, JdkFilters.GC_PAUSE, startTime, endTime), startTime,
 				endTime);
 	}
 
@@ -102,14 +104,13 @@ public class HaltsProvider {
 		IQuantity haltsDuration = calculatePauseSumWithEncapsulationTree(items, haltsFilter, startTime, endTime);
 		IQuantity gcDuration = calculatePauseSum(items, gcFilter, startTime, endTime);
 		IQuantity safepointDuration = calculatePauseSum(items, safepointFilter, startTime, endTime);
-		IQuantity haltsRatio = calculateHaltsRatio(items, haltsDuration, startTime, endTime);
-		IQuantity gcRatio = calculateHaltsRatio(items, gcDuration, startTime, endTime);
-		IQuantity safepointRatio = calculateHaltsRatio(items, safepointDuration, startTime, endTime);
+		IQuantity haltsRatio = calculateHaltsRatio(haltsDuration, startTime, endTime);
+		IQuantity gcRatio = calculateHaltsRatio(gcDuration, startTime, endTime);
+		IQuantity safepointRatio = calculateHaltsRatio(safepointDuration, startTime, endTime);
 		return new ApplicationHaltsInfoHolder(gcRatio, safepointRatio, haltsRatio);
 	}
 
-	private static IQuantity calculateHaltsRatio(
-		IItemCollection items, IQuantity pauseTime, IQuantity startTime, IQuantity endTime) {
+	private static IQuantity calculateHaltsRatio(IQuantity pauseTime, IQuantity startTime, IQuantity endTime) {
 		// FIXME: Use the item range instead of the time range, in case the sliding window logic slides outside the item range. Or fix the sliding window logic.
 		IRange<IQuantity> range = QuantityRange.createWithEnd(startTime, endTime);
 		IQuantity totalTime = range.getExtent();
@@ -162,6 +163,31 @@ public class HaltsProvider {
 		};
 	}
 
+	/**
+	 * @return accumulator to use when calculating GC halts using sliding windows over the
+	 *         {@link JdkFilters#GC_PAUSE} items
+	 */
+	public static IWindowAccumulator<IQuantity> gcHaltsRatioAccumulator() {
+		IWindowAccumulator<IQuantity> pauseSum = SlidingWindowToolkit.durationInWindowAccumulator();
+		return new IWindowAccumulator<IQuantity>() {
+
+			@Override
+			public void add(IItem item) {
+				pauseSum.add(item);
+			}
+
+			@Override
+			public void remove(IItem item) {
+				pauseSum.remove(item);
+			}
+
+			@Override
+			public IQuantity getValue(IQuantity startTime, IQuantity endTime, Iterable<IItem> partialItems) {
+				return calculateHaltsRatio(pauseSum.getValue(startTime, endTime, partialItems), startTime, endTime);
+			}
+		};
+	}
+
 	/**
 	 * @return function to use when calculating application halts using sliding windows
 	 */
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -48,6 +48,7 @@ import org.openjdk.jmc.common.util.IPreferenceValueProvider;
 import org.openjdk.jmc.common.util.TypedPreference;
 import org.openjdk.jmc.flightrecorder.jdk.JdkAggregators;
 import org.openjdk.jmc.flightrecorder.jdk.JdkTypeIDs;
+import org.openjdk.jmc.flightrecorder.rules.DeclaredAggregate;
 import org.openjdk.jmc.flightrecorder.rules.IResult;
 import org.openjdk.jmc.flightrecorder.rules.IResultValueProvider;
 import org.openjdk.jmc.flightrecorder.rules.IRule;
@@ -76,6 +77,11 @@ public class DiscouragedGcOptionsRule implements IRule {
 	private static final Collection<TypedResult<?>> RESULT_ATTRIBUTES = Arrays.<TypedResult<?>> asList(HARDWARE_THREADS,
 			PARALLEL_GC_THREADS);
 
+	private static final Collection<DeclaredAggregate<?>> DECLARED_AGGREGATES = Arrays.<DeclaredAggregate<?>> asList(
+			DeclaredAggregate.of(JdkAggregators.PARALLEL_GC_THREAD_COUNT_MAX),
+			DeclaredAggregate.of(JdkAggregators.MIN_HW_THREADS),
+			DeclaredAggregate.of(JdkAggregators.HEAP_CONF_MAX_SIZE));
+
 	private static final Map<String, EventAvailability> REQUIRED_EVENTS = RequiredEventsBuilder.create()
 			.addEventType(JdkTypeIDs.CPU_INFORMATION, EventAvailability.AVAILABLE).build();
 
@@ -155,6 +161,11 @@ public class DiscouragedGcOptionsRule implements IRule {
 		return REQUIRED_EVENTS;
 	}
 
+	@Override
+	public Collection<DeclaredAggregate<?>> getDeclaredAggregates() {
+		return DECLARED_AGGREGATES;
+	}
+
 	@Override
 	public Collection<TypedResult<?>> getResults() {
 		return RESULT_ATTRIBUTES;
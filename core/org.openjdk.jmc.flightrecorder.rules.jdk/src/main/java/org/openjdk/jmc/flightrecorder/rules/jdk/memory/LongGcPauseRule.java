@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -55,6 +55,7 @@ import org.openjdk.jmc.flightrecorder.JfrAttributes;
 import org.openjdk.jmc.flightrecorder.jdk.JdkAggregators;
 import org.openjdk.jmc.flightrecorder.jdk.JdkAttributes;
 import org.openjdk.jmc.flightrecorder.jdk.JdkTypeIDs;
+import org.openjdk.jmc.flightrecorder.rules.DeclaredAggregate;
 import org.openjdk.jmc.flightrecorder.rules.IResult;
 import org.openjdk.jmc.flightrecorder.rules.IResultValueProvider;
 import org.openjdk.jmc.flightrecorder.rules.IRule;
@@ -95,6 +96,11 @@ public class LongGcPauseRule implements IRule {
 	private static final Collection<TypedResult<?>> RESULT_ATTRIBUTES = Arrays
 			.<TypedResult<?>> asList(TypedResult.SCORE, LONGEST_PAUSE, LIVE_SET, HEAP_SIZE);
 
+	private static final Collection<DeclaredAggregate<?>> DECLARED_AGGREGATES = Arrays.<DeclaredAggregate<?>> asList(
+			DeclaredAggregate.of(JdkAggregators.LONGEST_GC_PAUSE),
+			DeclaredAggregate.of(JdkAggregators.AVG_HEAP_USED_AFTER_GC),
+			DeclaredAggregate.of(JdkAggregators.HEAP_CONF_MAX_SIZE));
+
 	private IResult getResult(IItemCollection items, IPreferenceValueProvider vp, IResultValueProvider rp) {
 		IQuantity maxPause = items.getAggregate(JdkAggregators.LONGEST_GC_PAUSE);
 		if (maxPause != null) {
@@ -200,6 +206,11 @@ public class LongGcPauseRule implements IRule {
 		return REQUIRED_EVENTS;
 	}
 
+	@Override
+	public Collection<DeclaredAggregate<?>> getDeclaredAggregates() {
+		return DECLARED_AGGREGATES;
+	}
+
 	@Override
 	public Collection<TypedResult<?>> getResults() {
 		return RESULT_ATTRIBUTES;
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -47,6 +47,7 @@ import org.openjdk.jmc.common.util.IPreferenceValueProvider;
 import org.openjdk.jmc.common.util.TypedPreference;
 import org.openjdk.jmc.flightrecorder.jdk.JdkAggregators;
 import org.openjdk.jmc.flightrecorder.jdk.JdkTypeIDs;
+import org.openjdk.jmc.flightrecorder.rules.DeclaredAggregate;
 import org.openjdk.jmc.flightrecorder.rules.IResult;
 import org.openjdk.jmc.flightrecorder.rules.IResultValueProvider;
 import org.openjdk.jmc.flightrecorder.rules.IRule;
@@ -76,6 +77,10 @@ public class LowOnPhysicalMemoryRule implements IRule {
 	private static final Collection<TypedResult<?>> RESULT_ATTRIBUTES = Arrays
 			.<TypedResult<?>> asList(TypedResult.SCORE, USED_MEMORY_RATIO, TOTAL_MEMORY, MAX_USED_MEMORY);
 
+	private static final Collection<DeclaredAggregate<?>> DECLARED_AGGREGATES = Arrays.<DeclaredAggregate<?>> asList(
+			DeclaredAggregate.of(JdkAggregators.MIN_TOTAL_MEMORY),
+			DeclaredAggregate.of(JdkAggregators.MAX_USED_MEMORY));
+
 	private IResult getResult(
 		IItemCollection items, IPreferenceValueProvider valueProvider, IResultValueProvider resultProvider) {
 		IQuantity total = items.getAggregate(JdkAggregators.MIN_TOTAL_MEMORY);
@@ -140,6 +145,11 @@ public class LowOnPhysicalMemoryRule implements IRule {
 		return REQUIRED_EVENTS;
 	}
 
+	@Override
+	public Collection<DeclaredAggregate<?>> getDeclaredAggregates() {
+		return DECLARED_AGGREGATES;
+	}
+
 	@Override
 	public Collection<TypedResult<?>> getResults() {
 		return RESULT_ATTRIBUTES;
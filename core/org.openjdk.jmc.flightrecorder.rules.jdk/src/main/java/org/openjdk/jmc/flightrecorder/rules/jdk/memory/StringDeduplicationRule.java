@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -56,6 +56,7 @@ import org.openjdk.jmc.flightrecorder.jdk.JdkAttributes;
 import org.openjdk.jmc.flightrecorder.jdk.JdkFilters;
 import org.openjdk.jmc.flightrecorder.jdk.JdkTypeIDs;
 import org.openjdk.jmc.flightrecorder.rules.AbstractRule;
+import org.openjdk.jmc.flightrecorder.rules.DeclaredAggregate;
 import org.openjdk.jmc.flightrecorder.rules.IResult;
 import org.openjdk.jmc.flightrecorder.rules.IResultValueProvider;
 import org.openjdk.jmc.flightrecorder.rules.ResultBuilder;
@@ -129,6 +130,13 @@ public class StringDeduplicationRule extends AbstractRule {
 	private static final Collection<TypedResult<?>> RESULT_ATTRIBUTES = Arrays
 			.<TypedResult<?>> asList(TypedResult.SCORE, HEAP_USAGE, STRING_HEAP_RATIO, INTERNAL_STRING_TYPE);
 
+	private static final Collection<DeclaredAggregate<?>> DECLARED_AGGREGATES = Arrays.<DeclaredAggregate<?>> asList(
+			DeclaredAggregate.of(JdkAggregators.USE_STRING_DEDUPLICATION),
+			DeclaredAggregate.of(JdkAggregators.HEAP_CONF_MAX_SIZE),
+			DeclaredAggregate.of(JdkAggregators.LARGEST_MAX_HEAP_SIZE_FROM_FLAG),
+			DeclaredAggregate.of(JdkAggregators.AVG_HEAP_USED_AFTER_GC), DeclaredAggregate.of(JdkAggregators.USE_G1_GC),
+			DeclaredAggregate.of(JdkAggregators.USE_SHENANDOAH_GC));
+
 	private static final Map<String, EventAvailability> REQUIRED_EVENTS = RequiredEventsBuilder.create()
 			.addEventType(JdkTypeIDs.VM_INFO, EventAvailability.AVAILABLE)
 			.addEventType(JdkTypeIDs.ALLOC_INSIDE_TLAB, EventAvailability.ENABLED)
@@ -349,4 +357,9 @@ public class StringDeduplicationRule extends AbstractRule {
 		// FIXME: Return something else if there are no frames
 		return ItemFilters.or(frameFilters);
 	}
+
+	@Override
+	public Collection<DeclaredAggregate<?>> getDeclaredAggregates() {
+		return DECLARED_AGGREGATES;
+	}
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -47,6 +47,7 @@ import org.openjdk.jmc.common.util.IPreferenceValueProvider;
 import org.openjdk.jmc.common.util.TypedPreference;
 import org.openjdk.jmc.flightrecorder.jdk.JdkAggregators;
 import org.openjdk.jmc.flightrecorder.jdk.JdkTypeIDs;
+import org.openjdk.jmc.flightrecorder.rules.DeclaredAggregate;
 import org.openjdk.jmc.flightrecorder.rules.IResult;
 import org.openjdk.jmc.flightrecorder.rules.IResultValueProvider;
 import org.openjdk.jmc.flightrecorder.rules.IRule;
@@ -74,6 +75,10 @@ public class TlabAllocationRatioRule implements IRule {
 	private static final Collection<TypedResult<?>> RESULT_ATTRIBUTES = Arrays
 			.<TypedResult<?>> asList(TypedResult.SCORE, OUTSIDE_TLAB_RATIO);
 
+	private static final Collection<DeclaredAggregate<?>> DECLARED_AGGREGATES = Arrays.<DeclaredAggregate<?>> asList(
+			DeclaredAggregate.of(JdkAggregators.ALLOC_INSIDE_TLAB_SUM),
+			DeclaredAggregate.of(JdkAggregators.ALLOC_OUTSIDE_TLAB_SUM));
+
 	private IResult getResult(
 		IItemCollection items, IPreferenceValueProvider valueProvider, IResultValueProvider resultProvider) {
 		IQuantity insideSum = items.getAggregate(JdkAggregators.ALLOC_INSIDE_TLAB_SUM);
@@ -139,6 +144,11 @@ public class TlabAllocationRatioRule implements IRule {
 		return REQUIRED_EVENTS;
 	}
 
+	@Override
+	public Collection<DeclaredAggregate<?>> getDeclaredAggregates() {
+		return DECLARED_AGGREGATES;
+	}
+
 	@Override
 	public Collection<TypedResult<?>> getResults() {
 		return RESULT_ATTRIBUTES;
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.flightrecorder.rules;
+
+import org.openjdk.jmc.common.item.IAggregator;
+import org.openjdk.jmc.common.item.IItemCollection;
+import org.openjdk.jmc.common.item.IItemFilter;
+import org.openjdk.jmc.flightrecorder.rules.util.SharedScanItemCollection;
+
+/**
+ * An aggregate that a rule declares up front, so that the aggregates of all rules can be computed
+ * in a single pass over the events of each type before the rules ask for them.
+ * <p>
+ * A rule declares its aggregates with {@link IRule#getDeclaredAggregates()} and then asks for them
+ * during evaluation, either with {@link #getValue(IItemCollection)} or by applying the same filter
+ * and aggregator instances to the items. The declared aggregates are matched on the filter and
+ * aggregator instances, so both should be constants, such as those in {@code JdkFilters} and
+ * {@code JdkAggregators}.
+ *
+ * @param <V>
+ *            the type of the aggregated value
+ * @see SharedScanItemCollection
+ */
+public final class DeclaredAggregate<V> {
+
+	private final IItemFilter filter;
+	private final IAggregator<V, ?> aggregator;
+
+	private DeclaredAggregate(IItemFilter filter, IAggregator<V, ?> aggregator) {
+		this.filter = filter;
+		this.aggregator = aggregator;
+	}
+
+	/**
+	 * Declare an aggregate of all items.
+	 *
+	 * @param aggregator
+	 *            the aggregator to compute the value with
+	 * @return the declared aggregate
+	 */
+	public static <V> DeclaredAggregate<V> of(IAggregator<V, ?> aggregator) {
+		return new DeclaredAggregate<>(null, aggregator);
+	}
+
+	/**
+	 * Declare an aggregate of the items matching a filter.
+	 *
+	 * @param filter
+	 *            the filter to apply to the items before aggregating them
+	 * @param aggregator
+	 *            the aggregator to compute the value with
+	 * @return the declared aggregate
+	 */
+	public static <V> DeclaredAggregate<V> of(IItemFilter filter, IAggregator<V, ?> aggregator) {
+		return new DeclaredAggregate<>(filter, aggregator);
+	}
+
+	/**
+	 * @return the filter to apply before aggregating, or {@code null} if all items are aggregated
+	 */
+	public IItemFilter getFilter() {
+		return filter;
+	}
+
+	/**
+	 * @return the aggregator to compute the value with
+	 */
+	public IAggregator<V, ?> getAggregator() {
+		return aggregator;
+	}
+
+	/**
+	 * Get the value of this aggregate for a collection of items.
+	 *
+	 * @param items
+	 *            the items to aggregate
+	 * @return the aggregated value
+	 */
+	public V getValue(IItemCollection items) {
+		return (filter == null ? items : items.apply(filter)).getAggregate(aggregator);
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -33,6 +33,7 @@
 package org.openjdk.jmc.flightrecorder.rules;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.RunnableFuture;
 
@@ -110,4 +111,16 @@ public interface IRule {
 	 * @return a list of result attributes
 	 */
 	Collection<TypedResult<?>> getResults();
+
+	/**
+	 * Gets the aggregates that the evaluation of this rule will ask for. When several rules are
+	 * evaluated together, the declared aggregates of all rules are computed in a single pass over
+	 * the events of each type. Rules that do not declare their aggregates compute them when they
+	 * ask for them.
+	 *
+	 * @return a collection of declared aggregates, empty by default
+	 */
+	default Collection<DeclaredAggregate<?>> getDeclaredAggregates() {
+		return Collections.emptyList();
+	}
 }
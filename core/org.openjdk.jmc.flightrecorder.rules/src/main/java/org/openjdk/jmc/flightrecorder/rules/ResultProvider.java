@@ -35,8 +35,8 @@ package org.openjdk.jmc.flightrecorder.rules;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ResultProvider implements IResultValueProvider {
 
@@ -44,8 +44,9 @@ public class ResultProvider implements IResultValueProvider {
 	private Map<TypedCollectionResult<?>, Collection<?>> collectionResultMap;
 
 	public ResultProvider() {
-		resultMap = new HashMap<>();
-		collectionResultMap = new HashMap<>();
+		// Results may be added while other rules are being evaluated
+		resultMap = new ConcurrentHashMap<>();
+		collectionResultMap = new ConcurrentHashMap<>();
 	}
 
 	private void addResult(TypedResult<?> result, Object instance) {
@@ -65,7 +66,9 @@ public class ResultProvider implements IResultValueProvider {
 					if (typedResult instanceof TypedCollectionResult<?>) {
 						TypedCollectionResult<?> typedCollectionResult = (TypedCollectionResult<?>) typedResult;
 						Collection<?> result2 = result.getResult(typedCollectionResult);
-						addCollectionResult(typedCollectionResult, result2);
+						if (result2 != null) {
+							addCollectionResult(typedCollectionResult, result2);
+						}
 					} else {
 						addResult(typedResult, result.getResult(typedResult));
 					}
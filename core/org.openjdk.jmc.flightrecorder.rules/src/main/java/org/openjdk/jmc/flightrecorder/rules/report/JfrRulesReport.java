@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2023, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -44,6 +44,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 
 import javax.xml.parsers.DocumentBuilder;
@@ -118,7 +119,7 @@ public class JfrRulesReport {
 			}
 			System.out.println();
 			System.out.println(" -verbose"); //$NON-NLS-1$
-			System.out.println("    Verbose output (including all events from rules)."); //$NON-NLS-1$
+			System.out.println("    Verbose output (including all events from rules and rule evaluation times)."); //$NON-NLS-1$
 			System.out.println();
 			System.out.println(" -min <severity>"); //$NON-NLS-1$
 			System.out.println("    Minimum result severity to include in report."); //$NON-NLS-1$
@@ -258,8 +259,9 @@ public class JfrRulesReport {
 			}
 
 			// TODO: Provide configuration
+			Map<IRule, IQuantity> evaluationTimes = new ConcurrentHashMap<>();
 			Map<IRule, Future<IResult>> resultFutures = RulesToolkit.evaluateParallel(RuleRegistry.getRules(), events,
-					null, 0);
+					null, 0, evaluationTimes::put);
 			List<Map.Entry<IRule, Future<IResult>>> resultFutureList = new ArrayList<>(resultFutures.entrySet());
 			resultFutureList.sort(new Comparator<Map.Entry<IRule, ?>>() {
 				@Override
@@ -294,6 +296,11 @@ public class JfrRulesReport {
 								ResultToolkit.populateMessage(result, result.getExplanation(), false)));
 						ruleNode.appendChild(createValueNode(parent.getOwnerDocument(), "solution", //$NON-NLS-1$
 								ResultToolkit.populateMessage(result, result.getSolution(), false)));
+						IQuantity evaluationTime = evaluationTimes.get(resultEntry.getKey());
+						if (evaluationTime != null) {
+							ruleNode.appendChild(createValueNode(parent.getOwnerDocument(), "evaluationtime", //$NON-NLS-1$
+									evaluationTime.displayUsing(IDisplayable.AUTO)));
+						}
 					}
 
 					IItemQuery itemQuery = result.getResult(TypedResult.ITEM_QUERY);
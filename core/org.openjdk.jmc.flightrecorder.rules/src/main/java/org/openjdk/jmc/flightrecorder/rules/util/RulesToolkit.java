@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2024, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -45,13 +45,14 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
 import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -83,7 +84,6 @@ import org.openjdk.jmc.common.unit.QuantityConversionException;
 import org.openjdk.jmc.common.unit.UnitLookup;
 import org.openjdk.jmc.common.util.IPreferenceValueProvider;
 import org.openjdk.jmc.common.util.LabeledIdentifier;
-import org.openjdk.jmc.common.util.Pair;
 import org.openjdk.jmc.common.util.PredicateToolkit;
 import org.openjdk.jmc.common.util.StringToolkit;
 import org.openjdk.jmc.common.version.JavaVersion;
@@ -92,10 +92,12 @@ import org.openjdk.jmc.flightrecorder.jdk.JdkAggregators;
 import org.openjdk.jmc.flightrecorder.jdk.JdkAttributes;
 import org.openjdk.jmc.flightrecorder.jdk.JdkFilters;
 import org.openjdk.jmc.flightrecorder.jdk.JdkTypeIDs;
+import org.openjdk.jmc.flightrecorder.rules.DeclaredAggregate;
 import org.openjdk.jmc.flightrecorder.rules.DependsOn;
 import org.openjdk.jmc.flightrecorder.rules.IResult;
 import org.openjdk.jmc.flightrecorder.rules.IResultValueProvider;
 import org.openjdk.jmc.flightrecorder.rules.IRule;
+import org.openjdk.jmc.flightrecorder.rules.IRuleEvaluationListener;
 import org.openjdk.jmc.flightrecorder.rules.ResultBuilder;
 import org.openjdk.jmc.flightrecorder.rules.ResultProvider;
 import org.openjdk.jmc.flightrecorder.rules.RuleRegistry;
@@ -1307,6 +1309,18 @@ public class RulesToolkit {
 	 * <p>
 	 * If evaluation of a rule fails, then the get method of the corresponding future will throw an
 	 * {@link ExecutionException}.
+	 * <p>
+	 * The rules are given a {@link SharedScanItemCollection} so that aggregates that several rules
+	 * use are only computed once. The aggregates that the rules declare with
+	 * {@link IRule#getDeclaredAggregates()} are computed in a single pass over the events of each
+	 * type, and other aggregates are computed in parallel in the same threads as the rules.
+	 * <p>
+	 * Rules that depend on other rules, see {@link DependsOn}, are evaluated when the results of
+	 * their dependencies are available. Cancelling a returned future also cancels the evaluation of
+	 * the rule if it has not finished. The evaluation time of each rule is logged at the
+	 * {@link Level#FINE} level. Use
+	 * {@link #evaluateParallel(Collection, IItemCollection, IPreferenceValueProvider, int, IRuleEvaluationListener)}
+	 * to get the evaluation times.
 	 *
 	 * @param rules
 	 *            rules to run
@@ -1323,71 +1337,56 @@ public class RulesToolkit {
 	 */
 	public static Map<IRule, Future<IResult>> evaluateParallel(
 		Collection<IRule> rules, IItemCollection items, IPreferenceValueProvider preferences, int nThreads) {
+		return evaluateParallel(rules, items, preferences, nThreads, null);
+	}
+
+	/**
+	 * Evaluates a collection of rules in parallel threads, like
+	 * {@link #evaluateParallel(Collection, IItemCollection, IPreferenceValueProvider, int)}, and
+	 * reports the evaluation time of each rule to a listener.
+	 *
+	 * @param rules
+	 *            rules to run
+	 * @param items
+	 *            items to evaluate
+	 * @param preferences
+	 *            See
+	 *            {@link IRule#createEvaluation(IItemCollection, IPreferenceValueProvider, IResultValueProvider)}.
+	 *            If {@code null}, then default values will be used.
+	 * @param nThreads
+	 *            The number or parallel threads to use when evaluating. If 0, then the number of
+	 *            available processors will be used.
+	 * @param listener
+	 *            a listener that is notified when each rule evaluation has finished, or
+	 *            {@code null}
+	 * @return a map from rules to result futures
+	 */
+	public static Map<IRule, Future<IResult>> evaluateParallel(
+		Collection<IRule> rules, IItemCollection items, IPreferenceValueProvider preferences, int nThreads,
+		IRuleEvaluationListener listener) {
 		if (preferences == null) {
 			preferences = IPreferenceValueProvider.DEFAULT_VALUES;
 		}
 		if (nThreads < 1) {
 			nThreads = Runtime.getRuntime().availableProcessors();
 		}
-		ResultProvider resultProvider = new ResultProvider();
-		Map<IRule, Future<IResult>> resultFutures = new HashMap<>();
-		Queue<RunnableFuture<IResult>> futureQueue = new ConcurrentLinkedQueue<>();
-		// Map using the rule name as a key, and a Pair containing the rule (left) and it's dependency (right)
-		Map<String, Pair<IRule, IRule>> rulesWithDependencies = new HashMap<>();
-		Map<IRule, IResult> computedResults = new HashMap<>();
+		ForkJoinPool pool = new ForkJoinPool(nThreads);
+		// Let the rules share aggregates instead of each scanning the events
+		SharedScanItemCollection sharedItems = new SharedScanItemCollection(items, pool);
+		List<DeclaredAggregate<?>> declared = new ArrayList<>();
 		for (IRule rule : rules) {
-			if (matchesEventAvailabilityMap(items, rule.getRequiredEvents())) {
-				if (hasDependency(rule)) {
-					IRule depRule = rules.stream().filter(r -> r.getId().equals(getRuleDependencyName(rule)))
-							.findFirst().orElse(null);
-					rulesWithDependencies.put(rule.getId(), new Pair<>(rule, depRule));
-				} else {
-					RunnableFuture<IResult> resultFuture = rule.createEvaluation(items, preferences, resultProvider);
-					resultFutures.put(rule, resultFuture);
-					futureQueue.add(resultFuture);
-				}
-			} else {
-				resultFutures.put(rule, CompletableFuture.completedFuture(getNotApplicableResult(rule, preferences,
-						Messages.getString(Messages.RulesToolkit_RULE_IGNORED))));
-			}
-		}
-		for (String ruleName : rulesWithDependencies.keySet()) {
-			IRule rule = rulesWithDependencies.get(ruleName).left;
-			IRule depRule = rulesWithDependencies.get(ruleName).right;
-			Future<IResult> depResultFuture = resultFutures.get(depRule);
-			if (depResultFuture == null) {
-				resultFutures.put(rule, CompletableFuture.completedFuture(getNotApplicableResult(rule, preferences,
-						Messages.getString(Messages.RulesToolkit_EVALUATION_ERROR_DESCRIPTION))));
-			} else {
-				IResult depResult = null;
-				if (!depResultFuture.isDone()) {
-					((Runnable) depResultFuture).run();
-					try {
-						depResult = depResultFuture.get();
-						resultProvider.addResults(depResult);
-						computedResults.put(depRule, depResult);
-					} catch (InterruptedException | ExecutionException e) {
-						Logger.getLogger(RulesToolkit.class.getName()).log(Level.WARNING, MessageFormat
-								.format(Messages.getString(Messages.RulesToolkit_RULE_RESULT_RETRIEVAL_ERROR), e));
-					}
-				} else {
-					depResult = computedResults.get(depRule);
-				}
-				if (depResult != null && shouldEvaluate(rule, depResult)) {
-					RunnableFuture<IResult> resultFuture = rule.createEvaluation(items, preferences, resultProvider);
-					resultFutures.put(rule, resultFuture);
-					futureQueue.add(resultFuture);
-				} else {
-					resultFutures.put(rule, CompletableFuture.completedFuture(getNotApplicableResult(rule, preferences,
-							Messages.getString(Messages.RulesToolkit_RULE_IGNORED))));
-				}
+			if (matchesEventAvailabilityMap(sharedItems, rule.getRequiredEvents())) {
+				declared.addAll(rule.getDeclaredAggregates());
 			}
 		}
-		for (int i = 0; i < nThreads; i++) {
-			RuleEvaluator re = new RuleEvaluator(futureQueue);
-			Thread t = new Thread(re);
-			t.start();
+		sharedItems.computeDeclared(declared);
+		RuleScheduler scheduler = new RuleScheduler(rules, sharedItems, preferences, pool, listener);
+		Map<IRule, Future<IResult>> resultFutures = new HashMap<>();
+		for (IRule rule : rules) {
+			resultFutures.put(rule, scheduler.schedule(rule));
 		}
+		CompletableFuture.allOf(scheduler.scheduled.values().toArray(new CompletableFuture<?>[0]))
+				.whenComplete((v, t) -> pool.shutdown());
 		return resultFutures;
 	}
 
@@ -1423,19 +1422,124 @@ public class RulesToolkit {
 		return true;
 	}
 
-	private static class RuleEvaluator implements Runnable {
-		private Queue<RunnableFuture<IResult>> futureQueue;
+	/**
+	 * Schedules rule evaluations as a graph of futures, where each rule is evaluated as soon as the
+	 * rules that it depends on have been evaluated. Dependencies can be nested to any depth.
+	 * <p>
+	 * The evaluations are run in a {@link ForkJoinPool}, so evaluations that split their work, for
+	 * example by using parallel streams over event types or time slices, share the same threads as
+	 * the other rule evaluations.
+	 */
+	private static class RuleScheduler {
+		private final Map<String, IRule> rulesById = new HashMap<>();
+		private final Map<IRule, RuleFuture> scheduled = new HashMap<>();
+		private final Set<IRule> scheduling = new HashSet<>();
+		private final IItemCollection items;
+		private final IPreferenceValueProvider preferences;
+		private final ResultProvider resultProvider = new ResultProvider();
+		private final ForkJoinPool pool;
+		private final IRuleEvaluationListener listener;
+
+		RuleScheduler(Collection<IRule> rules, IItemCollection items, IPreferenceValueProvider preferences,
+				ForkJoinPool pool, IRuleEvaluationListener listener) {
+			for (IRule rule : rules) {
+				rulesById.putIfAbsent(rule.getId(), rule);
+			}
+			this.items = items;
+			this.preferences = preferences;
+			this.pool = pool;
+			this.listener = listener;
+		}
+
+		RuleFuture schedule(IRule rule) {
+			RuleFuture future = scheduled.get(rule);
+			if (future != null) {
+				return future;
+			}
+			future = new RuleFuture();
+			if (!scheduling.add(rule)) {
+				// Circular dependency
+				future.complete(getNotApplicableResult(rule, preferences,
+						Messages.getString(Messages.RulesToolkit_EVALUATION_ERROR_DESCRIPTION)));
+				return future;
+			}
+			if (!matchesEventAvailabilityMap(items, rule.getRequiredEvents())) {
+				future.complete(getNotApplicableResult(rule, preferences,
+						Messages.getString(Messages.RulesToolkit_RULE_IGNORED)));
+			} else if (hasDependency(rule)) {
+				IRule depRule = rulesById.get(getRuleDependencyName(rule));
+				if (depRule == null) {
+					future.complete(getNotApplicableResult(rule, preferences,
+							Messages.getString(Messages.RulesToolkit_EVALUATION_ERROR_DESCRIPTION)));
+				} else {
+					RuleFuture finalFuture = future;
+					schedule(depRule).whenComplete((depResult, t) -> {
+						if (depResult != null) {
+							resultProvider.addResults(depResult);
+						} else if (!(t instanceof CancellationException)) {
+							Logger.getLogger(RulesToolkit.class.getName()).log(Level.WARNING, MessageFormat
+									.format(Messages.getString(Messages.RulesToolkit_RULE_RESULT_RETRIEVAL_ERROR), t));
+						}
+						if (depResult != null && shouldEvaluate(rule, depResult)) {
+							evaluate(rule, finalFuture);
+						} else {
+							finalFuture.complete(getNotApplicableResult(rule, preferences,
+									Messages.getString(Messages.RulesToolkit_RULE_IGNORED)));
+						}
+					});
+				}
+			} else {
+				evaluate(rule, future);
+			}
+			scheduling.remove(rule);
+			scheduled.put(rule, future);
+			return future;
+		}
 
-		public RuleEvaluator(Queue<RunnableFuture<IResult>> futureQueue) {
-			this.futureQueue = futureQueue;
+		private void evaluate(IRule rule, RuleFuture future) {
+			RunnableFuture<IResult> evaluation = rule.createEvaluation(items, preferences, resultProvider);
+			future.evaluation = evaluation;
+			pool.execute(() -> {
+				if (future.isDone()) {
+					return;
+				}
+				long start = System.nanoTime();
+				evaluation.run();
+				long elapsed = System.nanoTime() - start;
+				Logger.getLogger(RulesToolkit.class.getName()).log(Level.FINE, "Evaluated rule {0} in {1} ms", //$NON-NLS-1$
+						new Object[] {rule.getId(), TimeUnit.NANOSECONDS.toMillis(elapsed)});
+				if (listener != null) {
+					try {
+						listener.ruleEvaluated(rule, UnitLookup.NANOSECOND.quantity(elapsed));
+					} catch (RuntimeException e) {
+						Logger.getLogger(RulesToolkit.class.getName()).log(Level.WARNING,
+								"Rule evaluation listener failed", e); //$NON-NLS-1$
+					}
+				}
+				try {
+					future.complete(evaluation.get());
+				} catch (ExecutionException e) {
+					future.completeExceptionally(e.getCause());
+				} catch (CancellationException | InterruptedException e) {
+					future.cancel(false);
+				}
+			});
 		}
+	}
+
+	/**
+	 * A rule result future that also cancels the underlying rule evaluation when cancelled.
+	 */
+	private static class RuleFuture extends CompletableFuture<IResult> {
+		private volatile RunnableFuture<IResult> evaluation;
 
 		@Override
-		public void run() {
-			RunnableFuture<IResult> resultFuture;
-			while ((resultFuture = futureQueue.poll()) != null) {
-				resultFuture.run();
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			RunnableFuture<IResult> e = evaluation;
+			if (e != null) {
+				e.cancel(mayInterruptIfRunning);
 			}
+			return super.cancel(mayInterruptIfRunning);
 		}
 	}
 
@@ -0,0 +1,413 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.flightrecorder.rules.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmc.common.item.IAggregator;
+import org.openjdk.jmc.common.item.IItem;
+import org.openjdk.jmc.common.item.IItemCollection;
+import org.openjdk.jmc.common.item.IItemConsumer;
+import org.openjdk.jmc.common.item.IItemFilter;
+import org.openjdk.jmc.common.item.IItemIterable;
+import org.openjdk.jmc.common.item.IType;
+import org.openjdk.jmc.common.item.ItemCollectionToolkit;
+import org.openjdk.jmc.common.unit.IQuantity;
+import org.openjdk.jmc.common.unit.IRange;
+import org.openjdk.jmc.common.util.PredicateToolkit;
+import org.openjdk.jmc.flightrecorder.IParserStats;
+import org.openjdk.jmc.flightrecorder.parser.IConstantPoolExtension;
+import org.openjdk.jmc.flightrecorder.rules.DeclaredAggregate;
+import org.openjdk.jmc.flightrecorder.rules.IRule;
+
+/**
+ * An item collection that lets several rules share the work of scanning the same events.
+ * <p>
+ * Rules typically filter the full set of events with the same filter constants and compute the same
+ * aggregates. This collection remembers the aggregates it has computed so that they are only
+ * computed once regardless of how many rules that ask for them. Aggregates are keyed on the filters
+ * that have been applied to the collection and on the aggregator, compared with {@code equals}.
+ * Filters and aggregators do not override {@code equals}, so aggregates are only shared when rules
+ * use the same instances, such as the constants in {@code JdkFilters} and {@code JdkAggregators}.
+ * <p>
+ * Aggregates that rules declare with {@link IRule#getDeclaredAggregates()} can be computed up front
+ * with {@link #computeDeclared(Collection)}. All declared aggregates that accept an event type are
+ * computed in a single pass over the events of that type, with the event types processed in
+ * parallel. Other aggregates are computed by the underlying collection, in the fork/join pool of
+ * this collection if it has one, so that the underlying collection can use its own indexes and
+ * split the events between threads.
+ * <p>
+ * Filtered collections are not materialized. Applying a filter returns a view of the filtered
+ * underlying collection that shares the computed aggregates with this collection.
+ * <p>
+ * Parser statistics are forwarded from the shared collection if it provides them.
+ * <p>
+ * This class is thread safe. Concurrent requests for the same aggregate wait for a single
+ * computation.
+ */
+public final class SharedScanItemCollection implements IItemCollection, IParserStats {
+
+	private static final Object NULL_VALUE = new Object();
+
+	private final IItemCollection delegate;
+	private final ForkJoinPool pool;
+	private final List<IItemFilter> filters;
+	private final Map<AggregateKey, CompletableFuture<Object>> aggregates;
+	private final IParserStats parserStats;
+
+	/**
+	 * Create a new collection sharing scans of the events in another collection.
+	 *
+	 * @param items
+	 *            the items to share scans of
+	 */
+	public SharedScanItemCollection(IItemCollection items) {
+		this(items, null);
+	}
+
+	/**
+	 * Create a new collection sharing scans of the events in another collection, computing
+	 * aggregates in a fork/join pool.
+	 *
+	 * @param items
+	 *            the items to share scans of
+	 * @param pool
+	 *            the pool to compute aggregates in, or {@code null} to compute them on the calling
+	 *            thread
+	 */
+	public SharedScanItemCollection(IItemCollection items, ForkJoinPool pool) {
+		this(items, pool, Collections.emptyList(), new ConcurrentHashMap<>(),
+				items instanceof IParserStats ? (IParserStats) items : null);
+	}
+
+	private SharedScanItemCollection(IItemCollection delegate, ForkJoinPool pool, List<IItemFilter> filters,
+			Map<AggregateKey, CompletableFuture<Object>> aggregates, IParserStats parserStats) {
+		this.delegate = delegate;
+		this.pool = pool;
+		this.filters = filters;
+		this.aggregates = aggregates;
+		this.parserStats = parserStats;
+	}
+
+	/**
+	 * Compute declared aggregates in a single pass over the events of each type. The aggregates are
+	 * registered before this method returns, so requests for them wait for the pass instead of
+	 * computing them again. The pass runs in the fork/join pool of this collection if it has one,
+	 * and on the calling thread otherwise.
+	 *
+	 * @param declared
+	 *            the aggregates to compute
+	 * @return a future that completes when the aggregates have been computed
+	 */
+	public CompletableFuture<Void> computeDeclared(Collection<? extends DeclaredAggregate<?>> declared) {
+		List<PlannedAggregate<?, ?>> planned = new ArrayList<>();
+		for (DeclaredAggregate<?> aggregate : declared) {
+			List<IItemFilter> path = aggregate.getFilter() == null ? filters : append(filters, aggregate.getFilter());
+			PlannedAggregate<?, ?> plan = plan(aggregate.getFilter(), aggregate.getAggregator(), path);
+			if (aggregates.putIfAbsent(plan.key, plan.future) == null) {
+				planned.add(plan);
+			}
+		}
+		if (planned.isEmpty()) {
+			return CompletableFuture.completedFuture(null);
+		}
+		Runnable scan = () -> scan(planned);
+		if (pool == null) {
+			scan.run();
+			return CompletableFuture.completedFuture(null);
+		}
+		return CompletableFuture.runAsync(scan, pool);
+	}
+
+	private static <V, C extends IItemConsumer<C>> PlannedAggregate<V, C> plan(
+		IItemFilter filter, IAggregator<V, C> aggregator, List<IItemFilter> path) {
+		return new PlannedAggregate<>(filter, aggregator, new AggregateKey(path, aggregator));
+	}
+
+	private void scan(List<PlannedAggregate<?, ?>> planned) {
+		try {
+			List<IItemIterable> iterables = delegate.stream().collect(Collectors.toList());
+			List<Object[]> consumers = iterables.parallelStream().map(ii -> scan(planned, ii))
+					.collect(Collectors.toList());
+			for (int i = 0; i < planned.size(); i++) {
+				planned.get(i).complete(consumers, i);
+			}
+		} catch (RuntimeException | Error e) {
+			for (PlannedAggregate<?, ?> plan : planned) {
+				// Let the next caller retry rather than caching the failure
+				aggregates.remove(plan.key, plan.future);
+				plan.future.completeExceptionally(e);
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Feed the items of one iterable to the consumers of all planned aggregates that accept its
+	 * type.
+	 *
+	 * @return an array with the consumer of each planned aggregate, or {@code null} for aggregates
+	 *         that do not accept the type
+	 */
+	@SuppressWarnings("unchecked")
+	private static Object[] scan(List<PlannedAggregate<?, ?>> planned, IItemIterable iterable) {
+		IType<IItem> type = iterable.getType();
+		Object[] consumers = new Object[planned.size()];
+		List<IItemConsumer<?>> active = new ArrayList<>();
+		List<Predicate<IItem>> predicates = new ArrayList<>();
+		for (int i = 0; i < planned.size(); i++) {
+			PlannedAggregate<?, ?> plan = planned.get(i);
+			if (!plan.aggregator.acceptType(type)) {
+				continue;
+			}
+			Predicate<IItem> predicate = plan.filter == null ? null : plan.filter.getPredicate(type);
+			IItemConsumer<?> consumer = plan.aggregator.newItemConsumer(type);
+			consumers[i] = consumer;
+			if (predicate == null || !PredicateToolkit.isFalseGuaranteed(predicate)) {
+				active.add(consumer);
+				predicates.add(predicate == null || PredicateToolkit.isTrueGuaranteed(predicate) ? null : predicate);
+			}
+		}
+		if (!active.isEmpty()) {
+			IItemConsumer<?>[] activeConsumers = active.toArray(new IItemConsumer<?>[active.size()]);
+			Predicate<IItem>[] activePredicates = predicates.toArray(new Predicate[predicates.size()]);
+			for (IItem item : iterable) {
+				for (int i = 0; i < activeConsumers.length; i++) {
+					if (activePredicates[i] == null || activePredicates[i].test(item)) {
+						activeConsumers[i].consume(item);
+					}
+				}
+			}
+		}
+		return consumers;
+	}
+
+	@Override
+	public IItemCollection apply(IItemFilter filter) {
+		return new SharedScanItemCollection(delegate.apply(filter), pool, append(filters, filter), aggregates,
+				parserStats);
+	}
+
+	private static List<IItemFilter> append(List<IItemFilter> filters, IItemFilter filter) {
+		List<IItemFilter> path = new ArrayList<>(filters.size() + 1);
+		path.addAll(filters);
+		path.add(filter);
+		return Collections.unmodifiableList(path);
+	}
+
+	@Override
+	public <V, C extends IItemConsumer<C>> V getAggregate(IAggregator<V, C> aggregator) {
+		return getAggregate(aggregator, pool);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <V, C extends IItemConsumer<C>> V getAggregate(IAggregator<V, C> aggregator, ForkJoinPool pool) {
+		AggregateKey key = new AggregateKey(filters, aggregator);
+		CompletableFuture<Object> future = new CompletableFuture<>();
+		CompletableFuture<Object> existing = aggregates.putIfAbsent(key, future);
+		if (existing == null) {
+			existing = future;
+			try {
+				V value = pool == null ? delegate.getAggregate(aggregator) : delegate.getAggregate(aggregator, pool);
+				future.complete(value == null ? NULL_VALUE : value);
+			} catch (RuntimeException | Error e) {
+				// Let the next caller retry rather than caching the failure
+				aggregates.remove(key, future);
+				future.completeExceptionally(e);
+				throw e;
+			}
+		}
+		try {
+			Object value = existing.join();
+			return value == NULL_VALUE ? null : (V) value;
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	@Override
+	public boolean hasItems() {
+		return delegate.hasItems();
+	}
+
+	@Override
+	public Iterator<IItemIterable> iterator() {
+		return delegate.iterator();
+	}
+
+	@Override
+	@Deprecated
+	public Set<IRange<IQuantity>> getUnfilteredTimeRanges() {
+		return delegate.getUnfilteredTimeRanges();
+	}
+
+	@Override
+	public void forEachEventType(Consumer<IEventStats> consumer) {
+		IParserStats stats = getParserStats();
+		if (stats != null) {
+			stats.forEachEventType(consumer);
+		}
+	}
+
+	@Override
+	public short getMajorVersion() {
+		IParserStats stats = getParserStats();
+		return stats != null ? stats.getMajorVersion() : 0;
+	}
+
+	@Override
+	public short getMinorVersion() {
+		IParserStats stats = getParserStats();
+		return stats != null ? stats.getMinorVersion() : 0;
+	}
+
+	@Override
+	public int getChunkCount() {
+		IParserStats stats = getParserStats();
+		return stats != null ? stats.getChunkCount() : 0;
+	}
+
+	@Override
+	public long getSkippedEventCount() {
+		IParserStats stats = getParserStats();
+		return stats != null ? stats.getSkippedEventCount() : 0;
+	}
+
+	@Override
+	public long getEventCountByType(String eventTypeName) {
+		IParserStats stats = getParserStats();
+		return stats != null ? stats.getEventCountByType(eventTypeName) : 0;
+	}
+
+	@Override
+	public long getEventTotalSizeByType(String eventTypeName) {
+		IParserStats stats = getParserStats();
+		return stats != null ? stats.getEventTotalSizeByType(eventTypeName) : 0;
+	}
+
+	@Override
+	public IItemCollection getConstantPools() {
+		IParserStats stats = getParserStats();
+		return stats != null ? stats.getConstantPools() : ItemCollectionToolkit.EMPTY;
+	}
+
+	@Override
+	public IItemCollection getConstants() {
+		IParserStats stats = getParserStats();
+		return stats != null ? stats.getConstants() : ItemCollectionToolkit.EMPTY;
+	}
+
+	@Override
+	public Map<String, IConstantPoolExtension> getConstantPoolExtensions() {
+		IParserStats stats = getParserStats();
+		return stats != null ? stats.getConstantPoolExtensions() : Collections.emptyMap();
+	}
+
+	private IParserStats getParserStats() {
+		return parserStats;
+	}
+
+	/**
+	 * An aggregate that is computed by a shared scan, with the consumers it uses while scanning.
+	 */
+	private static final class PlannedAggregate<V, C extends IItemConsumer<C>> {
+		private final IItemFilter filter;
+		private final IAggregator<V, C> aggregator;
+		private final AggregateKey key;
+		private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+		PlannedAggregate(IItemFilter filter, IAggregator<V, C> aggregator, AggregateKey key) {
+			this.filter = filter;
+			this.aggregator = aggregator;
+			this.key = key;
+		}
+
+		@SuppressWarnings("unchecked")
+		void complete(List<Object[]> consumersByIterable, int index) {
+			List<C> consumers = new ArrayList<>();
+			for (Object[] iterableConsumers : consumersByIterable) {
+				if (iterableConsumers[index] != null) {
+					consumers.add((C) iterableConsumers[index]);
+				}
+			}
+			V value = aggregator.getValue(consumers.iterator());
+			future.complete(value == null ? NULL_VALUE : value);
+		}
+	}
+
+	/**
+	 * The key of a computed aggregate: the filters applied to the shared collection and the
+	 * aggregator.
+	 */
+	private static final class AggregateKey {
+		private final List<IItemFilter> filters;
+		private final IAggregator<?, ?> aggregator;
+
+		AggregateKey(List<IItemFilter> filters, IAggregator<?, ?> aggregator) {
+			this.filters = filters;
+			this.aggregator = aggregator;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * filters.hashCode() + aggregator.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof AggregateKey)) {
+				return false;
+			}
+			AggregateKey other = (AggregateKey) obj;
+			return filters.equals(other.filters) && Objects.equals(aggregator, other.aggregator);
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -32,21 +32,35 @@
  */
 package org.openjdk.jmc.flightrecorder.rules.util;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
 import java.util.concurrent.FutureTask;
+import java.util.stream.IntStream;
 
+import org.openjdk.jmc.common.item.IAttribute;
 import org.openjdk.jmc.common.item.IItem;
 import org.openjdk.jmc.common.item.IItemCollection;
 import org.openjdk.jmc.common.item.IItemFilter;
+import org.openjdk.jmc.common.item.IItemIterable;
 import org.openjdk.jmc.common.item.IMemberAccessor;
-import org.openjdk.jmc.common.item.ItemFilters;
+import org.openjdk.jmc.common.item.IType;
+import org.openjdk.jmc.common.item.ItemCollectionToolkit;
+import org.openjdk.jmc.common.item.ItemIterableToolkit;
+import org.openjdk.jmc.common.item.ItemToolkit;
 import org.openjdk.jmc.common.unit.IQuantity;
 import org.openjdk.jmc.common.unit.IRange;
+import org.openjdk.jmc.common.unit.IUnit;
 import org.openjdk.jmc.common.unit.QuantityRange;
+import org.openjdk.jmc.common.unit.UnitLookup;
 import org.openjdk.jmc.common.util.Pair;
 import org.openjdk.jmc.flightrecorder.JfrAttributes;
 import org.openjdk.jmc.flightrecorder.rules.IResult;
@@ -158,9 +172,11 @@ public class SlidingWindowToolkit {
 	}
 
 	/**
-	 * Runs a sliding window through all items, by calculating the window start and end and filter
-	 * through all the items. Suitable if the items are not guaranteed to be ordered, but is slower
-	 * than the ordered version.
+	 * Runs a sliding window through all items, by calculating the window start and end and
+	 * selecting the items in each window. Suitable if the items are not guaranteed to be ordered.
+	 * The items of each type are put in time order once, merging the already sorted event arrays,
+	 * after which the window is moved through them without filtering the whole collection for each
+	 * window.
 	 *
 	 * @param callback
 	 *            method that can do calculations on the items in the window.
@@ -175,6 +191,7 @@ public class SlidingWindowToolkit {
 	 *            with end time in the window. It's up to the caller to take this into account and
 	 *            for example cap event duration to the window timespan.
 	 */
+	@SuppressWarnings("deprecation")
 	public static void slidingWindowUnordered(
 		IUnorderedWindowVisitor callback, IItemCollection items, IQuantity windowSize, IQuantity slideSize,
 		boolean includeIntersecting) {
@@ -186,15 +203,17 @@ public class SlidingWindowToolkit {
 			return;
 		}
 
+		List<TypeWindow> typeWindows = createTypeWindows(items, includeIntersecting);
+		Set<IRange<IQuantity>> chunkRanges = items.getUnfilteredTimeRanges();
 		IQuantity windowStart = first;
 		IQuantity windowEnd = windowStart.add(windowSize);
 		do {
-			IItemFilter window = includeIntersecting
-					? ItemFilters.rangeIntersects(JfrAttributes.LIFETIME,
-							QuantityRange.createWithEnd(windowStart, windowEnd))
-					: ItemFilters.interval(JfrAttributes.END_TIME, windowStart, true, windowEnd, true);
-
-			IItemCollection windowItems = items.apply(window);
+			List<IItemIterable> iterables = new ArrayList<>(typeWindows.size());
+			for (TypeWindow typeWindow : typeWindows) {
+				typeWindow.slide(windowStart, windowEnd, null);
+				iterables.add(typeWindow.getItems());
+			}
+			IItemCollection windowItems = ItemCollectionToolkit.build(iterables::stream, chunkRanges);
 
 			callback.visitWindow(windowItems, windowStart, windowEnd);
 
@@ -204,6 +223,538 @@ public class SlidingWindowToolkit {
 		} while (windowStart.compareTo(last) < 0 && callback.shouldContinue());
 	}
 
+	/**
+	 * Accumulator used when calling
+	 * {@link SlidingWindowToolkit#slidingWindowUnorderedMinMaxValue(IItemCollection, IItemFilter, IQuantity, IQuantity, FutureTask, IWindowAccumulator, Comparator, boolean, boolean)}.
+	 * Items are added when they enter the window and removed when they leave it, so that the window
+	 * value can be calculated without going through all items in the window.
+	 * <p>
+	 * For windows with the items that have the end time in the window, items of each type are
+	 * removed in the order they were added. For windows with the items intersecting the window,
+	 * items are added in start time order and removed in end time order.
+	 */
+	public interface IWindowAccumulator<V> {
+		void add(IItem item);
+
+		void remove(IItem item);
+
+		/**
+		 * @param startTime
+		 *            window start
+		 * @param endTime
+		 *            window end
+		 * @param partialItems
+		 *            the items in the window with a lifetime that is not contained in the window
+		 * @return the window value, or {@code null} if there is no value for the window
+		 */
+		V getValue(IQuantity startTime, IQuantity endTime, Iterable<IItem> partialItems);
+	}
+
+	/**
+	 * @return an accumulator that counts the items in the window
+	 */
+	public static IWindowAccumulator<IQuantity> countAccumulator() {
+		return new IWindowAccumulator<IQuantity>() {
+			private long count;
+
+			@Override
+			public void add(IItem item) {
+				count++;
+			}
+
+			@Override
+			public void remove(IItem item) {
+				count--;
+			}
+
+			@Override
+			public IQuantity getValue(IQuantity startTime, IQuantity endTime, Iterable<IItem> partialItems) {
+				return UnitLookup.NUMBER_UNITY.quantity(count);
+			}
+		};
+	}
+
+	/**
+	 * @param attribute
+	 *            attribute to sum, items without the attribute are ignored
+	 * @param unit
+	 *            unit to sum the values in, each value is rounded to a whole number of this unit
+	 * @return an accumulator that sums an attribute of the items in the window
+	 */
+	public static IWindowAccumulator<IQuantity> sumAccumulator(IAttribute<IQuantity> attribute, IUnit unit) {
+		AttributeValues<IQuantity> values = new AttributeValues<>(attribute);
+		return new IWindowAccumulator<IQuantity>() {
+			private long sum;
+
+			@Override
+			public void add(IItem item) {
+				IQuantity value = values.get(item);
+				if (value != null) {
+					sum += value.clampedLongValueIn(unit);
+				}
+			}
+
+			@Override
+			public void remove(IItem item) {
+				IQuantity value = values.get(item);
+				if (value != null) {
+					sum -= value.clampedLongValueIn(unit);
+				}
+			}
+
+			@Override
+			public IQuantity getValue(IQuantity startTime, IQuantity endTime, Iterable<IItem> partialItems) {
+				return unit.quantity(sum);
+			}
+		};
+	}
+
+	/**
+	 * Gets the max value of an attribute of the items in the window, using a deque per item type
+	 * with the candidates for the max value. Items of a type must be removed in the order they were
+	 * added, so the accumulator can only be used for windows with the items that have the end time
+	 * in the window.
+	 *
+	 * @param attribute
+	 *            attribute to get the max value for, items without the attribute are ignored
+	 * @return an accumulator that gets the max value of an attribute of the items in the window
+	 */
+	public static IWindowAccumulator<IQuantity> maxAccumulator(IAttribute<IQuantity> attribute) {
+		AttributeValues<IQuantity> values = new AttributeValues<>(attribute);
+		return new IWindowAccumulator<IQuantity>() {
+			private final Map<IType<IItem>, MaxDeque> deques = new HashMap<>();
+
+			@Override
+			public void add(IItem item) {
+				deques.computeIfAbsent(ItemToolkit.getItemType(item), t -> new MaxDeque()).add(item, values.get(item));
+			}
+
+			@Override
+			public void remove(IItem item) {
+				MaxDeque deque = deques.get(ItemToolkit.getItemType(item));
+				if (deque == null) {
+					throw new IllegalStateException("Items must be added before they are removed"); //$NON-NLS-1$
+				}
+				deque.remove(item);
+			}
+
+			@Override
+			public IQuantity getValue(IQuantity startTime, IQuantity endTime, Iterable<IItem> partialItems) {
+				IQuantity max = null;
+				for (MaxDeque deque : deques.values()) {
+					IQuantity typeMax = deque.getMax();
+					if (typeMax != null && (max == null || typeMax.compareTo(max) > 0)) {
+						max = typeMax;
+					}
+				}
+				return max;
+			}
+		};
+	}
+
+	/**
+	 * The items in a window, with the candidates for the max value being the items that are not
+	 * followed by an item with a larger or equal value.
+	 */
+	private static class MaxDeque {
+
+		private final ArrayDeque<IItem> windowItems = new ArrayDeque<>();
+		private final ArrayDeque<Pair<Long, IQuantity>> candidates = new ArrayDeque<>();
+		private long added;
+		private long removed;
+
+		void add(IItem item, IQuantity value) {
+			windowItems.addLast(item);
+			long index = added++;
+			if (value != null) {
+				while (!candidates.isEmpty() && candidates.peekLast().right.compareTo(value) <= 0) {
+					candidates.removeLast();
+				}
+				candidates.addLast(new Pair<>(index, value));
+			}
+		}
+
+		void remove(IItem item) {
+			if (windowItems.pollFirst() != item) {
+				throw new IllegalStateException("Items must be removed in the order they were added"); //$NON-NLS-1$
+			}
+			long index = removed++;
+			if (!candidates.isEmpty() && candidates.peekFirst().left == index) {
+				candidates.removeFirst();
+			}
+		}
+
+		IQuantity getMax() {
+			return candidates.isEmpty() ? null : candidates.peekFirst().right;
+		}
+	}
+
+	/**
+	 * Sums the duration of the items in the window, capped to the window timespan as with
+	 * {@link RulesToolkit#getDurationInWindow(IQuantity, IQuantity, IItem)}. The full durations are
+	 * summed as the items enter and leave the window, and only the items that are partially in the
+	 * window are capped when getting the value.
+	 *
+	 * @return an accumulator that sums the duration of the items in the window
+	 */
+	public static IWindowAccumulator<IQuantity> durationInWindowAccumulator() {
+		AttributeValues<IQuantity> startTimes = new AttributeValues<>(JfrAttributes.START_TIME);
+		AttributeValues<IQuantity> endTimes = new AttributeValues<>(JfrAttributes.END_TIME);
+		return new IWindowAccumulator<IQuantity>() {
+			private long durationNanos;
+
+			@Override
+			public void add(IItem item) {
+				durationNanos += getDurationNanos(item);
+			}
+
+			@Override
+			public void remove(IItem item) {
+				durationNanos -= getDurationNanos(item);
+			}
+
+			private long getDurationNanos(IItem item) {
+				IQuantity start = startTimes.get(item);
+				IQuantity end = endTimes.get(item);
+				if (start == null || end == null) {
+					return 0;
+				}
+				return end.clampedLongValueIn(UnitLookup.EPOCH_NS) - start.clampedLongValueIn(UnitLookup.EPOCH_NS);
+			}
+
+			@Override
+			public IQuantity getValue(IQuantity startTime, IQuantity endTime, Iterable<IItem> partialItems) {
+				IQuantity duration = UnitLookup.NANOSECOND.quantity(durationNanos);
+				for (IItem item : partialItems) {
+					IQuantity start = startTimes.get(item);
+					IQuantity end = endTimes.get(item);
+					if (start != null && end != null) {
+						if (start.compareTo(startTime) < 0) {
+							duration = duration.subtract(startTime.subtract(start));
+						}
+						if (end.compareTo(endTime) > 0) {
+							duration = duration.subtract(end.subtract(endTime));
+						}
+					}
+				}
+				return duration;
+			}
+		};
+	}
+
+	/**
+	 * Gets attribute values, looking up the accessor when the item type changes. The accumulators
+	 * get the items of one type at a time, so the accessor rarely has to be looked up.
+	 */
+	private static class AttributeValues<M> {
+
+		private final IAttribute<M> attribute;
+		private IType<IItem> type;
+		private IMemberAccessor<? extends M, IItem> accessor;
+
+		AttributeValues(IAttribute<M> attribute) {
+			this.attribute = attribute;
+		}
+
+		M get(IItem item) {
+			IType<IItem> itemType = ItemToolkit.getItemType(item);
+			if (itemType != type) {
+				type = itemType;
+				accessor = attribute.getAccessor(itemType);
+			}
+			return accessor == null ? null : accessor.getMember(item);
+		}
+	}
+
+	/**
+	 * The items of one type, sorted so that the items in a window can be found by moving pointers
+	 * forward as the window slides.
+	 */
+	private static abstract class TypeWindow {
+
+		final IType<IItem> type;
+		final IItem[] items;
+		final IQuantity[] startTimes;
+		final IQuantity[] endTimes;
+		// Used to limit the search for the items that are partially in the window
+		final IQuantity maxDuration;
+
+		TypeWindow(IType<IItem> type, SortedItems sorted) {
+			this.type = type;
+			items = sorted.items;
+			startTimes = sorted.startTimes;
+			endTimes = sorted.endTimes;
+			maxDuration = sorted.maxDuration;
+		}
+
+		/**
+		 * Moves the window forward. The window start and end must not be smaller than in the
+		 * previous call.
+		 *
+		 * @param accumulator
+		 *            accumulator to add and remove the items entering and leaving the window, or
+		 *            {@code null}
+		 */
+		abstract void slide(IQuantity windowStart, IQuantity windowEnd, IWindowAccumulator<?> accumulator);
+
+		/**
+		 * @return the items in the current window
+		 */
+		abstract IItemIterable getItems();
+
+		/**
+		 * Adds the items in the current window that have a lifetime that is not contained in the
+		 * window.
+		 */
+		abstract void collectPartialItems(IQuantity windowStart, IQuantity windowEnd, List<IItem> partialItems);
+	}
+
+	/**
+	 * Items with the end time in the window. The items are sorted on end time, so the window is a
+	 * range of the items, with both ends moving forward.
+	 */
+	private static class EndTimeWindow extends TypeWindow {
+
+		private int from;
+		private int to;
+
+		EndTimeWindow(IType<IItem> type, SortedItems sorted) {
+			super(type, sorted);
+		}
+
+		@Override
+		void slide(IQuantity windowStart, IQuantity windowEnd, IWindowAccumulator<?> accumulator) {
+			while (from < items.length && endTimes[from].compareTo(windowStart) < 0) {
+				if (accumulator != null && from < to) {
+					accumulator.remove(items[from]);
+				}
+				from++;
+			}
+			to = Math.max(to, from);
+			while (to < items.length && endTimes[to].compareTo(windowEnd) <= 0) {
+				if (accumulator != null) {
+					accumulator.add(items[to]);
+				}
+				to++;
+			}
+		}
+
+		@Override
+		IItemIterable getItems() {
+			int windowFrom = from;
+			int windowTo = to;
+			return ItemIterableToolkit.build(() -> Arrays.stream(items, windowFrom, windowTo), type);
+		}
+
+		@Override
+		void collectPartialItems(IQuantity windowStart, IQuantity windowEnd, List<IItem> partialItems) {
+			// Only items ending within the max duration from the window start can have started before it
+			IQuantity endLimit = windowStart.add(maxDuration);
+			for (int i = from; i < to && endTimes[i].compareTo(endLimit) < 0; i++) {
+				if (startTimes[i].compareTo(windowStart) < 0) {
+					partialItems.add(items[i]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Items with a lifetime intersecting the window. The items are sorted on start time and become
+	 * active when the window end passes their start. The active items are kept in a heap on end
+	 * time, so that they can be dropped when the window start passes their end, which can be in any
+	 * order since the durations differ.
+	 */
+	private static class IntersectingWindow extends TypeWindow {
+
+		private final PriorityQueue<Integer> active;
+		// The items before this have started before the window start
+		private int started;
+		// The items before this have started before the window end
+		private int next;
+
+		IntersectingWindow(IType<IItem> type, SortedItems sorted) {
+			super(type, sorted);
+			active = new PriorityQueue<>((i1, i2) -> {
+				int comparison = endTimes[i1].compareTo(endTimes[i2]);
+				return comparison != 0 ? comparison : Integer.compare(i1, i2);
+			});
+		}
+
+		@Override
+		void slide(IQuantity windowStart, IQuantity windowEnd, IWindowAccumulator<?> accumulator) {
+			while (!active.isEmpty() && endTimes[active.peek()].compareTo(windowStart) < 0) {
+				int index = active.poll();
+				if (accumulator != null) {
+					accumulator.remove(items[index]);
+				}
+			}
+			while (next < items.length && startTimes[next].compareTo(windowEnd) <= 0) {
+				if (endTimes[next].compareTo(windowStart) >= 0) {
+					active.add(next);
+					if (accumulator != null) {
+						accumulator.add(items[next]);
+					}
+				}
+				next++;
+			}
+			while (started < next && startTimes[started].compareTo(windowStart) < 0) {
+				started++;
+			}
+		}
+
+		@Override
+		IItemIterable getItems() {
+			// Keep the start time order of the items
+			int[] indexes = active.stream().mapToInt(Integer::intValue).sorted().toArray();
+			return ItemIterableToolkit.build(() -> Arrays.stream(indexes).mapToObj(i -> items[i]), type);
+		}
+
+		@Override
+		void collectPartialItems(IQuantity windowStart, IQuantity windowEnd, List<IItem> partialItems) {
+			// Items that started before the window and are still active, at most the max duration before it
+			IQuantity startLimit = windowStart.subtract(maxDuration);
+			for (int i = started - 1; i >= 0 && startTimes[i].compareTo(startLimit) >= 0; i--) {
+				if (endTimes[i].compareTo(windowStart) >= 0) {
+					partialItems.add(items[i]);
+				}
+			}
+			// Items that started in the window and end after it, at most the max duration before its end
+			startLimit = windowEnd.subtract(maxDuration);
+			for (int i = next - 1; i >= started && startTimes[i].compareTo(startLimit) >= 0; i--) {
+				if (endTimes[i].compareTo(windowEnd) > 0) {
+					partialItems.add(items[i]);
+				}
+			}
+		}
+	}
+
+	private static List<TypeWindow> createTypeWindows(IItemCollection items, boolean includeIntersecting) {
+		Map<IType<IItem>, List<IItemIterable>> iterablesByType = new LinkedHashMap<>();
+		for (IItemIterable ii : items) {
+			iterablesByType.computeIfAbsent(ii.getType(), t -> new ArrayList<>()).add(ii);
+		}
+		List<TypeWindow> typeWindows = new ArrayList<>(iterablesByType.size());
+		for (Map.Entry<IType<IItem>, List<IItemIterable>> entry : iterablesByType.entrySet()) {
+			IType<IItem> type = entry.getKey();
+			IMemberAccessor<IQuantity, IItem> startAccessor = JfrAttributes.START_TIME.getAccessor(type);
+			IMemberAccessor<IQuantity, IItem> endAccessor = JfrAttributes.END_TIME.getAccessor(type);
+			if (endAccessor == null || (includeIntersecting && startAccessor == null)) {
+				continue;
+			}
+			SortedItems sorted = collectSorted(entry.getValue(), startAccessor, endAccessor, includeIntersecting);
+			if (sorted.items.length > 0) {
+				typeWindows.add(
+						includeIntersecting ? new IntersectingWindow(type, sorted) : new EndTimeWindow(type, sorted));
+			}
+		}
+		return typeWindows;
+	}
+
+	/**
+	 * The items of one type with their start and end times, sorted on one of them.
+	 */
+	private static class SortedItems {
+
+		final IItem[] items;
+		final IQuantity[] startTimes;
+		final IQuantity[] endTimes;
+		final IQuantity maxDuration;
+
+		SortedItems(IItem[] items, IQuantity[] startTimes, IQuantity[] endTimes, IQuantity maxDuration) {
+			this.items = items;
+			this.startTimes = startTimes;
+			this.endTimes = endTimes;
+			this.maxDuration = maxDuration;
+		}
+	}
+
+	/**
+	 * Collects the items that have a start and end time, sorted on start or end time. Items with
+	 * equal times keep their order. The iterables are normally event arrays that are already sorted
+	 * on start time and usually also on end time, in which case they are merged instead of sorted.
+	 * Items without a start time accessor are taken to be instant.
+	 */
+	private static SortedItems collectSorted(
+		List<IItemIterable> iterables, IMemberAccessor<IQuantity, IItem> startAccessor,
+		IMemberAccessor<IQuantity, IItem> endAccessor, boolean onStartTime) {
+		List<IItem> items = new ArrayList<>();
+		List<IQuantity> startTimes = new ArrayList<>();
+		List<IQuantity> endTimes = new ArrayList<>();
+		List<IQuantity> keys = onStartTime ? startTimes : endTimes;
+		List<int[]> runs = new ArrayList<>(iterables.size());
+		boolean sorted = true;
+		IQuantity maxDuration = null;
+		for (IItemIterable ii : iterables) {
+			int runStart = items.size();
+			for (IItem item : ii) {
+				IQuantity end = endAccessor.getMember(item);
+				IQuantity start = startAccessor == null ? end : startAccessor.getMember(item);
+				if (start != null && end != null) {
+					IQuantity key = onStartTime ? start : end;
+					if (items.size() > runStart && key.compareTo(keys.get(keys.size() - 1)) < 0) {
+						sorted = false;
+					}
+					items.add(item);
+					startTimes.add(start);
+					endTimes.add(end);
+					IQuantity duration = end.subtract(start);
+					if (maxDuration == null || duration.compareTo(maxDuration) > 0) {
+						maxDuration = duration;
+					}
+				}
+			}
+			if (items.size() > runStart) {
+				runs.add(new int[] {runStart, items.size()});
+			}
+		}
+		int[] order;
+		if (runs.size() <= 1 && sorted) {
+			return new SortedItems(items.toArray(new IItem[items.size()]),
+					startTimes.toArray(new IQuantity[startTimes.size()]),
+					endTimes.toArray(new IQuantity[endTimes.size()]), maxDuration);
+		} else if (sorted) {
+			order = merge(runs, keys, items.size());
+		} else {
+			order = IntStream.range(0, items.size()).boxed().sorted(Comparator.comparing(keys::get))
+					.mapToInt(Integer::intValue).toArray();
+		}
+		IItem[] sortedItems = new IItem[order.length];
+		IQuantity[] sortedStartTimes = new IQuantity[order.length];
+		IQuantity[] sortedEndTimes = new IQuantity[order.length];
+		for (int i = 0; i < order.length; i++) {
+			sortedItems[i] = items.get(order[i]);
+			sortedStartTimes[i] = startTimes.get(order[i]);
+			sortedEndTimes[i] = endTimes.get(order[i]);
+		}
+		return new SortedItems(sortedItems, sortedStartTimes, sortedEndTimes, maxDuration);
+	}
+
+	/**
+	 * Merges sorted runs of keys. Equal keys are taken from the earlier run first, which gives the
+	 * same order as a stable sort.
+	 *
+	 * @return the indexes of the keys in merged order
+	 */
+	private static int[] merge(List<int[]> runs, List<IQuantity> keys, int size) {
+		// The heads of the runs, ordered on key and then on run
+		PriorityQueue<int[]> heads = new PriorityQueue<>((r1, r2) -> {
+			int comparison = keys.get(r1[0]).compareTo(keys.get(r2[0]));
+			return comparison != 0 ? comparison : Integer.compare(r1[0], r2[0]);
+		});
+		for (int[] run : runs) {
+			heads.add(run.clone());
+		}
+		int[] order = new int[size];
+		for (int i = 0; i < size; i++) {
+			int[] run = heads.poll();
+			order[i] = run[0]++;
+			if (run[0] < run[1]) {
+				heads.add(run);
+			}
+		}
+		return order;
+	}
+
 	/**
 	 * Value function used when calling
 	 * {@link SlidingWindowToolkit#slidingWindowUnorderedMinMaxValue}
@@ -335,15 +886,12 @@ public class SlidingWindowToolkit {
 		final FutureTask<IResult> cancellationSupplier, final IUnorderedWindowValueFunction<V> valueFunction,
 		final Comparator<V> valueComparator, boolean max, boolean includeIntersecting) {
 
-		final List<Pair<V, IRange<IQuantity>>> valueList = new ArrayList<>();
+		final MinMaxWindow<V> minMaxWindow = new MinMaxWindow<>(valueComparator, max);
 
 		slidingWindowUnordered(new IUnorderedWindowVisitor() {
 			@Override
 			public void visitWindow(IItemCollection items, IQuantity startTime, IQuantity endTime) {
-				V value = valueFunction.getValue(items, startTime, endTime);
-				if (value != null) {
-					valueList.add(new Pair<>(value, QuantityRange.createWithEnd(startTime, endTime)));
-				}
+				minMaxWindow.offer(valueFunction.getValue(items, startTime, endTime), startTime, endTime);
 			}
 
 			@Override
@@ -351,17 +899,136 @@ public class SlidingWindowToolkit {
 				return !cancellationSupplier.isCancelled();
 			}
 		}, items, windowSize, slideSize, includeIntersecting);
-		Comparator<Pair<V, IRange<IQuantity>>> comparator = new Comparator<Pair<V, IRange<IQuantity>>>() {
-			@Override
-			public int compare(Pair<V, IRange<IQuantity>> o1, Pair<V, IRange<IQuantity>> o2) {
-				return valueComparator.compare(o1.left, o2.left);
-			}
-		};
-		if (valueList.isEmpty()) {
+		return minMaxWindow.get();
+	}
+
+	/**
+	 * Calculates max/min window quantity value of items, updating an accumulator as items enter and
+	 * leave the window instead of calculating the value from all items in each window.
+	 *
+	 * @param items
+	 *            items to use for evaluation, the windows cover the time range of these items
+	 * @param filter
+	 *            filter for the items to give to the accumulator
+	 * @param windowSize
+	 *            window size
+	 * @param cancellationSupplier
+	 *            if the evaluation should be cancelled
+	 * @param accumulator
+	 *            provides the window value for the items in the window, must not have any items
+	 *            added
+	 * @param max
+	 *            true to get the max value, false to get min value
+	 * @param includeIntersecting
+	 *            true to include also intersecting items, false to only include contained items. If
+	 *            set to true, it's up to the accumulator to only use the duration of the items that
+	 *            is actually included in the window.
+	 * @return min/max window value and range
+	 */
+	public static Pair<IQuantity, IRange<IQuantity>> slidingWindowUnorderedMinMaxValue(
+		IItemCollection items, IItemFilter filter, IQuantity windowSize, final FutureTask<IResult> cancellationSupplier,
+		IWindowAccumulator<IQuantity> accumulator, boolean max, boolean includeIntersecting) {
+		IQuantity slideSize = windowSize.getUnit().quantity(windowSize.ratioTo(windowSize.getUnit().quantity(2)));
+		return slidingWindowUnorderedMinMaxValue(items, filter, windowSize, slideSize, cancellationSupplier,
+				accumulator, QUANTITY_COMPARATOR, max, includeIntersecting);
+	}
+
+	/**
+	 * Calculates max/min window value of items, updating an accumulator as items enter and leave
+	 * the window instead of calculating the value from all items in each window.
+	 *
+	 * @param items
+	 *            items to use for evaluation, the windows cover the time range of these items
+	 * @param filter
+	 *            filter for the items to give to the accumulator
+	 * @param windowSize
+	 *            window size
+	 * @param slideSize
+	 *            window slide size
+	 * @param cancellationSupplier
+	 *            if the evaluation should be cancelled
+	 * @param accumulator
+	 *            provides the window value for the items in the window, must not have any items
+	 *            added
+	 * @param valueComparator
+	 *            compares values
+	 * @param max
+	 *            true to get the max value, false to get min value
+	 * @param includeIntersecting
+	 *            true to include also intersecting items, false to only include contained items. If
+	 *            set to true, it's up to the accumulator to only use the duration of the items that
+	 *            is actually included in the window.
+	 * @return min/max window value and range
+	 */
+	public static <V> Pair<V, IRange<IQuantity>> slidingWindowUnorderedMinMaxValue(
+		IItemCollection items, IItemFilter filter, IQuantity windowSize, IQuantity slideSize,
+		final FutureTask<IResult> cancellationSupplier, IWindowAccumulator<V> accumulator,
+		Comparator<V> valueComparator, boolean max, boolean includeIntersecting) {
+		IQuantity first = includeIntersecting ? RulesToolkit.getEarliestStartTime(items)
+				: RulesToolkit.getEarliestEndTime(items);
+		IQuantity last = RulesToolkit.getLatestEndTime(items);
+
+		if (first == null) {
 			return null;
 		}
-		Pair<V, IRange<IQuantity>> minMaxWindow = max ? Collections.max(valueList, comparator)
-				: Collections.min(valueList, comparator);
-		return minMaxWindow;
+
+		List<TypeWindow> typeWindows = createTypeWindows(items.apply(filter), includeIntersecting);
+		MinMaxWindow<V> minMaxWindow = new MinMaxWindow<>(valueComparator, max);
+		IQuantity windowStart = first;
+		IQuantity windowEnd = windowStart.add(windowSize);
+		do {
+			for (TypeWindow typeWindow : typeWindows) {
+				typeWindow.slide(windowStart, windowEnd, accumulator);
+			}
+			IQuantity startTime = windowStart;
+			IQuantity endTime = windowEnd;
+			// Only looked up if the accumulator needs them
+			Iterable<IItem> partialItems = () -> {
+				List<IItem> partial = new ArrayList<>();
+				for (TypeWindow typeWindow : typeWindows) {
+					typeWindow.collectPartialItems(startTime, endTime, partial);
+				}
+				return partial.iterator();
+			};
+			minMaxWindow.offer(accumulator.getValue(startTime, endTime, partialItems), startTime, endTime);
+
+			windowStart = windowStart.add(slideSize);
+			windowEnd = windowEnd.add(slideSize);
+
+		} while (windowStart.compareTo(last) < 0 && !cancellationSupplier.isCancelled());
+		return minMaxWindow.get();
+	}
+
+	/**
+	 * Keeps the window with the min or max value seen so far.
+	 */
+	private static class MinMaxWindow<V> {
+
+		private final Comparator<V> valueComparator;
+		private final boolean max;
+		private Pair<V, IRange<IQuantity>> window;
+
+		MinMaxWindow(Comparator<V> valueComparator, boolean max) {
+			this.valueComparator = valueComparator;
+			this.max = max;
+		}
+
+		void offer(V value, IQuantity startTime, IQuantity endTime) {
+			if (value != null) {
+				// Keep the first of equal values, as when searching through all window values
+				if (window == null) {
+					window = new Pair<>(value, QuantityRange.createWithEnd(startTime, endTime));
+				} else {
+					int comparison = valueComparator.compare(value, window.left);
+					if (max ? comparison > 0 : comparison < 0) {
+						window = new Pair<>(value, QuantityRange.createWithEnd(startTime, endTime));
+					}
+				}
+			}
+		}
+
+		Pair<V, IRange<IQuantity>> get() {
+			return window;
+		}
 	}
 }
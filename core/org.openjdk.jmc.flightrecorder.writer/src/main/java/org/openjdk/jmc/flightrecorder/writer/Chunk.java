@@ -37,13 +37,34 @@ import java.util.function.Consumer;
 
 import org.openjdk.jmc.flightrecorder.writer.api.Types;
 
+import jdk.jfr.Event;
+
 /** A representation of JFR chunk - self contained set of JFR data. */
 final class Chunk {
-	private final LEB128Writer writer = LEB128Writer.getInstance();
+	/*
+	 * Event data is handed off to the flush consumer in batches of roughly this size, so that the
+	 * per-thread buffers stay small and the data is merged while the events are being written.
+	 */
+	static final int FLUSH_THRESHOLD = 1024 * 1024;
+
+	private final Consumer<LEB128Writer> flusher;
+	private LEB128Writer writer = LEB128Writer.getInstance();
+	// reusable buffer for events written by an EventClassWriter
+	private final LEB128Writer eventWriter = new LEB128ByteArrayWriter(256);
 	private final long startTicks;
 	private final long startNanos;
 
 	Chunk() {
+		this(null);
+	}
+
+	/**
+	 * @param flusher
+	 *            receives the event data in batches as it is written, or {@code null} to keep all
+	 *            data until the chunk is finished
+	 */
+	Chunk(Consumer<LEB128Writer> flusher) {
+		this.flusher = flusher;
 		this.startTicks = System.nanoTime();
 		this.startNanos = System.currentTimeMillis() * 1_000_000L;
 	}
@@ -51,10 +72,17 @@ final class Chunk {
 	/**
 	 * Finalize the chunk. The chunk should not be used after it has been finished.
 	 */
-	void finish(Consumer<LEB128Writer> completer) {
+	synchronized void finish(Consumer<LEB128Writer> completer) {
 		completer.accept(writer);
 	}
 
+	private void flushIfNeeded() {
+		if (flusher != null && writer.position() >= FLUSH_THRESHOLD) {
+			flusher.accept(writer);
+			writer = LEB128Writer.getInstance();
+		}
+	}
+
 	void writeTypedValue(LEB128Writer writer, TypedValueImpl value) {
 		if (value == null) {
 			throw new IllegalArgumentException();
@@ -151,12 +179,12 @@ final class Chunk {
 		}
 	}
 
-	void writeEvent(TypedValueImpl event) {
+	synchronized void writeEvent(TypedValueImpl event) {
 		if (!"jdk.jfr.Event".equals(event.getType().getSupertype())) {
 			throw new IllegalArgumentException();
 		}
 
-		LEB128Writer eventWriter = LEB128Writer.getInstance();
+		eventWriter.reset();
 		eventWriter.writeLong(event.getType().getId());
 		for (TypedFieldValueImpl fieldValue : event.getFieldValues()) {
 			writeTypedValue(eventWriter, fieldValue.getValue());
@@ -164,6 +192,16 @@ final class Chunk {
 
 		writer.writeInt(eventWriter.length()) // write event size
 				.writeBytes(eventWriter.export());
+		flushIfNeeded();
+	}
+
+	synchronized void writeEvent(EventClassWriter eventClassWriter, Event event) {
+		eventWriter.reset();
+		eventClassWriter.write(this, eventWriter, event);
+
+		writer.writeInt(eventWriter.length()) // write event size
+				.writeBytes(eventWriter.export());
+		flushIfNeeded();
 	}
 
 	@Override
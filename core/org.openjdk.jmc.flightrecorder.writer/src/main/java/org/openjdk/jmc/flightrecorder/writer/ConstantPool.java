@@ -37,14 +37,16 @@ import org.openjdk.jmc.flightrecorder.writer.api.Type;
 import org.openjdk.jmc.flightrecorder.writer.api.TypedField;
 import org.openjdk.jmc.flightrecorder.writer.api.TypedValue;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /** An in-memory map of distinct values of a certain {@linkplain Type} */
 final class ConstantPool {
 	private final TypeImpl type;
-	private final Map<Object, TypedValueImpl> constantMap = new HashMap<>();
-	private final Map<Long, TypedValueImpl> reverseMap = new HashMap<>();
+	private final Map<Object, TypedValueImpl> constantMap = new ConcurrentHashMap<>();
+	private final Map<Long, TypedValueImpl> reverseMap = new ConcurrentHashMap<>();
+	private final AtomicLong lastIndex = new AtomicLong(); // index 0 is reserved for NULL encoding
 
 	ConstantPool(TypeImpl type) {
 		this.type = type;
@@ -61,17 +63,27 @@ final class ConstantPool {
 		if (value == null) {
 			return type.nullValue();
 		}
-		return constantMap.computeIfAbsent(value, v -> {
-			long index = constantMap.size() + 1; // index 0 is reserved for NULL encoding
-			TypedValueImpl tValue;
-			if (v instanceof TypedValue) {
-				tValue = new TypedValueImpl((TypedValueImpl) v, index);
+		TypedValueImpl tValue = constantMap.get(value);
+		if (tValue == null) {
+			/*
+			 * Not using computeIfAbsent here - creating the typed value may add values to other
+			 * pools and the pools are shared by all the threads writing events. When two threads
+			 * race to add the same value the loser's index is simply left unused.
+			 */
+			long index = lastIndex.incrementAndGet();
+			TypedValueImpl candidate;
+			if (value instanceof TypedValue) {
+				candidate = new TypedValueImpl((TypedValueImpl) value, index);
 			} else {
-				tValue = new TypedValueImpl(type, v, index);
+				candidate = new TypedValueImpl(type, value, index);
 			}
-			reverseMap.put(index, tValue);
-			return tValue;
-		});
+			tValue = constantMap.putIfAbsent(value, candidate);
+			if (tValue == null) {
+				reverseMap.put(index, candidate);
+				tValue = candidate;
+			}
+		}
+		return tValue;
 	}
 
 	/**
@@ -87,7 +99,7 @@ final class ConstantPool {
 
 	void writeTo(LEB128Writer writer) {
 		writer.writeLong(type.getId()); // CP type ID
-		writer.writeInt(constantMap.size()); // number of constants
+		writer.writeInt(reverseMap.size()); // number of constants
 		reverseMap.forEach((k, v) -> {
 			writer.writeLong(k); // constant index
 			writeValueType(writer, v, false);
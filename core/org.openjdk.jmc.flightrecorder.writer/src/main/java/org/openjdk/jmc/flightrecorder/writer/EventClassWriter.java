@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.flightrecorder.writer;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jdk.jfr.Event;
+
+/**
+ * Writes instances of a {@link Event} subclass straight to a {@link LEB128Writer}.
+ * <p>
+ * The field writers are created once per event class, using method handles to read the event
+ * fields. Primitive fields are written without reflection, boxing or intermediate
+ * {@link TypedValueImpl} instances. Fields of constant pool types, like threads and classes, are
+ * still resolved through their constant pools.
+ */
+final class EventClassWriter {
+	private static final Logger LOGGER = Logger.getLogger(EventClassWriter.class.getName());
+
+	@FunctionalInterface
+	private interface FieldWriter {
+		void write(Chunk chunk, LEB128Writer writer, Event event) throws Throwable;
+	}
+
+	private static final class ThreadValue {
+		final String name;
+		final TypedValueImpl value;
+
+		ThreadValue(String name, TypedValueImpl value) {
+			this.name = name;
+			this.value = value;
+		}
+	}
+
+	private final TypeImpl eventType;
+	private final FieldWriter[] fieldWriters;
+
+	EventClassWriter(RecordingImpl recording, Class<? extends Event> eventClass, TypeImpl eventType) {
+		this.eventType = eventType;
+		Map<String, Field> javaFields = new HashMap<>();
+		for (Field f : eventClass.getDeclaredFields()) {
+			if (!Modifier.isTransient(f.getModifiers()) && !Modifier.isStatic(f.getModifiers())) {
+				javaFields.put(RecordingImpl.getFieldName(f), f);
+			}
+		}
+		List<TypedFieldImpl> fields = eventType.getFields();
+		fieldWriters = new FieldWriter[fields.size()];
+		for (int i = 0; i < fieldWriters.length; i++) {
+			TypedFieldImpl field = fields.get(i);
+			Field javaField = javaFields.get(field.getName());
+			fieldWriters[i] = javaField != null ? createFieldWriter(recording, javaField, field.getType())
+					: createImplicitFieldWriter(recording, eventClass, field);
+		}
+	}
+
+	void write(Chunk chunk, LEB128Writer writer, Event event) {
+		writer.writeLong(eventType.getId());
+		try {
+			for (FieldWriter fieldWriter : fieldWriters) {
+				fieldWriter.write(chunk, writer, event);
+			}
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable t) {
+			throw new RuntimeException(t);
+		}
+	}
+
+	private static FieldWriter createFieldWriter(RecordingImpl recording, Field field, TypeImpl fieldType) {
+		MethodHandle getter;
+		try {
+			field.setAccessible(true);
+			getter = MethodHandles.lookup().unreflectGetter(field);
+		} catch (IllegalAccessException | RuntimeException e) {
+			throw new IllegalArgumentException("Cannot access event field " + field, e);
+		}
+		Class<?> javaType = field.getType();
+		MethodHandle mh = getter.asType(MethodType.methodType(javaType, Event.class));
+		TypedValueImpl nullValue = fieldType.nullValue();
+		switch (javaType.getName()) {
+		case "byte":
+			return (chunk, writer, event) -> writer.writeByte((byte) mh.invokeExact(event));
+		case "char":
+			return (chunk, writer, event) -> writer.writeChar((char) mh.invokeExact(event));
+		case "short":
+			return (chunk, writer, event) -> writer.writeShort((short) mh.invokeExact(event));
+		case "int":
+			return (chunk, writer, event) -> writer.writeInt((int) mh.invokeExact(event));
+		case "long":
+			return (chunk, writer, event) -> writer.writeLong((long) mh.invokeExact(event));
+		case "float":
+			return (chunk, writer, event) -> writer.writeFloat((float) mh.invokeExact(event));
+		case "double":
+			return (chunk, writer, event) -> writer.writeDouble((double) mh.invokeExact(event));
+		case "boolean":
+			return (chunk, writer, event) -> writer.writeBoolean((boolean) mh.invokeExact(event));
+		case "java.lang.String":
+			return (chunk, writer, event) -> chunk.writeTypedValue(writer,
+					fieldType.asValue((String) mh.invokeExact(event)));
+		case "java.lang.Class":
+			return (chunk, writer, event) -> {
+				Class<?> clz = (Class<?>) mh.invokeExact(event);
+				chunk.writeTypedValue(writer,
+						clz == null ? nullValue : fieldType.asValue(b -> recording.putClassFields(b, clz)));
+			};
+		case "java.lang.Thread":
+			return (chunk, writer, event) -> {
+				Thread thread = (Thread) mh.invokeExact(event);
+				chunk.writeTypedValue(writer,
+						thread == null ? nullValue : fieldType.asValue(b -> recording.putThreadFields(b, thread)));
+			};
+		case "java.lang.StackTraceElement[]":
+			return (chunk, writer, event) -> {
+				StackTraceElement[] stackTrace = (StackTraceElement[]) mh.invokeExact(event);
+				chunk.writeTypedValue(writer, stackTrace == null ? nullValue
+						: fieldType.asValue(b -> recording.putStackTraceFields(b, stackTrace)));
+			};
+		default:
+			LOGGER.log(Level.WARNING, "Cannot write type:" + javaType.getName());
+			return (chunk, writer, event) -> chunk.writeTypedValue(writer, nullValue);
+		}
+	}
+
+	private static FieldWriter createImplicitFieldWriter(
+		RecordingImpl recording, Class<? extends Event> eventClass, TypedFieldImpl field) {
+		TypeImpl fieldType = field.getType();
+		switch (field.getName()) {
+		case "startTime":
+			// default to 0
+			return (chunk, writer, event) -> writer.writeLong(0L);
+		case "eventThread":
+			// default to current thread, reusing the constant pool value while the thread name is unchanged
+			ThreadLocal<ThreadValue> currentThreadValue = new ThreadLocal<>();
+			return (chunk, writer, event) -> {
+				Thread thread = Thread.currentThread();
+				ThreadValue value = currentThreadValue.get();
+				if (value == null || !value.name.equals(thread.getName())) {
+					value = new ThreadValue(thread.getName(),
+							fieldType.asValue(b -> recording.putThreadFields(b, thread)));
+					currentThreadValue.set(value);
+				}
+				chunk.writeTypedValue(writer, value.value);
+			};
+		case "stackTrace":
+			if (RecordingImpl.hasStackTrace(eventClass)) {
+				return (chunk, writer, event) -> chunk.writeTypedValue(writer, fieldType
+						.asValue(b -> recording.putStackTraceFields(b, Thread.currentThread().getStackTrace())));
+			}
+			// fall through
+		default:
+			TypedValueImpl nullValue = fieldType.nullValue();
+			return (chunk, writer, event) -> chunk.writeTypedValue(writer, nullValue);
+		}
+	}
+}
@@ -40,18 +40,15 @@ import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Consumer;
 import java.util.logging.Logger;
 import java.util.logging.Level;
@@ -92,7 +89,7 @@ public final class RecordingImpl extends Recording {
 	private final InheritableThreadLocal<WeakReference<Chunk>> threadChunk = new InheritableThreadLocal<WeakReference<Chunk>>() {
 		@Override
 		protected WeakReference<Chunk> initialValue() {
-			Chunk chunk = new Chunk();
+			Chunk chunk = new Chunk(RecordingImpl.this::submitChunkData);
 			activeChunks.add(chunk);
 			/*
 			 * Use weak reference to minimize the damage caused by thread-local leaks. The chunk
@@ -111,19 +108,26 @@ public final class RecordingImpl extends Recording {
 
 	private final AtomicBoolean closed = new AtomicBoolean();
 
-	private final BlockingDeque<LEB128Writer> chunkDataQueue = new LinkedBlockingDeque<>();
-	private final ExecutorService chunkDataMergingService = Executors.newSingleThreadExecutor();
+	/*
+	 * Chunk data is produced by all the threads writing events and consumed by a single merging
+	 * thread. The producers never block - they enqueue the data and wake up the merging thread.
+	 */
+	private final Queue<LEB128Writer> chunkDataQueue = new ConcurrentLinkedQueue<>();
+	private final Thread chunkDataMerger = new Thread(this::mergeChunkData, "JFR Chunk Data Merger");
+	private volatile boolean merging = true;
 
 	private final ConstantPools constantPools = new ConstantPools();
 	private final MetadataImpl metadata = new MetadataImpl(constantPools);
 	private final TypesImpl types;
 
+	// generated writers for the event classes written with writeEvent(Event)
+	private final Map<Class<? extends Event>, EventClassWriter> eventWriters = new ConcurrentHashMap<>();
 	// a cache to hold already computed stack frames
-	private final Map<StackTraceElement, TypedValue> frameCache = new HashMap<>(16000);
+	private final Map<StackTraceElement, TypedValue> frameCache = new ConcurrentHashMap<>(16000);
 	// a cache to hold already resolved class loaders
-	private final Map<String, TypedValue> classLoaderCache = new HashMap<>(128);
+	private final Map<String, TypedValue> classLoaderCache = new ConcurrentHashMap<>(128);
 	// a cache to hold already resolved modules
-	private final Map<String, TypedValue> moduleCache = new HashMap<>(4096);
+	private final Map<String, TypedValue> moduleCache = new ConcurrentHashMap<>(4096);
 
 	public RecordingImpl(OutputStream output, RecordingSettings settings) {
 		this.startTicks = settings.getStartTicks() != -1 ? settings.getStartTicks() : System.nanoTime();
@@ -134,30 +138,33 @@ public final class RecordingImpl extends Recording {
 		this.types = new TypesImpl(metadata, settings.shouldInitializeJDKTypes());
 		writeFileHeader();
 
-		chunkDataMergingService.submit(() -> {
-			try {
-				while (!chunkDataMergingService.isShutdown()) {
-					processChunkDataQueue(500, TimeUnit.MILLISECONDS);
-				}
-				// process any outstanding elements in the queue
-				processChunkDataQueue(1, TimeUnit.NANOSECONDS);
-			} catch (InterruptedException e) {
-				Thread.currentThread().interrupt();
-			}
-		});
+		chunkDataMerger.setDaemon(true);
+		chunkDataMerger.start();
 	}
 
-	private void processChunkDataQueue(long pollTimeout, TimeUnit timeUnit) throws InterruptedException {
-		LEB128Writer writer = chunkDataQueue.poll(pollTimeout, timeUnit);
-		if (writer != null) {
-			List<LEB128Writer> writers = new ArrayList<>();
-			writers.add(writer);
-			chunkDataQueue.drainTo(writers);
-
-			for (LEB128Writer w : writers) {
-				globalWriter.writeBytes(w.export());
+	private void mergeChunkData() {
+		while (merging) {
+			if (!processChunkDataQueue()) {
+				LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(500));
 			}
 		}
+		// process any outstanding elements in the queue
+		processChunkDataQueue();
+	}
+
+	private boolean processChunkDataQueue() {
+		boolean processed = false;
+		LEB128Writer writer;
+		while ((writer = chunkDataQueue.poll()) != null) {
+			globalWriter.writeBytes(writer.export());
+			processed = true;
+		}
+		return processed;
+	}
+
+	private void submitChunkData(LEB128Writer writer) {
+		chunkDataQueue.offer(writer);
+		LockSupport.unpark(chunkDataMerger);
 	}
 
 	@Override
@@ -166,13 +173,7 @@ public final class RecordingImpl extends Recording {
 		activeChunks.remove(chunk);
 		threadChunk.remove();
 
-		chunk.finish(writer -> {
-			try {
-				chunkDataQueue.put(writer);
-			} catch (InterruptedException ignored) {
-				Thread.currentThread().interrupt();
-			}
-		});
+		chunk.finish(this::submitChunkData);
 		return this;
 	}
 
@@ -185,24 +186,18 @@ public final class RecordingImpl extends Recording {
 				 * away with slightly racy code ....
 				 */
 				for (Chunk chunk : activeChunks) {
-					chunk.finish(writer -> {
-						try {
-							chunkDataQueue.put(writer);
-						} catch (InterruptedException ignored) {
-							Thread.currentThread().interrupt();
-						}
-					});
+					chunk.finish(this::submitChunkData);
 				}
 				activeChunks.clear();
 
-				chunkDataMergingService.shutdown();
-				boolean flushed = false;
+				merging = false;
+				LockSupport.unpark(chunkDataMerger);
 				try {
-					flushed = chunkDataMergingService.awaitTermination(5, TimeUnit.SECONDS);
+					chunkDataMerger.join(TimeUnit.SECONDS.toMillis(5));
 				} catch (InterruptedException e) {
 					Thread.currentThread().interrupt();
 				}
-				if (!flushed) {
+				if (chunkDataMerger.isAlive()) {
 					throw new RuntimeException("Unable to flush dangling JFR chunks");
 				}
 				finalizeRecording();
@@ -372,6 +367,18 @@ public final class RecordingImpl extends Recording {
 
 	@Override
 	public RecordingImpl writeEvent(Event event) {
+		EventClassWriter eventWriter = eventWriters.computeIfAbsent(event.getClass(),
+				eventClass -> new EventClassWriter(this, eventClass, registerEventType(eventClass)));
+		getChunk().writeEvent(eventWriter, event);
+		return this;
+	}
+
+	/**
+	 * Write an event by building a {@link TypedValue} from the event fields using reflection. This
+	 * produces the same data as {@link #writeEvent(Event)}, but is much slower. It is kept as a
+	 * reference for tests and benchmarks.
+	 */
+	RecordingImpl writeEventReflectively(Event event) {
 		registerEventType(event.getClass());
 		writeEvent(createEventValue(event));
 		return this;
@@ -385,7 +392,7 @@ public final class RecordingImpl extends Recording {
 		return eventType.getSimpleName();
 	}
 
-	private String getFieldName(Field fld) {
+	static String getFieldName(Field fld) {
 		Name nameAnnotation = fld.getAnnotation(Name.class);
 		if (nameAnnotation != null) {
 			return nameAnnotation.value();
@@ -393,7 +400,7 @@ public final class RecordingImpl extends Recording {
 		return fld.getName();
 	}
 
-	private boolean hasStackTrace(Class<? extends Event> eventType) {
+	static boolean hasStackTrace(Class<?> eventType) {
 		StackTrace stAnnotation = eventType.getAnnotation(StackTrace.class);
 		if (stAnnotation != null) {
 			return stAnnotation.value();
@@ -483,12 +490,7 @@ public final class RecordingImpl extends Recording {
 					}
 					case "java.lang.Class": {
 						Class<?> clz = (Class<?>) f.get(event);
-						access.putField(fldName, fldAccess -> {
-							fldAccess.putField("name", nameAccess -> {
-								nameAccess.putField("string", clz.getSimpleName());
-							}).putField("package", clz.getPackage().getName()).putField("modifiers",
-									clz.getModifiers());
-						});
+						access.putField(fldName, fldAccess -> putClassFields(fldAccess, clz));
 						break;
 					}
 					case "java.lang.Thread": {
@@ -526,26 +528,35 @@ public final class RecordingImpl extends Recording {
 	}
 
 	private void putThreadField(TypedValueBuilder access, String fldName, Thread thread) {
-		access.putField(fldName, fldAccess -> {
-			fldAccess.putField("javaThreadId", thread.getId()).putField("osThreadId", thread.getId())
-					.putField("javaName", thread.getName());
-		});
+		access.putField(fldName, fldAccess -> putThreadFields(fldAccess, thread));
+	}
+
+	void putThreadFields(TypedValueBuilder access, Thread thread) {
+		access.putField("javaThreadId", thread.getId()).putField("osThreadId", thread.getId()).putField("javaName",
+				thread.getName());
+	}
+
+	void putClassFields(TypedValueBuilder access, Class<?> clz) {
+		access.putField("name", nameAccess -> {
+			nameAccess.putField("string", clz.getSimpleName());
+		}).putField("package", clz.getPackage().getName()).putField("modifiers", clz.getModifiers());
 	}
 
 	private void putStackTraceField(TypedValueBuilder access, String fldName, StackTraceElement[] stackTrace) {
-		Types types = access.getType().getTypes();
+		access.putField(fldName, p -> putStackTraceFields(p, stackTrace));
+	}
+
+	void putStackTraceFields(TypedValueBuilder access, StackTraceElement[] stackTrace) {
 		TypedValue[] frames = new TypedValue[stackTrace.length];
-		boolean[] truncated = new boolean[] {false};
+		boolean truncated = false;
 		for (int i = 0; i < stackTrace.length; i++) {
 			frames[i] = asStackFrame(types, stackTrace[i]);
 			if (i >= 8192) {
-				truncated[0] = true;
+				truncated = true;
 				break;
 			}
 		}
-		access.putField(fldName, p -> {
-			p.putField("frames", frames).putField("truncated", truncated[0]);
-		});
+		access.putField("frames", frames).putField("truncated", truncated);
 	}
 
 	private TypedValue asStackFrame(Types types, StackTraceElement element) {
@@ -570,6 +581,12 @@ public final class RecordingImpl extends Recording {
 	}
 
 	private TypedValue classLoaderValue(Types types, String classLoaderName) {
+		if (classLoaderName == null) {
+			// the concurrent cache does not support null keys; the constant pool dedups the value anyway
+			return types.getType(Types.JDK.CLASS_LOADER).asValue(p -> {
+				p.putField("name", (String) null);
+			});
+		}
 		return classLoaderCache.computeIfAbsent(classLoaderName,
 				k -> types.getType(Types.JDK.CLASS_LOADER).asValue(p -> {
 					p.putField("name", k);
@@ -583,6 +600,12 @@ public final class RecordingImpl extends Recording {
 	}
 
 	private TypedValue moduleValue(Types types, String module) {
+		if (module == null) {
+			// the concurrent cache does not support null keys; the constant pool dedups the value anyway
+			return types.getType(Types.JDK.MODULE).asValue(p -> {
+				p.putField("name", (String) null);
+			});
+		}
 		return moduleCache.computeIfAbsent(module, k -> types.getType(Types.JDK.MODULE).asValue(p -> {
 			p.putField("name", k);
 		}));
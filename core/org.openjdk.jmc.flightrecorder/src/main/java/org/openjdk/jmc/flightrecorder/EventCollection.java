@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -37,8 +37,13 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -66,17 +71,23 @@ class EventCollection implements IItemCollection, IParserStats {
 	private static class EventTypeEntry implements IItemIterable {
 
 		EventTypeEntry(EventArray events) {
-			this.events = events;
-			predicate = PredicateToolkit.truePredicate();
+			this(events, PredicateToolkit.truePredicate(), TimeRangeIndex.create(events), 0, events.getSize());
 		}
 
-		EventTypeEntry(EventArray events, Predicate<IItem> predicate) {
+		EventTypeEntry(EventArray events, Predicate<IItem> predicate, TimeRangeIndex index, int from, int to) {
 			this.events = events;
 			this.predicate = predicate;
+			this.index = index;
+			this.from = from;
+			this.to = to;
 		}
 
 		final EventArray events;
 		final Predicate<IItem> predicate;
+		final TimeRangeIndex index;
+		// The range of events that may match the predicate, narrowed down using the index
+		final int from;
+		final int to;
 
 		@Override
 		public IType<IItem> getType() {
@@ -85,7 +96,7 @@ class EventCollection implements IItemCollection, IParserStats {
 
 		@Override
 		public Iterator<IItem> iterator() {
-			return buildIterator(events.getEvents(), predicate);
+			return buildIterator(events, from, to, predicate);
 		}
 
 		@Override
@@ -104,15 +115,88 @@ class EventCollection implements IItemCollection, IParserStats {
 				}
 				return c;
 			}
-			return events.getEvents().length;
+			return to - from;
 		}
 
 		@Override
 		public EventTypeEntry apply(Predicate<IItem> filter) {
 			Predicate<IItem> newPredicate = PredicateToolkit.and(Arrays.asList(filter, predicate));
-			return new EventTypeEntry(events, newPredicate);
+			return new EventTypeEntry(events, newPredicate, index, from, to);
+		}
+
+		EventTypeEntry apply(IItemFilter filter) {
+			EventTypeEntry newEntry = apply(filter.getPredicate(events.getType()));
+			if (index != null && !PredicateToolkit.isFalseGuaranteed(newEntry.predicate)) {
+				TimeRangeIndex.TimeBounds bounds = TimeRangeIndex.getBounds(filter);
+				if (bounds != null) {
+					int[] range = index.narrow(from, to, bounds);
+					if (range[0] == range[1]) {
+						return new EventTypeEntry(events, PredicateToolkit.falsePredicate(), index, 0, 0);
+					}
+					return new EventTypeEntry(events, newEntry.predicate, index, range[0], range[1]);
+				}
+			}
+			return newEntry;
+		}
+
+	}
+
+	private static final String SPLIT_SIZE_PROPERTY_KEY = "org.openjdk.jmc.flightrecorder.aggregateSplitSize"; //$NON-NLS-1$
+	private static final int DEFAULT_SPLIT_SIZE = 8192;
+
+	/**
+	 * Consumes a range of events of one type, dividing ranges larger than the split size and
+	 * merging the consumers of the parts. Iterables that are not backed by an event array are
+	 * consumed in a single task.
+	 */
+	private static class AggregateTask<C extends IItemConsumer<C>> extends RecursiveTask<C> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final IAggregator<?, C> aggregator;
+		private final IItemIterable iterable;
+		private final int from;
+		private final int to;
+		private final int splitSize;
+
+		AggregateTask(IAggregator<?, C> aggregator, IItemIterable iterable, int from, int to, int splitSize) {
+			this.aggregator = aggregator;
+			this.iterable = iterable;
+			this.from = from;
+			this.to = to;
+			this.splitSize = splitSize;
 		}
 
+		@Override
+		protected C compute() {
+			C consumer;
+			if (iterable instanceof EventTypeEntry) {
+				EventTypeEntry entry = (EventTypeEntry) iterable;
+				if (to - from > splitSize) {
+					int middle = (from + to) >>> 1;
+					AggregateTask<C> head = new AggregateTask<>(aggregator, entry, from, middle, splitSize);
+					head.fork();
+					C tail = new AggregateTask<>(aggregator, entry, middle, to, splitSize).compute();
+					// Merge in event order, for consumers that keep the first or last of equal values
+					return head.join().merge(tail);
+				}
+				consumer = aggregator.newItemConsumer(entry.getType());
+				EventArray events = entry.events;
+				Predicate<IItem> predicate = isFiltered(entry.predicate) ? entry.predicate : null;
+				for (int i = from; i < to; i++) {
+					IItem event = events.getEvent(i);
+					if (predicate == null || predicate.test(event)) {
+						consumer.consume(event);
+					}
+				}
+			} else {
+				consumer = aggregator.newItemConsumer(iterable.getType());
+				for (IItem item : iterable) {
+					consumer.consume(item);
+				}
+			}
+			return consumer;
+		}
 	}
 
 	private final Set<IType<IItem>> types = new HashSet<>();
@@ -143,8 +227,9 @@ class EventCollection implements IItemCollection, IParserStats {
 	public EventCollection apply(IItemFilter filter) {
 		ArrayList<EventTypeEntry> newEntries = new ArrayList<>();
 		for (EventTypeEntry e : items) {
-			EventTypeEntry newEntry = e.apply(filter.getPredicate(e.events.getType()));
-			if (PredicateToolkit.isTrueGuaranteed(newEntry.predicate)) {
+			EventTypeEntry newEntry = e.apply(filter);
+			if (PredicateToolkit.isTrueGuaranteed(newEntry.predicate) && newEntry.from == e.from
+					&& newEntry.to == e.to) {
 				newEntries.add(e);
 			} else if (!PredicateToolkit.isFalseGuaranteed(newEntry.predicate)) {
 				newEntries.add(newEntry);
@@ -153,11 +238,27 @@ class EventCollection implements IItemCollection, IParserStats {
 		return new EventCollection(newEntries, chunkRanges, parserStats);
 	}
 
-	private static Iterator<IItem> buildIterator(IItem[] array, Predicate<? super IItem> filter) {
+	private static Iterator<IItem> buildIterator(EventArray events, int from, int to, Predicate<? super IItem> filter) {
+		Iterator<IItem> it = new Iterator<IItem>() {
+			private int index = from;
+
+			@Override
+			public boolean hasNext() {
+				return index < to;
+			}
+
+			@Override
+			public IItem next() {
+				if (index >= to) {
+					throw new NoSuchElementException();
+				}
+				return events.getEvent(index++);
+			}
+		};
 		if (isFiltered(filter)) {
-			return IteratorToolkit.filter(IteratorToolkit.of(array), filter);
+			return IteratorToolkit.filter(it, filter);
 		} else {
-			return IteratorToolkit.of(array);
+			return it;
 		}
 	}
 
@@ -186,7 +287,7 @@ class EventCollection implements IItemCollection, IParserStats {
 		return aggregate(aggregator, items.iterator());
 	}
 
-	private static <V, C extends IItemConsumer<C>> V aggregate(
+	static <V, C extends IItemConsumer<C>> V aggregate(
 		final IAggregator<V, C> aggregator, final Iterator<? extends IItemIterable> items) {
 		return aggregator.getValue(new Iterator<C>() {
 
@@ -225,6 +326,40 @@ class EventCollection implements IItemCollection, IParserStats {
 		});
 	}
 
+	@Override
+	public <V, C extends IItemConsumer<C>> V getAggregate(IAggregator<V, C> aggregator, ForkJoinPool pool) {
+		return aggregate(aggregator, items.iterator(), pool);
+	}
+
+	static <V, C extends IItemConsumer<C>> V aggregate(
+		IAggregator<V, C> aggregator, Iterator<? extends IItemIterable> items, ForkJoinPool pool) {
+		int splitSize = Math.max(1, Integer.getInteger(SPLIT_SIZE_PROPERTY_KEY, DEFAULT_SPLIT_SIZE));
+		List<AggregateTask<C>> tasks = new ArrayList<>();
+		while (items.hasNext()) {
+			IItemIterable ii = items.next();
+			if (aggregator.acceptType(ii.getType())) {
+				if (ii instanceof EventTypeEntry) {
+					EventTypeEntry entry = (EventTypeEntry) ii;
+					tasks.add(new AggregateTask<>(aggregator, entry, entry.from, entry.to, splitSize));
+				} else {
+					tasks.add(new AggregateTask<>(aggregator, ii, 0, 0, splitSize));
+				}
+			}
+		}
+		if (tasks.isEmpty()) {
+			return aggregator.getValue(Collections.<C> emptyIterator());
+		}
+		List<C> consumers = pool.invoke(ForkJoinTask.adapt(() -> {
+			ForkJoinTask.invokeAll(tasks);
+			List<C> joined = new ArrayList<>(tasks.size());
+			for (AggregateTask<C> task : tasks) {
+				joined.add(task.join());
+			}
+			return joined;
+		}));
+		return aggregator.getValue(consumers.iterator());
+	}
+
 	@Override
 	public Set<IRange<IQuantity>> getUnfilteredTimeRanges() {
 		return chunkRanges;
@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.flightrecorder;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.openjdk.jmc.common.io.IOToolkit;
+import org.openjdk.jmc.common.item.IItem;
+import org.openjdk.jmc.common.item.IItemCollection;
+import org.openjdk.jmc.common.item.IItemIterable;
+import org.openjdk.jmc.common.item.IMemberAccessor;
+import org.openjdk.jmc.common.unit.IQuantity;
+import org.openjdk.jmc.common.unit.UnitLookup;
+import org.openjdk.jmc.flightrecorder.internal.FlightRecordingLoader;
+import org.openjdk.jmc.flightrecorder.internal.IChunkLoader;
+import org.openjdk.jmc.flightrecorder.internal.IChunkSupplier;
+import org.openjdk.jmc.flightrecorder.internal.parser.LoaderContext;
+import org.openjdk.jmc.flightrecorder.parser.IParserExtension;
+import org.openjdk.jmc.flightrecorder.parser.ParserExtensionRegistry;
+
+/**
+ * Reads a flight recording one chunk at a time. Unlike {@link JfrLoaderToolkit}, which keeps all
+ * events of a recording in memory, each call to {@link #nextChunk()} parses a single chunk with a
+ * fresh loader context, so constant pools and events from earlier chunks can be garbage collected
+ * as soon as the caller drops the returned collection. Memory use is therefore bounded by the size
+ * of the largest chunk rather than the size of the recording.
+ * <p>
+ * Chunks are returned in recording order. Use {@link #orderedItems(IItemCollection)} to iterate
+ * over the events of a chunk in timestamp order.
+ * <p>
+ * Instances are not thread safe.
+ */
+public final class JfrChunkReader implements Closeable {
+
+	private final IChunkSupplier chunkSupplier;
+	private final Closeable source;
+	private final List<? extends IParserExtension> extensions;
+	private final boolean ignoreTruncatedChunk;
+	private final Set<Long> readChunkTimestamps = new HashSet<>();
+	private byte[] buffer = new byte[0];
+
+	private JfrChunkReader(IChunkSupplier chunkSupplier, Closeable source, List<? extends IParserExtension> extensions,
+			boolean ignoreTruncatedChunk) {
+		this.chunkSupplier = chunkSupplier;
+		this.source = source;
+		this.extensions = extensions;
+		this.ignoreTruncatedChunk = ignoreTruncatedChunk;
+	}
+
+	/**
+	 * Open a recording file for reading chunk by chunk. Uncompressed files are memory mapped.
+	 *
+	 * @param file
+	 *            the recording file to read
+	 * @return a chunk reader that must be closed when no longer needed
+	 * @throws IOException
+	 *             if the file could not be opened
+	 * @throws CouldNotLoadRecordingException
+	 *             if the file is not a valid recording
+	 */
+	public static JfrChunkReader open(File file) throws IOException, CouldNotLoadRecordingException {
+		return open(file, ParserExtensionRegistry.getParserExtensions());
+	}
+
+	/**
+	 * Open a recording file for reading chunk by chunk. Uncompressed files are memory mapped.
+	 *
+	 * @param file
+	 *            the recording file to read
+	 * @param extensions
+	 *            the extensions to use when parsing the file
+	 * @return a chunk reader that must be closed when no longer needed
+	 * @throws IOException
+	 *             if the file could not be opened
+	 * @throws CouldNotLoadRecordingException
+	 *             if the file is not a valid recording
+	 */
+	public static JfrChunkReader open(File file, List<? extends IParserExtension> extensions)
+			throws IOException, CouldNotLoadRecordingException {
+		if (IOToolkit.isCompressedFile(file)) {
+			return open(IOToolkit.openUncompressedStream(file), extensions);
+		}
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try {
+			return new JfrChunkReader(FlightRecordingLoader.createChunkSupplier(channel), channel, extensions, true);
+		} catch (IOException | CouldNotLoadRecordingException | RuntimeException e) {
+			IOToolkit.closeSilently(channel);
+			throw e;
+		}
+	}
+
+	/**
+	 * Read a recording from a stream chunk by chunk. Only one chunk at a time is buffered on the
+	 * heap. The stream is closed when the reader is closed.
+	 *
+	 * @param stream
+	 *            the stream to read the recording from
+	 * @return a chunk reader that must be closed when no longer needed
+	 * @throws IOException
+	 *             if the stream could not be read
+	 * @throws CouldNotLoadRecordingException
+	 *             if the stream does not contain a valid recording
+	 */
+	public static JfrChunkReader open(InputStream stream) throws IOException, CouldNotLoadRecordingException {
+		return open(stream, ParserExtensionRegistry.getParserExtensions());
+	}
+
+	/**
+	 * Read a recording from a stream chunk by chunk. Only one chunk at a time is buffered on the
+	 * heap. The stream is closed when the reader is closed.
+	 *
+	 * @param stream
+	 *            the stream to read the recording from
+	 * @param extensions
+	 *            the extensions to use when parsing the stream
+	 * @return a chunk reader that must be closed when no longer needed
+	 * @throws IOException
+	 *             if the stream could not be read
+	 * @throws CouldNotLoadRecordingException
+	 *             if the stream does not contain a valid recording
+	 */
+	public static JfrChunkReader open(InputStream stream, List<? extends IParserExtension> extensions)
+			throws IOException, CouldNotLoadRecordingException {
+		InputStream in = IOToolkit.openUncompressedStream(stream);
+		return new JfrChunkReader(FlightRecordingLoader.createChunkSupplier(in), in, extensions, true);
+	}
+
+	/**
+	 * Parse the next chunk of the recording. Nothing from previously returned chunks is retained by
+	 * the reader.
+	 *
+	 * @return the events of the next chunk, or {@code null} if there are no more chunks
+	 * @throws IOException
+	 *             if the recording could not be read
+	 * @throws CouldNotLoadRecordingException
+	 *             if the chunk could not be parsed
+	 */
+	public IItemCollection nextChunk() throws IOException, CouldNotLoadRecordingException {
+		while (true) {
+			LoaderContext context = FlightRecordingLoader.createLoaderContext(extensions, false);
+			IChunkLoader chunkLoader = FlightRecordingLoader.createChunkLoader(chunkSupplier, context, buffer,
+					ignoreTruncatedChunk);
+			if (chunkLoader == null) {
+				return null;
+			}
+			// Skip duplicated chunks in the same way as when loading a complete recording
+			if (readChunkTimestamps.add(chunkLoader.getTimestamp())) {
+				buffer = load(chunkLoader);
+				return EventCollection.build(context.buildEventArrays());
+			}
+		}
+	}
+
+	private static byte[] load(IChunkLoader chunkLoader) throws IOException, CouldNotLoadRecordingException {
+		try {
+			return chunkLoader.call();
+		} catch (IOException | CouldNotLoadRecordingException | RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new CouldNotLoadRecordingException(e);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		buffer = null;
+		source.close();
+	}
+
+	/**
+	 * Iterate over all items in a collection in end time order. The iterables of collections
+	 * returned by {@link #nextChunk()} are already sorted on end time, so the items are merged
+	 * lazily without copying or sorting. Items without an end time are returned first.
+	 *
+	 * @param items
+	 *            a collection where the items of each iterable are sorted on end time
+	 * @return an iterator over all items in the collection
+	 */
+	public static Iterator<IItem> orderedItems(IItemCollection items) {
+		PriorityQueue<Cursor> queue = new PriorityQueue<>();
+		int order = 0;
+		for (IItemIterable iterable : items) {
+			Cursor cursor = new Cursor(iterable, order++);
+			if (cursor.advance()) {
+				queue.add(cursor);
+			}
+		}
+		return new Iterator<IItem>() {
+
+			@Override
+			public boolean hasNext() {
+				return !queue.isEmpty();
+			}
+
+			@Override
+			public IItem next() {
+				Cursor cursor = queue.poll();
+				if (cursor == null) {
+					throw new NoSuchElementException();
+				}
+				IItem item = cursor.current;
+				if (cursor.advance()) {
+					queue.add(cursor);
+				}
+				return item;
+			}
+		};
+	}
+
+	private static class Cursor implements Comparable<Cursor> {
+
+		private final Iterator<IItem> iterator;
+		private final IMemberAccessor<IQuantity, IItem> endTime;
+		private final int order;
+		IItem current;
+		long timestamp;
+
+		Cursor(IItemIterable iterable, int order) {
+			this.iterator = iterable.iterator();
+			this.endTime = JfrAttributes.END_TIME.getAccessor(iterable.getType());
+			this.order = order;
+		}
+
+		boolean advance() {
+			if (!iterator.hasNext()) {
+				current = null;
+				return false;
+			}
+			current = iterator.next();
+			IQuantity end = endTime == null ? null : endTime.getMember(current);
+			timestamp = end == null ? Long.MIN_VALUE : end.clampedLongValueIn(UnitLookup.EPOCH_NS);
+			return true;
+		}
+
+		@Override
+		public int compareTo(Cursor other) {
+			int c = Long.compare(timestamp, other.timestamp);
+			return c != 0 ? c : Integer.compare(order, other.order);
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -36,9 +36,13 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.SequenceInputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.openjdk.jmc.common.io.IOToolkit;
 import org.openjdk.jmc.common.item.IItemCollection;
@@ -53,6 +57,8 @@ import org.openjdk.jmc.flightrecorder.parser.ParserExtensionRegistry;
  */
 public class JfrLoaderToolkit {
 
+	private static final Logger LOGGER = Logger.getLogger(JfrLoaderToolkit.class.getName());
+
 	/**
 	 * @param files
 	 *            the files to read the recording from
@@ -62,6 +68,13 @@ public class JfrLoaderToolkit {
 	 */
 	private static EventArrays loadFile(List<File> files, List<? extends IParserExtension> extensions)
 			throws IOException, CouldNotLoadRecordingException {
+		if (files.size() == 1 && !IOToolkit.isCompressedFile(files.get(0))) {
+			// Uncompressed files are memory mapped so that chunks do not have to be copied to the heap
+			try (FileChannel channel = FileChannel.open(files.get(0).toPath(), StandardOpenOption.READ)) {
+				return FlightRecordingLoader.readChunks(null, extensions,
+						FlightRecordingLoader.createChunkSupplier(channel), false, true);
+			}
+		}
 		List<InputStream> streams = new ArrayList<>(files.size());
 		for (File file : files) {
 			streams.add(IOToolkit.openUncompressedStream(file));
@@ -141,4 +154,100 @@ public class JfrLoaderToolkit {
 		return EventCollection.build(loadFile(files, extensions));
 	}
 
+	/**
+	 * Loads a potentially zipped or gzipped file using the supplied parser extensions, and uses a
+	 * parse cache file to avoid parsing the recording again the next time it is loaded.
+	 * <p>
+	 * If the cache file exists and matches the recording, the events are read from it instead of
+	 * parsing the recording. Otherwise the recording is parsed and the cache file is written. A
+	 * stale or unreadable cache file is ignored and replaced. Recordings that cannot be cached,
+	 * such as JDK 7 and 8 recordings, are always parsed.
+	 *
+	 * @param file
+	 *            the file to read the recording from
+	 * @param extensions
+	 *            the extensions to use when parsing the file
+	 * @param cacheFile
+	 *            the file to read the parsed recording from and to write it to
+	 * @return the events in the recording
+	 */
+	public static IItemCollection loadEvents(File file, List<? extends IParserExtension> extensions, File cacheFile)
+			throws IOException, CouldNotLoadRecordingException {
+		try {
+			EventArrays cached = FlightRecordingLoader.readParseCache(cacheFile, file, extensions, false, true);
+			if (cached != null) {
+				return EventCollection.build(cached);
+			}
+		} catch (IOException e) {
+			LOGGER.log(Level.FINE, "Could not read parse cache " + cacheFile, e); //$NON-NLS-1$
+		}
+		EventArrays events = loadFile(Collections.singletonList(file), extensions);
+		try {
+			FlightRecordingLoader.writeParseCache(cacheFile, file, extensions, false, true, events);
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Could not write parse cache " + cacheFile, e); //$NON-NLS-1$
+		}
+		return EventCollection.build(events);
+	}
+
+	/**
+	 * Opens an uncompressed recording file without parsing it. Chunks are parsed when a query on
+	 * the returned collection needs them, and parsed chunks are cached using up to a tenth of the
+	 * maximum heap, measured in recording file bytes. Filter on a time range before iterating to
+	 * only parse the chunks that overlap it.
+	 *
+	 * @param file
+	 *            the uncompressed file to read the recording from
+	 * @return the events in the recording
+	 */
+	public static IItemCollection loadEventsOnDemand(File file) throws IOException, CouldNotLoadRecordingException {
+		return loadEventsOnDemand(file, ParserExtensionRegistry.getParserExtensions(),
+				Runtime.getRuntime().maxMemory() / 10);
+	}
+
+	/**
+	 * Opens an uncompressed recording file without parsing it. Chunks are parsed when a query on
+	 * the returned collection needs them, and the least recently used parsed chunks are dropped
+	 * when their total size exceeds the given limit or when the heap runs low.
+	 *
+	 * @param file
+	 *            the uncompressed file to read the recording from
+	 * @param extensions
+	 *            the extensions to use when parsing the file
+	 * @param maxCachedChunkBytes
+	 *            the maximum total file size of the chunks to keep parsed in memory
+	 * @return the events in the recording
+	 */
+	public static IItemCollection loadEventsOnDemand(
+		File file, List<? extends IParserExtension> extensions, long maxCachedChunkBytes)
+			throws IOException, CouldNotLoadRecordingException {
+		return LazyEventCollection.build(file, extensions, maxCachedChunkBytes, null);
+	}
+
+	/**
+	 * Opens an uncompressed recording file without parsing it, like
+	 * {@link #loadEventsOnDemand(File, List, long)}, and uses a sidecar index file to avoid parsing
+	 * chunks that cannot contain events of the queried types in the queried time range. The index
+	 * only holds per chunk event counts and time bounds for each event type, so the chunks that are
+	 * queried are still parsed.
+	 * <p>
+	 * If the index file exists and matches the recording, it is used right away. Otherwise the
+	 * index is built as chunks are parsed and written when all chunks have been parsed once. A
+	 * stale or unreadable index is ignored and replaced.
+	 *
+	 * @param file
+	 *            the uncompressed file to read the recording from
+	 * @param extensions
+	 *            the extensions to use when parsing the file
+	 * @param maxCachedChunkBytes
+	 *            the maximum total file size of the chunks to keep parsed in memory
+	 * @param indexFile
+	 *            the sidecar file to read the index from and to write it to
+	 * @return the events in the recording
+	 */
+	public static IItemCollection loadEventsOnDemand(
+		File file, List<? extends IParserExtension> extensions, long maxCachedChunkBytes, File indexFile)
+			throws IOException, CouldNotLoadRecordingException {
+		return LazyEventCollection.build(file, extensions, maxCachedChunkBytes, indexFile);
+	}
 }
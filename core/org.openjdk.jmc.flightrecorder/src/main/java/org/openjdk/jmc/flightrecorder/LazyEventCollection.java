@@ -0,0 +1,356 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.flightrecorder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.SoftReference;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.openjdk.jmc.common.item.IAggregator;
+import org.openjdk.jmc.common.item.IItemCollection;
+import org.openjdk.jmc.common.item.IItemConsumer;
+import org.openjdk.jmc.common.item.IItemFilter;
+import org.openjdk.jmc.common.item.IItemIterable;
+import org.openjdk.jmc.common.item.ItemFilters;
+import org.openjdk.jmc.common.unit.IQuantity;
+import org.openjdk.jmc.common.unit.IRange;
+import org.openjdk.jmc.flightrecorder.RecordingIndex.ChunkSummary;
+import org.openjdk.jmc.flightrecorder.TimeRangeIndex.TimeBounds;
+import org.openjdk.jmc.flightrecorder.internal.ChunkInfo;
+import org.openjdk.jmc.flightrecorder.internal.FlightRecordingLoader;
+import org.openjdk.jmc.flightrecorder.internal.IChunkLoader;
+import org.openjdk.jmc.flightrecorder.internal.parser.LoaderContext;
+import org.openjdk.jmc.flightrecorder.parser.IParserExtension;
+
+/**
+ * Implementation of {@link IItemCollection} that only parses the chunks of a recording file when
+ * they are needed.
+ * <p>
+ * The chunks are indexed up front without parsing any events. When the collection is queried, only
+ * the chunks whose time range may contain matching events are parsed, so filtering on a time range
+ * before iterating or aggregating avoids touching the rest of the file. Parsed chunks are kept in a
+ * least recently used cache that is shared by all collections derived from the same file. The cache
+ * is bounded by the total size of the cached chunks in the file, and the cached events are softly
+ * referenced so that they can be reclaimed under memory pressure. Evicted chunks are parsed again
+ * if they are needed later.
+ * <p>
+ * Optionally, a {@link RecordingIndex} sidecar file is used to skip chunks without events of the
+ * queried types. The index is written once every chunk has been parsed, and read when the same
+ * recording is opened again. It only prunes chunks; the events of the chunks that are queried are
+ * always parsed from the recording.
+ */
+class LazyEventCollection implements IItemCollection {
+
+	private static final Logger LOGGER = Logger.getLogger(LazyEventCollection.class.getName());
+
+	private final ChunkCache cache;
+	private final IItemFilter filter;
+
+	private LazyEventCollection(ChunkCache cache, IItemFilter filter) {
+		this.cache = cache;
+		this.filter = filter;
+	}
+
+	static IItemCollection build(
+		File file, List<? extends IParserExtension> extensions, long maxCachedChunkBytes, File indexFile)
+			throws IOException, CouldNotLoadRecordingException {
+		List<ChunkInfo> chunks;
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			chunks = FlightRecordingLoader.readChunkInfo(FlightRecordingLoader.createChunkSupplier(channel));
+		}
+		if (chunks.isEmpty()) {
+			throw new CouldNotLoadRecordingException("No readable chunks in recording"); //$NON-NLS-1$
+		}
+		return new LazyEventCollection(new ChunkCache(file, chunks, extensions, maxCachedChunkBytes, indexFile), null);
+	}
+
+	@Override
+	public IItemCollection apply(IItemFilter filter) {
+		return new LazyEventCollection(cache, this.filter == null ? filter : ItemFilters.and(this.filter, filter));
+	}
+
+	@Override
+	public Iterator<IItemIterable> iterator() {
+		return new Iterator<IItemIterable>() {
+
+			private final Iterator<Integer> chunks = selectChunks().iterator();
+			private Iterator<IItemIterable> current = Collections.emptyIterator();
+
+			@Override
+			public boolean hasNext() {
+				while (!current.hasNext()) {
+					if (!chunks.hasNext()) {
+						return false;
+					}
+					current = getChunk(chunks.next()).iterator();
+				}
+				return true;
+			}
+
+			@Override
+			public IItemIterable next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return current.next();
+			}
+		};
+	}
+
+	@Override
+	public <V, C extends IItemConsumer<C>> V getAggregate(IAggregator<V, C> aggregator) {
+		return EventCollection.aggregate(aggregator, iterator());
+	}
+
+	@Override
+	public <V, C extends IItemConsumer<C>> V getAggregate(IAggregator<V, C> aggregator, ForkJoinPool pool) {
+		return EventCollection.aggregate(aggregator, iterator(), pool);
+	}
+
+	@Override
+	public boolean hasItems() {
+		for (Integer index : selectChunks()) {
+			if (getChunk(index).hasItems()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public Set<IRange<IQuantity>> getUnfilteredTimeRanges() {
+		Set<IRange<IQuantity>> ranges = new HashSet<>();
+		for (ChunkInfo chunk : cache.chunks) {
+			ranges.add(chunk.getChunkRange());
+		}
+		return ranges;
+	}
+
+	private IItemCollection getChunk(int index) {
+		IItemCollection chunk = cache.get(index);
+		return filter == null ? chunk : chunk.apply(filter);
+	}
+
+	/**
+	 * Find the chunks that may contain events matching the filter. All events in a chunk end within
+	 * the time range of the chunk, and no event ends before it starts. Chunks that have been
+	 * summarized are also skipped if they have no events of the filtered types in the time range.
+	 */
+	private List<Integer> selectChunks() {
+		TimeBounds bounds = filter == null ? null : TimeRangeIndex.getBounds(filter);
+		Set<String> types = filter == null ? null : RecordingIndex.getTypes(filter);
+		List<Integer> selected = new ArrayList<>(cache.chunks.size());
+		int firstUnmatched = -1;
+		for (int i = 0; i < cache.chunks.size(); i++) {
+			IRange<IQuantity> range = cache.chunks.get(i).getChunkRange();
+			if (bounds != null && ((bounds.startMin != null && bounds.startMin.compareTo(range.getEnd()) > 0)
+					|| (bounds.endMin != null && bounds.endMin.compareTo(range.getEnd()) > 0)
+					|| (bounds.endMax != null && bounds.endMax.compareTo(range.getStart()) < 0))) {
+				continue;
+			}
+			ChunkSummary summary = cache.getSummary(i);
+			if (summary != null && !summary.mayMatch(types, bounds)) {
+				if (firstUnmatched < 0) {
+					firstUnmatched = i;
+				}
+				continue;
+			}
+			selected.add(i);
+		}
+		if (selected.isEmpty() && firstUnmatched >= 0) {
+			// Keep one chunk so that aggregates are computed over empty iterables, as when loaded
+			selected.add(firstUnmatched);
+		}
+		return selected;
+	}
+
+	private static class ChunkCache {
+
+		private final File file;
+		private final List<ChunkInfo> chunks;
+		private final List<? extends IParserExtension> extensions;
+		private final long maxCachedChunkBytes;
+		private final LinkedHashMap<Integer, SoftReference<IItemCollection>> cached = new LinkedHashMap<>(16, 0.75f,
+				true);
+		private long cachedChunkBytes;
+		private final File indexFile;
+		private ChunkSummary[] summaries;
+		private int unsummarizedChunks;
+
+		ChunkCache(File file, List<ChunkInfo> chunks, List<? extends IParserExtension> extensions,
+				long maxCachedChunkBytes, File indexFile) {
+			this.file = file;
+			this.chunks = removeDuplicates(chunks);
+			this.extensions = extensions;
+			this.maxCachedChunkBytes = maxCachedChunkBytes;
+			this.indexFile = indexFile;
+			if (indexFile != null && indexFile.isFile()) {
+				try {
+					summaries = RecordingIndex.read(indexFile, file, extensions, this.chunks);
+				} catch (IOException e) {
+					LOGGER.log(Level.FINE, "Could not read recording index " + indexFile, e); //$NON-NLS-1$
+				}
+			}
+			if (summaries == null) {
+				summaries = new ChunkSummary[this.chunks.size()];
+				unsummarizedChunks = summaries.length;
+			}
+		}
+
+		synchronized ChunkSummary getSummary(int index) {
+			return summaries[index];
+		}
+
+		/**
+		 * Summarize a parsed chunk unless that has already been done. The index file is written
+		 * when all chunks have been summarized. Summarizing takes an extra pass over the events of
+		 * the chunk, so it is only done when there is an index file to write.
+		 */
+		private void summarize(int index, IItemCollection chunk) {
+			synchronized (this) {
+				if (summaries[index] != null) {
+					return;
+				}
+			}
+			ChunkSummary summary = ChunkSummary.create(chunk);
+			synchronized (this) {
+				if (summaries[index] != null) {
+					return;
+				}
+				summaries[index] = summary;
+				if (--unsummarizedChunks > 0) {
+					return;
+				}
+				try {
+					RecordingIndex.write(indexFile, file, extensions, chunks, summaries);
+				} catch (IOException e) {
+					LOGGER.log(Level.WARNING, "Could not write recording index " + indexFile, e); //$NON-NLS-1$
+				}
+			}
+		}
+
+		private static List<ChunkInfo> removeDuplicates(List<ChunkInfo> chunks) {
+			// Skip duplicated chunks in the same way as when loading a complete recording
+			Set<IRange<IQuantity>> ranges = new HashSet<>();
+			List<ChunkInfo> unique = new ArrayList<>(chunks.size());
+			for (ChunkInfo chunk : chunks) {
+				if (ranges.add(chunk.getChunkRange())) {
+					unique.add(chunk);
+				}
+			}
+			return unique;
+		}
+
+		IItemCollection get(int index) {
+			synchronized (this) {
+				SoftReference<IItemCollection> ref = cached.get(index);
+				IItemCollection chunk = ref == null ? null : ref.get();
+				if (chunk != null) {
+					return chunk;
+				}
+			}
+			// Parse outside of the lock so that different chunks can be parsed in parallel
+			IItemCollection chunk;
+			try {
+				chunk = load(chunks.get(index));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			} catch (CouldNotLoadRecordingException e) {
+				throw new IllegalStateException(e);
+			}
+			if (indexFile != null) {
+				summarize(index, chunk);
+			}
+			synchronized (this) {
+				SoftReference<IItemCollection> ref = cached.get(index);
+				IItemCollection other = ref == null ? null : ref.get();
+				if (other != null) {
+					return other;
+				}
+				if (ref == null) {
+					cachedChunkBytes += chunks.get(index).getChunkSize();
+				}
+				cached.put(index, new SoftReference<>(chunk));
+				evict(index);
+			}
+			return chunk;
+		}
+
+		private void evict(int keep) {
+			Iterator<Map.Entry<Integer, SoftReference<IItemCollection>>> it = cached.entrySet().iterator();
+			while (it.hasNext()) {
+				Map.Entry<Integer, SoftReference<IItemCollection>> entry = it.next();
+				boolean cleared = entry.getValue().get() == null;
+				if (entry.getKey() != keep && (cleared || cachedChunkBytes > maxCachedChunkBytes)) {
+					cachedChunkBytes -= chunks.get(entry.getKey()).getChunkSize();
+					it.remove();
+				}
+			}
+		}
+
+		private IItemCollection load(ChunkInfo chunk) throws IOException, CouldNotLoadRecordingException {
+			LoaderContext context = FlightRecordingLoader.createLoaderContext(extensions, false);
+			// The mapping stays valid after the channel has been closed
+			try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+				IChunkLoader chunkLoader = FlightRecordingLoader.createChunkLoader(
+						FlightRecordingLoader.createChunkSupplier(channel, Collections.singletonList(chunk)), context,
+						new byte[0], false);
+				if (chunkLoader == null) {
+					throw new CouldNotLoadRecordingException("Chunk at " + chunk.getChunkPosistion() //$NON-NLS-1$
+							+ " could not be read"); //$NON-NLS-1$
+				}
+				chunkLoader.call();
+			} catch (IOException | CouldNotLoadRecordingException | RuntimeException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new CouldNotLoadRecordingException(e);
+			}
+			return EventCollection.build(context.buildEventArrays());
+		}
+	}
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.flightrecorder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.openjdk.jmc.common.item.IItem;
+import org.openjdk.jmc.common.item.IItemCollection;
+import org.openjdk.jmc.common.item.IItemFilter;
+import org.openjdk.jmc.common.item.IItemIterable;
+import org.openjdk.jmc.common.item.IMemberAccessor;
+import org.openjdk.jmc.common.item.ItemFilters;
+import org.openjdk.jmc.common.unit.IQuantity;
+import org.openjdk.jmc.common.unit.UnitLookup;
+import org.openjdk.jmc.flightrecorder.TimeRangeIndex.TimeBounds;
+import org.openjdk.jmc.flightrecorder.internal.ChunkInfo;
+import org.openjdk.jmc.flightrecorder.internal.parser.ParseCache;
+import org.openjdk.jmc.flightrecorder.parser.IParserExtension;
+
+/**
+ * Summary of which event types, and which time ranges of them, each chunk of a recording contains.
+ * The summary is built while chunks are parsed and can be saved in a sidecar file next to the
+ * recording. When the recording is opened again, the sidecar lets {@link LazyEventCollection}
+ * answer queries by parsing only the chunks that contain events of the requested types in the
+ * requested time range, without any parsing up front.
+ * <p>
+ * A sidecar file is only used if the size, modification time and a checksum of the start and end of
+ * the recording, as well as the chunk layout and the parser extensions, are the same as when it was
+ * written.
+ * <p>
+ * This is a chunk pruning index only. It holds no event data, constant pools or parser statistics,
+ * so the chunks that a query needs are still parsed from the recording. Recordings that are loaded
+ * eagerly use a {@link ParseCache} instead.
+ */
+class RecordingIndex {
+
+	private static final int MAGIC = 0x4A4D4349; // JMCI
+	private static final int VERSION = 1;
+
+	/**
+	 * Event count and time range of one event type within a chunk.
+	 */
+	static class TypeSummary {
+		final long count;
+		final long minStartNanos;
+		final long maxEndNanos;
+
+		TypeSummary(long count, long minStartNanos, long maxEndNanos) {
+			this.count = count;
+			this.minStartNanos = minStartNanos;
+			this.maxEndNanos = maxEndNanos;
+		}
+
+		/**
+		 * @return {@code false} if no event of this type can satisfy the bounds
+		 */
+		boolean mayMatch(TimeBounds bounds) {
+			if (count == 0) {
+				return false;
+			}
+			if (bounds == null || minStartNanos > maxEndNanos) {
+				// Events without time attributes
+				return true;
+			}
+			// Widen by one nanosecond to stay conservative when comparing quantities in other units
+			return !(isAfter(bounds.startMin, maxEndNanos + 1) || isAfter(bounds.endMin, maxEndNanos + 1)
+					|| isBefore(bounds.startMax, minStartNanos - 1) || isBefore(bounds.endMax, minStartNanos - 1));
+		}
+
+		private static boolean isAfter(IQuantity limit, long nanos) {
+			return limit != null && limit.compareTo(UnitLookup.EPOCH_NS.quantity(nanos)) > 0;
+		}
+
+		private static boolean isBefore(IQuantity limit, long nanos) {
+			return limit != null && limit.compareTo(UnitLookup.EPOCH_NS.quantity(nanos)) < 0;
+		}
+	}
+
+	/**
+	 * The event types in one chunk.
+	 */
+	static class ChunkSummary {
+		final Map<String, TypeSummary> types;
+
+		ChunkSummary(Map<String, TypeSummary> types) {
+			this.types = types;
+		}
+
+		/**
+		 * Summarize the events of a parsed chunk.
+		 */
+		static ChunkSummary create(IItemCollection chunk) {
+			Map<String, TypeSummary> types = new HashMap<>();
+			for (IItemIterable iterable : chunk) {
+				IMemberAccessor<IQuantity, IItem> start = JfrAttributes.START_TIME.getAccessor(iterable.getType());
+				IMemberAccessor<IQuantity, IItem> end = JfrAttributes.END_TIME.getAccessor(iterable.getType());
+				long count = 0;
+				long minStart = Long.MAX_VALUE;
+				long maxEnd = Long.MIN_VALUE;
+				for (IItem item : iterable) {
+					count++;
+					if (start != null && end != null) {
+						minStart = Math.min(minStart, start.getMember(item).clampedLongValueIn(UnitLookup.EPOCH_NS));
+						maxEnd = Math.max(maxEnd, end.getMember(item).clampedLongValueIn(UnitLookup.EPOCH_NS));
+					}
+				}
+				String typeId = iterable.getType().getIdentifier();
+				TypeSummary previous = types.get(typeId);
+				if (previous != null) {
+					count += previous.count;
+					minStart = Math.min(minStart, previous.minStartNanos);
+					maxEnd = Math.max(maxEnd, previous.maxEndNanos);
+				}
+				types.put(typeId, new TypeSummary(count, minStart, maxEnd));
+			}
+			return new ChunkSummary(types);
+		}
+
+		/**
+		 * @param typeIds
+		 *            the types to look for, or {@code null} for all types
+		 * @param bounds
+		 *            time bounds that the events must satisfy, or {@code null} for no bounds
+		 * @return {@code false} if the chunk cannot contain any matching events
+		 */
+		boolean mayMatch(Set<String> typeIds, TimeBounds bounds) {
+			if (typeIds == null) {
+				for (TypeSummary type : types.values()) {
+					if (type.mayMatch(bounds)) {
+						return true;
+					}
+				}
+				return false;
+			}
+			for (String typeId : typeIds) {
+				TypeSummary type = types.get(typeId);
+				if (type != null && type.mayMatch(bounds)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Extract the event types that a filter can match.
+	 *
+	 * @return the matching type identifiers, or {@code null} if the filter may match any type
+	 */
+	static Set<String> getTypes(IItemFilter filter) {
+		if (filter instanceof ItemFilters.Types) {
+			return ((ItemFilters.Types) filter).getTypes();
+		} else if (filter instanceof ItemFilters.Type) {
+			return Collections.singleton(((ItemFilters.Type) filter).getTypeId());
+		} else if (filter instanceof ItemFilters.Composite) {
+			ItemFilters.Composite composite = (ItemFilters.Composite) filter;
+			Set<String> types = null;
+			for (IItemFilter f : composite.getFilters()) {
+				Set<String> filterTypes = getTypes(f);
+				if (composite.isUnion()) {
+					if (filterTypes == null) {
+						return null;
+					}
+					if (types == null) {
+						types = new HashSet<>();
+					}
+					types.addAll(filterTypes);
+				} else if (filterTypes != null) {
+					if (types == null) {
+						types = new HashSet<>(filterTypes);
+					} else {
+						types.retainAll(filterTypes);
+					}
+				}
+			}
+			return types;
+		}
+		return null;
+	}
+
+	/**
+	 * Write summaries for all chunks of a recording to a sidecar file. The file is written to a
+	 * temporary file first and then moved into place, so a partially written index is never read.
+	 */
+	static void write(
+		File indexFile, File recording, List<? extends IParserExtension> extensions, List<ChunkInfo> chunks,
+		ChunkSummary[] summaries) throws IOException {
+		File tmpFile = new File(indexFile.getPath() + ".tmp"); //$NON-NLS-1$
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(recording.length());
+			out.writeLong(recording.lastModified());
+			out.writeLong(ParseCache.checksum(recording));
+			out.writeUTF(ParseCache.describe(extensions));
+			out.writeInt(chunks.size());
+			for (int i = 0; i < chunks.size(); i++) {
+				out.writeLong(chunks.get(i).getChunkPosistion());
+				out.writeLong(chunks.get(i).getChunkSize());
+				out.writeInt(summaries[i].types.size());
+				for (Map.Entry<String, TypeSummary> entry : summaries[i].types.entrySet()) {
+					out.writeUTF(entry.getKey());
+					out.writeLong(entry.getValue().count);
+					out.writeLong(entry.getValue().minStartNanos);
+					out.writeLong(entry.getValue().maxEndNanos);
+				}
+			}
+		}
+		Files.move(tmpFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * Read chunk summaries from a sidecar file.
+	 *
+	 * @return the chunk summaries, or {@code null} if the index does not match the recording
+	 */
+	static ChunkSummary[] read(
+		File indexFile, File recording, List<? extends IParserExtension> extensions, List<ChunkInfo> chunks)
+			throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readLong() != recording.length()
+					|| in.readLong() != recording.lastModified() || in.readLong() != ParseCache.checksum(recording)
+					|| !in.readUTF().equals(ParseCache.describe(extensions)) || in.readInt() != chunks.size()) {
+				return null;
+			}
+			ChunkSummary[] summaries = new ChunkSummary[chunks.size()];
+			for (int i = 0; i < chunks.size(); i++) {
+				if (in.readLong() != chunks.get(i).getChunkPosistion()
+						|| in.readLong() != chunks.get(i).getChunkSize()) {
+					return null;
+				}
+				int typeCount = in.readInt();
+				Map<String, TypeSummary> types = new HashMap<>(typeCount * 2);
+				for (int j = 0; j < typeCount; j++) {
+					types.put(in.readUTF(), new TypeSummary(in.readLong(), in.readLong(), in.readLong()));
+				}
+				summaries[i] = new ChunkSummary(types);
+			}
+			return summaries;
+		}
+	}
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.flightrecorder;
+
+import org.openjdk.jmc.common.item.IItem;
+import org.openjdk.jmc.common.item.IItemFilter;
+import org.openjdk.jmc.common.item.IMemberAccessor;
+import org.openjdk.jmc.common.item.ItemFilters;
+import org.openjdk.jmc.common.item.ItemFilters.AttributeValue;
+import org.openjdk.jmc.common.unit.IQuantity;
+import org.openjdk.jmc.common.unit.IRange;
+import org.openjdk.jmc.common.unit.UnitLookup;
+import org.openjdk.jmc.flightrecorder.internal.EventArray;
+
+/**
+ * Index for finding the events in a time sorted event array that may match a time range filter.
+ * <p>
+ * The parser sorts every event array on start time. Ranges of events with a certain start time are
+ * therefore found with a binary search. End times are also sorted for the arrays that the parser
+ * produces, but if an array is found to have unsorted end times, then a prefix array with the
+ * largest end time seen so far is built so that searches on end time still only need a binary
+ * search.
+ * <p>
+ * The index only narrows down the candidate events. The filter predicate must still be applied to
+ * the events in the range.
+ */
+class TimeRangeIndex {
+
+	/**
+	 * Inclusive limits on start and end times that all items matching a filter must satisfy. Any of
+	 * the limits may be {@code null}.
+	 */
+	static class TimeBounds {
+		final IQuantity startMin;
+		final IQuantity startMax;
+		final IQuantity endMin;
+		final IQuantity endMax;
+
+		TimeBounds(IQuantity startMin, IQuantity startMax, IQuantity endMin, IQuantity endMax) {
+			this.startMin = startMin;
+			this.startMax = startMax;
+			this.endMin = endMin;
+			this.endMax = endMax;
+		}
+
+		TimeBounds intersect(TimeBounds other) {
+			if (other == null) {
+				return this;
+			}
+			return new TimeBounds(max(startMin, other.startMin), min(startMax, other.startMax),
+					max(endMin, other.endMin), min(endMax, other.endMax));
+		}
+
+		private static IQuantity max(IQuantity a, IQuantity b) {
+			return a == null ? b : (b == null || a.compareTo(b) >= 0 ? a : b);
+		}
+
+		private static IQuantity min(IQuantity a, IQuantity b) {
+			return a == null ? b : (b == null || a.compareTo(b) <= 0 ? a : b);
+		}
+	}
+
+	private final EventArray events;
+	private final IMemberAccessor<IQuantity, IItem> startAccessor;
+	private final IMemberAccessor<IQuantity, IItem> endAccessor;
+	// Lazily computed. Null until needed, and stays null if end times are sorted.
+	private long[] maxEndPrefix;
+	private boolean endOrderChecked;
+
+	private TimeRangeIndex(EventArray events) {
+		this.events = events;
+		this.startAccessor = JfrAttributes.START_TIME.getAccessor(events.getType());
+		this.endAccessor = JfrAttributes.END_TIME.getAccessor(events.getType());
+	}
+
+	/**
+	 * @return an index for the events, or {@code null} if the events do not have time attributes
+	 */
+	static TimeRangeIndex create(EventArray events) {
+		TimeRangeIndex index = new TimeRangeIndex(events);
+		return index.startAccessor != null && index.endAccessor != null ? index : null;
+	}
+
+	/**
+	 * Extract time bounds from a filter. Only filters that are comparisons on start or end time, or
+	 * range filters on the lifetime, possibly combined with {@code and}, give bounds.
+	 *
+	 * @param filter
+	 *            the filter to extract bounds from
+	 * @return bounds that all matching items satisfy, or {@code null} if the filter does not limit
+	 *         the time range
+	 */
+	static TimeBounds getBounds(IItemFilter filter) {
+		if (filter instanceof ItemFilters.Composite) {
+			ItemFilters.Composite composite = (ItemFilters.Composite) filter;
+			if (composite.isUnion()) {
+				return null;
+			}
+			TimeBounds bounds = null;
+			for (IItemFilter f : composite.getFilters()) {
+				TimeBounds fb = getBounds(f);
+				bounds = bounds == null ? fb : bounds.intersect(fb);
+			}
+			return bounds;
+		} else if (filter instanceof AttributeValue) {
+			AttributeValue<?> av = (AttributeValue<?>) filter;
+			Object value = av.getValue();
+			if (JfrAttributes.LIFETIME.equals(av.getAttribute()) && value instanceof IRange) {
+				IRange<?> range = (IRange<?>) value;
+				if (!(range.getStart() instanceof IQuantity)) {
+					return null;
+				}
+				IQuantity rangeStart = (IQuantity) range.getStart();
+				IQuantity rangeEnd = (IQuantity) range.getEnd();
+				switch (av.getKind()) {
+				case RANGE_INTERSECTS:
+				case CENTER_CONTAINED:
+					return new TimeBounds(null, rangeEnd, rangeStart, null);
+				case RANGE_CONTAINED:
+					return new TimeBounds(rangeStart, null, null, rangeEnd);
+				default:
+					return null;
+				}
+			} else if (value instanceof IQuantity) {
+				boolean start = JfrAttributes.START_TIME.equals(av.getAttribute());
+				if (!start && !JfrAttributes.END_TIME.equals(av.getAttribute())) {
+					return null;
+				}
+				IQuantity limit = (IQuantity) value;
+				switch (av.getKind()) {
+				case MORE:
+				case MORE_OR_EQUAL:
+					return start ? new TimeBounds(limit, null, null, null) : new TimeBounds(null, null, limit, null);
+				case LESS:
+				case LESS_OR_EQUAL:
+					return start ? new TimeBounds(null, limit, null, null) : new TimeBounds(null, null, null, limit);
+				default:
+					return null;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Narrow down an index range to the events that may satisfy some bounds.
+	 *
+	 * @param from
+	 *            first index to include
+	 * @param to
+	 *            index after the last index to include
+	 * @param bounds
+	 *            the bounds to satisfy
+	 * @return an array with the new {@code from} and {@code to} indexes
+	 */
+	int[] narrow(int from, int to, TimeBounds bounds) {
+		if (bounds.startMin != null) {
+			from = Math.max(from, firstAtLeast(startAccessor, from, to, bounds.startMin, true));
+		}
+		if (bounds.startMax != null) {
+			to = Math.min(to, firstAtLeast(startAccessor, from, to, bounds.startMax, false));
+		}
+		if (bounds.endMax != null) {
+			// End time is never before start time, so events starting after the limit can be skipped
+			to = Math.min(to, firstAtLeast(startAccessor, from, to, bounds.endMax, false));
+			if (isEndSorted()) {
+				to = Math.min(to, firstAtLeast(endAccessor, from, to, bounds.endMax, false));
+			}
+		}
+		if (bounds.endMin != null && from < to) {
+			if (isEndSorted()) {
+				from = Math.max(from, firstAtLeast(endAccessor, from, to, bounds.endMin, true));
+			} else {
+				from = Math.max(from, firstMaxEndAtLeast(from, to, bounds.endMin));
+			}
+		}
+		return new int[] {from, Math.max(from, to)};
+	}
+
+	/**
+	 * Binary search for the first index in a sorted range with a value that is at least (if
+	 * {@code inclusive}) or more than (if not {@code inclusive}) a limit.
+	 */
+	private int firstAtLeast(
+		IMemberAccessor<IQuantity, IItem> accessor, int from, int to, IQuantity limit, boolean inclusive) {
+		int low = from;
+		int high = to;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			int comparison = accessor.getMember(events.getEvent(mid)).compareTo(limit);
+			if (comparison < 0 || (!inclusive && comparison == 0)) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private int firstMaxEndAtLeast(int from, int to, IQuantity limit) {
+		// Widen the limit by one unit to stay conservative when rounding to nanoseconds
+		long limitNanos = limit.clampedLongValueIn(UnitLookup.EPOCH_NS) - 1;
+		int low = from;
+		int high = to;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (maxEndPrefix[mid] < limitNanos) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private synchronized boolean isEndSorted() {
+		if (!endOrderChecked) {
+			IQuantity previous = null;
+			for (int i = 0; i < events.getSize(); i++) {
+				IQuantity end = endAccessor.getMember(events.getEvent(i));
+				if (previous != null && end.compareTo(previous) < 0) {
+					buildMaxEndPrefix();
+					break;
+				}
+				previous = end;
+			}
+			endOrderChecked = true;
+		}
+		return maxEndPrefix == null;
+	}
+
+	private void buildMaxEndPrefix() {
+		long[] prefix = new long[events.getSize()];
+		long max = Long.MIN_VALUE;
+		for (int i = 0; i < prefix.length; i++) {
+			max = Math.max(max, endAccessor.getMember(events.getEvent(i)).clampedLongValueIn(UnitLookup.EPOCH_NS));
+			prefix[i] = max;
+		}
+		maxEndPrefix = prefix;
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -32,17 +32,24 @@
  */
 package org.openjdk.jmc.flightrecorder.internal;
 
+import java.util.function.IntFunction;
+
 import org.openjdk.jmc.common.item.IItem;
 import org.openjdk.jmc.common.item.IType;
 
 /**
- * An array of events sharing a single type.
+ * An array of events sharing a single type. The events are either kept in an array, or created when
+ * they are accessed from an index into storage that does not hold one object per event.
  */
 public class EventArray {
 
 	private final IItem[] events;
+	private final int size;
+	private final IntFunction<IItem> eventFactory;
 	private final IType<IItem> type;
 	private final String[] typeCategory;
+	// Events created by getEvents for arrays that create events on demand
+	private volatile IItem[] createdEvents;
 
 	/**
 	 * @param events
@@ -54,12 +61,67 @@ public class EventArray {
 	 */
 	public EventArray(IItem[] events, IType<IItem> type, String[] typeCategory) {
 		this.events = events;
+		this.size = events.length;
+		this.eventFactory = null;
 		this.type = type;
 		this.typeCategory = typeCategory;
 	}
 
+	/**
+	 * @param size
+	 *            the number of events
+	 * @param eventFactory
+	 *            a function that creates the event at an index. Events created for the same index
+	 *            must be equal.
+	 * @param type
+	 *            the type of these events
+	 * @param typeCategory
+	 *            a string array defining a path-like category for the event type
+	 */
+	public EventArray(int size, IntFunction<IItem> eventFactory, IType<IItem> type, String[] typeCategory) {
+		this.events = null;
+		this.size = size;
+		this.eventFactory = eventFactory;
+		this.type = type;
+		this.typeCategory = typeCategory;
+	}
+
+	/**
+	 * Get all events in an array. For arrays that create events on demand, this creates and keeps
+	 * all events, so use {@link #getSize()} and {@link #getEvent(int)} where possible.
+	 *
+	 * @return the events
+	 */
 	public IItem[] getEvents() {
-		return events;
+		if (events != null) {
+			return events;
+		}
+		IItem[] created = createdEvents;
+		if (created == null) {
+			created = new IItem[size];
+			for (int i = 0; i < size; i++) {
+				created[i] = eventFactory.apply(i);
+			}
+			createdEvents = created;
+		}
+		return created;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * @param index
+	 *            the index of the event
+	 * @return the event at the index
+	 */
+	public IItem getEvent(int index) {
+		if (events != null) {
+			return events[index];
+		}
+		IItem[] created = createdEvents;
+		return created != null ? created[index] : eventFactory.apply(index);
 	}
 
 	public IType<IItem> getType() {
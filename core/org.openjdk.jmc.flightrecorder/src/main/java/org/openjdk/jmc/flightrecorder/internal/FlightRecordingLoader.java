@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -34,9 +34,13 @@ package org.openjdk.jmc.flightrecorder.internal;
 
 import java.io.DataInput;
 import java.io.DataInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
@@ -54,6 +58,7 @@ import java.util.logging.Logger;
 import org.openjdk.jmc.flightrecorder.CouldNotLoadRecordingException;
 import org.openjdk.jmc.flightrecorder.internal.parser.Chunk;
 import org.openjdk.jmc.flightrecorder.internal.parser.LoaderContext;
+import org.openjdk.jmc.flightrecorder.internal.parser.ParseCache;
 import org.openjdk.jmc.flightrecorder.internal.parser.v0.ChunkLoaderV0;
 import org.openjdk.jmc.flightrecorder.internal.parser.v1.ChunkLoaderV1;
 import org.openjdk.jmc.flightrecorder.parser.IParserExtension;
@@ -65,7 +70,8 @@ import org.openjdk.jmc.flightrecorder.parser.ParserExtensionRegistry;
 public final class FlightRecordingLoader {
 
 	private static final Logger LOGGER = Logger.getLogger(FlightRecordingLoader.class.getName());
-	private static final String SINGLE_THREADED_PARSER_PROPERTY_KEY = "org.openjdk.jmc.flightrecorder.parser.singlethreaded"; //$NON-NLS-1$
+	public static final String SINGLE_THREADED_PARSER_PROPERTY_KEY = "org.openjdk.jmc.flightrecorder.parser.singlethreaded"; //$NON-NLS-1$
+	private static final String COLUMNAR_STORAGE_PROPERTY_KEY = "org.openjdk.jmc.flightrecorder.parser.columnar"; //$NON-NLS-1$
 	private static final int MIN_MEMORY_PER_THREAD = 300 * 1024 * 1024; // Unless the chunks are very big, 300MB of available memory per parallel chunk load should be plenty
 	private static final short VERSION_0 = 0; // JDK7 & JDK8
 	private static final short VERSION_1 = 1; // JDK9 & JDK10
@@ -144,6 +150,83 @@ public final class FlightRecordingLoader {
 
 	}
 
+	/**
+	 * Create a chunk supplier that memory maps the chunks of a recording file instead of copying
+	 * them to the heap. Chunk loaders that support it will parse the mapped data directly.
+	 *
+	 * @param input
+	 *            file channel to read the recording from, starting at position 0
+	 * @return a chunk supplier for the file
+	 */
+	public static IChunkSupplier createChunkSupplier(final FileChannel input)
+			throws CouldNotLoadRecordingException, IOException {
+		return new MappedChunkSupplier(input, null);
+	}
+
+	/**
+	 * Create a chunk supplier that memory maps a selection of chunks from a recording file.
+	 *
+	 * @param input
+	 *            file channel to read the recording from
+	 * @param chunks
+	 *            the chunks to supply
+	 * @return a chunk supplier for the selected chunks
+	 * @see #createChunkSupplier(FileChannel)
+	 */
+	public static IChunkSupplier createChunkSupplier(final FileChannel input, Collection<ChunkInfo> chunks)
+			throws CouldNotLoadRecordingException, IOException {
+		return new MappedChunkSupplier(input, new LinkedList<>(chunks));
+	}
+
+	private static class MappedChunkSupplier implements IChunkSupplier {
+		private static final int HEADER_SIZE = FLIGHT_RECORDER_MAGIC.length + 2 * Short.BYTES + Long.BYTES;
+		private final FileChannel input;
+		private final LinkedList<ChunkInfo> include;
+		private long chunkPosition;
+		private Chunk chunk;
+
+		MappedChunkSupplier(FileChannel input, LinkedList<ChunkInfo> include) {
+			this.input = input;
+			this.include = include;
+		}
+
+		@Override
+		public Chunk getNextChunk(byte[] reusableBuffer) throws CouldNotLoadRecordingException, IOException {
+			long position;
+			if (include != null) {
+				if (include.isEmpty()) {
+					return null;
+				}
+				position = include.poll().getChunkPosistion();
+			} else {
+				position = chunk == null ? 0 : chunkPosition + chunk.getPosition();
+			}
+			long remaining = input.size() - position;
+			if (remaining <= 0) {
+				return null;
+			}
+			ByteBuffer header = ByteBuffer.allocate((int) Math.min(HEADER_SIZE, remaining));
+			input.read(header, position);
+			for (int i = 0; i < FLIGHT_RECORDER_MAGIC.length; i++) {
+				if (i >= header.position() || header.get(i) != FLIGHT_RECORDER_MAGIC[i]) {
+					throw new InvalidJfrFileException();
+				}
+			}
+			long mapSize = Math.min(remaining, Integer.MAX_VALUE);
+			if (header.position() == HEADER_SIZE && header.getShort(FLIGHT_RECORDER_MAGIC.length) != VERSION_0) {
+				// Chunk size is in the header for all versions except 0, so only map what is needed
+				long chunkSize = header.getLong(FLIGHT_RECORDER_MAGIC.length + 2 * Short.BYTES);
+				if (chunkSize > 0) {
+					mapSize = Math.min(mapSize, chunkSize);
+				}
+			}
+			chunkPosition = position;
+			chunk = new Chunk(input.map(MapMode.READ_ONLY, position, mapSize), FLIGHT_RECORDER_MAGIC.length,
+					reusableBuffer);
+			return chunk;
+		}
+	}
+
 	private static Chunk createChunkInput(DataInput input, int firstByte, byte[] reusableBuffer)
 			throws CouldNotLoadRecordingException, IOException {
 		int i = 0;
@@ -195,7 +278,7 @@ public final class FlightRecordingLoader {
 	public static EventArrays readChunks(
 		Runnable monitor, List<? extends IParserExtension> extensions, IChunkSupplier chunkSupplier,
 		boolean hideExperimentals, boolean ignoreTruncatedChunk) throws CouldNotLoadRecordingException, IOException {
-		LoaderContext context = new LoaderContext(extensions, hideExperimentals);
+		LoaderContext context = createLoaderContext(extensions, hideExperimentals);
 		Runtime rt = Runtime.getRuntime();
 		long availableMemory = rt.maxMemory() - rt.totalMemory() + rt.freeMemory();
 		long maxBuffersCount = Math.min(Math.max(availableMemory / MIN_MEMORY_PER_THREAD, 1),
@@ -269,6 +352,80 @@ public final class FlightRecordingLoader {
 		return context.buildEventArrays();
 	}
 
+	/**
+	 * Read a recording that was parsed earlier from a parse cache file, see {@link ParseCache}.
+	 *
+	 * @param cacheFile
+	 *            the cache file to read
+	 * @param recording
+	 *            the recording file that the cache file must match
+	 * @param extensions
+	 *            the extensions that the recording must have been parsed with
+	 * @param hideExperimentals
+	 *            the option that the recording must have been parsed with
+	 * @param ignoreTruncatedChunk
+	 *            the option that the recording must have been parsed with
+	 * @return the parsed recording, or {@code null} if there is no matching cache file
+	 */
+	public static EventArrays readParseCache(
+		File cacheFile, File recording, List<? extends IParserExtension> extensions, boolean hideExperimentals,
+		boolean ignoreTruncatedChunk) throws IOException {
+		return ParseCache.read(cacheFile, recording, extensions, hideExperimentals, ignoreTruncatedChunk,
+				Boolean.getBoolean(COLUMNAR_STORAGE_PROPERTY_KEY));
+	}
+
+	public static EventArrays readParseCache(
+		File cacheFile, File recording, boolean hideExperimentals, boolean ignoreTruncatedChunk) throws IOException {
+		return readParseCache(cacheFile, recording, ParserExtensionRegistry.getParserExtensions(), hideExperimentals,
+				ignoreTruncatedChunk);
+	}
+
+	/**
+	 * Write a parsed recording to a parse cache file, see {@link ParseCache}.
+	 *
+	 * @param cacheFile
+	 *            the cache file to write
+	 * @param recording
+	 *            the recording file that was parsed
+	 * @param extensions
+	 *            the extensions that the recording was parsed with
+	 * @param hideExperimentals
+	 *            the option that the recording was parsed with
+	 * @param ignoreTruncatedChunk
+	 *            the option that the recording was parsed with
+	 * @param events
+	 *            the result of parsing all chunks of the recording
+	 * @return {@code true} if the cache file was written, {@code false} if the recording cannot be
+	 *         cached
+	 */
+	public static boolean writeParseCache(
+		File cacheFile, File recording, List<? extends IParserExtension> extensions, boolean hideExperimentals,
+		boolean ignoreTruncatedChunk, EventArrays events) throws IOException {
+		return ParseCache.write(cacheFile, recording, extensions, hideExperimentals, ignoreTruncatedChunk, events);
+	}
+
+	public static boolean writeParseCache(
+		File cacheFile, File recording, boolean hideExperimentals, boolean ignoreTruncatedChunk, EventArrays events)
+			throws IOException {
+		return writeParseCache(cacheFile, recording, ParserExtensionRegistry.getParserExtensions(), hideExperimentals,
+				ignoreTruncatedChunk, events);
+	}
+
+	/**
+	 * Create a loader context configured the same way as the one used by
+	 * {@link #readChunks(Runnable, List, IChunkSupplier, boolean, boolean)}.
+	 *
+	 * @param extensions
+	 *            the parser extensions to use
+	 * @param hideExperimentals
+	 *            if true, then events of types marked as experimental will be ignored
+	 * @return a new, empty loader context
+	 */
+	public static LoaderContext createLoaderContext(
+		List<? extends IParserExtension> extensions, boolean hideExperimentals) {
+		return new LoaderContext(extensions, hideExperimentals, Boolean.getBoolean(COLUMNAR_STORAGE_PROPERTY_KEY));
+	}
+
 	private static void sendProgress(Runnable listener) {
 		if (listener != null) {
 			listener.run();
@@ -288,7 +445,7 @@ public final class FlightRecordingLoader {
 	 *            ignored and instead make the method return null
 	 * @return a new chunk loader or null if no more data is available from the chunk supplier
 	 */
-	private static IChunkLoader createChunkLoader(
+	public static IChunkLoader createChunkLoader(
 		IChunkSupplier chunkSupplier, LoaderContext context, byte[] buffer, boolean ignoreTruncatedChunk)
 			throws CouldNotLoadRecordingException, IOException {
 		try {
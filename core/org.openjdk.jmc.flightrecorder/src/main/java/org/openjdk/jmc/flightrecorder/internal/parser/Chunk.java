@@ -33,7 +33,9 @@
 package org.openjdk.jmc.flightrecorder.internal.parser;
 
 import java.io.DataInput;
+import java.io.EOFException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 import org.openjdk.jmc.flightrecorder.internal.InvalidJfrFileException;
@@ -41,9 +43,15 @@ import org.openjdk.jmc.flightrecorder.internal.util.DataInputToolkit;
 
 /**
  * Class for handling data belonging to a single chunk.
+ * <p>
+ * The chunk data either comes from a {@link DataInput}, in which case it is copied into a byte
+ * array as it is read, or from a (typically memory mapped) {@link ByteBuffer} that starts at the
+ * chunk. In the latter case, chunk loaders that support it can use {@link #getMappedData(long)} to
+ * read the chunk without any copying.
  */
 public class Chunk {
 	private final DataInput input;
+	private final ByteBuffer mappedData;
 	private final short majorVersion;
 	private final short minorVersion;
 	private int position;
@@ -58,7 +66,26 @@ public class Chunk {
 	 *            a byte array for holding read chunk data
 	 */
 	public Chunk(DataInput input, int offset, byte[] reusableBuffer) throws IOException, InvalidJfrFileException {
+		this(input, null, offset, reusableBuffer);
+	}
+
+	/**
+	 * @param mappedData
+	 *            buffer holding the chunk data, with index 0 at the start of the chunk. The buffer
+	 *            may extend beyond the end of the chunk.
+	 * @param offset
+	 *            initial position
+	 * @param reusableBuffer
+	 *            a byte array for holding chunk data that is requested with {@link #fill(long)}
+	 */
+	public Chunk(ByteBuffer mappedData, int offset, byte[] reusableBuffer) throws IOException, InvalidJfrFileException {
+		this(null, mappedData, offset, reusableBuffer);
+	}
+
+	private Chunk(DataInput input, ByteBuffer mappedData, int offset, byte[] reusableBuffer)
+			throws IOException, InvalidJfrFileException {
 		this.input = input;
+		this.mappedData = mappedData;
 		this.data = reusableBuffer;
 		position = offset;
 		byte[] buffer = fill(offset + 2 * DataInputToolkit.SHORT_SIZE);
@@ -92,12 +119,44 @@ public class Chunk {
 			data = Arrays.copyOf(data, (int) (fillUpTo * 1.2));
 		}
 		if (fillUpTo > position) {
-			input.readFully(data, position, fillUpTo - position);
+			if (mappedData != null) {
+				if (fillUpTo > mappedData.limit()) {
+					throw new EOFException();
+				}
+				mappedData.get(position, data, position, fillUpTo - position);
+			} else {
+				input.readFully(data, position, fillUpTo - position);
+			}
 			position = fillUpTo;
 		}
 		return data;
 	}
 
+	/**
+	 * @return {@code true} if the chunk data can be accessed without copying using
+	 *         {@link #getMappedData(long)}
+	 */
+	public boolean isMapped() {
+		return mappedData != null;
+	}
+
+	/**
+	 * Get a view of the chunk data without copying it. This may only be used if {@link #isMapped()}
+	 * returns {@code true}. The read position is moved to the end of the returned data.
+	 *
+	 * @param upToPosition
+	 *            chunk relative position that the returned buffer should end at
+	 * @return a read only buffer with the chunk data from position 0 up to {@code upToPosition}
+	 */
+	public ByteBuffer getMappedData(long upToPosition) throws IOException, InvalidJfrFileException {
+		int end = getArrayPosition(upToPosition);
+		if (end > mappedData.limit()) {
+			throw new EOFException();
+		}
+		position = Math.max(position, end);
+		return mappedData.slice(0, end).asReadOnlyBuffer();
+	}
+
 	/**
 	 * Skip reading data from the input source up to a specified position. Note that the skipped
 	 * data can not be read later from the same input source.
@@ -108,8 +167,12 @@ public class Chunk {
 	public void skip(long upToPosition) throws IOException, InvalidJfrFileException {
 		int skipUpTo = getArrayPosition(upToPosition);
 		if (skipUpTo > position) {
-			int skipped = input.skipBytes(skipUpTo - position);
-			position += skipped;
+			if (mappedData != null) {
+				position = Math.min(skipUpTo, mappedData.limit());
+			} else {
+				int skipped = input.skipBytes(skipUpTo - position);
+				position += skipped;
+			}
 		}
 	}
 
@@ -0,0 +1,738 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.flightrecorder.internal.parser;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmc.common.IDisplayable;
+import org.openjdk.jmc.common.item.IItem;
+import org.openjdk.jmc.common.item.IMemberAccessor;
+import org.openjdk.jmc.common.item.IQuantityMemberAccessor;
+import org.openjdk.jmc.common.item.IType;
+import org.openjdk.jmc.common.unit.ContentType;
+import org.openjdk.jmc.common.unit.IQuantity;
+import org.openjdk.jmc.common.unit.IUnit;
+import org.openjdk.jmc.common.unit.KindOfQuantity;
+import org.openjdk.jmc.common.unit.StructContentType;
+import org.openjdk.jmc.flightrecorder.internal.EventArray;
+import org.openjdk.jmc.flightrecorder.internal.parser.ItemBuilder.IItemFactory;
+import org.openjdk.jmc.flightrecorder.parser.ValueField;
+
+/**
+ * Alternative to {@link ItemBuilder} that stores event values in columns instead of in one object
+ * per event.
+ * <p>
+ * Each lane has one column per field. Quantity fields are stored as {@code int}, {@code long},
+ * {@code float} or {@code double} values, in the narrowest of these types that holds the values
+ * exactly, with the unit kept once per column. Other fields (typically constant pool references)
+ * are stored as {@code int} indexes into a per column dictionary. The field accessors read the
+ * columns directly, so quantities are created when they are accessed rather than kept for the
+ * lifetime of the recording.
+ * <p>
+ * When the events have been sorted, {@link #createEventArray(IItem[], IType, String[])} copies
+ * their values to new columns in sorted order. The events of the resulting array are small views
+ * that are created when they are accessed, so no object per event is kept.
+ * <p>
+ * A column falls back to a less compact representation if values do not fit, for example if a
+ * quantity has a different unit than the earlier values in the same column.
+ */
+class ColumnarItemBuilder {
+
+	private static final int INITIAL_CAPACITY = 16;
+	/**
+	 * Dictionaries are abandoned for plain object storage if they grow larger than this and have
+	 * more entries than half the number of rows.
+	 */
+	private static final int MAX_DICTIONARY_SIZE = 1 << 12;
+
+	private final IType<IItem> type;
+	private final boolean[] quantityFields;
+
+	ColumnarItemBuilder(StructContentType<IItem> et, List<ValueField> dataStructure) {
+		type = et;
+		quantityFields = new boolean[dataStructure.size()];
+		for (int i = 0; i < dataStructure.size(); i++) {
+			ValueField vf = dataStructure.get(i);
+			quantityFields[i] = vf.getContentType() instanceof KindOfQuantity;
+			addField(et, vf, quantityFields[i] ? new QuantityColumnAccessor(i) : new ColumnAccessor(i));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <M> void addField(StructContentType<IItem> et, ValueField vf, IMemberAccessor<?, IItem> a) {
+		et.addField(vf.getIdentifier(), (ContentType<M>) vf.getContentType(), vf.getName(), vf.getDescription(),
+				(IMemberAccessor<M, IItem>) a);
+	}
+
+	/**
+	 * Create a factory for a new lane. Each lane has its own columns, so a lane may only be used by
+	 * one thread at a time.
+	 *
+	 * @return a new item factory
+	 */
+	IItemFactory createLane() {
+		Column[] columns = new Column[quantityFields.length];
+		for (int i = 0; i < columns.length; i++) {
+			columns[i] = quantityFields[i] ? new EmptyQuantityColumn() : new DictionaryColumn();
+		}
+		return new Lane(this, columns);
+	}
+
+	/**
+	 * Create an event array from sorted events that were created by lanes of a columnar item
+	 * builder. The values are copied to new columns in the order of the events, so that the events
+	 * and the columns of their lanes do not have to be kept.
+	 *
+	 * @param events
+	 *            sorted events
+	 * @param type
+	 *            the type of the events
+	 * @param typeCategory
+	 *            the category of the type
+	 * @return an event array that creates events when they are accessed
+	 */
+	static EventArray createEventArray(IItem[] events, IType<IItem> type, String[] typeCategory) {
+		if (events.length == 0) {
+			return new EventArray(events, type, typeCategory);
+		}
+		Lane source = ((ColumnItem) events[0]).lane;
+		Lane lane;
+		if (isInLaneOrder(events, source)) {
+			lane = source;
+		} else {
+			lane = (Lane) source.builder.createLane();
+			for (IItem event : events) {
+				ColumnItem item = (ColumnItem) event;
+				lane.copy(item.lane, item.index);
+			}
+		}
+		lane.trim();
+		return new EventArray(lane.size, lane::getItem, type, typeCategory);
+	}
+
+	private static boolean isInLaneOrder(IItem[] events, Lane lane) {
+		if (lane.size != events.length) {
+			return false;
+		}
+		for (int i = 0; i < events.length; i++) {
+			ColumnItem item = (ColumnItem) events[i];
+			if (item.lane != lane || item.index != i) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static class Lane implements IItemFactory {
+
+		private final ColumnarItemBuilder builder;
+		private final Column[] columns;
+		private int size;
+
+		Lane(ColumnarItemBuilder builder, Column[] columns) {
+			this.builder = builder;
+			this.columns = columns;
+		}
+
+		@Override
+		public IItem createEvent(Object ... values) {
+			int index = size++;
+			for (int i = 0; i < columns.length; i++) {
+				columns[i] = columns[i].add(index, values[i]);
+			}
+			return new ColumnItem(this, index);
+		}
+
+		void copy(Lane source, int sourceIndex) {
+			int index = size++;
+			for (int i = 0; i < columns.length; i++) {
+				columns[i] = columns[i].copy(index, source.columns[i], sourceIndex);
+			}
+		}
+
+		void trim() {
+			for (Column column : columns) {
+				column.trim(size);
+			}
+		}
+
+		IItem getItem(int index) {
+			return new ColumnItem(this, index);
+		}
+	}
+
+	/**
+	 * View of one row of a lane. Views are created when events are accessed, so views of the same
+	 * row are equal.
+	 */
+	private static class ColumnItem implements IItem {
+
+		private final Lane lane;
+		private final int index;
+
+		ColumnItem(Lane lane, int index) {
+			this.lane = lane;
+			this.index = index;
+		}
+
+		@Override
+		public IType<IItem> getType() {
+			return lane.builder.type;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(lane) + index;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj instanceof ColumnItem) {
+				ColumnItem other = (ColumnItem) obj;
+				return lane == other.lane && index == other.index;
+			}
+			return false;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder(lane.builder.type.toString());
+			// Limit the output in the same way as the nested item classes in ItemBuilder
+			for (int i = 0; i < Math.min(lane.columns.length, 13); i++) {
+				Object o = lane.columns[i].get(index);
+				sb.append(' ');
+				sb.append(o instanceof IQuantity ? ((IQuantity) o).displayUsing(IDisplayable.AUTO) : String.valueOf(o));
+			}
+			return sb.toString();
+		}
+	}
+
+	private static final class ColumnAccessor implements IMemberAccessor<Object, IItem> {
+
+		private final int column;
+
+		ColumnAccessor(int column) {
+			this.column = column;
+		}
+
+		@Override
+		public Object getMember(IItem o) {
+			ColumnItem item = (ColumnItem) o;
+			return item.lane.columns[column].get(item.index);
+		}
+	}
+
+	/**
+	 * Accessor for quantity fields that reads the primitive values directly from the columns that
+	 * still are {@link QuantityColumn}s, so that aggregators do not need to create quantities.
+	 */
+	private static final class QuantityColumnAccessor implements IQuantityMemberAccessor<IItem> {
+
+		private final int column;
+
+		QuantityColumnAccessor(int column) {
+			this.column = column;
+		}
+
+		@Override
+		public IQuantity getMember(IItem o) {
+			ColumnItem item = (ColumnItem) o;
+			return (IQuantity) item.lane.columns[column].get(item.index);
+		}
+
+		@Override
+		public IUnit getUnit(IItem o) {
+			ColumnItem item = (ColumnItem) o;
+			Column c = item.lane.columns[column];
+			if (c instanceof QuantityColumn) {
+				return ((QuantityColumn) c).unit;
+			}
+			IQuantity quantity = (IQuantity) c.get(item.index);
+			return quantity == null ? null : quantity.getUnit();
+		}
+
+		@Override
+		public boolean isLong(IItem o) {
+			ColumnItem item = (ColumnItem) o;
+			Column c = item.lane.columns[column];
+			if (c instanceof QuantityColumn) {
+				return ((QuantityColumn) c).isLong();
+			}
+			return ((IQuantity) c.get(item.index)).numberValue() instanceof Long;
+		}
+
+		@Override
+		public long getLong(IItem o) {
+			ColumnItem item = (ColumnItem) o;
+			Column c = item.lane.columns[column];
+			if (c instanceof QuantityColumn) {
+				return ((QuantityColumn) c).getLong(item.index);
+			}
+			return ((IQuantity) c.get(item.index)).longValue();
+		}
+
+		@Override
+		public double getDouble(IItem o) {
+			ColumnItem item = (ColumnItem) o;
+			Column c = item.lane.columns[column];
+			if (c instanceof QuantityColumn) {
+				return ((QuantityColumn) c).getDouble(item.index);
+			}
+			return ((IQuantity) c.get(item.index)).doubleValue();
+		}
+	}
+
+	private abstract static class Column {
+
+		/**
+		 * Add a value to the column.
+		 *
+		 * @param index
+		 *            row index, always one more than the previously added row
+		 * @param value
+		 *            value to add
+		 * @return the column that holds the value, which is a new column if this one could not
+		 *         store the value
+		 */
+		abstract Column add(int index, Object value);
+
+		/**
+		 * Add a value from another column of the same field.
+		 *
+		 * @param index
+		 *            row index, always one more than the previously added row
+		 * @param source
+		 *            the column to copy the value from
+		 * @param sourceIndex
+		 *            the row index in the source column
+		 * @return the column that holds the value
+		 */
+		Column copy(int index, Column source, int sourceIndex) {
+			return add(index, source.get(sourceIndex));
+		}
+
+		abstract Object get(int index);
+
+		/**
+		 * Release unused capacity.
+		 *
+		 * @param size
+		 *            the number of rows
+		 */
+		abstract void trim(int size);
+
+		static int grow(int length, int index) {
+			return index < length ? length : Math.max(INITIAL_CAPACITY, length + (length >> 1));
+		}
+
+		/**
+		 * Move the values of this column to another column.
+		 */
+		Column fallback(Column column, int index, Object value) {
+			for (int i = 0; i < index; i++) {
+				column = column.add(i, get(i));
+			}
+			return column.add(index, value);
+		}
+	}
+
+	/**
+	 * Quantity column without any values. Replaced by a column of the storage type of the first
+	 * value.
+	 */
+	private static class EmptyQuantityColumn extends Column {
+
+		@Override
+		Column add(int index, Object value) {
+			Column column = new DictionaryColumn();
+			if (value instanceof IQuantity) {
+				IQuantity quantity = (IQuantity) value;
+				Number number = quantity.numberValue();
+				if (number instanceof Long) {
+					column = new IntQuantityColumn(quantity.getUnit());
+				} else if (number instanceof Double) {
+					column = new FloatQuantityColumn(quantity.getUnit());
+				}
+			}
+			return column.add(index, value);
+		}
+
+		@Override
+		Object get(int index) {
+			throw new IndexOutOfBoundsException(Integer.toString(index));
+		}
+
+		@Override
+		void trim(int size) {
+		}
+	}
+
+	/**
+	 * Stores quantities as primitive values in a single unit. Integral values are stored as
+	 * {@code int} until a value does not fit, and floating point values are stored as {@code float}
+	 * until a value can not be represented exactly.
+	 */
+	private abstract static class QuantityColumn extends Column {
+
+		final IUnit unit;
+
+		QuantityColumn(IUnit unit) {
+			this.unit = unit;
+		}
+
+		@Override
+		Column add(int index, Object value) {
+			if (value instanceof IQuantity) {
+				IQuantity quantity = (IQuantity) value;
+				if (unit == quantity.getUnit() || unit.equals(quantity.getUnit())) {
+					Number number = quantity.numberValue();
+					Column column = null;
+					if (number instanceof Long) {
+						column = addLong(index, number.longValue());
+					} else if (number instanceof Double) {
+						column = addDouble(index, number.doubleValue());
+					}
+					if (column != null) {
+						return column;
+					}
+				}
+			}
+			return fallback(new DictionaryColumn(), index, value);
+		}
+
+		@Override
+		Column copy(int index, Column source, int sourceIndex) {
+			if (source instanceof QuantityColumn) {
+				QuantityColumn quantitySource = (QuantityColumn) source;
+				if (quantitySource.isLong() == isLong()
+						&& (unit == quantitySource.unit || unit.equals(quantitySource.unit))) {
+					Column column = isLong() ? addLong(index, quantitySource.getLong(sourceIndex))
+							: addDouble(index, quantitySource.getDouble(sourceIndex));
+					if (column != null) {
+						return column;
+					}
+				}
+			}
+			return add(index, source.get(sourceIndex));
+		}
+
+		@Override
+		Object get(int index) {
+			return isLong() ? unit.quantity(getLong(index)) : unit.quantity(getDouble(index));
+		}
+
+		/**
+		 * @return the column that holds the value, or {@code null} if this column does not hold
+		 *         integral values
+		 */
+		Column addLong(int index, long value) {
+			return null;
+		}
+
+		/**
+		 * @return the column that holds the value, or {@code null} if this column does not hold
+		 *         floating point values
+		 */
+		Column addDouble(int index, double value) {
+			return null;
+		}
+
+		abstract boolean isLong();
+
+		abstract long getLong(int index);
+
+		abstract double getDouble(int index);
+	}
+
+	private static class IntQuantityColumn extends QuantityColumn {
+
+		private int[] values = new int[0];
+
+		IntQuantityColumn(IUnit unit) {
+			super(unit);
+		}
+
+		@Override
+		Column addLong(int index, long value) {
+			if ((int) value != value) {
+				long[] longs = new long[Math.max(values.length, index + 1)];
+				for (int i = 0; i < index; i++) {
+					longs[i] = values[i];
+				}
+				return new LongQuantityColumn(unit, longs).addLong(index, value);
+			}
+			if (index >= values.length) {
+				values = Arrays.copyOf(values, grow(values.length, index));
+			}
+			values[index] = (int) value;
+			return this;
+		}
+
+		@Override
+		boolean isLong() {
+			return true;
+		}
+
+		@Override
+		long getLong(int index) {
+			return values[index];
+		}
+
+		@Override
+		double getDouble(int index) {
+			return values[index];
+		}
+
+		@Override
+		void trim(int size) {
+			if (values.length > size) {
+				values = Arrays.copyOf(values, size);
+			}
+		}
+	}
+
+	private static class LongQuantityColumn extends QuantityColumn {
+
+		private long[] values;
+
+		LongQuantityColumn(IUnit unit, long[] values) {
+			super(unit);
+			this.values = values;
+		}
+
+		@Override
+		Column addLong(int index, long value) {
+			if (index >= values.length) {
+				values = Arrays.copyOf(values, grow(values.length, index));
+			}
+			values[index] = value;
+			return this;
+		}
+
+		@Override
+		boolean isLong() {
+			return true;
+		}
+
+		@Override
+		long getLong(int index) {
+			return values[index];
+		}
+
+		@Override
+		double getDouble(int index) {
+			return values[index];
+		}
+
+		@Override
+		void trim(int size) {
+			if (values.length > size) {
+				values = Arrays.copyOf(values, size);
+			}
+		}
+	}
+
+	private static class FloatQuantityColumn extends QuantityColumn {
+
+		private float[] values = new float[0];
+
+		FloatQuantityColumn(IUnit unit) {
+			super(unit);
+		}
+
+		@Override
+		Column addDouble(int index, double value) {
+			if ((float) value != value && !Double.isNaN(value)) {
+				double[] doubles = new double[Math.max(values.length, index + 1)];
+				for (int i = 0; i < index; i++) {
+					doubles[i] = values[i];
+				}
+				return new DoubleQuantityColumn(unit, doubles).addDouble(index, value);
+			}
+			if (index >= values.length) {
+				values = Arrays.copyOf(values, grow(values.length, index));
+			}
+			values[index] = (float) value;
+			return this;
+		}
+
+		@Override
+		boolean isLong() {
+			return false;
+		}
+
+		@Override
+		long getLong(int index) {
+			return (long) values[index];
+		}
+
+		@Override
+		double getDouble(int index) {
+			return values[index];
+		}
+
+		@Override
+		void trim(int size) {
+			if (values.length > size) {
+				values = Arrays.copyOf(values, size);
+			}
+		}
+	}
+
+	private static class DoubleQuantityColumn extends QuantityColumn {
+
+		private double[] values;
+
+		DoubleQuantityColumn(IUnit unit, double[] values) {
+			super(unit);
+			this.values = values;
+		}
+
+		@Override
+		Column addDouble(int index, double value) {
+			if (index >= values.length) {
+				values = Arrays.copyOf(values, grow(values.length, index));
+			}
+			values[index] = value;
+			return this;
+		}
+
+		@Override
+		boolean isLong() {
+			return false;
+		}
+
+		@Override
+		long getLong(int index) {
+			return (long) values[index];
+		}
+
+		@Override
+		double getDouble(int index) {
+			return values[index];
+		}
+
+		@Override
+		void trim(int size) {
+			if (values.length > size) {
+				values = Arrays.copyOf(values, size);
+			}
+		}
+	}
+
+	/**
+	 * Stores values as indexes into a dictionary of distinct instances. Constant pool values are
+	 * canonical, so identity is used for looking up the dictionary entries.
+	 */
+	private static class DictionaryColumn extends Column {
+
+		private final Map<Object, Integer> ids = new IdentityHashMap<>();
+		private Object[] dictionary = new Object[0];
+		private int[] refs = new int[0];
+
+		@Override
+		Column add(int index, Object value) {
+			int id = -1;
+			if (value != null) {
+				Integer existing = ids.get(value);
+				if (existing == null) {
+					id = ids.size();
+					if (id >= MAX_DICTIONARY_SIZE && id > index / 2) {
+						return fallback(new ObjectColumn(), index, value);
+					}
+					ids.put(value, id);
+					if (id >= dictionary.length) {
+						dictionary = Arrays.copyOf(dictionary, grow(dictionary.length, id));
+					}
+					dictionary[id] = value;
+				} else {
+					id = existing;
+				}
+			}
+			if (index >= refs.length) {
+				refs = Arrays.copyOf(refs, grow(refs.length, index));
+			}
+			refs[index] = id;
+			return this;
+		}
+
+		@Override
+		Object get(int index) {
+			int id = refs[index];
+			return id < 0 ? null : dictionary[id];
+		}
+
+		@Override
+		void trim(int size) {
+			if (refs.length > size) {
+				refs = Arrays.copyOf(refs, size);
+			}
+			if (dictionary.length > ids.size()) {
+				dictionary = Arrays.copyOf(dictionary, ids.size());
+			}
+		}
+	}
+
+	/**
+	 * Plain object storage for values that neither are quantities nor repeat enough for a
+	 * dictionary to be useful.
+	 */
+	private static class ObjectColumn extends Column {
+
+		private Object[] values = new Object[0];
+
+		@Override
+		Column add(int index, Object value) {
+			if (index >= values.length) {
+				values = Arrays.copyOf(values, grow(values.length, index));
+			}
+			values[index] = value;
+			return this;
+		}
+
+		@Override
+		Object get(int index) {
+			return values[index];
+		}
+
+		@Override
+		void trim(int size) {
+			if (values.length > size) {
+				values = Arrays.copyOf(values, size);
+			}
+		}
+	}
+}
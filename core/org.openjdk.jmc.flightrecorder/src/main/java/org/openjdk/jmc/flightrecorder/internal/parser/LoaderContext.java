@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -47,6 +47,7 @@ import org.openjdk.jmc.common.item.IAttribute;
 import org.openjdk.jmc.common.item.IItem;
 import org.openjdk.jmc.common.unit.IQuantity;
 import org.openjdk.jmc.common.unit.IRange;
+import org.openjdk.jmc.common.unit.StructContentType;
 import org.openjdk.jmc.flightrecorder.CouldNotLoadRecordingException;
 import org.openjdk.jmc.flightrecorder.JfrAttributes;
 import org.openjdk.jmc.flightrecorder.internal.EventArray;
@@ -62,7 +63,7 @@ import org.openjdk.jmc.flightrecorder.parser.IParserExtension;
  * Collects all loaded chunks and combines them to a FlightRecording.
  */
 public class LoaderContext {
-	private final RepositoryBuilder repositoryBuilder = new RepositoryBuilder();
+	private final RepositoryBuilder repositoryBuilder;
 	private final IEventSinkFactory sinkFactory;
 	private final ConcurrentHashMap<Object, CanonicalConstantMap<Object>> constantsByType = new ConcurrentHashMap<>();
 	private final boolean hideExperimentals;
@@ -72,6 +73,22 @@ public class LoaderContext {
 	private final ParserStats parserStats = new ParserStats();
 
 	public LoaderContext(List<? extends IParserExtension> extensions, boolean hideExperimentals) {
+		this(extensions, hideExperimentals, false);
+	}
+
+	/**
+	 * @param extensions
+	 *            the extensions to use when parsing
+	 * @param hideExperimentals
+	 *            if {@code true}, then events of types marked as experimental will be ignored
+	 * @param columnarStorage
+	 *            if {@code true}, then event values are stored in primitive columns instead of in
+	 *            one object per event. This uses less memory for large recordings but makes each
+	 *            attribute access create the returned value.
+	 */
+	public LoaderContext(List<? extends IParserExtension> extensions, boolean hideExperimentals,
+			boolean columnarStorage) {
+		this.repositoryBuilder = new RepositoryBuilder(columnarStorage);
 		this.extensions = extensions;
 		this.hideExperimentals = hideExperimentals;
 		IEventSinkFactory sinkFactory = repositoryBuilder;
@@ -147,31 +164,20 @@ public class LoaderContext {
 		this.chunkRanges.add(chunkRange);
 	}
 
-	@SuppressWarnings("deprecation")
 	public EventArrays buildEventArrays() throws CouldNotLoadRecordingException {
 		sinkFactory.flush();
 		Iterator<EventTypeEntry> eventTypes = repositoryBuilder.getEventTypes();
 		ArrayList<EventArray> eventArrays = new ArrayList<>();
 		while (eventTypes.hasNext()) {
 			EventTypeEntry ete = eventTypes.next();
-			ete.eventType.addExtraAttribute(0, JfrAttributes.EVENT_TYPE);
-			List<IAttribute<?>> attributes = ete.eventType.getAttributes();
-			if (attributes.contains(JfrAttributes.START_TIME)) {
-				int endTimeIndex = attributes.indexOf(JfrAttributes.END_TIME);
-				int durationIndex = attributes.indexOf(JfrAttributes.DURATION);
-				if (endTimeIndex >= 0 && durationIndex < 0) {
-					ete.eventType.addExtraAttribute(endTimeIndex, JfrAttributes.DURATION); // for pre-JDK9 recordings
-				} else if (durationIndex >= 0 && endTimeIndex < 0) {
-					ete.eventType.addExtraAttribute(durationIndex + 1, JfrAttributes.END_TIME); // for JDK9 recordings
-				}
-			}
+			addExtraAttributes(ete.eventType);
 			Collection<IItem[]> sortedArrays = ete.buildSortedArrays();
 			if (sortedArrays.isEmpty()) {
 				// include all event types, even if there are no events
 				eventArrays.add(new EventArray(new IItem[] {}, ete.eventType, ete.category));
 			} else {
 				for (IItem[] ea : sortedArrays) {
-					eventArrays.add(new EventArray(ea, ete.eventType, ete.category));
+					eventArrays.add(repositoryBuilder.createEventArray(ea, ete.eventType, ete.category));
 				}
 			}
 
@@ -179,6 +185,24 @@ public class LoaderContext {
 		return new EventArrays(eventArrays.toArray(new EventArray[eventArrays.size()]), chunkRanges, parserStats);
 	}
 
+	/**
+	 * Add the attributes that all event types have but that are not fields of the events.
+	 */
+	@SuppressWarnings("deprecation")
+	static void addExtraAttributes(StructContentType<IItem> eventType) {
+		eventType.addExtraAttribute(0, JfrAttributes.EVENT_TYPE);
+		List<IAttribute<?>> attributes = eventType.getAttributes();
+		if (attributes.contains(JfrAttributes.START_TIME)) {
+			int endTimeIndex = attributes.indexOf(JfrAttributes.END_TIME);
+			int durationIndex = attributes.indexOf(JfrAttributes.DURATION);
+			if (endTimeIndex >= 0 && durationIndex < 0) {
+				eventType.addExtraAttribute(endTimeIndex, JfrAttributes.DURATION); // for pre-JDK9 recordings
+			} else if (durationIndex >= 0 && endTimeIndex < 0) {
+				eventType.addExtraAttribute(durationIndex + 1, JfrAttributes.END_TIME); // for JDK9 recordings
+			}
+		}
+	}
+
 	public void incChunkCount() {
 		parserStats.incChunkCount();
 	}
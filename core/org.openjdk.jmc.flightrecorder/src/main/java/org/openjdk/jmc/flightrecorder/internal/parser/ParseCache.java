@@ -0,0 +1,1132 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.flightrecorder.internal.parser;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+import org.openjdk.jmc.common.IDescribable;
+import org.openjdk.jmc.common.IMCFrame;
+import org.openjdk.jmc.common.collection.FastAccessNumberMap;
+import org.openjdk.jmc.common.item.IAccessorKey;
+import org.openjdk.jmc.common.item.IItem;
+import org.openjdk.jmc.common.item.IMemberAccessor;
+import org.openjdk.jmc.common.item.IType;
+import org.openjdk.jmc.common.unit.ContentType;
+import org.openjdk.jmc.common.unit.IQuantity;
+import org.openjdk.jmc.common.unit.IRange;
+import org.openjdk.jmc.common.unit.ITypedQuantity;
+import org.openjdk.jmc.common.unit.IUnit;
+import org.openjdk.jmc.common.unit.KindOfQuantity;
+import org.openjdk.jmc.common.unit.LinearKindOfQuantity;
+import org.openjdk.jmc.common.unit.LinearUnit;
+import org.openjdk.jmc.common.unit.QuantityRange;
+import org.openjdk.jmc.common.unit.StructContentType;
+import org.openjdk.jmc.common.unit.UnitLookup;
+import org.openjdk.jmc.common.util.LabeledIdentifier;
+import org.openjdk.jmc.common.util.MemberAccessorToolkit;
+import org.openjdk.jmc.flightrecorder.internal.EventArray;
+import org.openjdk.jmc.flightrecorder.internal.EventArrays;
+import org.openjdk.jmc.flightrecorder.internal.parser.ItemBuilder.IItemFactory;
+import org.openjdk.jmc.flightrecorder.internal.parser.ParserStats.ConstantPoolInfo;
+import org.openjdk.jmc.flightrecorder.internal.parser.v1.StructValues;
+import org.openjdk.jmc.flightrecorder.parser.IParserExtension;
+import org.openjdk.jmc.flightrecorder.parser.ValueField;
+
+/**
+ * Sidecar file that holds a fully parsed recording, so that opening the recording again does not
+ * have to parse it.
+ * <p>
+ * The file holds the event types, the events of each {@link EventArray} in sorted order, the
+ * resolved constant pools and the {@link ParserStats}. Quantity fields that share a unit are stored
+ * as {@code long} or {@code double} columns, and other fields as {@code int} references into a
+ * table of distinct values. Constants that are shared by many events, like stack traces and
+ * threads, are stored once in the value table. The file is memory mapped when it is read, and the
+ * events are created directly in their stored order, so reading it is bounded by creating the items
+ * rather than by parsing, resolving and sorting.
+ * <p>
+ * A cache file is only used if the size, modification time and a checksum of the start and end of
+ * the recording, as well as the parser extensions and parser options, are the same as when it was
+ * written. Recordings with values that the cache cannot represent, such as values created by parser
+ * extensions or JDK 7 and 8 recordings, are not cached.
+ */
+public class ParseCache {
+
+	private static final int MAGIC = 0x4A4D4350; // JMCP
+	private static final int VERSION = 1;
+	// Number of bytes at the start and end of the recording to include in the checksum
+	private static final int CHECKSUM_BYTES = 64 * 1024;
+	// Size of the regions of the cache file that are mapped at a time
+	private static final int MAP_WINDOW_SIZE = 1 << 28;
+
+	private static final int NULL_REF = -1;
+
+	private static final byte TAG_STRING = 1;
+	private static final byte TAG_BOOLEAN = 2;
+	private static final byte TAG_CHARACTER = 3;
+	private static final byte TAG_BYTE = 4;
+	private static final byte TAG_SHORT = 5;
+	private static final byte TAG_INTEGER = 6;
+	private static final byte TAG_LONG = 7;
+	private static final byte TAG_FLOAT = 8;
+	private static final byte TAG_DOUBLE = 9;
+	private static final byte TAG_LONG_QUANTITY = 10;
+	private static final byte TAG_DOUBLE_QUANTITY = 11;
+	private static final byte TAG_ARRAY = 12;
+	private static final byte TAG_LIST = 13;
+	private static final byte TAG_FRAME_TYPE = 14;
+	private static final byte TAG_LABELED_IDENTIFIER = 15;
+	private static final byte TAG_STRUCT = 16;
+
+	private static final byte COLUMN_LONGS = 1;
+	private static final byte COLUMN_DOUBLES = 2;
+	private static final byte COLUMN_REFS = 3;
+
+	private static final byte CONTENT_TYPE_KNOWN = 1;
+	private static final byte CONTENT_TYPE_STRUCT = 2;
+
+	private static final Map<String, ContentType<?>> KNOWN_CONTENT_TYPES = new HashMap<>();
+	private static final Map<String, IMCFrame.Type> KNOWN_FRAME_TYPES = new HashMap<>();
+
+	static {
+		for (ContentType<?> type : UnitLookup.getAllContentTypes()) {
+			KNOWN_CONTENT_TYPES.put(type.getIdentifier(), type);
+		}
+		for (ContentType<?> type : Arrays.asList(UnitLookup.RAW_NUMBER, UnitLookup.RAW_LONG, UnitLookup.UNIT,
+				UnitLookup.TIMERANGE, UnitLookup.OLD_OBJECT_ARRAY, UnitLookup.OLD_OBJECT_FIELD,
+				UnitLookup.OLD_OBJECT_GC_ROOT)) {
+			KNOWN_CONTENT_TYPES.put(type.getIdentifier(), type);
+		}
+		for (IMCFrame.Type type : Arrays.asList(IMCFrame.Type.JIT_COMPILED, IMCFrame.Type.INTERPRETED,
+				IMCFrame.Type.INLINED, IMCFrame.Type.NATIVE, IMCFrame.Type.CPP, IMCFrame.Type.KERNEL,
+				IMCFrame.Type.UNKNOWN)) {
+			KNOWN_FRAME_TYPES.put(type.toString(), type);
+		}
+	}
+
+	/**
+	 * Thrown when a parsed recording holds something that the cache cannot represent.
+	 */
+	private static class UncacheableException extends Exception {
+		private static final long serialVersionUID = 1L;
+
+		UncacheableException(String message) {
+			super(message);
+		}
+	}
+
+	/**
+	 * Write a parsed recording to a cache file. The file is written to a temporary file first and
+	 * then moved into place, so a partially written cache is never read.
+	 *
+	 * @param cacheFile
+	 *            the file to write
+	 * @param recording
+	 *            the recording that was parsed
+	 * @param extensions
+	 *            the extensions that were used when parsing
+	 * @param hideExperimentals
+	 *            the option that was used when parsing
+	 * @param ignoreTruncatedChunk
+	 *            the option that was used when parsing
+	 * @param events
+	 *            the result of parsing the whole recording
+	 * @return {@code true} if the cache file was written, {@code false} if the parsed recording
+	 *         cannot be cached
+	 */
+	public static boolean write(
+		File cacheFile, File recording, List<? extends IParserExtension> extensions, boolean hideExperimentals,
+		boolean ignoreTruncatedChunk, EventArrays events) throws IOException {
+		Writer writer = new Writer();
+		try {
+			writer.collect(events);
+		} catch (UncacheableException e) {
+			return false;
+		}
+		File tmpFile = new File(cacheFile.getPath() + ".tmp"); //$NON-NLS-1$
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(recording.length());
+			out.writeLong(recording.lastModified());
+			out.writeLong(checksum(recording));
+			writeString(out, describe(extensions));
+			out.writeBoolean(hideExperimentals);
+			out.writeBoolean(ignoreTruncatedChunk);
+			writer.write(out, events);
+		}
+		Files.move(tmpFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		return true;
+	}
+
+	/**
+	 * Read a parsed recording from a cache file.
+	 *
+	 * @param cacheFile
+	 *            the file to read
+	 * @param recording
+	 *            the recording that the cache file must match
+	 * @param extensions
+	 *            the extensions that the cache file must have been written with
+	 * @param hideExperimentals
+	 *            the option that the cache file must have been written with
+	 * @param ignoreTruncatedChunk
+	 *            the option that the cache file must have been written with
+	 * @param columnarStorage
+	 *            if {@code true}, then event values are stored in columns, see
+	 *            {@link ColumnarItemBuilder}
+	 * @return the parsed recording, or {@code null} if the cache file does not exist or does not
+	 *         match the recording
+	 * @throws IOException
+	 *             if the cache file could not be read or is corrupt
+	 */
+	public static EventArrays read(
+		File cacheFile, File recording, List<? extends IParserExtension> extensions, boolean hideExperimentals,
+		boolean ignoreTruncatedChunk, boolean columnarStorage) throws IOException {
+		if (!cacheFile.isFile()) {
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(cacheFile.toPath(), StandardOpenOption.READ)) {
+			MappedInput in = new MappedInput(channel);
+			if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readLong() != recording.length()
+					|| in.readLong() != recording.lastModified() || in.readLong() != checksum(recording)
+					|| !describe(extensions).equals(in.readString()) || in.readBoolean() != hideExperimentals
+					|| in.readBoolean() != ignoreTruncatedChunk) {
+				return null;
+			}
+			return new Reader(in, new RepositoryBuilder(columnarStorage)).read();
+		} catch (BufferUnderflowException
+				| IllegalArgumentException
+				| IndexOutOfBoundsException
+				| NegativeArraySizeException
+				| ClassCastException e) {
+			throw new IOException("Corrupt parse cache " + cacheFile, e); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * @return a string that identifies the parser extensions
+	 */
+	public static String describe(List<? extends IParserExtension> extensions) {
+		List<String> names = new ArrayList<>(extensions.size());
+		for (IParserExtension extension : extensions) {
+			names.add(extension.getClass().getName());
+		}
+		return String.join(",", names); //$NON-NLS-1$
+	}
+
+	/**
+	 * @return a checksum of the start and the end of a recording file
+	 */
+	public static long checksum(File recording) throws IOException {
+		CRC32 crc = new CRC32();
+		byte[] buffer = new byte[CHECKSUM_BYTES];
+		try (RandomAccessFile raf = new RandomAccessFile(recording, "r")) { //$NON-NLS-1$
+			long length = raf.length();
+			int head = (int) Math.min(length, CHECKSUM_BYTES);
+			raf.readFully(buffer, 0, head);
+			crc.update(buffer, 0, head);
+			if (length > CHECKSUM_BYTES) {
+				int tail = (int) Math.min(length - CHECKSUM_BYTES, CHECKSUM_BYTES);
+				raf.seek(length - tail);
+				raf.readFully(buffer, 0, tail);
+				crc.update(buffer, 0, tail);
+			}
+		}
+		return crc.getValue();
+	}
+
+	private static void writeString(DataOutputStream out, String s) throws IOException {
+		if (s == null) {
+			out.writeInt(-1);
+		} else {
+			// UTF-16 code units, so that any string is kept exactly as it was
+			out.writeInt(s.length());
+			out.writeChars(s);
+		}
+	}
+
+	/**
+	 * Description as given to the {@link StructContentType} constructor.
+	 */
+	private static String getDeclaredDescription(ContentType<?> type) {
+		String description = type.getDescription();
+		String suffix = '[' + type.getIdentifier() + ']';
+		if (description.equals(suffix)) {
+			return null;
+		}
+		return description.substring(0, description.length() - suffix.length() - 1);
+	}
+
+	/**
+	 * @return the fields of a struct type, in the order that they were added
+	 */
+	private static <T> List<ValueField> getFields(IType<T> type) {
+		List<ValueField> fields = new ArrayList<>();
+		for (Map.Entry<IAccessorKey<?>, ? extends IDescribable> entry : type.getAccessorKeys().entrySet()) {
+			fields.add(new ValueField(entry.getKey().getIdentifier(), entry.getValue().getName(),
+					entry.getValue().getDescription(), entry.getKey().getContentType()));
+		}
+		return fields;
+	}
+
+	private static class Writer {
+
+		private final Map<Object, Integer> valueIds = new IdentityHashMap<>();
+		private final ByteArrayOutputStream valueBytes = new ByteArrayOutputStream();
+		private final DataOutputStream values = new DataOutputStream(valueBytes);
+		private int valueCount;
+		private final Map<IUnit, Integer> unitIds = new IdentityHashMap<>();
+		private final List<IUnit> units = new ArrayList<>();
+		private final Map<String, String[]> structSchemas = new LinkedHashMap<>();
+		private final Map<ContentType<?>, Integer> structTypeIds = new IdentityHashMap<>();
+		private final List<StructContentType<?>> structTypes = new ArrayList<>();
+		private final Map<IType<IItem>, Integer> eventTypeIds = new IdentityHashMap<>();
+		private final List<StructContentType<IItem>> eventTypes = new ArrayList<>();
+		private final Map<IType<IItem>, List<ValueField>> eventTypeFields = new IdentityHashMap<>();
+		// Column kinds for each field of each event array
+		private final List<byte[]> columnKinds = new ArrayList<>();
+
+		/**
+		 * Collect event types, units and values, and choose the column kinds.
+		 */
+		void collect(EventArrays events) throws UncacheableException, IOException {
+			ParserStats stats = events.getParserStats();
+			if (!stats.getConstantPoolExtensions().isEmpty()) {
+				throw new UncacheableException("Constant pool extensions"); //$NON-NLS-1$
+			}
+			for (EventArray array : events.getArrays()) {
+				List<ValueField> fields = registerEventType(array.getType());
+				byte[] kinds = new byte[fields.size()];
+				for (int i = 0; i < kinds.length; i++) {
+					IMemberAccessor<?, IItem> accessor = getAccessor(array.getType(), fields.get(i));
+					kinds[i] = chooseColumnKind(array, accessor);
+					if (kinds[i] == COLUMN_REFS) {
+						for (int j = 0; j < array.getSize(); j++) {
+							intern(accessor.getMember(array.getEvent(j)));
+						}
+					} else {
+						registerUnit(((IQuantity) accessor.getMember(array.getEvent(0))).getUnit());
+					}
+				}
+				columnKinds.add(kinds);
+			}
+			for (ConstantPoolInfo info : stats.getConstantPoolInfos()) {
+				for (Object constant : info.constantPool) {
+					intern(constant);
+				}
+			}
+			for (IRange<IQuantity> range : events.getChunkTimeranges()) {
+				intern(range.getStart());
+				intern(range.getExtent());
+			}
+		}
+
+		void write(DataOutputStream out, EventArrays events) throws IOException {
+			out.writeInt(units.size());
+			for (IUnit unit : units) {
+				writeString(out, unit.getContentType().getIdentifier());
+				writeString(out, unit.getIdentifier());
+				out.writeDouble(getMultiplier(unit));
+			}
+			out.writeInt(structSchemas.size());
+			for (Map.Entry<String, String[]> schema : structSchemas.entrySet()) {
+				writeString(out, schema.getKey());
+				out.writeInt(schema.getValue().length);
+				for (String field : schema.getValue()) {
+					writeString(out, field);
+				}
+			}
+			out.writeInt(structTypes.size());
+			for (StructContentType<?> type : structTypes) {
+				writeString(out, type.getIdentifier());
+				writeString(out, type.getName());
+				writeString(out, getDeclaredDescription(type));
+			}
+			for (StructContentType<?> type : structTypes) {
+				writeFields(out, getFields(type));
+			}
+			out.writeInt(valueCount);
+			values.flush();
+			valueBytes.writeTo(out);
+			out.writeInt(eventTypes.size());
+			for (StructContentType<IItem> type : eventTypes) {
+				writeString(out, type.getIdentifier());
+				writeString(out, type.getName());
+				writeString(out, getDeclaredDescription(type));
+				writeFields(out, eventTypeFields.get(type));
+			}
+			EventArray[] arrays = events.getArrays();
+			out.writeInt(arrays.length);
+			for (EventArray array : arrays) {
+				out.writeInt(eventTypeIds.get(array.getType()));
+				String[] category = array.getTypeCategory();
+				out.writeInt(category == null ? -1 : category.length);
+				if (category != null) {
+					for (String c : category) {
+						writeString(out, c);
+					}
+				}
+			}
+			writeParserStats(out, events.getParserStats());
+			out.writeInt(events.getChunkTimeranges().size());
+			for (IRange<IQuantity> range : events.getChunkTimeranges()) {
+				out.writeInt(valueIds.get(range.getStart()));
+				out.writeInt(valueIds.get(range.getExtent()));
+			}
+			// The events go last, since they make up most of the file
+			for (int i = 0; i < arrays.length; i++) {
+				writeEvents(out, arrays[i], columnKinds.get(i));
+			}
+		}
+
+		private void writeFields(DataOutputStream out, List<ValueField> fields) throws IOException {
+			out.writeInt(fields.size());
+			for (ValueField field : fields) {
+				writeString(out, field.getIdentifier());
+				writeString(out, field.getName());
+				writeString(out, field.getDescription());
+				ContentType<?> contentType = field.getContentType();
+				Integer structId = structTypeIds.get(contentType);
+				if (structId != null) {
+					out.writeByte(CONTENT_TYPE_STRUCT);
+					out.writeInt(structId);
+				} else {
+					out.writeByte(CONTENT_TYPE_KNOWN);
+					writeString(out, contentType.getIdentifier());
+				}
+			}
+		}
+
+		private void writeParserStats(DataOutputStream out, ParserStats stats) throws IOException {
+			out.writeShort(stats.getMajorVersion());
+			out.writeShort(stats.getMinorVersion());
+			out.writeInt(stats.getChunkCount());
+			out.writeLong(stats.getSkippedEventCount());
+			List<Object[]> eventStats = new ArrayList<>();
+			stats.forEachEventType(s -> eventStats.add(new Object[] {s.getName(), s.getCount(), s.getTotalSize()}));
+			out.writeInt(eventStats.size());
+			for (Object[] s : eventStats) {
+				writeString(out, (String) s[0]);
+				out.writeLong((Long) s[1]);
+				out.writeLong((Long) s[2]);
+			}
+			Map<String, Long> entryPoolSizes = new LinkedHashMap<>();
+			stats.forEachEntryPoolSize(entryPoolSizes::put);
+			out.writeInt(entryPoolSizes.size());
+			for (Map.Entry<String, Long> entry : entryPoolSizes.entrySet()) {
+				writeString(out, entry.getKey());
+				out.writeLong(entry.getValue());
+			}
+			List<ConstantPoolInfo> pools = new ArrayList<>();
+			stats.getConstantPoolInfos().forEach(pools::add);
+			out.writeInt(pools.size());
+			for (ConstantPoolInfo info : pools) {
+				out.writeLong(info.id);
+				writeString(out, info.name);
+				List<Object> constants = new ArrayList<>();
+				info.constantPool.forEach(constants::add);
+				out.writeInt(constants.size());
+				for (Object constant : constants) {
+					out.writeInt(ref(constant));
+				}
+			}
+		}
+
+		private void writeEvents(DataOutputStream out, EventArray array, byte[] kinds) throws IOException {
+			int size = array.getSize();
+			List<ValueField> fields = eventTypeFields.get(array.getType());
+			out.writeInt(size);
+			for (int i = 0; i < kinds.length; i++) {
+				IMemberAccessor<?, IItem> accessor = getAccessor(array.getType(), fields.get(i));
+				out.writeByte(kinds[i]);
+				switch (kinds[i]) {
+				case COLUMN_LONGS:
+					out.writeInt(unitIds.get(((IQuantity) accessor.getMember(array.getEvent(0))).getUnit()));
+					for (int j = 0; j < size; j++) {
+						out.writeLong(((IQuantity) accessor.getMember(array.getEvent(j))).longValue());
+					}
+					break;
+				case COLUMN_DOUBLES:
+					out.writeInt(unitIds.get(((IQuantity) accessor.getMember(array.getEvent(0))).getUnit()));
+					for (int j = 0; j < size; j++) {
+						out.writeDouble(((IQuantity) accessor.getMember(array.getEvent(j))).doubleValue());
+					}
+					break;
+				default:
+					for (int j = 0; j < size; j++) {
+						out.writeInt(ref(accessor.getMember(array.getEvent(j))));
+					}
+				}
+			}
+		}
+
+		private int ref(Object value) {
+			return value == null ? NULL_REF : valueIds.get(value);
+		}
+
+		private List<ValueField> registerEventType(IType<IItem> type) throws UncacheableException {
+			List<ValueField> fields = eventTypeFields.get(type);
+			if (fields == null) {
+				if (!(type instanceof StructContentType)) {
+					throw new UncacheableException("Event type " + type.getIdentifier()); //$NON-NLS-1$
+				}
+				fields = getFields(type);
+				for (ValueField field : fields) {
+					registerContentType(field.getContentType());
+				}
+				eventTypeIds.put(type, eventTypes.size());
+				eventTypes.add((StructContentType<IItem>) type);
+				eventTypeFields.put(type, fields);
+			}
+			return fields;
+		}
+
+		private void registerContentType(ContentType<?> type) throws UncacheableException {
+			if (KNOWN_CONTENT_TYPES.get(type.getIdentifier()) == type || structTypeIds.containsKey(type)) {
+				return;
+			}
+			if (!(type instanceof StructContentType)) {
+				throw new UncacheableException("Content type " + type.getIdentifier()); //$NON-NLS-1$
+			}
+			// Register before the fields, since struct types may refer to themselves
+			structTypeIds.put(type, structTypes.size());
+			structTypes.add((StructContentType<?>) type);
+			for (ValueField field : getFields(type)) {
+				registerContentType(field.getContentType());
+			}
+		}
+
+		private int registerUnit(IUnit unit) throws UncacheableException {
+			Integer id = unitIds.get(unit);
+			if (id == null) {
+				KindOfQuantity<?> kind = unit.getContentType();
+				if (KNOWN_CONTENT_TYPES.get(kind.getIdentifier()) != kind || unit.getIdentifier() == null
+						|| (!(unit instanceof LinearUnit) && kind.getUnit(unit.getIdentifier()) != unit)) {
+					throw new UncacheableException("Unit " + unit); //$NON-NLS-1$
+				}
+				id = units.size();
+				unitIds.put(unit, id);
+				units.add(unit);
+			}
+			return id;
+		}
+
+		/**
+		 * Quantities with the same unit are stored in primitive columns, everything else as value
+		 * references.
+		 */
+		private static byte chooseColumnKind(EventArray events, IMemberAccessor<?, IItem> accessor) {
+			if (events.getSize() == 0) {
+				return COLUMN_REFS;
+			}
+			IUnit unit = null;
+			Class<?> numberClass = null;
+			for (int i = 0; i < events.getSize(); i++) {
+				Object value = accessor.getMember(events.getEvent(i));
+				if (!(value instanceof IQuantity)) {
+					return COLUMN_REFS;
+				}
+				IQuantity quantity = (IQuantity) value;
+				Class<?> c = quantity.numberValue().getClass();
+				if (unit == null) {
+					unit = quantity.getUnit();
+					numberClass = c;
+				} else if (unit != quantity.getUnit() || numberClass != c) {
+					return COLUMN_REFS;
+				}
+			}
+			if (numberClass == Long.class) {
+				return COLUMN_LONGS;
+			} else if (numberClass == Double.class) {
+				return COLUMN_DOUBLES;
+			}
+			return COLUMN_REFS;
+		}
+
+		/**
+		 * Add a value, and the values that it refers to, to the value table. Values are written
+		 * after the values that they refer to.
+		 *
+		 * @return the value id
+		 */
+		private int intern(Object value) throws UncacheableException, IOException {
+			if (value == null) {
+				return NULL_REF;
+			}
+			Integer existing = valueIds.get(value);
+			if (existing != null) {
+				if (existing == NULL_REF) {
+					throw new UncacheableException("Cyclic value " + value.getClass().getName()); //$NON-NLS-1$
+				}
+				return existing;
+			}
+			// Marks the value as in progress
+			valueIds.put(value, NULL_REF);
+			if (value instanceof String) {
+				values.writeByte(TAG_STRING);
+				writeString(values, (String) value);
+			} else if (value instanceof Boolean) {
+				values.writeByte(TAG_BOOLEAN);
+				values.writeBoolean((Boolean) value);
+			} else if (value instanceof Character) {
+				values.writeByte(TAG_CHARACTER);
+				values.writeChar((Character) value);
+			} else if (value instanceof Byte) {
+				values.writeByte(TAG_BYTE);
+				values.writeByte((Byte) value);
+			} else if (value instanceof Short) {
+				values.writeByte(TAG_SHORT);
+				values.writeShort((Short) value);
+			} else if (value instanceof Integer) {
+				values.writeByte(TAG_INTEGER);
+				values.writeInt((Integer) value);
+			} else if (value instanceof Long) {
+				values.writeByte(TAG_LONG);
+				values.writeLong((Long) value);
+			} else if (value instanceof Float) {
+				values.writeByte(TAG_FLOAT);
+				values.writeFloat((Float) value);
+			} else if (value instanceof Double) {
+				values.writeByte(TAG_DOUBLE);
+				values.writeDouble((Double) value);
+			} else if (value instanceof IQuantity) {
+				IQuantity quantity = (IQuantity) value;
+				int unitId = registerUnit(quantity.getUnit());
+				Number number = quantity.numberValue();
+				if (number instanceof Long) {
+					values.writeByte(TAG_LONG_QUANTITY);
+					values.writeInt(unitId);
+					values.writeLong(number.longValue());
+				} else if (number instanceof Double) {
+					values.writeByte(TAG_DOUBLE_QUANTITY);
+					values.writeInt(unitId);
+					values.writeDouble(number.doubleValue());
+				} else {
+					throw new UncacheableException("Quantity " + value); //$NON-NLS-1$
+				}
+			} else if (value.getClass() == Object[].class || value instanceof List) {
+				Object[] elements = value instanceof List ? ((List<?>) value).toArray() : (Object[]) value;
+				int[] refs = new int[elements.length];
+				for (int i = 0; i < elements.length; i++) {
+					refs[i] = intern(elements[i]);
+				}
+				values.writeByte(value instanceof List ? TAG_LIST : TAG_ARRAY);
+				values.writeInt(refs.length);
+				for (int ref : refs) {
+					values.writeInt(ref);
+				}
+			} else if (value instanceof IMCFrame.Type) {
+				values.writeByte(TAG_FRAME_TYPE);
+				writeString(values, value.toString());
+			} else if (value instanceof LabeledIdentifier) {
+				LabeledIdentifier identifier = (LabeledIdentifier) value;
+				values.writeByte(TAG_LABELED_IDENTIFIER);
+				writeString(values, identifier.getInterfaceId());
+				values.writeLong(identifier.getImplementationId());
+				writeString(values, identifier.getName());
+				writeString(values, identifier.getDeclaredDescription());
+			} else {
+				String structName = StructValues.getStructName(value);
+				if (structName == null) {
+					throw new UncacheableException("Value " + value.getClass().getName()); //$NON-NLS-1$
+				}
+				structSchemas.computeIfAbsent(structName, StructValues::getFieldIdentifiers);
+				Object[] fieldValues = StructValues.getFieldValues(value);
+				int[] refs = new int[fieldValues.length];
+				for (int i = 0; i < fieldValues.length; i++) {
+					refs[i] = intern(fieldValues[i]);
+				}
+				values.writeByte(TAG_STRUCT);
+				writeString(values, structName);
+				for (int ref : refs) {
+					values.writeInt(ref);
+				}
+			}
+			int id = valueCount++;
+			valueIds.put(value, id);
+			return id;
+		}
+	}
+
+	private static double getMultiplier(IUnit unit) {
+		if (unit instanceof LinearUnit) {
+			LinearUnit linearUnit = (LinearUnit) unit;
+			return linearUnit.valueTransformTo(linearUnit.getContentType().getDefaultUnit()).getMultiplier();
+		}
+		return 1;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <M> IMemberAccessor<M, IItem> getAccessor(IType<IItem> type, ValueField field) {
+		for (IAccessorKey<?> key : type.getAccessorKeys().keySet()) {
+			if (key.getIdentifier().equals(field.getIdentifier())
+					&& key.getContentType().equals(field.getContentType())) {
+				return type.getAccessor((IAccessorKey<M>) key);
+			}
+		}
+		throw new IllegalArgumentException(field.toString());
+	}
+
+	private static class Reader {
+
+		private final MappedInput in;
+		private final RepositoryBuilder repositoryBuilder;
+		private IUnit[] units;
+		private StructContentType<?>[] structTypes;
+		private Object[] values;
+
+		Reader(MappedInput in, RepositoryBuilder repositoryBuilder) {
+			this.in = in;
+			this.repositoryBuilder = repositoryBuilder;
+		}
+
+		EventArrays read() throws IOException {
+			readUnits();
+			if (!readStructSchemas()) {
+				return null;
+			}
+			readStructTypes();
+			readValues();
+			int eventTypeCount = in.readInt();
+			List<StructContentType<IItem>> eventTypes = new ArrayList<>(eventTypeCount);
+			List<Supplier<IItemFactory>> itemFactories = new ArrayList<>(eventTypeCount);
+			for (int i = 0; i < eventTypeCount; i++) {
+				StructContentType<IItem> eventType = new StructContentType<>(in.readString(), in.readString(),
+						in.readString());
+				itemFactories.add(repositoryBuilder.createItemFactories(eventType, readFields()));
+				LoaderContext.addExtraAttributes(eventType);
+				eventTypes.add(eventType);
+			}
+			int arrayCount = in.readInt();
+			int[] arrayTypes = new int[arrayCount];
+			String[][] categories = new String[arrayCount][];
+			for (int i = 0; i < arrayCount; i++) {
+				arrayTypes[i] = in.readInt();
+				int categoryLength = in.readInt();
+				if (categoryLength >= 0) {
+					categories[i] = new String[categoryLength];
+					for (int j = 0; j < categoryLength; j++) {
+						categories[i][j] = in.readString();
+					}
+				}
+			}
+			ParserStats stats = readParserStats();
+			int rangeCount = in.readInt();
+			Set<IRange<IQuantity>> ranges = new HashSet<>();
+			for (int i = 0; i < rangeCount; i++) {
+				IQuantity start = (IQuantity) value(in.readInt());
+				@SuppressWarnings("unchecked")
+				ITypedQuantity<LinearUnit> extent = (ITypedQuantity<LinearUnit>) value(in.readInt());
+				ranges.add(QuantityRange.createWithExtent(start, extent));
+			}
+			EventArray[] arrays = new EventArray[arrayCount];
+			for (int i = 0; i < arrayCount; i++) {
+				StructContentType<IItem> eventType = eventTypes.get(arrayTypes[i]);
+				IItem[] events = readEvents(itemFactories.get(arrayTypes[i]).get(), eventType.getAccessorKeys().size());
+				arrays[i] = repositoryBuilder.createEventArray(events, eventType, categories[i]);
+			}
+			return new EventArrays(arrays, ranges, stats);
+		}
+
+		private void readUnits() throws IOException {
+			units = new IUnit[in.readInt()];
+			Map<String, LinearUnit> customUnits = new HashMap<>();
+			for (int i = 0; i < units.length; i++) {
+				KindOfQuantity<?> kind = (KindOfQuantity<?>) KNOWN_CONTENT_TYPES.get(in.readString());
+				String id = in.readString();
+				double multiplier = in.readDouble();
+				IUnit unit = kind.getUnit(id);
+				if (kind instanceof LinearKindOfQuantity && (unit == null || getMultiplier(unit) != multiplier)) {
+					// Units that are defined by the recording, like ticks
+					LinearKindOfQuantity linearKind = (LinearKindOfQuantity) kind;
+					unit = customUnits.computeIfAbsent(kind.getIdentifier() + ':' + id + ':' + multiplier,
+							k -> makeUnit(linearKind, id, multiplier));
+				}
+				if (unit == null) {
+					throw new IllegalArgumentException("Unknown unit " + id); //$NON-NLS-1$
+				}
+				units[i] = unit;
+			}
+		}
+
+		private static LinearUnit makeUnit(LinearKindOfQuantity kind, String id, double multiplier) {
+			if (multiplier == Math.rint(multiplier) && multiplier >= 1) {
+				return kind.makeUnit(id, kind.getDefaultUnit().quantity((long) multiplier));
+			}
+			return kind.makeUnit(id, kind.getDefaultUnit().quantity(multiplier));
+		}
+
+		/**
+		 * @return {@code false} if the struct fields have changed since the cache was written
+		 */
+		private boolean readStructSchemas() throws IOException {
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				String structName = in.readString();
+				String[] fields = new String[in.readInt()];
+				for (int j = 0; j < fields.length; j++) {
+					fields[j] = in.readString();
+				}
+				try {
+					if (!Arrays.equals(fields, StructValues.getFieldIdentifiers(structName))) {
+						return false;
+					}
+				} catch (IllegalArgumentException e) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private void readStructTypes() throws IOException {
+			structTypes = new StructContentType<?>[in.readInt()];
+			for (int i = 0; i < structTypes.length; i++) {
+				structTypes[i] = new StructContentType<Object[]>(in.readString(), in.readString(), in.readString());
+			}
+			for (StructContentType<?> structType : structTypes) {
+				@SuppressWarnings("unchecked")
+				StructContentType<Object[]> type = (StructContentType<Object[]>) structType;
+				List<ValueField> fields = readFields();
+				for (int i = 0; i < fields.size(); i++) {
+					addField(type, fields.get(i), MemberAccessorToolkit.arrayElement(i));
+				}
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private static <M> void addField(
+			StructContentType<Object[]> type, ValueField field, IMemberAccessor<?, Object[]> accessor) {
+			type.addField(field.getIdentifier(), (ContentType<M>) field.getContentType(), field.getName(),
+					field.getDescription(), (IMemberAccessor<M, Object[]>) accessor);
+		}
+
+		private List<ValueField> readFields() throws IOException {
+			int count = in.readInt();
+			List<ValueField> fields = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				String identifier = in.readString();
+				String name = in.readString();
+				String description = in.readString();
+				ContentType<?> contentType;
+				if (in.readByte() == CONTENT_TYPE_STRUCT) {
+					contentType = structTypes[in.readInt()];
+				} else {
+					String contentTypeId = in.readString();
+					contentType = KNOWN_CONTENT_TYPES.get(contentTypeId);
+					if (contentType == null) {
+						throw new IllegalArgumentException("Unknown content type " + contentTypeId); //$NON-NLS-1$
+					}
+				}
+				fields.add(new ValueField(identifier, name, description, contentType));
+			}
+			return fields;
+		}
+
+		private void readValues() throws IOException {
+			values = new Object[in.readInt()];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = readValue();
+			}
+		}
+
+		private Object readValue() throws IOException {
+			byte tag = in.readByte();
+			switch (tag) {
+			case TAG_STRING:
+				return in.readString();
+			case TAG_BOOLEAN:
+				return in.readBoolean();
+			case TAG_CHARACTER:
+				return in.readChar();
+			case TAG_BYTE:
+				return in.readByte();
+			case TAG_SHORT:
+				return in.readShort();
+			case TAG_INTEGER:
+				return in.readInt();
+			case TAG_LONG:
+				return in.readLong();
+			case TAG_FLOAT:
+				return in.readFloat();
+			case TAG_DOUBLE:
+				return in.readDouble();
+			case TAG_LONG_QUANTITY:
+				return units[in.readInt()].quantity(in.readLong());
+			case TAG_DOUBLE_QUANTITY:
+				return units[in.readInt()].quantity(in.readDouble());
+			case TAG_ARRAY:
+			case TAG_LIST: {
+				Object[] elements = new Object[in.readInt()];
+				for (int i = 0; i < elements.length; i++) {
+					elements[i] = value(in.readInt());
+				}
+				return tag == TAG_LIST ? Arrays.asList(elements) : elements;
+			}
+			case TAG_FRAME_TYPE: {
+				String id = in.readString();
+				IMCFrame.Type type = KNOWN_FRAME_TYPES.get(id);
+				return type != null ? type : IMCFrame.Type.cachedType(id);
+			}
+			case TAG_LABELED_IDENTIFIER:
+				return new LabeledIdentifier(in.readString(), in.readLong(), in.readString(), in.readString());
+			case TAG_STRUCT: {
+				Object struct = StructValues.createStruct(in.readString());
+				Object[] fieldValues = StructValues.getFieldValues(struct);
+				for (int i = 0; i < fieldValues.length; i++) {
+					fieldValues[i] = value(in.readInt());
+				}
+				StructValues.setFieldValues(struct, fieldValues);
+				return struct;
+			}
+			default:
+				throw new IllegalArgumentException("Unknown value tag " + tag); //$NON-NLS-1$
+			}
+		}
+
+		private Object value(int ref) {
+			return ref == NULL_REF ? null : values[ref];
+		}
+
+		private ParserStats readParserStats() throws IOException {
+			ParserStats stats = new ParserStats();
+			stats.setVersion(in.readShort(), in.readShort());
+			stats.addChunkCount(in.readInt());
+			stats.setSkippedEventCount(in.readLong());
+			int eventTypeCount = in.readInt();
+			for (int i = 0; i < eventTypeCount; i++) {
+				stats.addEventStats(in.readString(), in.readLong(), in.readLong());
+			}
+			int entryPoolCount = in.readInt();
+			for (int i = 0; i < entryPoolCount; i++) {
+				stats.addEntryPoolSize(in.readString(), in.readLong());
+			}
+			int poolCount = in.readInt();
+			for (int i = 0; i < poolCount; i++) {
+				long id = in.readLong();
+				String name = in.readString();
+				int constantCount = in.readInt();
+				FastAccessNumberMap<Object> constants = new FastAccessNumberMap<>();
+				for (int j = 0; j < constantCount; j++) {
+					constants.put(j, value(in.readInt()));
+				}
+				stats.addConstantPool(id, name, constants);
+			}
+			return stats;
+		}
+
+		private IItem[] readEvents(IItemFactory itemFactory, int fieldCount) throws IOException {
+			IItem[] events = new IItem[in.readInt()];
+			IUnit[] columnUnits = new IUnit[fieldCount];
+			long[][] longs = new long[fieldCount][];
+			double[][] doubles = new double[fieldCount][];
+			int[][] refs = new int[fieldCount][];
+			for (int i = 0; i < fieldCount; i++) {
+				byte kind = in.readByte();
+				if (kind == COLUMN_LONGS) {
+					columnUnits[i] = units[in.readInt()];
+					longs[i] = in.readLongs(events.length);
+				} else if (kind == COLUMN_DOUBLES) {
+					columnUnits[i] = units[in.readInt()];
+					doubles[i] = in.readDoubles(events.length);
+				} else if (kind == COLUMN_REFS) {
+					refs[i] = in.readInts(events.length);
+				} else {
+					throw new IllegalArgumentException("Unknown column kind " + kind); //$NON-NLS-1$
+				}
+			}
+			Object[] row = new Object[fieldCount];
+			for (int index = 0; index < events.length; index++) {
+				for (int i = 0; i < fieldCount; i++) {
+					if (longs[i] != null) {
+						row[i] = columnUnits[i].quantity(longs[i][index]);
+					} else if (doubles[i] != null) {
+						row[i] = columnUnits[i].quantity(doubles[i][index]);
+					} else {
+						row[i] = value(refs[i][index]);
+					}
+				}
+				events[index] = itemFactory.createEvent(row);
+			}
+			return events;
+		}
+	}
+
+	/**
+	 * Reads a file through memory mapped regions, so that files larger than what a single mapped
+	 * buffer can hold can be read.
+	 */
+	private static class MappedInput {
+
+		private final FileChannel channel;
+		private final long size;
+		private long bufferStart;
+		private MappedByteBuffer buffer;
+
+		MappedInput(FileChannel channel) throws IOException {
+			this.channel = channel;
+			size = channel.size();
+			map(0);
+		}
+
+		private void map(long position) throws IOException {
+			bufferStart = position;
+			buffer = channel.map(MapMode.READ_ONLY, position, Math.min(MAP_WINDOW_SIZE, size - position));
+		}
+
+		private void ensure(int bytes) throws IOException {
+			if (buffer.remaining() < bytes) {
+				long position = bufferStart + buffer.position();
+				if (size - position < bytes) {
+					throw new EOFException();
+				}
+				map(position);
+			}
+		}
+
+		byte readByte() throws IOException {
+			ensure(Byte.BYTES);
+			return buffer.get();
+		}
+
+		boolean readBoolean() throws IOException {
+			return readByte() != 0;
+		}
+
+		char readChar() throws IOException {
+			ensure(Character.BYTES);
+			return buffer.getChar();
+		}
+
+		short readShort() throws IOException {
+			ensure(Short.BYTES);
+			return buffer.getShort();
+		}
+
+		int readInt() throws IOException {
+			ensure(Integer.BYTES);
+			return buffer.getInt();
+		}
+
+		long readLong() throws IOException {
+			ensure(Long.BYTES);
+			return buffer.getLong();
+		}
+
+		float readFloat() throws IOException {
+			ensure(Float.BYTES);
+			return buffer.getFloat();
+		}
+
+		double readDouble() throws IOException {
+			ensure(Double.BYTES);
+			return buffer.getDouble();
+		}
+
+		String readString() throws IOException {
+			int length = readInt();
+			if (length < 0) {
+				return null;
+			}
+			char[] chars = new char[length];
+			for (int offset = 0; offset < length;) {
+				ensure(Character.BYTES);
+				int n = Math.min(length - offset, buffer.remaining() / Character.BYTES);
+				buffer.asCharBuffer().get(chars, offset, n);
+				buffer.position(buffer.position() + n * Character.BYTES);
+				offset += n;
+			}
+			return new String(chars);
+		}
+
+		long[] readLongs(int count) throws IOException {
+			long[] longs = new long[count];
+			for (int offset = 0; offset < count;) {
+				ensure(Long.BYTES);
+				int n = Math.min(count - offset, buffer.remaining() / Long.BYTES);
+				buffer.asLongBuffer().get(longs, offset, n);
+				buffer.position(buffer.position() + n * Long.BYTES);
+				offset += n;
+			}
+			return longs;
+		}
+
+		double[] readDoubles(int count) throws IOException {
+			double[] doubles = new double[count];
+			for (int offset = 0; offset < count;) {
+				ensure(Double.BYTES);
+				int n = Math.min(count - offset, buffer.remaining() / Double.BYTES);
+				buffer.asDoubleBuffer().get(doubles, offset, n);
+				buffer.position(buffer.position() + n * Double.BYTES);
+				offset += n;
+			}
+			return doubles;
+		}
+
+		int[] readInts(int count) throws IOException {
+			int[] ints = new int[count];
+			for (int offset = 0; offset < count;) {
+				ensure(Integer.BYTES);
+				int n = Math.min(count - offset, buffer.remaining() / Integer.BYTES);
+				buffer.asIntBuffer().get(ints, offset, n);
+				buffer.position(buffer.position() + n * Integer.BYTES);
+				offset += n;
+			}
+			return ints;
+		}
+	}
+}
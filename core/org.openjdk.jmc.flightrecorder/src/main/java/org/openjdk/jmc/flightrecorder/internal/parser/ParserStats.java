@@ -1,6 +1,6 @@
 /*
- * Copyright (c) 2021, 2022, Oracle and/or its affiliates. All rights reserved.
- * Copyright (c) 2021, 2022, Datadog, Inc. All rights reserved.
+ * Copyright (c) 2021, 2026, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2021, 2026, Datadog, Inc. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -44,6 +44,7 @@ import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 import org.openjdk.jmc.common.IDescribable;
@@ -108,6 +109,27 @@ public class ParserStats {
 		constantPoolExtensions.put(extension.getId(), extension);
 	}
 
+	void addChunkCount(int count) {
+		chunkCount.addAndGet(count);
+	}
+
+	void addEventStats(String eventTypeName, long count, long totalSize) {
+		statsByType.computeIfAbsent(eventTypeName, EventTypeStats::new).add(count, totalSize);
+	}
+
+	void forEachEntryPoolSize(BiConsumer<String, Long> consumer) {
+		for (Map.Entry<String, AtomicLong> entry : entryPoolSizeByType.entrySet()) {
+			consumer.accept(entry.getKey(), entry.getValue().get());
+		}
+	}
+
+	/**
+	 * @return the added constant pools, in the order that they were added
+	 */
+	Iterable<ConstantPoolInfo> getConstantPoolInfos() {
+		return constantPoolInfoList;
+	}
+
 	public void forEachEventType(Consumer<IEventStats> consumer) {
 		for (EventTypeStats eventStats : statsByType.values()) {
 			consumer.accept(eventStats);
@@ -345,6 +367,11 @@ public class ParserStats {
 			TOTAL_SIZE_UPDATER.addAndGet(this, size);
 		}
 
+		void add(long count, long size) {
+			COUNT_UPDATER.addAndGet(this, count);
+			TOTAL_SIZE_UPDATER.addAndGet(this, size);
+		}
+
 		@Override
 		public String getName() {
 			return eventTypeName;
@@ -367,8 +394,7 @@ public class ParserStats {
 		}
 	}
 
-	private static class ConstantPoolInfo {
-		@SuppressWarnings("unused")
+	static class ConstantPoolInfo {
 		final long id;
 		final String name;
 		final FastAccessNumberMap<Object> constantPool;
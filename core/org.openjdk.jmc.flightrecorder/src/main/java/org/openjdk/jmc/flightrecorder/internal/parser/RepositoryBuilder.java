@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -43,6 +43,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -52,6 +53,7 @@ import org.openjdk.jmc.common.item.IMemberAccessor;
 import org.openjdk.jmc.common.unit.IQuantity;
 import org.openjdk.jmc.common.unit.StructContentType;
 import org.openjdk.jmc.flightrecorder.JfrAttributes;
+import org.openjdk.jmc.flightrecorder.internal.EventArray;
 import org.openjdk.jmc.flightrecorder.internal.parser.ItemBuilder.IItemFactory;
 import org.openjdk.jmc.flightrecorder.internal.util.DisjointBuilder;
 import org.openjdk.jmc.flightrecorder.internal.util.DisjointBuilder.ArrayFactory;
@@ -66,6 +68,16 @@ import org.openjdk.jmc.flightrecorder.parser.ValueField;
 class RepositoryBuilder implements IEventSinkFactory {
 	private static final Logger LOGGER = Logger.getLogger(RepositoryBuilder.class.getName());
 	private final Map<String, EventTypeEntry> eventTypes = new HashMap<>();
+	private final boolean columnar;
+
+	/**
+	 * @param columnar
+	 *            if {@code true}, then event values are stored in columns, see
+	 *            {@link ColumnarItemBuilder}
+	 */
+	RepositoryBuilder(boolean columnar) {
+		this.columnar = columnar;
+	}
 
 	@Override
 	public IEventSink create(
@@ -93,10 +105,10 @@ class RepositoryBuilder implements IEventSinkFactory {
 		}
 	}
 
-	private static EventTypeEntry createEventTypeEntry(
+	private EventTypeEntry createEventTypeEntry(
 		String identifier, String label, String[] category, String description, List<ValueField> dataStructure) {
 		StructContentType<IItem> eventType = new StructContentType<>(identifier, label, description);
-		IItemFactory itemFactory = ItemBuilder.createItemFactory(eventType, dataStructure);
+		Supplier<IItemFactory> itemFactory = createItemFactories(eventType, dataStructure);
 		IMemberAccessor<IQuantity, IItem> stAccessor = JfrAttributes.START_TIME.getAccessor(eventType);
 		IMemberAccessor<IQuantity, IItem> etAccessor = JfrAttributes.END_TIME.getAccessor(eventType);
 		if (stAccessor != null && stAccessor != etAccessor) {
@@ -106,6 +118,42 @@ class RepositoryBuilder implements IEventSinkFactory {
 		}
 	}
 
+	/**
+	 * Add the fields of an event type and get the item factories for it.
+	 *
+	 * @param eventType
+	 *            the event type, without any fields
+	 * @param dataStructure
+	 *            the fields to add to the event type
+	 * @return a supplier of item factories, where each factory may only be used by one thread at a
+	 *         time
+	 */
+	Supplier<IItemFactory> createItemFactories(StructContentType<IItem> eventType, List<ValueField> dataStructure) {
+		if (columnar) {
+			return new ColumnarItemBuilder(eventType, dataStructure)::createLane;
+		}
+		IItemFactory sharedFactory = ItemBuilder.createItemFactory(eventType, dataStructure);
+		return () -> sharedFactory;
+	}
+
+	/**
+	 * Create an event array from sorted events of an event type.
+	 *
+	 * @param sortedEvents
+	 *            events created by item factories from {@link #createItemFactories}
+	 * @param eventType
+	 *            the event type
+	 * @param category
+	 *            the category of the event type
+	 * @return an event array with the events
+	 */
+	EventArray createEventArray(IItem[] sortedEvents, StructContentType<IItem> eventType, String[] category) {
+		if (columnar) {
+			return ColumnarItemBuilder.createEventArray(sortedEvents, eventType, category);
+		}
+		return new EventArray(sortedEvents, eventType, category);
+	}
+
 	@Override
 	public void flush() {
 
@@ -140,11 +188,11 @@ class RepositoryBuilder implements IEventSinkFactory {
 	abstract static class EventTypeEntry {
 		final StructContentType<IItem> eventType;
 		final String[] category;
-		final IItemFactory itemFactory;
+		final Supplier<IItemFactory> itemFactory; // Gives the item factory to use for each new sink
 		final List<ValueField> dataStructure;
 		private EventTypeEntry next; // Linked list of event types with the same original identifier
 
-		public EventTypeEntry(StructContentType<IItem> eventType, String[] category, IItemFactory itemFactory,
+		public EventTypeEntry(StructContentType<IItem> eventType, String[] category, Supplier<IItemFactory> itemFactory,
 				List<ValueField> dataStructure) {
 			this.eventType = eventType;
 			this.category = category;
@@ -178,9 +226,9 @@ class RepositoryBuilder implements IEventSinkFactory {
 		private final IMemberAccessor<IQuantity, IItem> startAccessor;
 		private final IMemberAccessor<IQuantity, IItem> endAccessor;
 
-		public DurationEventTypeEntry(StructContentType<IItem> eventType, String[] category, IItemFactory itemFactory,
-				List<ValueField> dataStructure, IMemberAccessor<IQuantity, IItem> startAccessor,
-				IMemberAccessor<IQuantity, IItem> endAccessor) {
+		public DurationEventTypeEntry(StructContentType<IItem> eventType, String[] category,
+				Supplier<IItemFactory> itemFactory, List<ValueField> dataStructure,
+				IMemberAccessor<IQuantity, IItem> startAccessor, IMemberAccessor<IQuantity, IItem> endAccessor) {
 			super(eventType, category, itemFactory, dataStructure);
 			this.startAccessor = startAccessor;
 			this.endAccessor = endAccessor;
@@ -202,10 +250,11 @@ class RepositoryBuilder implements IEventSinkFactory {
 			return new IEventSink() {
 
 				private final DisjointBuilder<IItem> events = createLane();
+				private final IItemFactory laneItemFactory = itemFactory.get();
 
 				@Override
 				public void addEvent(Object[] values) {
-					events.add(itemFactory.createEvent(values));
+					events.add(laneItemFactory.createEvent(values));
 				}
 
 			};
@@ -217,8 +266,9 @@ class RepositoryBuilder implements IEventSinkFactory {
 		private final List<SimpleArray<IItem>> eventsLanes = new ArrayList<>();
 		private final IMemberAccessor<IQuantity, IItem> order;
 
-		public InstantEventTypeEntry(StructContentType<IItem> eventType, String[] category, IItemFactory itemFactory,
-				List<ValueField> dataStructure, IMemberAccessor<IQuantity, IItem> order) {
+		public InstantEventTypeEntry(StructContentType<IItem> eventType, String[] category,
+				Supplier<IItemFactory> itemFactory, List<ValueField> dataStructure,
+				IMemberAccessor<IQuantity, IItem> order) {
 			super(eventType, category, itemFactory, dataStructure);
 			this.order = order;
 		}
@@ -261,10 +311,11 @@ class RepositoryBuilder implements IEventSinkFactory {
 			return new IEventSink() {
 
 				private final SimpleArray<IItem> events = createLane();
+				private final IItemFactory laneItemFactory = itemFactory.get();
 
 				@Override
 				public void addEvent(Object[] values) {
-					events.add(itemFactory.createEvent(values));
+					events.add(laneItemFactory.createEvent(values));
 				}
 
 			};
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -33,35 +33,63 @@
 package org.openjdk.jmc.flightrecorder.internal.parser.v1;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
 import org.openjdk.jmc.flightrecorder.CouldNotLoadRecordingException;
 import org.openjdk.jmc.flightrecorder.internal.ChunkInfo;
+import org.openjdk.jmc.flightrecorder.internal.FlightRecordingLoader;
 import org.openjdk.jmc.flightrecorder.internal.IChunkLoader;
 import org.openjdk.jmc.flightrecorder.internal.InvalidJfrFileException;
 import org.openjdk.jmc.flightrecorder.internal.parser.Chunk;
 import org.openjdk.jmc.flightrecorder.internal.parser.LoaderContext;
 import org.openjdk.jmc.flightrecorder.internal.parser.v1.ChunkMetadata.ClassElement;
+import org.openjdk.jmc.flightrecorder.internal.parser.v1.TypeManager.EventLane;
 import org.openjdk.jmc.flightrecorder.internal.util.ParserToolkit;
 
 public class ChunkLoaderV1 implements IChunkLoader {
 
 	private final static long CONSTANT_POOL_EVENT_TYPE = 1;
+	/**
+	 * Minimum number of bytes of events to decode on each thread. Chunks with event data larger
+	 * than twice this size are split into slices that are decoded in parallel. Set to zero to
+	 * always decode chunks on a single thread.
+	 */
+	private static final String SLICE_SIZE_PROPERTY_KEY = "org.openjdk.jmc.flightrecorder.parser.sliceSize"; //$NON-NLS-1$
+	private static final int DEFAULT_SLICE_SIZE = 8 * 1024 * 1024;
 
 	private final ChunkStructure header;
-	private final byte[] data;
+	private final IDataInput input;
+	// Creates additional inputs on the same data for decoding slices in parallel
+	private final Supplier<IDataInput> inputFactory;
+	private final byte[] reusableBuffer;
 	private final LoaderContext context;
 
 	public ChunkLoaderV1(ChunkStructure header, byte[] data, LoaderContext context) {
+		this(header, () -> SeekableInputStream.build(data, header.isIntegersCompressed()), data, context);
+	}
+
+	ChunkLoaderV1(ChunkStructure header, ByteBuffer mappedData, byte[] reusableBuffer, LoaderContext context) {
+		this(header, () -> ByteBufferInput.build(mappedData, header.isIntegersCompressed()), reusableBuffer, context);
+	}
+
+	private ChunkLoaderV1(ChunkStructure header, Supplier<IDataInput> inputFactory, byte[] reusableBuffer,
+			LoaderContext context) {
 		this.header = header;
-		this.data = data;
+		this.input = inputFactory.get();
+		this.inputFactory = inputFactory;
+		this.reusableBuffer = reusableBuffer;
 		this.context = context;
 		context.addChunkRange(header.getChunkRange());
 	}
 
 	@Override
 	public byte[] call() throws Exception {
-		SeekableInputStream input = SeekableInputStream.build(data, header.isIntegersCompressed());
 		context.incChunkCount();
 		// Read metadata
 		input.seek(header.getMetadataOffset());
@@ -80,8 +108,96 @@ public class ChunkLoaderV1 implements IChunkLoader {
 		manager.resolveConstants();
 
 		// Read events
-		long index = header.getBodyStartOffset();
-		while (index < header.getChunkSize()) {
+		List<Long> slices = findSlices();
+		if (slices.size() <= 2) {
+			readEvents(input, manager.getDefaultLane(), header.getBodyStartOffset(), header.getChunkSize());
+		} else {
+			readEventsInParallel(manager, slices);
+		}
+		context.setSkippedEventCount(manager.getSkippedEventCount());
+		context.addConstantPoolExtensions();
+		return reusableBuffer;
+	}
+
+	/**
+	 * Split the event data into slices for parallel decoding. Only the event sizes are read, so
+	 * this is much faster than decoding the events.
+	 *
+	 * @return the offsets where slices start, followed by the end offset of the last slice
+	 */
+	private List<Long> findSlices() throws IOException, CouldNotLoadRecordingException {
+		long start = header.getBodyStartOffset();
+		long end = header.getChunkSize();
+		List<Long> slices = new ArrayList<>();
+		slices.add(start);
+		int parallelism = ForkJoinPool.getCommonPoolParallelism() + 1;
+		long minSliceSize = Long.getLong(SLICE_SIZE_PROPERTY_KEY, DEFAULT_SLICE_SIZE);
+		if (minSliceSize > 0 && end - start >= 2 * minSliceSize && parallelism > 1
+				&& !Boolean.getBoolean(FlightRecordingLoader.SINGLE_THREADED_PARSER_PROPERTY_KEY)) {
+			long sliceSize = Math.max(minSliceSize, (end - start) / parallelism);
+			long nextSlice = start + sliceSize;
+			long index = start;
+			while (index < end) {
+				if (index >= nextSlice) {
+					slices.add(index);
+					nextSlice = index + sliceSize;
+				}
+				input.seek(index);
+				int size = input.readInt();
+				if (size == 0) {
+					throw new CouldNotLoadRecordingException("Found event with invalid size (0)"); //$NON-NLS-1$
+				}
+				index += size;
+			}
+		}
+		slices.add(end);
+		return slices;
+	}
+
+	private void readEventsInParallel(TypeManager manager, List<Long> slices)
+			throws IOException, CouldNotLoadRecordingException {
+		List<Future<Void>> futures = new ArrayList<>(slices.size() - 2);
+		try {
+			for (int i = 1; i < slices.size() - 1; i++) {
+				long start = slices.get(i);
+				long end = slices.get(i + 1);
+				EventLane lane = manager.createLane();
+				futures.add(ForkJoinPool.commonPool().submit(() -> {
+					readEvents(inputFactory.get(), lane, start, end);
+					return null;
+				}));
+			}
+			// Decode the first slice on this thread while the others are decoded in the pool
+			readEvents(input, manager.getDefaultLane(), slices.get(0), slices.get(1));
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			throw new CouldNotLoadRecordingException(e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Error) {
+				throw ((Error) cause);
+			} else if (cause instanceof RuntimeException) {
+				throw ((RuntimeException) cause);
+			} else if (cause instanceof IOException) {
+				throw ((IOException) cause);
+			} else if (cause instanceof CouldNotLoadRecordingException) {
+				throw ((CouldNotLoadRecordingException) cause);
+			} else {
+				throw new CouldNotLoadRecordingException(cause);
+			}
+		} finally {
+			for (Future<Void> future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	private static void readEvents(IDataInput input, EventLane lane, long start, long end)
+			throws IOException, CouldNotLoadRecordingException {
+		long index = start;
+		while (index < end) {
 			input.seek(index);
 			int size = input.readInt();
 			long type = input.readLong();
@@ -89,13 +205,10 @@ public class ChunkLoaderV1 implements IChunkLoader {
 				throw new CouldNotLoadRecordingException("Found event with invalid size (0)"); //$NON-NLS-1$
 			}
 			if (type != CONSTANT_POOL_EVENT_TYPE && type != ChunkMetadata.METADATA_EVENT_TYPE) {
-				manager.readEvent(type, input, size);
+				lane.readEvent(type, input, size);
 			}
 			index += size;
 		}
-		context.setSkippedEventCount(manager.getSkippedEventCount());
-		context.addConstantPoolExtensions();
-		return data;
 	}
 
 	private static long readConstantPoolEvent(IDataInput input, TypeManager manager, boolean compressedInts)
@@ -123,6 +236,10 @@ public class ChunkLoaderV1 implements IChunkLoader {
 	public static IChunkLoader create(Chunk input, LoaderContext context)
 			throws IOException, CouldNotLoadRecordingException {
 		ChunkStructure header = new ChunkStructure(input);
+		if (input.isMapped()) {
+			return new ChunkLoaderV1(header, input.getMappedData(header.getChunkSize()), input.getReusableBuffer(),
+					context);
+		}
 		byte[] data = input.fill(header.getChunkSize());
 		return new ChunkLoaderV1(header, data, context);
 	}
@@ -62,5 +62,7 @@ interface IDataInput {
 
 	void skipString() throws IOException;
 
+	void seek(long pos) throws IOException;
+
 	long getPosition();
 }
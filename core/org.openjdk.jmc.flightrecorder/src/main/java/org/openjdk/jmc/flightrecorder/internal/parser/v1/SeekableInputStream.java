@@ -41,12 +41,12 @@ import org.openjdk.jmc.flightrecorder.internal.util.DataInputToolkit;
  * Byte array input stream that is not synchronized, not checked and which
  */
 class SeekableInputStream implements IDataInput {
-	private static final byte STRING_ENCODING_NULL = 0;
-	private static final byte STRING_ENCODING_EMPTY_STRING = 1;
+	static final byte STRING_ENCODING_NULL = 0;
+	static final byte STRING_ENCODING_EMPTY_STRING = 1;
 	static final byte STRING_ENCODING_CONSTANT_POOL = 2;
-	private static final byte STRING_ENCODING_UTF8_BYTE_ARRAY = 3;
-	private static final byte STRING_ENCODING_CHAR_ARRAY = 4;
-	private static final byte STRING_ENCODING_LATIN1_BYTE_ARRAY = 5;
+	static final byte STRING_ENCODING_UTF8_BYTE_ARRAY = 3;
+	static final byte STRING_ENCODING_CHAR_ARRAY = 4;
+	static final byte STRING_ENCODING_LATIN1_BYTE_ARRAY = 5;
 
 	private final byte[] buffer;
 	private int pos;
@@ -55,6 +55,7 @@ class SeekableInputStream implements IDataInput {
 		this.buffer = buffer;
 	}
 
+	@Override
 	public void seek(long pos) throws IOException {
 		if (pos >= 0 && pos < buffer.length) {
 			this.pos = (int) pos;
@@ -210,6 +211,7 @@ class SeekableInputStream implements IDataInput {
 		}
 	}
 
+	@Override
 	public long getPosition() {
 		return pos;
 	}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2021, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2021, 2026, Oracle and/or its affiliates. All rights reserved.
  * Copyright (c) 2021, Datadog, Inc. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
@@ -36,65 +36,57 @@ package org.openjdk.jmc.flightrecorder.internal.parser.v1;
 import java.io.IOException;
 import java.util.logging.Logger;
 
-import org.openjdk.jmc.common.unit.ContentType;
+import org.openjdk.jmc.common.unit.UnitLookup;
 import org.openjdk.jmc.flightrecorder.internal.InvalidJfrFileException;
 
 public class SpecificReaders {
 	private static Logger LOG = Logger.getLogger(SpecificReaders.class.getName());
 
-	static class StackFrame2Reader extends ValueReaders.ReflectiveReader {
+	/**
+	 * Reader for jdk.types.StackFrame, which is by far the most common struct constant. As long as
+	 * the fields come in the expected order, a frame is read and resolved with direct field stores,
+	 * without going through the accessors of {@link StructTypes.JfrFrame#FIELDS}.
+	 */
+	static class StackFrame2Reader extends ValueReaders.StructFieldsReader<StructTypes.JfrFrame> {
+		private static final String[] EXPECTED_FIELDS = {"method", "lineNumber", "bytecodeIndex", "type"}; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
 		boolean fallback;
-		int methodIdx;
-		int lineNumberIdx;
-		int bytecodeIndexIdx;
-		int typeIdx;
 
-		<T> StackFrame2Reader(Class<T> klass, int fieldCount, ContentType<? super T> ct) {
-			super(klass, fieldCount, ct);
+		StackFrame2Reader(int fieldCount) {
+			super(StructTypes.JfrFrame.FIELDS, fieldCount, UnitLookup.STACKTRACE_FRAME);
 		}
 
 		@Override
 		void addField(String identifier, String name, String description, ValueReaders.IValueReader reader)
 				throws InvalidJfrFileException {
+			int currentIdx = valueReaders.size();
 			super.addField(identifier, name, description, reader);
-			int currentIdx = valueReaders.size() - 1;
-			switch (identifier) {
-			case "method":
-				methodIdx = currentIdx;
-				break;
-			case "lineNumber":
-				lineNumberIdx = currentIdx;
-				break;
-			case "bytecodeIndex":
-				bytecodeIndexIdx = currentIdx;
-				break;
-			case "type":
-				typeIdx = currentIdx;
-				break;
-			default:
-				fallback = true; // invalid expected format, falling back to ReflectiveReader
-				LOG.warning("unexpected fields for StackFrame2Reader: " + identifier);
+			if (!fallback
+					&& (currentIdx >= EXPECTED_FIELDS.length || !EXPECTED_FIELDS[currentIdx].equals(identifier))) {
+				fallback = true; // invalid expected format, falling back to the field accessors
+				LOG.warning("unexpected fields for StackFrame2Reader: " + identifier); //$NON-NLS-1$
 			}
 		}
 
 		@Override
 		public Object read(IDataInput in, boolean allowUnresolvedReference)
 				throws IOException, InvalidJfrFileException {
-			if (fallback) {
+			if (fallback || valueReaders.size() != EXPECTED_FIELDS.length) {
 				return super.read(in, allowUnresolvedReference);
 			}
 			StructTypes.JfrFrame jfrFrame = new StructTypes.JfrFrame();
-			jfrFrame.method = valueReaders.get(methodIdx).read(in, allowUnresolvedReference);
-			jfrFrame.lineNumber = valueReaders.get(lineNumberIdx).read(in, allowUnresolvedReference);
-			jfrFrame.bytecodeIndex = valueReaders.get(bytecodeIndexIdx).read(in, allowUnresolvedReference);
-			jfrFrame.type = valueReaders.get(typeIdx).read(in, allowUnresolvedReference);
+			jfrFrame.method = valueReaders.get(0).read(in, allowUnresolvedReference);
+			jfrFrame.lineNumber = valueReaders.get(1).read(in, allowUnresolvedReference);
+			jfrFrame.bytecodeIndex = valueReaders.get(2).read(in, allowUnresolvedReference);
+			jfrFrame.type = valueReaders.get(3).read(in, allowUnresolvedReference);
 			return jfrFrame;
 		}
 
 		@Override
 		public Object resolve(Object value) throws InvalidJfrFileException {
-			if (!(value instanceof StructTypes.JfrFrame))
-				throw new RuntimeException("Invalid object type, expected JfrFrame");
+			if (fallback || valueReaders.size() != EXPECTED_FIELDS.length) {
+				return super.resolve(value);
+			}
 			StructTypes.JfrFrame jfrFrame = (StructTypes.JfrFrame) value;
 			jfrFrame.method = valueReaders.get(0).resolve(jfrFrame.method);
 			jfrFrame.lineNumber = valueReaders.get(1).resolve(jfrFrame.lineNumber);
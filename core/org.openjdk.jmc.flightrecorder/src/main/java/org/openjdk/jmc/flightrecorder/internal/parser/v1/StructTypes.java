@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -60,6 +60,7 @@ import org.openjdk.jmc.common.unit.QuantityConversionException;
 import org.openjdk.jmc.common.unit.UnitLookup;
 import org.openjdk.jmc.common.util.FormatToolkit;
 import org.openjdk.jmc.common.util.MethodToolkit;
+import org.openjdk.jmc.flightrecorder.internal.parser.v1.ValueReaders.StructFields;
 import org.openjdk.jmc.flightrecorder.internal.util.ParserToolkit;
 
 class StructTypes {
@@ -70,6 +71,13 @@ class StructTypes {
 
 	static class JfrThread implements IMCThread {
 
+		static final StructFields<JfrThread> FIELDS = new StructFields<>(JfrThread::new)
+				.add("osName", s -> s.osName, (s, v) -> s.osName = v) //$NON-NLS-1$
+				.add("osThreadId", s -> s.osThreadId, (s, v) -> s.osThreadId = v) //$NON-NLS-1$
+				.add("javaThreadId", s -> s.javaThreadId, (s, v) -> s.javaThreadId = v) //$NON-NLS-1$
+				.add("javaName", s -> s.javaName, (s, v) -> s.javaName = v) //$NON-NLS-1$
+				.add("group", s -> s.group, (s, v) -> s.group = v); //$NON-NLS-1$
+
 		public Object osName;
 		public Object osThreadId;
 		public Object javaThreadId;
@@ -110,6 +118,10 @@ class StructTypes {
 	}
 
 	static class JfrThreadGroup implements IMCThreadGroup {
+		static final StructFields<JfrThreadGroup> FIELDS = new StructFields<>(JfrThreadGroup::new)
+				.add("name", s -> s.name, (s, v) -> s.name = v) //$NON-NLS-1$
+				.add("parent", s -> s.parent, (s, v) -> s.parent = v); //$NON-NLS-1$
+
 		public Object name;
 		public Object parent;
 
@@ -130,7 +142,12 @@ class StructTypes {
 	}
 
 	static class JfrJavaPackage implements IMCPackage, IDescribable {
-		// FIXME: Change the reflective setting of fields on this class to avoid the conversion workarounds.  See JMC-5966
+		static final StructFields<JfrJavaPackage> FIELDS = new StructFields<>(JfrJavaPackage::new)
+				.add("name", s -> s.name, (s, v) -> s.name = v) //$NON-NLS-1$
+				.add("module", s -> s.module, (s, v) -> s.module = v) //$NON-NLS-1$
+				.add("exported", s -> s.exported, (s, v) -> s.exported = v); //$NON-NLS-1$
+
+		// FIXME: Change the setting of fields on this class to avoid the conversion workarounds.  See JMC-5966
 
 		// Never use this field directly, make sure to always use a method to get the converted value
 		public Object name;
@@ -184,6 +201,12 @@ class StructTypes {
 
 	static class JfrJavaModule implements IMCModule, IDescribable {
 
+		static final StructFields<JfrJavaModule> FIELDS = new StructFields<>(JfrJavaModule::new)
+				.add("name", s -> s.name, (s, v) -> s.name = v) //$NON-NLS-1$
+				.add("version", s -> s.version, (s, v) -> s.version = v) //$NON-NLS-1$
+				.add("location", s -> s.location, (s, v) -> s.location = v) //$NON-NLS-1$
+				.add("classLoader", s -> s.classLoader, (s, v) -> s.classLoader = v); //$NON-NLS-1$
+
 		public Object name;
 		public Object version;
 		public Object location;
@@ -233,6 +256,10 @@ class StructTypes {
 
 	static class JfrJavaClassLoader implements IMCClassLoader {
 
+		static final StructFields<JfrJavaClassLoader> FIELDS = new StructFields<>(JfrJavaClassLoader::new)
+				.add("type", s -> s.type, (s, v) -> s.type = v) //$NON-NLS-1$
+				.add("name", s -> s.name, (s, v) -> s.name = v); //$NON-NLS-1$
+
 		public Object type;
 		public Object name;
 		/*
@@ -275,7 +302,14 @@ class StructTypes {
 	}
 
 	static class JfrJavaClass implements IMCType {
-		// FIXME: Change the reflective setting of fields on this class to avoid the conversion workarounds.  See JMC-5966
+		static final StructFields<JfrJavaClass> FIELDS = new StructFields<>(JfrJavaClass::new)
+				.add("classLoader", s -> s.classLoader, (s, v) -> s.classLoader = v) //$NON-NLS-1$
+				.add("modifiers", s -> s.modifiers, (s, v) -> s.modifiers = v) //$NON-NLS-1$
+				.add("package", s -> s._package, (s, v) -> s._package = v) //$NON-NLS-1$
+				.add("hidden", s -> s.hidden, (s, v) -> s.hidden = v) //$NON-NLS-1$
+				.add("name", s -> s.name, (s, v) -> s.name = v); //$NON-NLS-1$
+
+		// FIXME: Change the setting of fields on this class to avoid the conversion workarounds.  See JMC-5966
 
 		public Object classLoader;
 		public Object modifiers;
@@ -359,6 +393,11 @@ class StructTypes {
 
 	static class JfrOldObjectGcRoot implements IMCOldObjectGcRoot {
 
+		static final StructFields<JfrOldObjectGcRoot> FIELDS = new StructFields<>(JfrOldObjectGcRoot::new)
+				.add("system", s -> s.system, (s, v) -> s.system = v) //$NON-NLS-1$
+				.add("type", s -> s.type, (s, v) -> s.type = v) //$NON-NLS-1$
+				.add("description", s -> s.description, (s, v) -> s.description = v); //$NON-NLS-1$
+
 		public Object system;
 		public Object type;
 		public Object description;
@@ -391,6 +430,12 @@ class StructTypes {
 
 	static class JfrOldObject implements IMCOldObject {
 
+		static final StructFields<JfrOldObject> FIELDS = new StructFields<>(JfrOldObject::new)
+				.add("address", s -> s.address, (s, v) -> s.address = v) //$NON-NLS-1$
+				.add("type", s -> s.type, (s, v) -> s.type = v) //$NON-NLS-1$
+				.add("description", s -> s.description, (s, v) -> s.description = v) //$NON-NLS-1$
+				.add("referrer", s -> s.referrer, (s, v) -> s.referrer = v); //$NON-NLS-1$
+
 		private static final int referrerArrayIndex = 0;
 		private static final int referrerFieldIndex = 1;
 		private static final int referrerOldObjectIndex = 2;
@@ -500,6 +545,10 @@ class StructTypes {
 
 	static class JfrOldObjectArray implements IMCOldObjectArray {
 
+		static final StructFields<JfrOldObjectArray> FIELDS = new StructFields<>(JfrOldObjectArray::new)
+				.add("size", s -> s.size, (s, v) -> s.size = v) //$NON-NLS-1$
+				.add("index", s -> s.index, (s, v) -> s.index = v); //$NON-NLS-1$
+
 		public Object size;
 		public Object index;
 
@@ -546,6 +595,10 @@ class StructTypes {
 
 	static class JfrOldObjectField implements IMCOldObjectField {
 
+		static final StructFields<JfrOldObjectField> FIELDS = new StructFields<>(JfrOldObjectField::new)
+				.add("name", s -> s.name, (s, v) -> s.name = v) //$NON-NLS-1$
+				.add("modifiers", s -> s.modifiers, (s, v) -> s.modifiers = v); //$NON-NLS-1$
+
 		public Object name;
 		public Object modifiers;
 
@@ -579,6 +632,13 @@ class StructTypes {
 
 	static class JfrMethod implements IMCMethod {
 
+		static final StructFields<JfrMethod> FIELDS = new StructFields<>(JfrMethod::new)
+				.add("type", s -> s.type, (s, v) -> s.type = v) //$NON-NLS-1$
+				.add("name", s -> s.name, (s, v) -> s.name = v) //$NON-NLS-1$
+				.add("descriptor", s -> s.descriptor, (s, v) -> s.descriptor = v) //$NON-NLS-1$
+				.add("modifiers", s -> s.modifiers, (s, v) -> s.modifiers = v) //$NON-NLS-1$
+				.add("hidden", s -> s.hidden, (s, v) -> s.hidden = v); //$NON-NLS-1$
+
 		public Object type;
 		public Object name;
 		public Object descriptor;
@@ -643,6 +703,12 @@ class StructTypes {
 
 	static class JfrFrame implements IMCFrame {
 
+		static final StructFields<JfrFrame> FIELDS = new StructFields<>(JfrFrame::new)
+				.add("method", s -> s.method, (s, v) -> s.method = v) //$NON-NLS-1$
+				.add("lineNumber", s -> s.lineNumber, (s, v) -> s.lineNumber = v) //$NON-NLS-1$
+				.add("bytecodeIndex", s -> s.bytecodeIndex, (s, v) -> s.bytecodeIndex = v) //$NON-NLS-1$
+				.add("type", s -> s.type, (s, v) -> s.type = v); //$NON-NLS-1$
+
 		public Object method;
 		public Object lineNumber;
 		public Object bytecodeIndex;
@@ -716,6 +782,10 @@ class StructTypes {
 
 	static class JfrStackTrace implements IMCStackTrace {
 
+		static final StructFields<JfrStackTrace> FIELDS = new StructFields<>(JfrStackTrace::new)
+				.add("frames", s -> s.frames, (s, v) -> s.frames = v) //$NON-NLS-1$
+				.add("truncated", s -> s.truncated, (s, v) -> s.truncated = v); //$NON-NLS-1$
+
 		public Object frames;
 		public Object truncated;
 
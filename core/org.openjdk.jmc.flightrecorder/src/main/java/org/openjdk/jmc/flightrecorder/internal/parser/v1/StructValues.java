@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.flightrecorder.internal.parser.v1;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.openjdk.jmc.flightrecorder.internal.parser.v1.StructTypes.JfrFrame;
+import org.openjdk.jmc.flightrecorder.internal.parser.v1.StructTypes.JfrJavaClass;
+import org.openjdk.jmc.flightrecorder.internal.parser.v1.StructTypes.JfrJavaClassLoader;
+import org.openjdk.jmc.flightrecorder.internal.parser.v1.StructTypes.JfrJavaModule;
+import org.openjdk.jmc.flightrecorder.internal.parser.v1.StructTypes.JfrJavaPackage;
+import org.openjdk.jmc.flightrecorder.internal.parser.v1.StructTypes.JfrMethod;
+import org.openjdk.jmc.flightrecorder.internal.parser.v1.StructTypes.JfrOldObject;
+import org.openjdk.jmc.flightrecorder.internal.parser.v1.StructTypes.JfrOldObjectArray;
+import org.openjdk.jmc.flightrecorder.internal.parser.v1.StructTypes.JfrOldObjectField;
+import org.openjdk.jmc.flightrecorder.internal.parser.v1.StructTypes.JfrOldObjectGcRoot;
+import org.openjdk.jmc.flightrecorder.internal.parser.v1.StructTypes.JfrStackTrace;
+import org.openjdk.jmc.flightrecorder.internal.parser.v1.StructTypes.JfrThread;
+import org.openjdk.jmc.flightrecorder.internal.parser.v1.StructTypes.JfrThreadGroup;
+import org.openjdk.jmc.flightrecorder.internal.parser.v1.ValueReaders.StructFields;
+
+/**
+ * Access to the fields of the {@link StructTypes} classes by name, so that resolved constants can
+ * be stored outside of the parser and recreated later. Struct instances are identified by the
+ * simple name of their class.
+ */
+public class StructValues {
+
+	private static final Map<Class<?>, StructFields<?>> FIELDS_BY_CLASS = new HashMap<>();
+	private static final Map<String, StructFields<?>> FIELDS_BY_NAME = new HashMap<>();
+
+	static {
+		register(JfrThread.class, JfrThread.FIELDS);
+		register(JfrThreadGroup.class, JfrThreadGroup.FIELDS);
+		register(JfrJavaPackage.class, JfrJavaPackage.FIELDS);
+		register(JfrJavaModule.class, JfrJavaModule.FIELDS);
+		register(JfrJavaClassLoader.class, JfrJavaClassLoader.FIELDS);
+		register(JfrJavaClass.class, JfrJavaClass.FIELDS);
+		register(JfrOldObjectGcRoot.class, JfrOldObjectGcRoot.FIELDS);
+		register(JfrOldObject.class, JfrOldObject.FIELDS);
+		register(JfrOldObjectArray.class, JfrOldObjectArray.FIELDS);
+		register(JfrOldObjectField.class, JfrOldObjectField.FIELDS);
+		register(JfrMethod.class, JfrMethod.FIELDS);
+		register(JfrFrame.class, JfrFrame.FIELDS);
+		register(JfrStackTrace.class, JfrStackTrace.FIELDS);
+	}
+
+	private static <T> void register(Class<T> structClass, StructFields<T> fields) {
+		FIELDS_BY_CLASS.put(structClass, fields);
+		FIELDS_BY_NAME.put(structClass.getSimpleName(), fields);
+	}
+
+	/**
+	 * @return the struct name of the value, or {@code null} if the value is not a struct instance
+	 */
+	public static String getStructName(Object value) {
+		return value != null && FIELDS_BY_CLASS.containsKey(value.getClass()) ? value.getClass().getSimpleName() : null;
+	}
+
+	/**
+	 * @return the field identifiers of a struct, in the order used by
+	 *         {@link #getFieldValues(Object)} and {@link #setFieldValues(Object, Object[])}
+	 * @throws IllegalArgumentException
+	 *             if there is no struct with the given name
+	 */
+	public static String[] getFieldIdentifiers(String structName) {
+		return getFields(structName).getIdentifiers();
+	}
+
+	/**
+	 * @param struct
+	 *            a value for which {@link #getStructName(Object)} is not {@code null}
+	 * @return the field values of the struct
+	 */
+	public static Object[] getFieldValues(Object struct) {
+		return getValues(FIELDS_BY_CLASS.get(struct.getClass()), struct);
+	}
+
+	/**
+	 * Create a struct instance with all fields set to {@code null}.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if there is no struct with the given name
+	 */
+	public static Object createStruct(String structName) {
+		return getFields(structName).create();
+	}
+
+	/**
+	 * @param struct
+	 *            a value created by {@link #createStruct(String)}
+	 * @param values
+	 *            the field values, in the same order as returned by {@link #getFieldValues(Object)}
+	 */
+	public static void setFieldValues(Object struct, Object[] values) {
+		setValues(FIELDS_BY_CLASS.get(struct.getClass()), struct, values);
+	}
+
+	private static StructFields<?> getFields(String structName) {
+		StructFields<?> fields = FIELDS_BY_NAME.get(structName);
+		if (fields == null) {
+			throw new IllegalArgumentException("Unknown struct " + structName); //$NON-NLS-1$
+		}
+		return fields;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> Object[] getValues(StructFields<T> fields, Object struct) {
+		return fields.getValues((T) struct);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> void setValues(StructFields<T> fields, Object struct, Object[] values) {
+		fields.setValues((T) struct, values);
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2024, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -72,7 +72,7 @@ import org.openjdk.jmc.flightrecorder.internal.parser.v1.ValueReaders.IValueRead
 import org.openjdk.jmc.flightrecorder.internal.parser.v1.ValueReaders.PoolReader;
 import org.openjdk.jmc.flightrecorder.internal.parser.v1.ValueReaders.PrimitiveReader;
 import org.openjdk.jmc.flightrecorder.internal.parser.v1.ValueReaders.QuantityReader;
-import org.openjdk.jmc.flightrecorder.internal.parser.v1.ValueReaders.ReflectiveReader;
+import org.openjdk.jmc.flightrecorder.internal.parser.v1.ValueReaders.StructFieldsReader;
 import org.openjdk.jmc.flightrecorder.internal.parser.v1.ValueReaders.StringReader;
 import org.openjdk.jmc.flightrecorder.internal.parser.v1.ValueReaders.StructReader;
 import org.openjdk.jmc.flightrecorder.internal.parser.v1.ValueReaders.TicksTimestampReader;
@@ -200,27 +200,27 @@ class TypeManager {
 			String identifier, String name, String description, int fieldCount) {
 			switch (identifier) {
 			case STRUCT_TYPE_THREAD_GROUP_2:
-				return new ReflectiveReader(JfrThreadGroup.class, fieldCount, UnitLookup.THREAD_GROUP);
+				return new StructFieldsReader<>(JfrThreadGroup.FIELDS, fieldCount, UnitLookup.THREAD_GROUP);
 			case STRUCT_TYPE_CLASS_LOADER_2:
-				return new ReflectiveReader(JfrJavaClassLoader.class, fieldCount, UnitLookup.CLASS_LOADER);
+				return new StructFieldsReader<>(JfrJavaClassLoader.FIELDS, fieldCount, UnitLookup.CLASS_LOADER);
 			case STRUCT_TYPE_OLD_OBJECT_GC_ROOT_2:
-				return new ReflectiveReader(JfrOldObjectGcRoot.class, fieldCount, UnitLookup.OLD_OBJECT_GC_ROOT);
+				return new StructFieldsReader<>(JfrOldObjectGcRoot.FIELDS, fieldCount, UnitLookup.OLD_OBJECT_GC_ROOT);
 			case STRUCT_TYPE_OLD_OBJECT_2:
-				return new ReflectiveReader(JfrOldObject.class, fieldCount, UnitLookup.OLD_OBJECT);
+				return new StructFieldsReader<>(JfrOldObject.FIELDS, fieldCount, UnitLookup.OLD_OBJECT);
 			case STRUCT_TYPE_OLD_OBJECT_ARRAY_2:
-				return new ReflectiveReader(JfrOldObjectArray.class, fieldCount, UnitLookup.OLD_OBJECT_ARRAY);
+				return new StructFieldsReader<>(JfrOldObjectArray.FIELDS, fieldCount, UnitLookup.OLD_OBJECT_ARRAY);
 			case STRUCT_TYPE_OLD_OBJECT_FIELD_2:
-				return new ReflectiveReader(JfrOldObjectField.class, fieldCount, UnitLookup.OLD_OBJECT_FIELD);
+				return new StructFieldsReader<>(JfrOldObjectField.FIELDS, fieldCount, UnitLookup.OLD_OBJECT_FIELD);
 			case STRUCT_TYPE_METHOD_2:
-				return new ReflectiveReader(JfrMethod.class, fieldCount, UnitLookup.METHOD);
+				return new StructFieldsReader<>(JfrMethod.FIELDS, fieldCount, UnitLookup.METHOD);
 			case STRUCT_TYPE_STACK_FRAME_2:
-				return new SpecificReaders.StackFrame2Reader(JfrFrame.class, fieldCount, UnitLookup.STACKTRACE_FRAME);
+				return new SpecificReaders.StackFrame2Reader(fieldCount);
 			case STRUCT_TYPE_STACK_TRACE_2:
-				return new ReflectiveReader(JfrStackTrace.class, fieldCount, UnitLookup.STACKTRACE);
+				return new StructFieldsReader<>(JfrStackTrace.FIELDS, fieldCount, UnitLookup.STACKTRACE);
 			case STRUCT_TYPE_MODULE_2:
-				return new ReflectiveReader(JfrJavaModule.class, fieldCount, UnitLookup.MODULE);
+				return new StructFieldsReader<>(JfrJavaModule.FIELDS, fieldCount, UnitLookup.MODULE);
 			case STRUCT_TYPE_PACKAGE_2:
-				return new ReflectiveReader(JfrJavaPackage.class, fieldCount, UnitLookup.PACKAGE);
+				return new StructFieldsReader<>(JfrJavaPackage.FIELDS, fieldCount, UnitLookup.PACKAGE);
 			default:
 				return createDefaultStructReader(fieldCount);
 			}
@@ -244,31 +244,31 @@ class TypeManager {
 			String identifier, String name, String description, int fieldCount) {
 			switch (identifier) {
 			case STRUCT_TYPE_THREAD:
-				return new ReflectiveReader(JfrThread.class, fieldCount, UnitLookup.THREAD);
+				return new StructFieldsReader<>(JfrThread.FIELDS, fieldCount, UnitLookup.THREAD);
 			case STRUCT_TYPE_THREAD_GROUP:
-				return new ReflectiveReader(JfrThreadGroup.class, fieldCount, UnitLookup.THREAD_GROUP);
+				return new StructFieldsReader<>(JfrThreadGroup.FIELDS, fieldCount, UnitLookup.THREAD_GROUP);
 			case STRUCT_TYPE_CLASS:
-				return new ReflectiveReader(JfrJavaClass.class, fieldCount, UnitLookup.CLASS);
+				return new StructFieldsReader<>(JfrJavaClass.FIELDS, fieldCount, UnitLookup.CLASS);
 			case STRUCT_TYPE_CLASS_LOADER:
-				return new ReflectiveReader(JfrJavaClassLoader.class, fieldCount, UnitLookup.CLASS_LOADER);
+				return new StructFieldsReader<>(JfrJavaClassLoader.FIELDS, fieldCount, UnitLookup.CLASS_LOADER);
 			case STRUCT_TYPE_OLD_OBJECT_GC_ROOT:
-				return new ReflectiveReader(JfrOldObjectGcRoot.class, fieldCount, UnitLookup.OLD_OBJECT_GC_ROOT);
+				return new StructFieldsReader<>(JfrOldObjectGcRoot.FIELDS, fieldCount, UnitLookup.OLD_OBJECT_GC_ROOT);
 			case STRUCT_TYPE_OLD_OBJECT:
-				return new ReflectiveReader(JfrOldObject.class, fieldCount, UnitLookup.OLD_OBJECT);
+				return new StructFieldsReader<>(JfrOldObject.FIELDS, fieldCount, UnitLookup.OLD_OBJECT);
 			case STRUCT_TYPE_OLD_OBJECT_ARRAY:
-				return new ReflectiveReader(JfrOldObjectArray.class, fieldCount, UnitLookup.OLD_OBJECT_ARRAY);
+				return new StructFieldsReader<>(JfrOldObjectArray.FIELDS, fieldCount, UnitLookup.OLD_OBJECT_ARRAY);
 			case STRUCT_TYPE_OLD_OBJECT_FIELD:
-				return new ReflectiveReader(JfrOldObjectField.class, fieldCount, UnitLookup.OLD_OBJECT_FIELD);
+				return new StructFieldsReader<>(JfrOldObjectField.FIELDS, fieldCount, UnitLookup.OLD_OBJECT_FIELD);
 			case STRUCT_TYPE_METHOD:
-				return new ReflectiveReader(JfrMethod.class, fieldCount, UnitLookup.METHOD);
+				return new StructFieldsReader<>(JfrMethod.FIELDS, fieldCount, UnitLookup.METHOD);
 			case STRUCT_TYPE_STACK_FRAME:
-				return new ReflectiveReader(JfrFrame.class, fieldCount, UnitLookup.STACKTRACE_FRAME);
+				return new StructFieldsReader<>(JfrFrame.FIELDS, fieldCount, UnitLookup.STACKTRACE_FRAME);
 			case STRUCT_TYPE_STACK_TRACE:
-				return new ReflectiveReader(JfrStackTrace.class, fieldCount, UnitLookup.STACKTRACE);
+				return new StructFieldsReader<>(JfrStackTrace.FIELDS, fieldCount, UnitLookup.STACKTRACE);
 			case STRUCT_TYPE_MODULE:
-				return new ReflectiveReader(JfrJavaModule.class, fieldCount, UnitLookup.MODULE);
+				return new StructFieldsReader<>(JfrJavaModule.FIELDS, fieldCount, UnitLookup.MODULE);
 			case STRUCT_TYPE_PACKAGE:
-				return new ReflectiveReader(JfrJavaPackage.class, fieldCount, UnitLookup.PACKAGE);
+				return new StructFieldsReader<>(JfrJavaPackage.FIELDS, fieldCount, UnitLookup.PACKAGE);
 			default:
 				return createDefaultStructReader(fieldCount);
 			}
@@ -305,8 +305,9 @@ class TypeManager {
 	private class EventTypeEntry {
 		private final ClassElement element;
 		private final List<IValueReader> valueReaders;
-		private Object[] reusableStruct;
-		private IEventSink eventSink;
+		private final List<ValueField> fieldsList = new ArrayList<>();
+		private final List<Integer> skipFields = new ArrayList<>();
+		private boolean hidden;
 		private LabeledIdentifier eventType;
 		private LoaderContext context;
 
@@ -315,7 +316,8 @@ class TypeManager {
 			valueReaders = new ArrayList<>(element.getFieldCount());
 		}
 
-		void readEvent(IDataInput input) throws InvalidJfrFileException, IOException {
+		void readEvent(IDataInput input, IEventSink eventSink, Object[] reusableStruct)
+				throws InvalidJfrFileException, IOException {
 			for (int i = 0; i < valueReaders.size(); i++) {
 				reusableStruct[i] = valueReaders.get(i).read(input, false);
 			}
@@ -333,10 +335,8 @@ class TypeManager {
 		void init(LoaderContext context) throws InvalidJfrFileException, IOException {
 			this.context = context;
 			if (context.hideExperimentals() && element.experimental) {
-				eventSink = new NopEventSink();
+				hidden = true;
 			} else {
-				List<ValueField> fieldsList = new ArrayList<>();
-				List<Integer> skipFields = new ArrayList<>();
 				for (int i = 0; i < element.getFieldCount(); i++) {
 					FieldElement fe = element.fields.get(i);
 					String valueType = context.getValueInterpretation(element.typeIdentifier, fe.fieldIdentifier);
@@ -366,29 +366,80 @@ class TypeManager {
 								reader.getContentType()));
 					}
 				}
-				String typeLabel = buildLabel(element.typeIdentifier, element);
-				// FIXME: Consider making the category array into something else, like an event type metadata array?
-				eventSink = context.getSinkFactory().create(element.typeIdentifier, typeLabel, element.category,
-						element.description, fieldsList);
-				reusableStruct = new Object[valueReaders.size()];
-				if (skipFields.size() > 0) {
-					eventSink = new SkipFieldsEventSink(eventSink, skipFields, reusableStruct.length);
-				}
 			}
 		}
 
+		/**
+		 * Create a new sink for events of this type. Each event lane gets its own sink.
+		 */
+		IEventSink createSink() {
+			if (hidden) {
+				return new NopEventSink();
+			}
+			String typeLabel = buildLabel(element.typeIdentifier, element);
+			// FIXME: Consider making the category array into something else, like an event type metadata array?
+			IEventSink eventSink = context.getSinkFactory().create(element.typeIdentifier, typeLabel, element.category,
+					element.description, fieldsList);
+			if (skipFields.size() > 0) {
+				eventSink = new SkipFieldsEventSink(eventSink, skipFields, valueReaders.size());
+			}
+			return eventSink;
+		}
+
+		int getValueCount() {
+			return valueReaders.size();
+		}
+
 		void updateEventStats(long size) {
 			context.updateEventStats(element.typeIdentifier, size);
 		}
 	}
 
+	/**
+	 * Event decoding state for one thread. Every lane has its own event sinks, so separate parts of
+	 * a chunk can be decoded in parallel by using one lane for each part.
+	 */
+	class EventLane {
+		private final FastAccessNumberMap<IEventSink> sinks = new FastAccessNumberMap<>();
+		private final FastAccessNumberMap<Object[]> reusableStructs = new FastAccessNumberMap<>();
+		private long skippedEventCount;
+
+		private EventLane() {
+		}
+
+		void readEvent(long typeId, IDataInput input, long size) throws InvalidJfrFileException, IOException {
+			EventTypeEntry entry = eventTypes.get(typeId);
+			if (entry == null) {
+				// We don't need to do anything here, as the chunk loader will skip to the next event for us.
+				Logger.getLogger(getClass().getName()).log(Level.WARNING,
+						"Event type with id " + typeId + " was not declared"); //$NON-NLS-1$ //$NON-NLS-2$
+				skippedEventCount++;
+			} else {
+				IEventSink sink = sinks.get(typeId);
+				if (sink == null) {
+					sink = createSink(typeId, entry);
+				}
+				entry.readEvent(input, sink, reusableStructs.get(typeId));
+				entry.updateEventStats(size);
+			}
+		}
+
+		private IEventSink createSink(long typeId, EventTypeEntry entry) {
+			IEventSink sink = entry.createSink();
+			sinks.put(typeId, sink);
+			reusableStructs.put(typeId, new Object[entry.getValueCount()]);
+			return sink;
+		}
+	}
+
 	// NOTE: Using constant pool id as identifier.
 	private final Map<Long, StructContentType<Object[]>> structTypes = new HashMap<>();
 	private final FastAccessNumberMap<TypeEntry> otherTypes = new FastAccessNumberMap<>();
 	private final FastAccessNumberMap<EventTypeEntry> eventTypes = new FastAccessNumberMap<>();
 	private final LoaderContext context;
 	private final ChunkStructure header;
-	private long skippedEventCount;
+	private final List<EventLane> lanes = new ArrayList<>();
+	private final EventLane defaultLane;
 
 	TypeManager(List<ClassElement> classList, LoaderContext context, ChunkStructure header)
 			throws InvalidJfrFileException, IOException {
@@ -411,19 +462,30 @@ class TypeManager {
 		for (EventTypeEntry ce : eventTypes) {
 			ce.init(context);
 		}
+		// Create sinks for all event types up front so that all declared types are known to the sinks
+		defaultLane = createLane();
+		for (EventTypeEntry entry : eventTypes) {
+			defaultLane.createSink(entry.element.classId, entry);
+		}
 	}
 
-	void readEvent(long typeId, IDataInput input, long size) throws InvalidJfrFileException, IOException {
-		EventTypeEntry entry = eventTypes.get(typeId);
-		if (entry == null) {
-			// We don't need to do anything here, as the chunk loader will skip to the next event for us.
-			Logger.getLogger(getClass().getName()).log(Level.WARNING,
-					"Event type with id " + typeId + " was not declared"); //$NON-NLS-1$ //$NON-NLS-2$
-			skippedEventCount++;
-		} else {
-			entry.readEvent(input);
-			entry.updateEventStats(size);
-		}
+	/**
+	 * Create a new lane for decoding events on a separate thread. Sinks for the event types are
+	 * created when the first event of each type is read in the lane.
+	 *
+	 * @return a new event lane
+	 */
+	synchronized EventLane createLane() {
+		EventLane lane = new EventLane();
+		lanes.add(lane);
+		return lane;
+	}
+
+	/**
+	 * @return the lane that has sinks for all event types
+	 */
+	EventLane getDefaultLane() {
+		return defaultLane;
 	}
 
 	void readConstants(long typeId, IDataInput input, int constantCount) throws InvalidJfrFileException, IOException {
@@ -442,7 +504,11 @@ class TypeManager {
 		context.allConstantPoolsResolved(pools);
 	}
 
-	long getSkippedEventCount() {
+	synchronized long getSkippedEventCount() {
+		long skippedEventCount = 0;
+		for (EventLane lane : lanes) {
+			skippedEventCount += lane.skippedEventCount;
+		}
 		return skippedEventCount;
 	}
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2024, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -33,12 +33,13 @@
 package org.openjdk.jmc.flightrecorder.internal.parser.v1;
 
 import java.io.IOException;
-import java.lang.reflect.Field;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -510,20 +511,78 @@ class ValueReaders {
 		}
 	}
 
-	static class ReflectiveReader extends AbstractStructReader {
-		// FIXME: Change the reflective setting of fields to avoid the conversion workarounds that some classes have to make. See JMC-5966
+	/**
+	 * Accessors for the fields of one of the classes in {@link StructTypes}. The accessors are
+	 * written out for each class so that struct constants can be read and resolved without
+	 * reflection.
+	 */
+	static class StructFields<T> {
+		private final Supplier<T> factory;
+		// Kept in the order that the fields are added, see getIdentifiers()
+		private final Map<String, FieldAccessor<T>> accessors = new LinkedHashMap<>();
 
-		private final Map<String, Field> identifiersToFields;
-		// String to prefix reserved java keywords with when looking for a class field
-		private static final String RESERVED_IDENTIFIER_PREFIX = "_"; //$NON-NLS-1$
-		private final List<Field> fields;
-		private final Class<?> klass;
+		StructFields(Supplier<T> factory) {
+			this.factory = factory;
+		}
+
+		StructFields<T> add(String identifier, Function<T, Object> getter, BiConsumer<T, Object> setter) {
+			accessors.put(identifier, new FieldAccessor<>(getter, setter));
+			return this;
+		}
+
+		T create() {
+			return factory.get();
+		}
+
+		/**
+		 * @return the field identifiers, in the order that the fields were added
+		 */
+		String[] getIdentifiers() {
+			return accessors.keySet().toArray(new String[accessors.size()]);
+		}
+
+		/**
+		 * @return the field values of an instance, in the order of {@link #getIdentifiers()}
+		 */
+		Object[] getValues(T instance) {
+			Object[] values = new Object[accessors.size()];
+			int i = 0;
+			for (FieldAccessor<T> accessor : accessors.values()) {
+				values[i++] = accessor.getter.apply(instance);
+			}
+			return values;
+		}
+
+		/**
+		 * Set the field values of an instance, in the order of {@link #getIdentifiers()}.
+		 */
+		void setValues(T instance, Object[] values) {
+			int i = 0;
+			for (FieldAccessor<T> accessor : accessors.values()) {
+				accessor.setter.accept(instance, values[i++]);
+			}
+		}
+	}
+
+	private static class FieldAccessor<T> {
+		final Function<T, Object> getter;
+		final BiConsumer<T, Object> setter;
+
+		FieldAccessor(Function<T, Object> getter, BiConsumer<T, Object> setter) {
+			this.getter = getter;
+			this.setter = setter;
+		}
+	}
+
+	static class StructFieldsReader<T> extends AbstractStructReader {
+		private final StructFields<T> structFields;
 		private final ContentType<?> ct;
+		// Accessors in the order that the fields appear in the recording, null for unknown fields
+		private final List<FieldAccessor<T>> fields;
 
-		<T> ReflectiveReader(Class<T> klass, int fieldCount, ContentType<? super T> ct) {
+		StructFieldsReader(StructFields<T> structFields, int fieldCount, ContentType<? super T> ct) {
 			super(fieldCount);
-			this.klass = klass;
-			this.identifiersToFields = IdentifierFieldCache.INSTANCE.get(klass);
+			this.structFields = structFields;
 			this.ct = ct;
 			fields = new ArrayList<>(fieldCount);
 		}
@@ -531,35 +590,28 @@ class ValueReaders {
 		@Override
 		public Object read(IDataInput in, boolean allowUnresolvedReference)
 				throws IOException, InvalidJfrFileException {
-			try {
-				Object instance = klass.newInstance();
-				for (int i = 0; i < valueReaders.size(); i++) {
-					Object val = valueReaders.get(i).read(in, allowUnresolvedReference);
-					Field f = fields.get(i);
-					if (f != null) {
-						f.set(instance, val);
-					}
+			T instance = structFields.factory.get();
+			for (int i = 0; i < valueReaders.size(); i++) {
+				Object val = valueReaders.get(i).read(in, allowUnresolvedReference);
+				FieldAccessor<T> f = fields.get(i);
+				if (f != null) {
+					f.setter.accept(instance, val);
 				}
-				return instance;
-			} catch (InstantiationException | IllegalAccessException e) {
-				throw new RuntimeException(e);
 			}
+			return instance;
 		}
 
+		@SuppressWarnings("unchecked")
 		@Override
 		public Object resolve(Object value) throws InvalidJfrFileException {
-			try {
-				for (int i = 0; i < valueReaders.size(); i++) {
-					Field f = fields.get(i);
-					if (f != null) {
-						Object val = valueReaders.get(i).resolve(f.get(value));
-						f.set(value, val);
-					}
+			T instance = (T) value;
+			for (int i = 0; i < valueReaders.size(); i++) {
+				FieldAccessor<T> f = fields.get(i);
+				if (f != null) {
+					f.setter.accept(instance, valueReaders.get(i).resolve(f.getter.apply(instance)));
 				}
-				return value;
-			} catch (IllegalAccessException e) {
-				throw new RuntimeException(e);
 			}
+			return value;
 		}
 
 		@Override
@@ -571,31 +623,13 @@ class ValueReaders {
 		void addField(String identifier, String name, String description, IValueReader reader)
 				throws InvalidJfrFileException {
 			valueReaders.add(reader);
-			Field field = identifiersToFields.get(identifier);
-			if (field == null) {
-				field = identifiersToFields.get(RESERVED_IDENTIFIER_PREFIX + identifier);
-			}
+			FieldAccessor<T> field = structFields.accessors.get(identifier);
 			if (field == null) {
-				Logger.getLogger(ReflectiveReader.class.getName()).log(Level.WARNING,
+				Logger.getLogger(StructFieldsReader.class.getName()).log(Level.WARNING,
 						"Could not find field with name '" + identifier + "' in reader for '" + ct.getIdentifier() //$NON-NLS-1$ //$NON-NLS-2$
 								+ "'"); //$NON-NLS-1$
 			}
 			fields.add(field);
 		}
 	}
-
-	static class IdentifierFieldCache extends ClassValue<Map<String, Field>> {
-
-		public static final IdentifierFieldCache INSTANCE = new IdentifierFieldCache();
-
-		@Override
-		protected Map<String, Field> computeValue(Class<?> type) {
-			Field[] fields = type.getFields();
-			Map<String, Field> map = new HashMap<>(fields.length);
-			for (Field field : fields) {
-				map.put(field.getName(), field);
-			}
-			return Collections.unmodifiableMap(map);
-		}
-	}
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2019, 2022, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2019, 2026, Oracle and/or its affiliates. All rights reserved.
  * Copyright (c) 2019, 2022, Datadog, Inc. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
@@ -33,8 +33,6 @@
  */
 package org.openjdk.jmc.flightrecorder.stacktrace.graph;
 
-import static org.openjdk.jmc.flightrecorder.JfrAttributes.EVENT_STACKTRACE;
-
 import java.io.File;
 import java.io.IOException;
 import java.util.Collection;
@@ -47,12 +45,8 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.openjdk.jmc.common.IMCFrame;
-import org.openjdk.jmc.common.IMCStackTrace;
 import org.openjdk.jmc.common.item.IAttribute;
-import org.openjdk.jmc.common.item.IItem;
 import org.openjdk.jmc.common.item.IItemCollection;
-import org.openjdk.jmc.common.item.IItemIterable;
-import org.openjdk.jmc.common.item.IMemberAccessor;
 import org.openjdk.jmc.common.unit.IQuantity;
 import org.openjdk.jmc.flightrecorder.CouldNotLoadRecordingException;
 import org.openjdk.jmc.flightrecorder.JfrLoaderToolkit;
@@ -60,6 +54,7 @@ import org.openjdk.jmc.flightrecorder.jdk.JdkFilters;
 import org.openjdk.jmc.flightrecorder.stacktrace.FrameSeparator;
 import org.openjdk.jmc.flightrecorder.stacktrace.FrameSeparator.FrameCategorization;
 import org.openjdk.jmc.flightrecorder.stacktrace.graph.Node.NodeWrapper;
+import org.openjdk.jmc.flightrecorder.stacktrace.graph.TraceTable.TraceStats;
 
 /**
  * A model for holding multiple stack traces and their relations to each other as a directed graph.
@@ -79,11 +74,16 @@ import org.openjdk.jmc.flightrecorder.stacktrace.graph.Node.NodeWrapper;
  * FrameSeparator frameSeparator = new FrameSeparator(FrameCategorization.METHOD, false);
  * StacktraceGraphModel model = new StacktraceGraphModel(frameSeparator, filteredItems);
  * </pre>
+ * <p>
+ * When the graph is shown for a changing set of events, such as a time range selection, a
+ * {@link Builder} can be used to add and subtract the events that differ between the sets instead
+ * of building each model from scratch.
  */
 public final class StacktraceGraphModel {
 	private final FrameSeparator frameSeparator;
 	private final IItemCollection items;
 	private final IAttribute<IQuantity> attribute;
+	private final TraceTable traces;
 	private int totalTraceCount;
 	private int totalEdgeCount;
 	private int nodeCounter;
@@ -109,9 +109,15 @@ public final class StacktraceGraphModel {
 	 *            the (optional) attribute to use for calculating the values.
 	 */
 	public StacktraceGraphModel(FrameSeparator frameSeparator, IItemCollection items, IAttribute<IQuantity> attribute) {
+		this(frameSeparator, items, attribute, TraceTable.create(items, attribute));
+	}
+
+	private StacktraceGraphModel(FrameSeparator frameSeparator, IItemCollection items, IAttribute<IQuantity> attribute,
+			TraceTable traces) {
 		this.frameSeparator = frameSeparator;
 		this.items = items;
 		this.attribute = attribute;
+		this.traces = traces;
 		buildModel(Collections.emptySet());
 	}
 
@@ -119,9 +125,84 @@ public final class StacktraceGraphModel {
 		this.frameSeparator = model.frameSeparator;
 		this.items = model.items;
 		this.attribute = model.attribute;
+		this.traces = model.traces;
 		buildModel(keptNodes);
 	}
 
+	/**
+	 * Builds models from a set of events that is changed by adding and subtracting events.
+	 * <p>
+	 * Instances of this class are thread safe.
+	 */
+	public static final class Builder {
+		private final FrameSeparator frameSeparator;
+		private final IAttribute<IQuantity> attribute;
+		private final TraceTable traces = new TraceTable();
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param frameSeparator
+		 *            how to aggregate frames.
+		 * @param attribute
+		 *            the (optional) attribute to use for calculating the values.
+		 */
+		public Builder(FrameSeparator frameSeparator, IAttribute<IQuantity> attribute) {
+			this.frameSeparator = frameSeparator;
+			this.attribute = attribute;
+		}
+
+		/**
+		 * Adds events to the graph. The iterables of the collection are processed in parallel.
+		 * 
+		 * @param delta
+		 *            the events to add.
+		 * @return this builder.
+		 */
+		public Builder add(IItemCollection delta) {
+			TraceTable added = TraceTable.create(delta, attribute);
+			synchronized (traces) {
+				traces.merge(added);
+			}
+			return this;
+		}
+
+		/**
+		 * Subtracts events that have previously been added to the graph.
+		 * 
+		 * @param delta
+		 *            the events to subtract.
+		 * @return this builder.
+		 */
+		public Builder subtract(IItemCollection delta) {
+			synchronized (traces) {
+				traces.update(delta, attribute, -1);
+			}
+			return this;
+		}
+
+		/**
+		 * Builds a model from the events currently in the builder. The builder can be updated and
+		 * used again afterwards.
+		 * 
+		 * @param items
+		 *            the items that the added and subtracted events amount to, which is what
+		 *            {@link StacktraceGraphModel#getItems()} will return. If the first event of a
+		 *            stack trace has been subtracted, the items are read up to the new first events
+		 *            to get the values of the edges.
+		 * @return the model.
+		 */
+		public StacktraceGraphModel build(IItemCollection items) {
+			TraceTable snapshot;
+			synchronized (traces) {
+				// Subtracted first events change which event gives the value of the edges
+				traces.updateFirstEvents(items, attribute);
+				snapshot = traces.copy();
+			}
+			return new StacktraceGraphModel(frameSeparator, items, attribute, snapshot);
+		}
+	}
+
 	public Collection<Edge> getEdges() {
 		return edges.values().stream().flatMap((c) -> c.stream()).collect(Collectors.toSet());
 	}
@@ -268,36 +349,17 @@ public final class StacktraceGraphModel {
 	}
 
 	private void buildModel(Set<AggregatableFrame> keptNodes) {
-		for (IItemIterable iterable : items) {
-			IMemberAccessor<IMCStackTrace, IItem> stacktraceAccessor = getAccessor(iterable, EVENT_STACKTRACE);
-			if (stacktraceAccessor == null) {
-				continue;
-			}
-			iterable.forEach((item) -> addItem(item, stacktraceAccessor, getAccessor(iterable, attribute), keptNodes));
+		for (TraceStats stats : traces.getTraces()) {
+			addTrace(stats, keptNodes);
 		}
 	}
 
-	private static <T> IMemberAccessor<T, IItem> getAccessor(IItemIterable iterable, IAttribute<T> attr) {
-		return (attr != null) ? iterable.getType().getAccessor(attr.getKey()) : null;
-	}
-
-	private void addItem(
-		IItem item, IMemberAccessor<IMCStackTrace, IItem> stackTraceAccessor,
-		IMemberAccessor<IQuantity, IItem> quantityAccessor, Set<AggregatableFrame> keptNodes) {
-		IMCStackTrace stackTrace = stackTraceAccessor.getMember(item);
-		if (stackTrace == null) {
-			return;
-		}
-		List<? extends IMCFrame> frames = stackTrace.getFrames();
+	private void addTrace(TraceStats stats, Set<AggregatableFrame> keptNodes) {
+		List<? extends IMCFrame> frames = stats.trace.getFrames();
 		if (frames.isEmpty()) {
 			return;
 		}
 
-		double value = 1;
-		if (quantityAccessor != null) {
-			value = quantityAccessor.getMember(item).doubleValue();
-		}
-
 		// First frame is the frame where things are actually happening, i.e. the method
 		// actually responsible for whatever is being tracked (e.g. the method being on
 		// CPU, the method triggering the allocation etc) - it is for this node we
@@ -305,9 +367,9 @@ public final class StacktraceGraphModel {
 		AggregatableFrame firstFrame = new AggregatableFrame(frameSeparator, frames.get(0));
 		if (keepFrame(keptNodes, firstFrame)) {
 			Node n = getOrCreateNode(firstFrame);
-			totalTraceCount++;
-			n.count++;
-			n.weight += value;
+			totalTraceCount += stats.count;
+			n.count += stats.count;
+			n.weight += stats.value;
 
 			// Next go through all frames from the thread root, and up the cumulative counts
 			for (int i = frames.size() - 1; i > 0; i--) {
@@ -317,15 +379,15 @@ public final class StacktraceGraphModel {
 
 				if (keepFrame(keptNodes, currentFrame)) {
 					Node currentNode = getOrCreateNode(currentFrame);
-					currentNode.cumulativeCount++;
-					currentNode.cumulativeWeight += value;
+					currentNode.cumulativeCount += stats.count;
+					currentNode.cumulativeWeight += stats.value;
 					if (keepFrame(keptNodes, nextFrame)) {
 						Node nextNode = getOrCreateNode(nextFrame);
-						nextNode.cumulativeCount++;
-						nextNode.cumulativeWeight += value;
-						Edge e = getOrCreateLink(currentNode, nextNode, value);
-						e.count++;
-						totalEdgeCount++;
+						nextNode.cumulativeCount += stats.count;
+						nextNode.cumulativeWeight += stats.value;
+						Edge e = getOrCreateLink(currentNode, nextNode, stats.firstValue);
+						e.count += stats.count;
+						totalEdgeCount += stats.count;
 					}
 				}
 			}
@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.flightrecorder.stacktrace.graph;
+
+import static org.openjdk.jmc.flightrecorder.JfrAttributes.EVENT_STACKTRACE;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.openjdk.jmc.common.IMCStackTrace;
+import org.openjdk.jmc.common.item.IAttribute;
+import org.openjdk.jmc.common.item.IItem;
+import org.openjdk.jmc.common.item.IItemCollection;
+import org.openjdk.jmc.common.item.IItemIterable;
+import org.openjdk.jmc.common.item.IMemberAccessor;
+import org.openjdk.jmc.common.unit.IQuantity;
+
+/**
+ * The distinct stack traces of a set of events, with the number of events and the sum of their
+ * values for each stack trace. This is what a {@link StacktraceGraphModel} is built from, so that
+ * the graph can be rebuilt, pruned or updated without going through the events again.
+ * <p>
+ * Stack traces are compared by identity, since stack traces from the constant pools are shared
+ * between events. Equal stack traces from different chunks get separate entries, which end up in
+ * the same nodes and edges of the graph. The traces are kept in order of first appearance, which
+ * gives the nodes the same ids as when the events are processed one by one.
+ * <p>
+ * Subtracting the first event of a trace makes its order and first value stale. The table remembers
+ * that, and {@link #updateFirstEvents(IItemCollection, IAttribute)} finds the new first events in
+ * the remaining events. Events are compared by identity to detect this, which works for the events
+ * of loaded recordings since they are kept in memory.
+ * <p>
+ * Instances of this class are not thread safe.
+ */
+final class TraceTable {
+
+	static final class TraceStats {
+		final IMCStackTrace trace;
+		long order;
+		int count;
+		double value;
+		/**
+		 * The value of the first event with the stack trace, which is used as the value for new
+		 * edges.
+		 */
+		double firstValue;
+		IItem firstItem;
+
+		TraceStats(IMCStackTrace trace, long order, IItem firstItem, double firstValue) {
+			this.trace = trace;
+			this.order = order;
+			this.firstItem = firstItem;
+			this.firstValue = firstValue;
+		}
+	}
+
+	private final Map<IMCStackTrace, TraceStats> traces = new IdentityHashMap<>();
+	private long nextOrder;
+	private boolean firstEventsRemoved;
+
+	/**
+	 * Creates a table for the events with stack traces in a collection, processing the iterables of
+	 * the collection in parallel.
+	 */
+	static TraceTable create(IItemCollection items, IAttribute<IQuantity> attribute) {
+		List<IItemIterable> iterables = new ArrayList<>();
+		for (IItemIterable iterable : items) {
+			if (getAccessor(iterable, EVENT_STACKTRACE) != null) {
+				iterables.add(iterable);
+			}
+		}
+		if (iterables.size() < 2) {
+			TraceTable table = new TraceTable();
+			for (IItemIterable iterable : iterables) {
+				table.update(iterable, attribute, 1);
+			}
+			return table;
+		}
+		return ForkJoinPool.commonPool().invoke(new PartialTableTask(iterables, 0, iterables.size(), attribute));
+	}
+
+	/**
+	 * Adds or subtracts the events with stack traces in a collection.
+	 *
+	 * @param sign
+	 *            1 to add the events, -1 to subtract them
+	 */
+	void update(IItemCollection items, IAttribute<IQuantity> attribute, int sign) {
+		if (sign > 0) {
+			merge(create(items, attribute));
+			return;
+		}
+		for (IItemIterable iterable : items) {
+			update(iterable, attribute, sign);
+		}
+	}
+
+	private void update(IItemIterable iterable, IAttribute<IQuantity> attribute, int sign) {
+		IMemberAccessor<IMCStackTrace, IItem> stacktraceAccessor = getAccessor(iterable, EVENT_STACKTRACE);
+		if (stacktraceAccessor == null) {
+			return;
+		}
+		IMemberAccessor<IQuantity, IItem> quantityAccessor = getAccessor(iterable, attribute);
+		for (IItem item : iterable) {
+			IMCStackTrace trace = stacktraceAccessor.getMember(item);
+			if (trace == null) {
+				continue;
+			}
+			double value = getValue(quantityAccessor, item);
+			TraceStats stats = traces.get(trace);
+			if (sign > 0) {
+				if (stats == null) {
+					stats = new TraceStats(trace, nextOrder++, item, value);
+					traces.put(trace, stats);
+				}
+				stats.count++;
+				stats.value += value;
+			} else if (stats != null) {
+				stats.count--;
+				stats.value -= value;
+				if (stats.count <= 0) {
+					traces.remove(trace);
+				} else if (stats.firstItem == item) {
+					firstEventsRemoved = true;
+				}
+			}
+		}
+	}
+
+	private static double getValue(IMemberAccessor<IQuantity, IItem> quantityAccessor, IItem item) {
+		return quantityAccessor != null ? quantityAccessor.getMember(item).doubleValue() : 1;
+	}
+
+	/**
+	 * Gives the traces the order and first values they would have in a table created from a
+	 * collection, if the first event of any trace has been subtracted. Only the events up to the
+	 * first event of the last trace are read.
+	 *
+	 * @param items
+	 *            the events that this table has been updated to contain
+	 */
+	void updateFirstEvents(IItemCollection items, IAttribute<IQuantity> attribute) {
+		if (!firstEventsRemoved) {
+			return;
+		}
+		firstEventsRemoved = false;
+		Map<IMCStackTrace, TraceStats> unseen = new IdentityHashMap<>(traces);
+		long order = 0;
+		for (IItemIterable iterable : items) {
+			IMemberAccessor<IMCStackTrace, IItem> stacktraceAccessor = getAccessor(iterable, EVENT_STACKTRACE);
+			if (stacktraceAccessor == null) {
+				continue;
+			}
+			IMemberAccessor<IQuantity, IItem> quantityAccessor = getAccessor(iterable, attribute);
+			for (IItem item : iterable) {
+				IMCStackTrace trace = stacktraceAccessor.getMember(item);
+				TraceStats stats = trace != null ? unseen.remove(trace) : null;
+				if (stats != null) {
+					stats.order = order++;
+					stats.firstItem = item;
+					stats.firstValue = getValue(quantityAccessor, item);
+					if (unseen.isEmpty()) {
+						nextOrder = order;
+						return;
+					}
+				}
+			}
+		}
+		// Traces that are missing from the events keep their relative order, after the others
+		for (TraceStats stats : sort(unseen.values())) {
+			stats.order = order++;
+		}
+		nextOrder = order;
+	}
+
+	/**
+	 * Adds the traces of another table. Traces that are new to this table are placed after the
+	 * existing ones, in the order of the other table.
+	 */
+	void merge(TraceTable other) {
+		for (TraceStats otherStats : other.getTraces()) {
+			TraceStats stats = traces.get(otherStats.trace);
+			if (stats == null) {
+				stats = new TraceStats(otherStats.trace, nextOrder++, otherStats.firstItem, otherStats.firstValue);
+				traces.put(otherStats.trace, stats);
+			}
+			stats.count += otherStats.count;
+			stats.value += otherStats.value;
+		}
+	}
+
+	TraceTable copy() {
+		TraceTable copy = new TraceTable();
+		copy.merge(this);
+		copy.firstEventsRemoved = firstEventsRemoved;
+		return copy;
+	}
+
+	/**
+	 * @return the traces in order of first appearance
+	 */
+	List<TraceStats> getTraces() {
+		return sort(traces.values());
+	}
+
+	private static List<TraceStats> sort(Collection<TraceStats> stats) {
+		List<TraceStats> result = new ArrayList<>(stats);
+		result.sort(Comparator.comparingLong(s -> s.order));
+		return result;
+	}
+
+	private static <T> IMemberAccessor<T, IItem> getAccessor(IItemIterable iterable, IAttribute<T> attr) {
+		return (attr != null) ? iterable.getType().getAccessor(attr.getKey()) : null;
+	}
+
+	/**
+	 * Builds tables for a range of iterables, splitting the range in halves and merging the results
+	 * in order.
+	 */
+	private static class PartialTableTask extends RecursiveTask<TraceTable> {
+		private static final long serialVersionUID = 1L;
+
+		private final List<IItemIterable> iterables;
+		private final int from;
+		private final int to;
+		private final IAttribute<IQuantity> attribute;
+
+		PartialTableTask(List<IItemIterable> iterables, int from, int to, IAttribute<IQuantity> attribute) {
+			this.iterables = iterables;
+			this.from = from;
+			this.to = to;
+			this.attribute = attribute;
+		}
+
+		@Override
+		protected TraceTable compute() {
+			if (to - from == 1) {
+				TraceTable table = new TraceTable();
+				table.update(iterables.get(from), attribute, 1);
+				return table;
+			}
+			int middle = (from + to) >>> 1;
+			PartialTableTask right = new PartialTableTask(iterables, middle, to, attribute);
+			right.fork();
+			TraceTable left = new PartialTableTask(iterables, from, middle, attribute).compute();
+			left.merge(right.join());
+			return left;
+		}
+	}
+}
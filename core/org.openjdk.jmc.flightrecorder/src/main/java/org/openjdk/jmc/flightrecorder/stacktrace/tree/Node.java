@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2021, 2023, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2021, 2026, Oracle and/or its affiliates. All rights reserved.
  * Copyright (c) 2021, 2023, Datadog, Inc. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
@@ -35,7 +35,9 @@ package org.openjdk.jmc.flightrecorder.stacktrace.tree;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -43,6 +45,12 @@ import java.util.Objects;
  */
 public final class Node {
 
+	/**
+	 * The number of children above which children are looked up in a hash index instead of by
+	 * linear search.
+	 */
+	private static final int CHILD_INDEX_THRESHOLD = 8;
+
 	/**
 	 * The frame associated with this node.
 	 */
@@ -63,6 +71,12 @@ public final class Node {
 	 */
 	final List<Node> children = new ArrayList<>();
 
+	/**
+	 * The child nodes by frame; null until there are more than {@link #CHILD_INDEX_THRESHOLD}
+	 * children.
+	 */
+	private Map<AggregatableFrame, Node> childIndex;
+
 	/**
 	 * The cumulative weight for all contributions.
 	 */
@@ -80,6 +94,36 @@ public final class Node {
 		}
 	}
 
+	/**
+	 * @return the child node with an equal frame, or null if there is none
+	 */
+	Node getChild(AggregatableFrame childFrame) {
+		if (childIndex != null) {
+			return childIndex.get(childFrame);
+		}
+		for (Node child : children) {
+			if (child.frame.equals(childFrame)) {
+				return child;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Adds a child node. There must not already be a child with an equal frame.
+	 */
+	void addChild(Node child) {
+		children.add(child);
+		if (childIndex != null) {
+			childIndex.put(child.frame, child);
+		} else if (children.size() > CHILD_INDEX_THRESHOLD) {
+			childIndex = new HashMap<>();
+			for (Node c : children) {
+				childIndex.put(c.frame, c);
+			}
+		}
+	}
+
 	/**
 	 * @return the weight of this node.
 	 */
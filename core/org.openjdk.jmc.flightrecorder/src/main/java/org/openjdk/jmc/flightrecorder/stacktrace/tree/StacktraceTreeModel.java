@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2021, 2022, 2023, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2021, 2022, 2023, 2026, Oracle and/or its affiliates. All rights reserved.
  * Copyright (c) 2021, 2022, 2023, Datadog, Inc. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
@@ -33,7 +33,14 @@
  */
 package org.openjdk.jmc.flightrecorder.stacktrace.tree;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.function.BooleanSupplier;
 
 import org.openjdk.jmc.common.IMCFrame;
@@ -165,21 +172,26 @@ public class StacktraceTreeModel {
 
 		AggregatableFrame rootFrame = new AggregatableFrame(frameSeparator, ROOT_FRAME);
 		this.root = Node.newRootNode(rootFrame);
+		if (stopFlag.getAsBoolean()) {
+			return;
+		}
+		List<IItemIterable> iterables = new ArrayList<>();
 		for (IItemIterable iterable : items) {
-			if (stopFlag.getAsBoolean()) {
-				return;
-			}
-			IMemberAccessor<IMCStackTrace, IItem> stacktraceAccessor = getAccessor(iterable, EVENT_STACKTRACE);
-			if (stacktraceAccessor == null) {
-				continue;
+			if (getAccessor(iterable, EVENT_STACKTRACE) != null) {
+				iterables.add(iterable);
 			}
-			IMemberAccessor<IQuantity, IItem> quantityAccessor = getAccessor(iterable, attribute);
-			for (final var item : iterable) {
-				if (stopFlag.getAsBoolean()) {
-					return;
-				}
-				addItem(item, stacktraceAccessor, quantityAccessor);
+		}
+		if (iterables.size() < 2) {
+			TreeBuilder builder = new TreeBuilder(root);
+			for (IItemIterable iterable : iterables) {
+				builder.addItems(iterable, stopFlag);
 			}
+		} else {
+			// Build partial trees for the iterables in parallel and merge them in order, so that
+			// the children are in the same order as when adding the iterables one by one
+			Node merged = ForkJoinPool.commonPool()
+					.invoke(new PartialTreeTask(iterables, 0, iterables.size(), rootFrame, stopFlag));
+			merge(root, merged);
 		}
 	}
 
@@ -201,72 +213,156 @@ public class StacktraceTreeModel {
 		return attribute;
 	}
 
-	private void addItem(
-		IItem item, IMemberAccessor<IMCStackTrace, IItem> stacktraceAccessor,
-		IMemberAccessor<IQuantity, IItem> quantityAccessor) {
-		IMCStackTrace stacktrace = stacktraceAccessor.getMember(item);
-		if (stacktrace == null) {
-			return;
-		}
-		List<? extends IMCFrame> frames = stacktrace.getFrames();
-		if (frames == null || frames.isEmpty()) {
-			return;
-		}
+	/**
+	 * Adds events to a tree. The path of nodes for each stack trace is remembered, since stack
+	 * traces from the constant pools are shared between events, so that repeated stack traces are
+	 * added without looking up or allocating any frames.
+	 */
+	private class TreeBuilder {
+		private final Node treeRoot;
+		private final Map<IMCStackTrace, Node[]> paths = new IdentityHashMap<>();
 
-		// if we want a specific attribute but its accessor is not available we skip
-		if (attribute != null && quantityAccessor == null) {
-			return;
+		TreeBuilder(Node treeRoot) {
+			this.treeRoot = treeRoot;
 		}
 
-		// if we don't request a specific attribute, we simply count occurrences
-		double value = (quantityAccessor != null) ? quantityAccessor.getMember(item).doubleValue() : 1.0;
-		if (attribute != null && attribute.getContentType() == UnitLookup.MEMORY) {
-			value = value / 1024;
+		void addItems(IItemIterable iterable, BooleanSupplier stopFlag) {
+			IMemberAccessor<IMCStackTrace, IItem> stacktraceAccessor = getAccessor(iterable, EVENT_STACKTRACE);
+			IMemberAccessor<IQuantity, IItem> quantityAccessor = getAccessor(iterable, attribute);
+			// if we want a specific attribute but its accessor is not available we skip
+			if (attribute != null && quantityAccessor == null) {
+				return;
+			}
+			for (final var item : iterable) {
+				if (stopFlag.getAsBoolean()) {
+					return;
+				}
+				addItem(item, stacktraceAccessor, quantityAccessor);
+			}
 		}
 
-		// if the stack is zero valued for the requested attribute we prune it
-		if (attribute != null && value == 0.0) {
-			return;
-		}
+		private void addItem(
+			IItem item, IMemberAccessor<IMCStackTrace, IItem> stacktraceAccessor,
+			IMemberAccessor<IQuantity, IItem> quantityAccessor) {
+			IMCStackTrace stacktrace = stacktraceAccessor.getMember(item);
+			if (stacktrace == null) {
+				return;
+			}
+
+			// if we don't request a specific attribute, we simply count occurrences
+			double value = (quantityAccessor != null) ? quantityAccessor.getMember(item).doubleValue() : 1.0;
+			if (attribute != null && attribute.getContentType() == UnitLookup.MEMORY) {
+				value = value / 1024;
+			}
+
+			// if the stack is zero valued for the requested attribute we prune it
+			if (attribute != null && value == 0.0) {
+				return;
+			}
 
-		Node parent = getRoot();
-		int processedFrames = 0;
-		while (processedFrames < frames.size()) {
-			int idx = invertedStacks ? processedFrames : frames.size() - 1 - processedFrames;
-
-			AggregatableFrame frame;
-			if (stacktrace.getTruncationState().isTruncated() && !invertedStacks && processedFrames == 0) {
-				// we have a truncated stacktrace so we can't assume anything about the bottom frame
-				frame = new AggregatableFrame(frameSeparator, UNKNOWN_FRAME);
-			} else {
-				frame = new AggregatableFrame(frameSeparator, frames.get(idx));
+			Node[] path = paths.get(stacktrace);
+			if (path == null) {
+				path = createPath(stacktrace);
+				paths.put(stacktrace, path);
+			}
+			for (Node node : path) {
+				node.cumulativeWeight += value;
+			}
+			if (path.length > 0) {
+				path[path.length - 1].weight += value;
 			}
+		}
 
-			Node current = getOrCreateNode(parent, frame);
-			current.cumulativeWeight += value;
-			if (processedFrames == frames.size() - 1) {
-				current.weight += value;
+		private Node[] createPath(IMCStackTrace stacktrace) {
+			List<? extends IMCFrame> frames = stacktrace.getFrames();
+			if (frames == null || frames.isEmpty()) {
+				return new Node[0];
 			}
+			Node[] path = new Node[frames.size()];
+			Node parent = treeRoot;
+			for (int processedFrames = 0; processedFrames < frames.size(); processedFrames++) {
+				int idx = invertedStacks ? processedFrames : frames.size() - 1 - processedFrames;
+
+				AggregatableFrame frame;
+				if (stacktrace.getTruncationState().isTruncated() && !invertedStacks && processedFrames == 0) {
+					// we have a truncated stacktrace so we can't assume anything about the bottom frame
+					frame = new AggregatableFrame(frameSeparator, UNKNOWN_FRAME);
+				} else {
+					frame = new AggregatableFrame(frameSeparator, frames.get(idx));
+				}
 
-			parent = current;
-			processedFrames++;
+				Node current = parent.getChild(frame);
+				if (current == null) {
+					current = new Node(parent, frame);
+					parent.addChild(current);
+				}
+				path[processedFrames] = current;
+				parent = current;
+			}
+			return path;
 		}
 	}
 
-	private Node getOrCreateNode(Node parent, AggregatableFrame frame) {
-		Node result = null;
-		// TODO: consider a map lookup instead of linear search
-		for (final var child : parent.children) {
-			if (child.getFrame().equals(frame)) {
-				result = child;
-				break;
+	/**
+	 * Builds a partial tree for a range of iterables, splitting the range in halves.
+	 */
+	private class PartialTreeTask extends RecursiveTask<Node> {
+		private static final long serialVersionUID = 1L;
+
+		private final List<IItemIterable> iterables;
+		private final int from;
+		private final int to;
+		private final AggregatableFrame rootFrame;
+		private final BooleanSupplier stopFlag;
+
+		PartialTreeTask(List<IItemIterable> iterables, int from, int to, AggregatableFrame rootFrame,
+				BooleanSupplier stopFlag) {
+			this.iterables = iterables;
+			this.from = from;
+			this.to = to;
+			this.rootFrame = rootFrame;
+			this.stopFlag = stopFlag;
+		}
+
+		@Override
+		protected Node compute() {
+			if (to - from == 1) {
+				Node partialRoot = Node.newRootNode(rootFrame);
+				new TreeBuilder(partialRoot).addItems(iterables.get(from), stopFlag);
+				return partialRoot;
 			}
+			int middle = (from + to) >>> 1;
+			PartialTreeTask right = new PartialTreeTask(iterables, middle, to, rootFrame, stopFlag);
+			right.fork();
+			Node left = new PartialTreeTask(iterables, from, middle, rootFrame, stopFlag).compute();
+			merge(left, right.join());
+			return left;
 		}
-		if (result == null) {
-			result = new Node(parent, frame);
-			parent.children.add(result);
+	}
+
+	/**
+	 * Adds the weights and children of a tree to another tree. Children that are only in the source
+	 * tree are moved to the target tree, after the existing children.
+	 */
+	private static void merge(Node target, Node source) {
+		Deque<Node[]> pending = new ArrayDeque<>();
+		pending.push(new Node[] {target, source});
+		while (!pending.isEmpty()) {
+			Node[] pair = pending.pop();
+			Node into = pair[0];
+			Node from = pair[1];
+			into.weight += from.weight;
+			into.cumulativeWeight += from.cumulativeWeight;
+			for (Node child : from.children) {
+				Node existing = into.getChild(child.getFrame());
+				if (existing == null) {
+					child.parent = into;
+					into.addChild(child);
+				} else {
+					pending.push(new Node[] {existing, child});
+				}
+			}
 		}
-		return result;
 	}
 
 	private static <T> IMemberAccessor<T, IItem> getAccessor(IItemIterable iterable, IAttribute<T> attr) {
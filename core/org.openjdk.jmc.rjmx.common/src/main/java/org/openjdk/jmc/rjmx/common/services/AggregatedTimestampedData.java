@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.rjmx.common.services;
+
+import org.openjdk.jmc.common.xydata.DefaultTimestampedData;
+
+/**
+ * A data point summarizing all values of an attribute within an interval. The X value is the start
+ * of the interval and the Y value is the average of the values.
+ */
+public class AggregatedTimestampedData extends DefaultTimestampedData {
+
+	private final long width;
+	private final double min;
+	private final double max;
+	private final int count;
+
+	/**
+	 * @param start
+	 *            the start of the interval in epoch ns
+	 * @param width
+	 *            the width of the interval in ns
+	 * @param average
+	 *            the average of the values in the interval
+	 * @param min
+	 *            the smallest value in the interval
+	 * @param max
+	 *            the largest value in the interval
+	 * @param count
+	 *            the number of values in the interval
+	 */
+	public AggregatedTimestampedData(long start, long width, double average, double min, double max, int count) {
+		super(start, average);
+		this.width = width;
+		this.min = min;
+		this.max = max;
+		this.count = count;
+	}
+
+	/**
+	 * @return the width of the interval in ns
+	 */
+	public long getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return the smallest value in the interval
+	 */
+	public double getMin() {
+		return min;
+	}
+
+	/**
+	 * @return the largest value in the interval
+	 */
+	public double getMax() {
+		return max;
+	}
+
+	/**
+	 * @return the number of values in the interval
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	@Override
+	public String toString() {
+		return "Time: " + getX() + " Avg: " + getY() + " Min: " + min + " Max: " + max + " Count: " + count; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+	}
+}
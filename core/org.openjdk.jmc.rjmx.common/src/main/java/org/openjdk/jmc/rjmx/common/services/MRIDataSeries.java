@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2023, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -32,6 +32,8 @@
  */
 package org.openjdk.jmc.rjmx.common.services;
 
+import java.util.Iterator;
+
 import org.openjdk.jmc.common.xydata.DataSeries;
 import org.openjdk.jmc.common.xydata.ITimestampedData;
 import org.openjdk.jmc.rjmx.common.subscription.MRI;
@@ -39,4 +41,15 @@ import org.openjdk.jmc.rjmx.common.subscription.MRI;
 public interface MRIDataSeries extends DataSeries<ITimestampedData> {
 
 	MRI getAttribute();
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Aggregated points are {@link AggregatedTimestampedData} instances, with the X interval given
+	 * in ns.
+	 */
+	@Override
+	default Iterator<ITimestampedData> createIterator(long min, long max, long resolution) {
+		return createIterator(min, max);
+	}
 }
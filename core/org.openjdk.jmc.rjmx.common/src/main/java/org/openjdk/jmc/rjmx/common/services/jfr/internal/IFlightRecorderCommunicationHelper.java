@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2023, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -37,7 +37,7 @@ import java.io.IOException;
 import org.openjdk.jmc.flightrecorder.configuration.FlightRecorderException;
 import org.openjdk.jmc.flightrecorder.configuration.IRecordingDescriptor;
 
-interface IFlightRecorderCommunicationHelper {
+public interface IFlightRecorderCommunicationHelper {
 
 	Object getAttribute(String attribute) throws FlightRecorderException;
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2023, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -34,9 +34,19 @@ package org.openjdk.jmc.rjmx.common.services.jfr.internal;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 
 import javax.management.openmbean.OpenDataException;
@@ -46,6 +56,12 @@ import org.openjdk.jmc.flightrecorder.configuration.IRecordingDescriptor;
 
 /**
  * Class representing an {@link InputStream} from an IRecordingDescriptor between two dates.
+ * <p>
+ * The blocks of recording data are fetched by a background thread that keeps reading ahead of the
+ * consumer, so that the network round trips of the {@code readStream} operations overlap with the
+ * processing of the data already received. The stream can be passed directly to
+ * {@code FlightRecordingLoader.loadStream}, which will then parse each chunk while the following
+ * chunks are still being transferred.
  */
 // FIXME: If the invoke operations are folded into the IFlightRecorderService implementations then we can avoid having two versions of this stream class
 public final class JfrRecordingInputStreamV2 extends InputStream {
@@ -54,19 +70,36 @@ public final class JfrRecordingInputStreamV2 extends InputStream {
 	private final static String CLOSE_STREAM = "closeStream"; //$NON-NLS-1$
 	// FIXME: This seems to have no advantage over using null. Remove!
 	private final static Long UNKNOWN_STREAM = Long.valueOf(-1L);
+	private final static String PREFETCH_BLOCKS_PROPERTY_KEY = "org.openjdk.jmc.rjmx.jfr.prefetchBlocks"; //$NON-NLS-1$
+	// The number of blocks that may be fetched ahead of the consumer
+	private final static int PREFETCH_BLOCKS = Math.max(1, Integer.getInteger(PREFETCH_BLOCKS_PROPERTY_KEY, 8));
+	private final static String CLOSE_TIMEOUT_PROPERTY_KEY = "org.openjdk.jmc.rjmx.jfr.closeTimeout"; //$NON-NLS-1$
+	// The number of milliseconds to wait for an ongoing fetch when closing the stream
+	private final static long CLOSE_TIMEOUT = Math.max(0, Long.getLong(CLOSE_TIMEOUT_PROPERTY_KEY, 5000));
+	// Marks the end of the prefetched data, whether the stream was exhausted or the fetching failed
+	private final static byte[] END_OF_DATA = new byte[0];
+	private final static ExecutorService PREFETCH_EXECUTOR = Executors.newCachedThreadPool(r -> {
+		Thread thread = new Thread(r, "JFR Recording Stream Prefetcher"); //$NON-NLS-1$
+		thread.setDaemon(true);
+		return thread;
+	});
 
 	private final IRecordingDescriptor recording;
 	private final IFlightRecorderCommunicationHelper helper;
 
+	private final BlockingQueue<byte[]> prefetched = new ArrayBlockingQueue<>(PREFETCH_BLOCKS + 1);
+	private final Object fetcherLock = new Object();
+	private Future<?> fetcher;
+	private volatile IOException fetchError;
+
 	private byte[] buf = new byte[0];
-	private int count = 0;
 	private int pos = 0;
-	private boolean closed = false;
+	private volatile boolean closed = false;
 	private boolean endOfStream = false;
 	private boolean removeOnClose = true;
 	private final Date startTime;
 	private final Date endTime;
-	private Long streamIdentifier = UNKNOWN_STREAM;
+	private volatile Long streamIdentifier = UNKNOWN_STREAM;
 
 	public JfrRecordingInputStreamV2(IFlightRecorderCommunicationHelper helper, IRecordingDescriptor recording,
 			Date startTime, Date endTime, boolean removeOnClose) {
@@ -87,32 +120,125 @@ public final class JfrRecordingInputStreamV2 extends InputStream {
 
 	@Override
 	public synchronized int read() throws IOException {
-		if (pos >= buf.length) {
-			if (closed || endOfStream) {
-				return -1;
-			}
-			fill();
-			if (endOfStream) {
-				return -1;
-			}
+		if (pos >= buf.length && !fill(true)) {
+			return -1;
 		}
 		return buf[pos++] & 0xff;
 	}
 
-	private void fill() throws IOException {
-		if (UNKNOWN_STREAM.equals(streamIdentifier)) {
-			readStreamIdentifier();
+	@Override
+	public synchronized int read(byte[] b, int off, int len) throws IOException {
+		Objects.checkFromIndexSize(off, len, b.length);
+		if (len == 0) {
+			return 0;
 		}
-		buf = readStream(streamIdentifier);
-		if (buf != null) {
-			count += buf.length;
-			pos = 0;
+		int read = 0;
+		// Only block for the first block, then copy as much of the already fetched data as fits
+		while (read < len && (pos < buf.length || fill(read == 0))) {
+			int n = Math.min(len - read, buf.length - pos);
+			System.arraycopy(buf, pos, b, off + read, n);
+			pos += n;
+			read += n;
+		}
+		return read == 0 ? -1 : read;
+	}
+
+	/**
+	 * Replace the current buffer with the next prefetched block.
+	 *
+	 * @param block
+	 *            if {@code true}, wait for the next block to be fetched
+	 * @return {@code true} if a new block is available in the buffer
+	 */
+	private boolean fill(boolean block) throws IOException {
+		if (closed || endOfStream || !startFetcher()) {
+			return false;
+		}
+		byte[] next;
+		if (block) {
+			try {
+				next = prefetched.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException();
+			}
 		} else {
+			// Leave the end marker for a blocking call, so that data already read is returned first
+			next = prefetched.peek();
+			if (next == null || next == END_OF_DATA || prefetched.poll() == null) {
+				return false;
+			}
+		}
+		if (next == END_OF_DATA) {
 			pos = 0;
-			count = 0;
 			buf = new byte[0];
 			endOfStream = true;
+			IOException error = fetchError;
+			if (error != null) {
+				// Fetching failed, so we will close the stream immediately
+				try {
+					close();
+				} catch (IOException ioe2) {
+					// Don't care;
+				}
+				throw error;
+			}
+			return false;
 		}
+		buf = next;
+		pos = 0;
+		return true;
+	}
+
+	private boolean startFetcher() {
+		synchronized (fetcherLock) {
+			if (closed) {
+				return false;
+			}
+			if (fetcher == null) {
+				fetcher = PREFETCH_EXECUTOR.submit(this::prefetch);
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Fetch the blocks of the stream in order until the end of the stream or until the stream is
+	 * closed. The blocks must be read one at a time since the order of concurrent
+	 * {@code readStream} invocations on the same stream is not defined.
+	 */
+	private void prefetch() {
+		try {
+			readStreamIdentifier();
+			while (!closed) {
+				byte[] data = readStream(streamIdentifier);
+				if (data == null) {
+					break;
+				}
+				if (data.length > 0 && !enqueue(data)) {
+					break;
+				}
+			}
+		} catch (IOException e) {
+			fetchError = e;
+		} catch (RuntimeException e) {
+			fetchError = new IOException(e);
+		} finally {
+			enqueue(END_OF_DATA);
+		}
+	}
+
+	private boolean enqueue(byte[] data) {
+		try {
+			while (!closed) {
+				if (prefetched.offer(data, 100, TimeUnit.MILLISECONDS)) {
+					return true;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return false;
 	}
 
 	private void readStreamIdentifier() throws IOException {
@@ -132,15 +258,37 @@ public final class JfrRecordingInputStreamV2 extends InputStream {
 	@Override
 	public synchronized int available() throws IOException {
 		ensureOpen();
-		return count - pos;
+		return buf.length - pos;
 	}
 
 	@Override
 	public void close() throws IOException {
-		if (closed == true) {
-			return;
+		Future<?> fetcher;
+		synchronized (fetcherLock) {
+			if (closed == true) {
+				return;
+			}
+			closed = true;
+			fetcher = this.fetcher;
+		}
+		if (fetcher != null) {
+			// Let any ongoing operation finish before closing the stream, but do not hang on a dead connection
+			try {
+				fetcher.get(CLOSE_TIMEOUT, TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				FlightRecorderServiceV1.LOGGER.log(Level.WARNING,
+						"Timed out waiting for the stream from " + recording + " to finish reading"); //$NON-NLS-1$ //$NON-NLS-2$
+				fetcher.cancel(true);
+			} catch (InterruptedException e) {
+				fetcher.cancel(true);
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				// Errors are reported through fetchError
+			}
+			// Release any reader waiting for more data
+			prefetched.clear();
+			prefetched.offer(END_OF_DATA);
 		}
-		closed = true;
 		if (!UNKNOWN_STREAM.equals(streamIdentifier)) {
 			closeStream(streamIdentifier);
 		}
@@ -190,7 +338,7 @@ public final class JfrRecordingInputStreamV2 extends InputStream {
 	}
 
 	/**
-	 * If a method invocation fails, we will close the stream immediately.
+	 * If a method invocation fails, the stream will be closed when the failure reaches the reader.
 	 */
 	private Object invokeOperation(String name, Object ... params) throws IOException {
 		try {
@@ -198,11 +346,6 @@ public final class JfrRecordingInputStreamV2 extends InputStream {
 		} catch (Exception ioe) {
 			FlightRecorderServiceV1.LOGGER.info("Failed to invoke operation " + name + ". Will now close! Message was: " //$NON-NLS-1$ //$NON-NLS-2$
 					+ ioe.getMessage());
-			try {
-				close();
-			} catch (IOException ioe2) {
-				// Don't care;
-			}
 			IOException iot = new IOException(ioe.getLocalizedMessage());
 			iot.initCause(ioe);
 			throw iot;
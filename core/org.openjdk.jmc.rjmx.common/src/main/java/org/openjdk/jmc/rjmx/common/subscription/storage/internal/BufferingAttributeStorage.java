@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2023, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  * 
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -37,8 +37,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Observable;
 import java.util.Observer;
+import java.util.concurrent.TimeUnit;
 
-import org.openjdk.jmc.common.collection.BoundedList;
 import org.openjdk.jmc.rjmx.common.services.IAttributeStorage;
 import org.openjdk.jmc.rjmx.common.services.MRIDataSeries;
 import org.openjdk.jmc.rjmx.common.subscription.IMRIValueListener;
@@ -51,7 +51,10 @@ import org.openjdk.jmc.common.xydata.ITimestampedData;
 /**
  * Simple attribute storage that contains attribute events.
  * <p>
- * NOTE: You must synchronize on the storage if you use the dataseries iterator!
+ * The values are kept in primitive ring buffers, together with downsampled tiers holding the
+ * minimum, maximum and average of the values per minute and per hour. Use
+ * {@link MRIDataSeries#createIterator(long, long, long)} to get the data at a coarser resolution.
+ * The data series iterators work on copies of the requested ranges and need no synchronization.
  */
 public class BufferingAttributeStorage extends Observable implements IAttributeStorage {
 
@@ -65,7 +68,14 @@ public class BufferingAttributeStorage extends Observable implements IAttributeS
 		return currentRetainedEventValues;
 	}
 
-	private final BoundedList<ITimestampedData> cache = new BoundedList<>(lookupRetainedEventValues());
+	/*
+	 * The default update interval is one second, so a tier with one second buckets would mostly
+	 * duplicate the raw values.
+	 */
+	private static final long[] TIER_WIDTHS = {TimeUnit.MINUTES.toNanos(1), TimeUnit.HOURS.toNanos(1)};
+
+	private final TimestampedDataBuffer cache = new TimestampedDataBuffer(lookupRetainedEventValues());
+	private final TimestampedDataBuffer[] tiers = createTiers(lookupRetainedEventValues());
 	private final MRI mri;
 	private final ISubscriptionService subscriptionService;
 	private final IMRIValueListener valueListener = new IMRIValueListener() {
@@ -74,13 +84,20 @@ public class BufferingAttributeStorage extends Observable implements IAttributeS
 			Object value = event.getValue();
 			if (value instanceof Number) {
 				if (lookupRetainedEventValues() != cache.getMaxSize()) {
-					cache.setMaxSize(Math.max(lookupRetainedEventValues(), Math.max(cache.getSize() - 1000, 1)));
+					int maxSize = Math.max(lookupRetainedEventValues(), Math.max(cache.getSize() - 1000, 1));
+					cache.setMaxSize(maxSize);
+					for (TimestampedDataBuffer tier : tiers) {
+						tier.setMaxSize(getTierSize(maxSize, tier.getBucketWidth()));
+					}
+				}
+				long timestamp = event.getTimestamp() * 1000 * 1000L;
+				double doubleValue = ((Number) value).doubleValue();
+				cache.add(timestamp, doubleValue);
+				for (TimestampedDataBuffer tier : tiers) {
+					tier.add(timestamp, doubleValue);
 				}
-				DefaultTimestampedData data = new DefaultTimestampedData(event.getTimestamp() * 1000 * 1000L,
-						((Number) value).doubleValue());
-				cache.add(data);
 				setChanged();
-				notifyObservers(data);
+				notifyObservers(new DefaultTimestampedData(timestamp, doubleValue));
 			}
 		}
 	};
@@ -93,7 +110,18 @@ public class BufferingAttributeStorage extends Observable implements IAttributeS
 
 			@Override
 			public Iterator<ITimestampedData> createIterator(long min, long max) {
-				return cache.iterator();
+				return cache.createIterator(min, max);
+			}
+
+			@Override
+			public Iterator<ITimestampedData> createIterator(long min, long max, long resolution) {
+				// use the coarsest tier that still has the requested resolution
+				for (int i = tiers.length - 1; i >= 0; i--) {
+					if (tiers[i].getBucketWidth() <= resolution) {
+						return tiers[i].createIterator(min, max);
+					}
+				}
+				return cache.createIterator(min, max);
 			}
 
 			@Override
@@ -104,16 +132,30 @@ public class BufferingAttributeStorage extends Observable implements IAttributeS
 
 	}
 
+	private static TimestampedDataBuffer[] createTiers(int retainedEventValues) {
+		TimestampedDataBuffer[] tiers = new TimestampedDataBuffer[TIER_WIDTHS.length];
+		for (int i = 0; i < tiers.length; i++) {
+			tiers[i] = new TimestampedDataBuffer(getTierSize(retainedEventValues, TIER_WIDTHS[i]), TIER_WIDTHS[i]);
+		}
+		return tiers;
+	}
+
+	/*
+	 * Retain the tiers for as long as the values would be retained at the default update interval.
+	 */
+	private static int getTierSize(int retainedEventValues, long tierWidth) {
+		long retainedNanos = retainedEventValues * TimeUnit.SECONDS.toNanos(1);
+		return (int) Math.max(retainedNanos / tierWidth, 1);
+	}
+
 	@Override
 	public long getDataStart() {
-		ITimestampedData first = cache.getFirst();
-		return first != null ? first.getX() : Long.MAX_VALUE;
+		return cache.getFirstX();
 	}
 
 	@Override
 	public long getDataEnd() {
-		ITimestampedData last = cache.getLast();
-		return last != null ? last.getX() : Long.MIN_VALUE;
+		return cache.getLastX();
 	}
 
 	@Override
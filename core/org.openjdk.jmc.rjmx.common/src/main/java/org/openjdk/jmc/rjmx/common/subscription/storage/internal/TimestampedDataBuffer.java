@@ -0,0 +1,292 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.rjmx.common.subscription.storage.internal;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.openjdk.jmc.common.xydata.DefaultTimestampedData;
+import org.openjdk.jmc.common.xydata.ITimestampedData;
+import org.openjdk.jmc.rjmx.common.services.AggregatedTimestampedData;
+
+/**
+ * A bounded ring buffer of timestamped values kept in primitive arrays. The buffer either keeps the
+ * values as they are, or aggregates them into buckets of a fixed width, keeping the minimum,
+ * maximum, sum and count of the values in each bucket.
+ * <p>
+ * The values are expected to be added in timestamp order. The arrays grow on demand up to the
+ * maximum size, after which the oldest values are overwritten.
+ */
+public final class TimestampedDataBuffer {
+	private static final int INITIAL_CAPACITY = 64;
+
+	// 0 if the values are not aggregated
+	private final long bucketWidth;
+	private int maxSize;
+
+	// timestamps, or bucket start times for aggregated buffers
+	private long[] xs;
+	// values, or value sums for aggregated buffers
+	private double[] values;
+	private double[] mins;
+	private double[] maxs;
+	private int[] counts;
+
+	// index of the oldest value
+	private int head;
+	private int size;
+
+	/**
+	 * Create a buffer keeping the values as they are added.
+	 *
+	 * @param maxSize
+	 *            the maximum number of values to retain
+	 */
+	public TimestampedDataBuffer(int maxSize) {
+		this(maxSize, 0);
+	}
+
+	/**
+	 * Create a buffer aggregating the values into buckets.
+	 *
+	 * @param maxSize
+	 *            the maximum number of buckets to retain
+	 * @param bucketWidth
+	 *            the width of the buckets in ns, or 0 to keep the values as they are
+	 */
+	public TimestampedDataBuffer(int maxSize, long bucketWidth) {
+		this.maxSize = Math.max(maxSize, 1);
+		this.bucketWidth = bucketWidth;
+		allocate(Math.min(INITIAL_CAPACITY, this.maxSize));
+	}
+
+	private void allocate(int capacity) {
+		xs = new long[capacity];
+		values = new double[capacity];
+		if (isAggregating()) {
+			mins = new double[capacity];
+			maxs = new double[capacity];
+			counts = new int[capacity];
+		}
+	}
+
+	private boolean isAggregating() {
+		return bucketWidth > 0;
+	}
+
+	public long getBucketWidth() {
+		return bucketWidth;
+	}
+
+	public synchronized int getSize() {
+		return size;
+	}
+
+	public synchronized int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Change the maximum number of retained values, or buckets for aggregating buffers. If the
+	 * buffer holds more values than the new maximum, then the oldest ones are dropped.
+	 */
+	public synchronized void setMaxSize(int maxSize) {
+		maxSize = Math.max(maxSize, 1);
+		if (maxSize != this.maxSize) {
+			this.maxSize = maxSize;
+			if (maxSize < xs.length) {
+				int keep = Math.min(size, maxSize);
+				resize(maxSize, size - keep);
+			}
+		}
+	}
+
+	/**
+	 * @return the timestamp of the oldest value, or {@link Long#MAX_VALUE} if there are no values
+	 */
+	public synchronized long getFirstX() {
+		return size > 0 ? xs[head] : Long.MAX_VALUE;
+	}
+
+	/**
+	 * @return the timestamp of the latest value, or {@link Long#MIN_VALUE} if there are no values
+	 */
+	public synchronized long getLastX() {
+		return size > 0 ? xs[slot(size - 1)] : Long.MIN_VALUE;
+	}
+
+	public synchronized void add(long x, double value) {
+		if (isAggregating()) {
+			long bucket = Math.floorDiv(x, bucketWidth) * bucketWidth;
+			if (size > 0) {
+				int last = slot(size - 1);
+				if (bucket <= xs[last]) {
+					// same bucket, or a value arriving out of order which is merged into the latest bucket
+					values[last] += value;
+					mins[last] = Math.min(mins[last], value);
+					maxs[last] = Math.max(maxs[last], value);
+					counts[last]++;
+					return;
+				}
+			}
+			int slot = append(bucket);
+			values[slot] = value;
+			mins[slot] = value;
+			maxs[slot] = value;
+			counts[slot] = 1;
+		} else {
+			int slot = append(x);
+			values[slot] = value;
+		}
+	}
+
+	private int append(long x) {
+		if (size == xs.length && size < maxSize) {
+			resize((int) Math.min((long) xs.length * 2, maxSize), 0);
+		}
+		int slot;
+		if (size < xs.length) {
+			slot = slot(size++);
+		} else {
+			// full, overwrite the oldest value
+			slot = head;
+			head = slot(1);
+		}
+		xs[slot] = x;
+		return slot;
+	}
+
+	private void resize(int capacity, int skip) {
+		long[] oldXs = xs;
+		double[] oldValues = values;
+		double[] oldMins = mins;
+		double[] oldMaxs = maxs;
+		int[] oldCounts = counts;
+		int oldHead = head;
+		int newSize = size - skip;
+		allocate(capacity);
+		for (int i = 0; i < newSize; i++) {
+			int from = (oldHead + skip + i) % oldXs.length;
+			xs[i] = oldXs[from];
+			values[i] = oldValues[from];
+			if (isAggregating()) {
+				mins[i] = oldMins[from];
+				maxs[i] = oldMaxs[from];
+				counts[i] = oldCounts[from];
+			}
+		}
+		head = 0;
+		size = newSize;
+	}
+
+	private int slot(int index) {
+		int slot = head + index;
+		return slot < xs.length ? slot : slot - xs.length;
+	}
+
+	/**
+	 * Find the first value with a timestamp that is at least {@code x}.
+	 *
+	 * @return the index of the value relative to the oldest value, or the size of the buffer if
+	 *         there is no such value
+	 */
+	private int indexOf(long x) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (xs[slot(mid)] < x) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Create an iterator over the values with timestamps in the range {@code [min, max]}. The
+	 * closest values on either side of the range are included as well, so that graphs can be drawn
+	 * all the way to the range edges. The iterator works on a copy of the values and is not
+	 * affected by later modifications of the buffer.
+	 */
+	public synchronized Iterator<ITimestampedData> createIterator(long min, long max) {
+		if (size == 0 || min > max) {
+			return Collections.emptyIterator();
+		}
+		int from = Math.max(indexOf(min) - 1, 0);
+		int to = Math.min(indexOf(max == Long.MAX_VALUE ? max : max + 1) + 1, size);
+		int length = to - from;
+		long[] rangeXs = new long[length];
+		double[] rangeValues = new double[length];
+		double[] rangeMins = isAggregating() ? new double[length] : null;
+		double[] rangeMaxs = isAggregating() ? new double[length] : null;
+		int[] rangeCounts = isAggregating() ? new int[length] : null;
+		// copy at most two contiguous parts of the ring
+		int copied = 0;
+		while (copied < length) {
+			int start = slot(from + copied);
+			int n = Math.min(length - copied, xs.length - start);
+			System.arraycopy(xs, start, rangeXs, copied, n);
+			System.arraycopy(values, start, rangeValues, copied, n);
+			if (isAggregating()) {
+				System.arraycopy(mins, start, rangeMins, copied, n);
+				System.arraycopy(maxs, start, rangeMaxs, copied, n);
+				System.arraycopy(counts, start, rangeCounts, copied, n);
+			}
+			copied += n;
+		}
+		return new Iterator<ITimestampedData>() {
+			private int index;
+
+			@Override
+			public boolean hasNext() {
+				return index < length;
+			}
+
+			@Override
+			public ITimestampedData next() {
+				if (index >= length) {
+					throw new NoSuchElementException();
+				}
+				int i = index++;
+				if (rangeCounts != null) {
+					return new AggregatedTimestampedData(rangeXs[i], bucketWidth, rangeValues[i] / rangeCounts[i],
+							rangeMins[i], rangeMaxs[i], rangeCounts[i]);
+				}
+				return new DefaultTimestampedData(rangeXs[i], rangeValues[i]);
+			}
+		};
+	}
+}
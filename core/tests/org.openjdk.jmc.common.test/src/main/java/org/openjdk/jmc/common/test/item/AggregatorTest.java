@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2022, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2026, Oracle and/or its affiliates. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
@@ -32,11 +32,14 @@
  */
 package org.openjdk.jmc.common.test.item;
 
+import java.util.Arrays;
+
 import org.junit.Assert;
 import org.junit.Test;
 import org.openjdk.jmc.common.item.Aggregators;
 import org.openjdk.jmc.common.item.Aggregators.AdvancedMaxAggregator;
 import org.openjdk.jmc.common.item.Aggregators.AdvancedMinAggregator;
+import org.openjdk.jmc.common.item.Aggregators.PercentileConsumer;
 import org.openjdk.jmc.common.item.IItemCollection;
 import org.openjdk.jmc.common.unit.IQuantity;
 import org.openjdk.jmc.test.MCTestCase;
@@ -165,6 +168,34 @@ public class AggregatorTest extends MCTestCase {
 		Assert.assertEquals(aggregate.doubleValue(), 0, EPSILON);
 	}
 
+	@Test
+	public void testPercentileAggregator() {
+		Number[] values = MockCollections.generateNumberArray(400, 999);
+		IItemCollection mockDoubleCollection = MockCollections.getNumberCollection(values);
+		double[] sorted = new double[values.length];
+		for (int i = 0; i < values.length; i++) {
+			sorted[i] = values[i].doubleValue();
+		}
+		Arrays.sort(sorted);
+		for (double percentile : new double[] {50, 90, 99, 99.9}) {
+			IQuantity aggregate = mockDoubleCollection
+					.getAggregate(Aggregators.percentile(MockAttributes.DOUBLE_VALUE, percentile));
+			double expected = sorted[(int) Math.floor(percentile / 100 * (sorted.length - 1))];
+			Assert.assertEquals(expected, aggregate.doubleValue(), expected * 0.01);
+		}
+		PercentileConsumer percentiles = mockDoubleCollection
+				.getAggregate(Aggregators.percentiles(MockAttributes.DOUBLE_VALUE));
+		Assert.assertEquals(sorted[sorted.length - 1], percentiles.getPercentile(100).doubleValue(), EPSILON);
+		Assert.assertEquals(sorted[0], percentiles.getPercentile(0).doubleValue(), EPSILON);
+	}
+
+	@Test
+	public void testPercentileAggregatorZeroElement() {
+		IItemCollection mockDoubleCollection = MockCollections
+				.getNumberCollection(MockCollections.generateNumberArray(0, 1));
+		Assert.assertNull(mockDoubleCollection.getAggregate(Aggregators.percentile(MockAttributes.DOUBLE_VALUE, 99)));
+	}
+
 	@Test
 	public void testAdvancedMinAggregator() {
 		IItemCollection mockCollection = MockCollections.getNumberCollection(new Number[] {101, 10, 135, 10});
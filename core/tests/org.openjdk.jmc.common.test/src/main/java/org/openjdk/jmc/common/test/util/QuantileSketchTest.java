@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.common.test.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+import org.openjdk.jmc.common.util.QuantileSketch;
+
+@SuppressWarnings("nls")
+public class QuantileSketchTest {
+	private static final double[] QUANTILES = {0, 0.1, 0.5, 0.9, 0.99, 0.999, 1};
+
+	@Test
+	public void testRelativeAccuracy() {
+		double[] values = generateLogNormal(100000, 1);
+		QuantileSketch sketch = new QuantileSketch();
+		for (double value : values) {
+			sketch.add(value);
+		}
+		assertEquals(values.length, sketch.getCount());
+		assertQuantiles(values, sketch, QuantileSketch.DEFAULT_RELATIVE_ACCURACY);
+	}
+
+	@Test
+	public void testNegativeAndZeroValues() {
+		double[] values = generateLogNormal(10000, 2);
+		for (int i = 0; i < values.length; i += 3) {
+			values[i] = -values[i];
+		}
+		for (int i = 1; i < values.length; i += 7) {
+			values[i] = 0;
+		}
+		QuantileSketch sketch = new QuantileSketch();
+		for (double value : values) {
+			sketch.add(value);
+		}
+		assertQuantiles(values, sketch, QuantileSketch.DEFAULT_RELATIVE_ACCURACY);
+	}
+
+	@Test
+	public void testMergeMatchesSingleSketch() {
+		double[] values = generateLogNormal(10000, 3);
+		QuantileSketch all = new QuantileSketch();
+		QuantileSketch first = new QuantileSketch();
+		QuantileSketch second = new QuantileSketch();
+		for (int i = 0; i < values.length; i++) {
+			all.add(values[i]);
+			(i % 2 == 0 ? first : second).add(values[i]);
+		}
+		first.merge(second);
+		assertEquals(all.getCount(), first.getCount());
+		for (double quantile : QUANTILES) {
+			assertEquals(all.getQuantile(quantile), first.getQuantile(quantile), 0);
+		}
+	}
+
+	@Test
+	public void testMergeWithMultiplier() {
+		double[] values = generateLogNormal(10000, 4);
+		QuantileSketch scaled = new QuantileSketch();
+		QuantileSketch merged = new QuantileSketch();
+		double[] scaledValues = new double[values.length];
+		for (int i = 0; i < values.length; i++) {
+			scaled.add(values[i]);
+			scaledValues[i] = values[i] * 1000;
+		}
+		merged.merge(scaled, 1000);
+		// Remapping buckets adds the errors of both sketches
+		assertQuantiles(scaledValues, merged, 2 * QuantileSketch.DEFAULT_RELATIVE_ACCURACY);
+	}
+
+	@Test
+	public void testCollapsedBucketsKeepHighQuantiles() {
+		double[] values = generateLogNormal(10000, 5);
+		// 512 buckets cover a factor of about e^10, which is less than the range of the values
+		QuantileSketch sketch = new QuantileSketch(QuantileSketch.DEFAULT_RELATIVE_ACCURACY, 512);
+		for (double value : values) {
+			sketch.add(value);
+		}
+		double[] sorted = values.clone();
+		Arrays.sort(sorted);
+		double expected = sorted[(int) Math.floor(0.99 * (sorted.length - 1))];
+		assertEquals(expected, sketch.getQuantile(0.99), expected * QuantileSketch.DEFAULT_RELATIVE_ACCURACY);
+		assertEquals(sorted[sorted.length - 1], sketch.getQuantile(1), 0);
+		double median = sorted[(sorted.length - 1) / 2];
+		assertTrue(sketch.getQuantile(0.5) > median * (1 + QuantileSketch.DEFAULT_RELATIVE_ACCURACY));
+	}
+
+	@Test
+	public void testEmptySketch() {
+		QuantileSketch sketch = new QuantileSketch();
+		assertTrue(sketch.isEmpty());
+		assertTrue(Double.isNaN(sketch.getQuantile(0.5)));
+	}
+
+	private static void assertQuantiles(double[] values, QuantileSketch sketch, double accuracy) {
+		double[] sorted = values.clone();
+		Arrays.sort(sorted);
+		for (double quantile : QUANTILES) {
+			double expected = sorted[(int) Math.floor(quantile * (sorted.length - 1))];
+			assertEquals("Quantile " + quantile, expected, sketch.getQuantile(quantile), Math.abs(expected) * accuracy);
+		}
+	}
+
+	private static double[] generateLogNormal(int n, long seed) {
+		Random random = new Random(seed);
+		double[] values = new double[n];
+		for (int i = 0; i < n; i++) {
+			values[i] = Math.exp(random.nextGaussian() * 3 + 10);
+		}
+		return values;
+	}
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.flightrecorder.rules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openjdk.jmc.common.item.Aggregators;
+import org.openjdk.jmc.common.item.IAggregator;
+import org.openjdk.jmc.common.item.IItemCollection;
+import org.openjdk.jmc.common.item.IItemConsumer;
+import org.openjdk.jmc.common.item.IItemFilter;
+import org.openjdk.jmc.common.item.IItemIterable;
+import org.openjdk.jmc.common.item.ItemCollectionToolkit;
+import org.openjdk.jmc.common.unit.IQuantity;
+import org.openjdk.jmc.common.unit.IRange;
+import org.openjdk.jmc.common.unit.UnitLookup;
+import org.openjdk.jmc.common.util.IPreferenceValueProvider;
+import org.openjdk.jmc.flightrecorder.rules.util.RulesToolkit;
+
+@SuppressWarnings("nls")
+public class RuleSchedulingTest {
+
+	private static final List<String> EVALUATION_ORDER = Collections.synchronizedList(new ArrayList<String>());
+
+	private static class MockRule extends AbstractRule {
+		private final Severity severity;
+
+		MockRule(Severity severity) {
+			super(null, "Mock rule", "mock", Collections.emptyList(), Collections.emptyList(), Collections.emptyMap());
+			this.severity = severity;
+		}
+
+		@Override
+		public String getId() {
+			return getClass().getSimpleName();
+		}
+
+		@Override
+		protected IResult getResult(IItemCollection items, IPreferenceValueProvider vp, IResultValueProvider rp) {
+			EVALUATION_ORDER.add(getId());
+			return ResultBuilder.createFor(this, vp).setSeverity(severity).build();
+		}
+	}
+
+	public static class RuleA extends MockRule {
+		public RuleA() {
+			super(Severity.WARNING);
+		}
+	}
+
+	@DependsOn(value = RuleA.class, severity = Severity.WARNING)
+	public static class RuleB extends MockRule {
+		public RuleB() {
+			super(Severity.INFO);
+		}
+	}
+
+	@DependsOn(RuleB.class)
+	public static class RuleC extends MockRule {
+		public RuleC() {
+			super(Severity.OK);
+		}
+	}
+
+	@DependsOn(value = RuleB.class, severity = Severity.WARNING)
+	public static class RuleD extends MockRule {
+		public RuleD() {
+			super(Severity.OK);
+		}
+	}
+
+	@DependsOn(RuleA.class)
+	public static class RuleMissingDependency extends MockRule {
+		public RuleMissingDependency() {
+			super(Severity.OK);
+		}
+	}
+
+	public static class BlockingRule extends MockRule {
+		final CountDownLatch started = new CountDownLatch(1);
+
+		public BlockingRule() {
+			super(Severity.OK);
+		}
+
+		@Override
+		protected IResult getResult(IItemCollection items, IPreferenceValueProvider vp, IResultValueProvider rp) {
+			started.countDown();
+			try {
+				Thread.sleep(60000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return ResultBuilder.createFor(this, vp).build();
+		}
+	}
+
+	public static class AggregatingRule extends MockRule {
+		public AggregatingRule() {
+			super(Severity.OK);
+		}
+
+		@Override
+		protected IResult getResult(IItemCollection items, IPreferenceValueProvider vp, IResultValueProvider rp) {
+			items.getAggregate(Aggregators.count());
+			return super.getResult(items, vp, rp);
+		}
+	}
+
+	private static class PoolRecordingItemCollection implements IItemCollection {
+		private volatile ForkJoinPool pool;
+
+		@Override
+		public Iterator<IItemIterable> iterator() {
+			return ItemCollectionToolkit.EMPTY.iterator();
+		}
+
+		@Override
+		public IItemCollection apply(IItemFilter filter) {
+			return ItemCollectionToolkit.EMPTY;
+		}
+
+		@Override
+		public <V, C extends IItemConsumer<C>> V getAggregate(IAggregator<V, C> aggregator) {
+			return ItemCollectionToolkit.EMPTY.getAggregate(aggregator);
+		}
+
+		@Override
+		public <V, C extends IItemConsumer<C>> V getAggregate(IAggregator<V, C> aggregator, ForkJoinPool pool) {
+			this.pool = pool;
+			return getAggregate(aggregator);
+		}
+
+		@Override
+		public boolean hasItems() {
+			return false;
+		}
+
+		@Override
+		@Deprecated
+		public Set<IRange<IQuantity>> getUnfilteredTimeRanges() {
+			return Collections.emptySet();
+		}
+	}
+
+	@Test
+	public void testMultiLevelDependencies() throws Exception {
+		EVALUATION_ORDER.clear();
+		IRule a = new RuleA();
+		IRule b = new RuleB();
+		IRule c = new RuleC();
+		IRule d = new RuleD();
+		// Dependents are listed before their dependencies
+		Map<IRule, Future<IResult>> results = RulesToolkit.evaluateParallel(Arrays.asList(d, c, b, a),
+				ItemCollectionToolkit.EMPTY, null, 4);
+		Assert.assertEquals(Severity.WARNING, results.get(a).get().getSeverity());
+		Assert.assertEquals(Severity.INFO, results.get(b).get().getSeverity());
+		Assert.assertEquals(Severity.OK, results.get(c).get().getSeverity());
+		Assert.assertEquals("Dependency severity too low", Severity.NA, results.get(d).get().getSeverity());
+		Assert.assertEquals(Arrays.asList("RuleA", "RuleB", "RuleC"), EVALUATION_ORDER);
+	}
+
+	@Test
+	public void testEvaluationTimes() throws Exception {
+		IRule a = new RuleA();
+		IRule b = new RuleB();
+		IRule c = new RuleC();
+		IRule d = new RuleD();
+		Map<IRule, IQuantity> times = new ConcurrentHashMap<>();
+		Map<IRule, Future<IResult>> results = RulesToolkit.evaluateParallel(Arrays.asList(a, b, c, d),
+				ItemCollectionToolkit.EMPTY, null, 4, times::put);
+		for (Future<IResult> result : results.values()) {
+			result.get();
+		}
+		// RuleD is not evaluated, since the severity of its dependency is too low
+		Assert.assertEquals(3, times.size());
+		for (IRule rule : Arrays.asList(a, b, c)) {
+			IQuantity time = times.get(rule);
+			Assert.assertEquals(UnitLookup.TIMESPAN, time.getUnit().getContentType());
+			Assert.assertTrue(time.longValue() >= 0);
+		}
+	}
+
+	@Test
+	public void testAggregatesInEvaluationPool() throws Exception {
+		PoolRecordingItemCollection items = new PoolRecordingItemCollection();
+		IRule rule = new AggregatingRule();
+		Map<IRule, Future<IResult>> results = RulesToolkit.evaluateParallel(Arrays.asList(rule), items, null, 2);
+		Assert.assertEquals(Severity.OK, results.get(rule).get().getSeverity());
+		Assert.assertNotNull("Aggregates should be computed in the evaluation pool", items.pool);
+	}
+
+	@Test
+	public void testMissingDependency() throws Exception {
+		IRule rule = new RuleMissingDependency();
+		Map<IRule, Future<IResult>> results = RulesToolkit.evaluateParallel(Arrays.asList(rule),
+				ItemCollectionToolkit.EMPTY, null, 1);
+		Assert.assertEquals(Severity.NA, results.get(rule).get().getSeverity());
+	}
+
+	@Test
+	public void testCancel() throws Exception {
+		BlockingRule blocking = new BlockingRule();
+		Map<IRule, Future<IResult>> results = RulesToolkit.evaluateParallel(Arrays.asList(blocking),
+				ItemCollectionToolkit.EMPTY, null, 1);
+		blocking.started.await();
+		Future<IResult> future = results.get(blocking);
+		Assert.assertTrue(future.cancel(true));
+		Assert.assertTrue(future.isCancelled());
+		Assert.assertTrue(blocking.evaluationTask.isCancelled());
+	}
+}
@@ -0,0 +1,360 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.flightrecorder.rules;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openjdk.jmc.common.IDescribable;
+import org.openjdk.jmc.common.item.Aggregators;
+import org.openjdk.jmc.common.item.IAccessorKey;
+import org.openjdk.jmc.common.item.IAggregator;
+import org.openjdk.jmc.common.item.IAttribute;
+import org.openjdk.jmc.common.item.ICanonicalAccessorFactory;
+import org.openjdk.jmc.common.item.IItem;
+import org.openjdk.jmc.common.item.IItemCollection;
+import org.openjdk.jmc.common.item.IItemConsumer;
+import org.openjdk.jmc.common.item.IItemFilter;
+import org.openjdk.jmc.common.item.IItemIterable;
+import org.openjdk.jmc.common.item.IMemberAccessor;
+import org.openjdk.jmc.common.item.IType;
+import org.openjdk.jmc.common.item.ItemCollectionToolkit;
+import org.openjdk.jmc.common.item.ItemFilters;
+import org.openjdk.jmc.common.unit.IQuantity;
+import org.openjdk.jmc.common.unit.IRange;
+import org.openjdk.jmc.flightrecorder.IParserStats;
+import org.openjdk.jmc.flightrecorder.rules.util.SharedScanItemCollection;
+
+@SuppressWarnings("nls")
+public class SharedScanItemCollectionTest {
+
+	@Test
+	public void testSharedFilterAndAggregate() {
+		CountingItemCollection counting = new CountingItemCollection(createItems());
+		IItemCollection shared = new SharedScanItemCollection(counting);
+		IItemFilter filter = ItemFilters.type("typeA");
+		IAggregator<IQuantity, ?> aggregator = Aggregators.count();
+		IQuantity expected = createItems().apply(filter).getAggregate(Aggregators.count());
+		Assert.assertEquals(40, expected.longValue());
+
+		for (int i = 0; i < 10; i++) {
+			Assert.assertEquals(expected, shared.apply(filter).getAggregate(aggregator));
+		}
+		Assert.assertEquals("Aggregate should only be computed once", 1, counting.scans);
+
+		shared.apply(filter).getAggregate(Aggregators.count("count", null));
+		shared.apply(ItemFilters.type("typeA")).getAggregate(aggregator);
+		Assert.assertEquals("Other aggregator and filter instances should not be shared", 3, counting.scans);
+	}
+
+	@Test
+	public void testUnfiltered() {
+		IItemCollection shared = new SharedScanItemCollection(createItems());
+		Assert.assertEquals(100, shared.getAggregate(Aggregators.count()).longValue());
+		Assert.assertTrue(shared.hasItems());
+		Assert.assertFalse(shared.apply(ItemFilters.type("typeC")).hasItems());
+		long count = 0;
+		for (IItemIterable iterable : shared.apply(ItemFilters.type("typeB"))) {
+			count += iterable.getItemCount();
+		}
+		Assert.assertEquals(60, count);
+	}
+
+	@Test
+	public void testDeclaredAggregates() {
+		CountingItemCollection counting = new CountingItemCollection(createItems());
+		SharedScanItemCollection shared = new SharedScanItemCollection(counting);
+		IItemFilter filterA = ItemFilters.type("typeA");
+		IItemFilter filterB = ItemFilters.type("typeB");
+		IAggregator<IQuantity, ?> count = Aggregators.count();
+		IAggregator<IQuantity, ?> countA = Aggregators.count(filterA);
+		List<DeclaredAggregate<?>> declared = new ArrayList<>();
+		declared.add(DeclaredAggregate.of(count));
+		declared.add(DeclaredAggregate.of(filterA, count));
+		declared.add(DeclaredAggregate.of(filterB, count));
+		declared.add(DeclaredAggregate.of(countA));
+		declared.add(DeclaredAggregate.of(filterB, countA));
+		declared.add(DeclaredAggregate.of(count));
+		shared.computeDeclared(declared).join();
+		Assert.assertEquals("Declared aggregates should be computed in one pass", 1, counting.scans);
+
+		Assert.assertEquals(100, shared.getAggregate(count).longValue());
+		Assert.assertEquals(40, shared.apply(filterA).getAggregate(count).longValue());
+		Assert.assertEquals(60, DeclaredAggregate.of(filterB, count).getValue(shared).longValue());
+		Assert.assertEquals(40, shared.getAggregate(countA).longValue());
+		Assert.assertEquals(0, shared.apply(filterB).getAggregate(countA).longValue());
+		Assert.assertEquals("Declared aggregates should not be computed again", 1, counting.scans);
+
+		shared.computeDeclared(Collections.singletonList(DeclaredAggregate.of(count))).join();
+		Assert.assertEquals("Computed aggregates should not be scanned for again", 1, counting.scans);
+	}
+
+	@Test
+	public void testDeclaredAggregatesInPool() throws Exception {
+		CountingItemCollection counting = new CountingItemCollection(createItems());
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			SharedScanItemCollection shared = new SharedScanItemCollection(counting, pool);
+			IItemFilter filterA = ItemFilters.type("typeA");
+			IAggregator<IQuantity, ?> count = Aggregators.count();
+			shared.computeDeclared(Collections.singletonList(DeclaredAggregate.of(filterA, count)));
+			// Waits for the pass if it has not finished
+			Assert.assertEquals(40, pool.submit(() -> shared.apply(filterA).getAggregate(count)).get().longValue());
+			Assert.assertEquals(1, counting.scans);
+
+			Assert.assertEquals(100, shared.getAggregate(count).longValue());
+			Assert.assertEquals("Other aggregates should be computed in the pool", 1, counting.pooledAggregates);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testExplicitPool() {
+		CountingItemCollection counting = new CountingItemCollection(createItems());
+		IItemCollection shared = new SharedScanItemCollection(counting);
+		IAggregator<IQuantity, ?> count = Aggregators.count();
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			Assert.assertEquals(100, shared.getAggregate(count, pool).longValue());
+			Assert.assertEquals(100, shared.getAggregate(count, pool).longValue());
+			Assert.assertEquals(100, shared.getAggregate(count).longValue());
+			Assert.assertEquals("The pool should be passed on once", 1, counting.pooledAggregates);
+		} finally {
+			pool.shutdown();
+		}
+		shared.getAggregate(Aggregators.count("count", null));
+		Assert.assertEquals("Without a pool, aggregates should be computed on the calling thread", 1,
+				counting.pooledAggregates);
+	}
+
+	@Test
+	public void testParserStatsForwarded() {
+		StatsItemCollection stats = new StatsItemCollection(createItems());
+		IItemCollection shared = new SharedScanItemCollection(stats);
+		Assert.assertTrue(shared instanceof IParserStats);
+		IParserStats sharedStats = (IParserStats) shared;
+		Assert.assertEquals(2, sharedStats.getMajorVersion());
+		Assert.assertEquals(1, sharedStats.getMinorVersion());
+		Assert.assertEquals(3, sharedStats.getChunkCount());
+		Assert.assertEquals(4, sharedStats.getSkippedEventCount());
+		Assert.assertEquals(40, sharedStats.getEventCountByType("typeA"));
+		Assert.assertEquals(400, sharedStats.getEventTotalSizeByType("typeA"));
+		Assert.assertSame(stats, sharedStats.getConstants());
+
+		IParserStats withoutStats = (IParserStats) new SharedScanItemCollection(createItems());
+		Assert.assertEquals(0, withoutStats.getChunkCount());
+		Assert.assertFalse(withoutStats.getConstantPools().hasItems());
+	}
+
+	private static IItemCollection createItems() {
+		MockType typeA = new MockType("typeA");
+		MockType typeB = new MockType("typeB");
+		List<IItem> items = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			items.add(new MockItem(i % 5 < 2 ? typeA : typeB));
+		}
+		return ItemCollectionToolkit.build(items.stream());
+	}
+
+	private static class CountingItemCollection implements IItemCollection {
+		private final IItemCollection delegate;
+		private final CountingItemCollection root;
+		private int scans;
+		private int pooledAggregates;
+
+		CountingItemCollection(IItemCollection delegate) {
+			this(delegate, null);
+		}
+
+		private CountingItemCollection(IItemCollection delegate, CountingItemCollection root) {
+			this.delegate = delegate;
+			this.root = root == null ? this : root;
+		}
+
+		@Override
+		public Iterator<IItemIterable> iterator() {
+			synchronized (root) {
+				root.scans++;
+			}
+			return delegate.iterator();
+		}
+
+		@Override
+		public IItemCollection apply(IItemFilter filter) {
+			return new CountingItemCollection(delegate.apply(filter), root);
+		}
+
+		@Override
+		public <V, C extends IItemConsumer<C>> V getAggregate(IAggregator<V, C> aggregator) {
+			synchronized (root) {
+				root.scans++;
+			}
+			return delegate.getAggregate(aggregator);
+		}
+
+		@Override
+		public <V, C extends IItemConsumer<C>> V getAggregate(IAggregator<V, C> aggregator, ForkJoinPool pool) {
+			synchronized (root) {
+				root.pooledAggregates++;
+			}
+			return getAggregate(aggregator);
+		}
+
+		@Override
+		public boolean hasItems() {
+			return delegate.hasItems();
+		}
+
+		@Override
+		@Deprecated
+		public Set<IRange<IQuantity>> getUnfilteredTimeRanges() {
+			return delegate.getUnfilteredTimeRanges();
+		}
+	}
+
+	private static class StatsItemCollection extends CountingItemCollection implements IParserStats {
+
+		StatsItemCollection(IItemCollection delegate) {
+			super(delegate);
+		}
+
+		@Override
+		public void forEachEventType(Consumer<IEventStats> consumer) {
+		}
+
+		@Override
+		public short getMajorVersion() {
+			return 2;
+		}
+
+		@Override
+		public short getMinorVersion() {
+			return 1;
+		}
+
+		@Override
+		public int getChunkCount() {
+			return 3;
+		}
+
+		@Override
+		public long getSkippedEventCount() {
+			return 4;
+		}
+
+		@Override
+		public long getEventCountByType(String eventTypeName) {
+			return "typeA".equals(eventTypeName) ? 40 : 0;
+		}
+
+		@Override
+		public long getEventTotalSizeByType(String eventTypeName) {
+			return getEventCountByType(eventTypeName) * 10;
+		}
+
+		@Override
+		public IItemCollection getConstantPools() {
+			return this;
+		}
+
+		@Override
+		public IItemCollection getConstants() {
+			return this;
+		}
+	}
+
+	private static class MockItem implements IItem {
+		private final MockType type;
+
+		MockItem(MockType type) {
+			this.type = type;
+		}
+
+		@Override
+		public IType<?> getType() {
+			return type;
+		}
+	}
+
+	private static class MockType implements IType<IItem> {
+		private final String identifier;
+
+		MockType(String identifier) {
+			this.identifier = identifier;
+		}
+
+		@Override
+		public String getName() {
+			return identifier;
+		}
+
+		@Override
+		public String getDescription() {
+			return identifier;
+		}
+
+		@Override
+		public List<IAttribute<?>> getAttributes() {
+			return Collections.emptyList();
+		}
+
+		@Override
+		public Map<IAccessorKey<?>, ? extends IDescribable> getAccessorKeys() {
+			return Collections.emptyMap();
+		}
+
+		@Override
+		public boolean hasAttribute(ICanonicalAccessorFactory<?> attribute) {
+			return false;
+		}
+
+		@Override
+		public <M> IMemberAccessor<M, IItem> getAccessor(IAccessorKey<M> attribute) {
+			return null;
+		}
+
+		@Override
+		public String getIdentifier() {
+			return identifier;
+		}
+	}
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.flightrecorder.rules;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.FutureTask;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.openjdk.jmc.common.item.Aggregators;
+import org.openjdk.jmc.common.item.IItem;
+import org.openjdk.jmc.common.item.IItemCollection;
+import org.openjdk.jmc.common.item.IItemFilter;
+import org.openjdk.jmc.common.item.IItemIterable;
+import org.openjdk.jmc.common.item.IMemberAccessor;
+import org.openjdk.jmc.common.item.ItemFilters;
+import org.openjdk.jmc.common.unit.IQuantity;
+import org.openjdk.jmc.common.unit.IRange;
+import org.openjdk.jmc.common.unit.QuantityRange;
+import org.openjdk.jmc.common.unit.UnitLookup;
+import org.openjdk.jmc.common.util.Pair;
+import org.openjdk.jmc.flightrecorder.CouldNotLoadRecordingException;
+import org.openjdk.jmc.flightrecorder.JfrAttributes;
+import org.openjdk.jmc.flightrecorder.JfrLoaderToolkit;
+import org.openjdk.jmc.flightrecorder.rules.util.RulesToolkit;
+import org.openjdk.jmc.flightrecorder.rules.util.SlidingWindowToolkit;
+import org.openjdk.jmc.flightrecorder.rules.util.SlidingWindowToolkit.IUnorderedWindowValueFunction;
+import org.openjdk.jmc.flightrecorder.rules.util.SlidingWindowToolkit.IUnorderedWindowVisitor;
+import org.openjdk.jmc.flightrecorder.rules.util.SlidingWindowToolkit.IWindowAccumulator;
+
+/**
+ * Verifies that the windows and window accumulators of the sliding window toolkit give the same
+ * items and values as filtering the whole collection on each window.
+ */
+@SuppressWarnings("nls")
+public class SlidingWindowToolkitTest {
+
+	private static final IItemFilter DURATION_EVENTS = ItemFilters.hasAttribute(JfrAttributes.DURATION);
+
+	private static IItemCollection items;
+
+	@BeforeClass
+	public static void loadRecording() throws IOException, CouldNotLoadRecordingException {
+		try (InputStream is = SlidingWindowToolkitTest.class.getClassLoader()
+				.getResourceAsStream("recordings/8u60.jfr")) {
+			items = JfrLoaderToolkit.loadEvents(is);
+		}
+	}
+
+	@Test
+	public void testEndTimeWindows() {
+		assertSameWindows(UnitLookup.SECOND.quantity(1), UnitLookup.MILLISECOND.quantity(500), false);
+		assertSameWindows(UnitLookup.SECOND.quantity(2), UnitLookup.MILLISECOND.quantity(300), false);
+	}
+
+	@Test
+	public void testIntersectingWindows() {
+		assertSameWindows(UnitLookup.SECOND.quantity(1), UnitLookup.MILLISECOND.quantity(500), true);
+		assertSameWindows(UnitLookup.MILLISECOND.quantity(50), UnitLookup.MILLISECOND.quantity(20), true);
+	}
+
+	@Test
+	public void testMinMaxValue() {
+		IQuantity windowSize = UnitLookup.SECOND.quantity(2);
+		IUnorderedWindowValueFunction<IQuantity> count = (windowItems, start, end) -> windowItems
+				.getAggregate(Aggregators.count());
+		FutureTask<IResult> task = new FutureTask<>(() -> null);
+		for (boolean max : new boolean[] {true, false}) {
+			Pair<IQuantity, IRange<IQuantity>> minMax = SlidingWindowToolkit.slidingWindowUnorderedMinMaxValue(items,
+					windowSize, task, count, max, false);
+			// Find the first window with the min or max count by filtering on each window
+			List<Pair<IQuantity, IRange<IQuantity>>> windows = collectFiltered(windowSize,
+					UnitLookup.SECOND.quantity(windowSize.ratioTo(UnitLookup.SECOND.quantity(2))), false);
+			Pair<IQuantity, IRange<IQuantity>> expected = windows.get(0);
+			for (Pair<IQuantity, IRange<IQuantity>> window : windows) {
+				int comparison = window.left.compareTo(expected.left);
+				if (max ? comparison > 0 : comparison < 0) {
+					expected = window;
+				}
+			}
+			Assert.assertEquals(expected.left, minMax.left);
+			Assert.assertEquals(expected.right, minMax.right);
+		}
+	}
+
+	@Test
+	public void testUnfilteredTimeRanges() {
+		Set<IRange<IQuantity>> chunkRanges = items.getUnfilteredTimeRanges();
+		Assert.assertFalse(chunkRanges.isEmpty());
+		for (boolean includeIntersecting : new boolean[] {true, false}) {
+			List<Set<IRange<IQuantity>>> windowRanges = new ArrayList<>();
+			SlidingWindowToolkit.slidingWindowUnordered(new IUnorderedWindowVisitor() {
+				@Override
+				public void visitWindow(IItemCollection windowItems, IQuantity startTime, IQuantity endTime) {
+					windowRanges.add(windowItems.getUnfilteredTimeRanges());
+					windowRanges.add(windowItems.apply(ItemFilters.hasAttribute(JfrAttributes.DURATION))
+							.getUnfilteredTimeRanges());
+				}
+
+				@Override
+				public boolean shouldContinue() {
+					return true;
+				}
+			}, items, UnitLookup.SECOND.quantity(1), UnitLookup.MILLISECOND.quantity(500), includeIntersecting);
+			Assert.assertFalse(windowRanges.isEmpty());
+			for (Set<IRange<IQuantity>> ranges : windowRanges) {
+				Assert.assertEquals(chunkRanges, ranges);
+			}
+		}
+	}
+
+	@Test
+	public void testEndTimeAccumulators() {
+		IQuantity windowSize = UnitLookup.SECOND.quantity(1);
+		IQuantity slideSize = UnitLookup.MILLISECOND.quantity(300);
+		assertSameValues(ItemFilters.all(), windowSize, slideSize, false, SlidingWindowToolkit.countAccumulator(),
+				(windowItems, start, end) -> windowItems.getAggregate(Aggregators.count()));
+		assertSameValues(DURATION_EVENTS, windowSize, slideSize, false,
+				SlidingWindowToolkit.sumAccumulator(JfrAttributes.DURATION, UnitLookup.NANOSECOND),
+				(windowItems, start, end) -> {
+					long sum = 0;
+					for (IItemIterable ii : windowItems) {
+						IMemberAccessor<IQuantity, IItem> duration = JfrAttributes.DURATION.getAccessor(ii.getType());
+						for (IItem item : ii) {
+							sum += duration.getMember(item).clampedLongValueIn(UnitLookup.NANOSECOND);
+						}
+					}
+					return UnitLookup.NANOSECOND.quantity(sum);
+				});
+		assertSameValues(DURATION_EVENTS, windowSize, slideSize, false,
+				SlidingWindowToolkit.maxAccumulator(JfrAttributes.DURATION),
+				(windowItems, start, end) -> windowItems.getAggregate(Aggregators.max(JfrAttributes.DURATION)));
+		assertSameValues(DURATION_EVENTS, windowSize, slideSize, false,
+				SlidingWindowToolkit.durationInWindowAccumulator(), SlidingWindowToolkitTest::getDurationInWindow);
+	}
+
+	@Test
+	public void testIntersectingAccumulators() {
+		for (IQuantity windowSize : new IQuantity[] {UnitLookup.SECOND.quantity(1),
+				UnitLookup.MILLISECOND.quantity(50)}) {
+			IQuantity slideSize = windowSize.multiply(0.4);
+			assertSameValues(ItemFilters.all(), windowSize, slideSize, true, SlidingWindowToolkit.countAccumulator(),
+					(windowItems, start, end) -> windowItems.getAggregate(Aggregators.count()));
+			assertSameValues(DURATION_EVENTS, windowSize, slideSize, true,
+					SlidingWindowToolkit.durationInWindowAccumulator(), SlidingWindowToolkitTest::getDurationInWindow);
+		}
+	}
+
+	@Test
+	public void testAccumulatorMinMaxValue() {
+		IQuantity windowSize = UnitLookup.SECOND.quantity(2);
+		FutureTask<IResult> task = new FutureTask<>(() -> null);
+		for (boolean max : new boolean[] {true, false}) {
+			Pair<IQuantity, IRange<IQuantity>> expected = SlidingWindowToolkit.slidingWindowUnorderedMinMaxValue(
+					items.apply(DURATION_EVENTS), windowSize, task,
+					(windowItems, start, end) -> windowItems.getAggregate(Aggregators.count()), max, true);
+			Pair<IQuantity, IRange<IQuantity>> minMax = SlidingWindowToolkit.slidingWindowUnorderedMinMaxValue(
+					items.apply(DURATION_EVENTS), ItemFilters.all(), windowSize, task,
+					SlidingWindowToolkit.countAccumulator(), max, true);
+			Assert.assertEquals(expected.left, minMax.left);
+			Assert.assertEquals(expected.right, minMax.right);
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testMaxAccumulatorOrder() {
+		IItem[] twoItems = items.stream().filter(ii -> ii.getItemCount() > 1).findFirst().get().stream().limit(2)
+				.toArray(IItem[]::new);
+		IWindowAccumulator<IQuantity> accumulator = SlidingWindowToolkit.maxAccumulator(JfrAttributes.DURATION);
+		accumulator.add(twoItems[0]);
+		accumulator.add(twoItems[1]);
+		accumulator.remove(twoItems[1]);
+	}
+
+	private static IQuantity getDurationInWindow(IItemCollection windowItems, IQuantity start, IQuantity end) {
+		IQuantity sum = UnitLookup.NANOSECOND.quantity(0);
+		for (IItemIterable ii : windowItems) {
+			for (IItem item : ii) {
+				sum = sum.add(RulesToolkit.getDurationInWindow(start, end, item));
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * Checks that the accumulator gives the same value for each window as calculating the value
+	 * from the items found by filtering the whole collection on the window.
+	 */
+	private static void assertSameValues(
+		IItemFilter filter, IQuantity windowSize, IQuantity slideSize, boolean includeIntersecting,
+		IWindowAccumulator<IQuantity> accumulator, IUnorderedWindowValueFunction<IQuantity> expectedFunction) {
+		List<IQuantity> expected = new ArrayList<>();
+		List<IQuantity> actual = new ArrayList<>();
+		IWindowAccumulator<IQuantity> recordingAccumulator = new IWindowAccumulator<IQuantity>() {
+			@Override
+			public void add(IItem item) {
+				accumulator.add(item);
+			}
+
+			@Override
+			public void remove(IItem item) {
+				accumulator.remove(item);
+			}
+
+			@Override
+			public IQuantity getValue(IQuantity startTime, IQuantity endTime, Iterable<IItem> partialItems) {
+				IQuantity value = accumulator.getValue(startTime, endTime, partialItems);
+				actual.add(value);
+				expected.add(expectedFunction.getValue(
+						items.apply(filter).apply(createFilter(startTime, endTime, includeIntersecting)), startTime,
+						endTime));
+				return value;
+			}
+		};
+		SlidingWindowToolkit.slidingWindowUnorderedMinMaxValue(items, filter, windowSize, slideSize,
+				new FutureTask<>(() -> null), recordingAccumulator, Comparator.naturalOrder(), true,
+				includeIntersecting);
+		Assert.assertTrue(expected.size() > 10);
+		Assert.assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			if (expected.get(i) == null || actual.get(i) == null) {
+				Assert.assertEquals("Window " + i, expected.get(i), actual.get(i));
+			} else {
+				Assert.assertEquals("Window " + i + ": " + expected.get(i) + " != " + actual.get(i), 0,
+						expected.get(i).compareTo(actual.get(i)));
+			}
+		}
+	}
+
+	private static void assertSameWindows(IQuantity windowSize, IQuantity slideSize, boolean includeIntersecting) {
+		List<Pair<IQuantity, IRange<IQuantity>>> expected = collectFiltered(windowSize, slideSize, includeIntersecting);
+		List<Pair<IQuantity, IRange<IQuantity>>> actual = new ArrayList<>();
+		List<IQuantity> expectedDurations = new ArrayList<>();
+		List<IQuantity> actualDurations = new ArrayList<>();
+		SlidingWindowToolkit.slidingWindowUnordered(new IUnorderedWindowVisitor() {
+			@Override
+			public void visitWindow(IItemCollection windowItems, IQuantity startTime, IQuantity endTime) {
+				actual.add(new Pair<>(windowItems.getAggregate(Aggregators.count()),
+						QuantityRange.createWithEnd(startTime, endTime)));
+				actualDurations.add(windowItems.getAggregate(Aggregators.sum(JfrAttributes.DURATION)));
+				expectedDurations.add(items.apply(createFilter(startTime, endTime, includeIntersecting))
+						.getAggregate(Aggregators.sum(JfrAttributes.DURATION)));
+			}
+
+			@Override
+			public boolean shouldContinue() {
+				return true;
+			}
+		}, items, windowSize, slideSize, includeIntersecting);
+		Assert.assertTrue(expected.size() > 10);
+		Assert.assertEquals(expected, actual);
+		Assert.assertEquals(expectedDurations.size(), actualDurations.size());
+		for (int i = 0; i < expectedDurations.size(); i++) {
+			// The items are summed in another order, which does not round the same way
+			double expectedDuration = expectedDurations.get(i).doubleValueIn(UnitLookup.NANOSECOND);
+			Assert.assertEquals(expectedDuration, actualDurations.get(i).doubleValueIn(UnitLookup.NANOSECOND),
+					expectedDuration * 1e-12);
+		}
+	}
+
+	private static List<Pair<IQuantity, IRange<IQuantity>>> collectFiltered(
+		IQuantity windowSize, IQuantity slideSize, boolean includeIntersecting) {
+		IQuantity first = includeIntersecting ? items.getAggregate(Aggregators.min(JfrAttributes.START_TIME))
+				: items.getAggregate(Aggregators.min(JfrAttributes.END_TIME));
+		IQuantity last = items.getAggregate(Aggregators.max(JfrAttributes.END_TIME));
+		List<Pair<IQuantity, IRange<IQuantity>>> windows = new ArrayList<>();
+		IQuantity windowStart = first;
+		do {
+			IQuantity windowEnd = windowStart.add(windowSize);
+			IQuantity count = items.apply(createFilter(windowStart, windowEnd, includeIntersecting))
+					.getAggregate(Aggregators.count());
+			windows.add(new Pair<>(count, QuantityRange.createWithEnd(windowStart, windowEnd)));
+			windowStart = windowStart.add(slideSize);
+		} while (windowStart.compareTo(last) < 0);
+		return windows;
+	}
+
+	private static IItemFilter createFilter(IQuantity windowStart, IQuantity windowEnd, boolean includeIntersecting) {
+		return includeIntersecting
+				? ItemFilters.rangeIntersects(JfrAttributes.LIFETIME,
+						QuantityRange.createWithEnd(windowStart, windowEnd))
+				: ItemFilters.interval(JfrAttributes.END_TIME, windowStart, true, windowEnd, true);
+	}
+}
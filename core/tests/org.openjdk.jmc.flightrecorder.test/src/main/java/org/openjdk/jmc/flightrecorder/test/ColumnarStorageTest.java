@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.flightrecorder.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.openjdk.jmc.common.item.Aggregators;
+import org.openjdk.jmc.common.item.IAggregator;
+import org.openjdk.jmc.common.item.IItem;
+import org.openjdk.jmc.common.item.IItemCollection;
+import org.openjdk.jmc.common.item.IItemIterable;
+import org.openjdk.jmc.common.item.ItemFilters;
+import org.openjdk.jmc.common.unit.IQuantity;
+import org.openjdk.jmc.flightrecorder.CouldNotLoadRecordingException;
+import org.openjdk.jmc.flightrecorder.JfrAttributes;
+import org.openjdk.jmc.flightrecorder.JfrLoaderToolkit;
+import org.openjdk.jmc.flightrecorder.jdk.JdkAttributes;
+import org.openjdk.jmc.flightrecorder.jdk.JdkTypeIDs;
+import org.openjdk.jmc.flightrecorder.parser.ParserExtensionRegistry;
+import org.openjdk.jmc.flightrecorder.test.util.PrintoutsToolkit;
+import org.openjdk.jmc.flightrecorder.test.util.RecordingToolkit;
+import org.openjdk.jmc.test.io.IOResourceSet;
+
+/**
+ * Verifies that recordings loaded with columnar event storage match the parser printouts.
+ */
+@SuppressWarnings("nls")
+public class ColumnarStorageTest {
+	private static final String COLUMNAR_PROPERTY = "org.openjdk.jmc.flightrecorder.parser.columnar";
+	// Recordings from JDK 11 and later
+	private static final String[] NAMED_RECORDINGS = {"hs_err_jdk-16.jfr", "metadata_new.jfr", "flush_metadata.jfr",
+			"overlap.jfr", "char_attribute.jfr"};
+
+	@Before
+	public void enableColumnarStorage() {
+		System.setProperty(COLUMNAR_PROPERTY, "true");
+	}
+
+	@After
+	public void disableColumnarStorage() {
+		System.clearProperty(COLUMNAR_PROPERTY);
+	}
+
+	@Test
+	public void testRecordings() throws Exception {
+		for (IOResourceSet resourceSet : PrintoutsToolkit.getTestResources()) {
+			IItemCollection items = RecordingToolkit.getFlightRecording(resourceSet);
+			List<String> parsedEvents = PrintoutsToolkit.getEventsAsStrings(items);
+			List<String> expectedEvents = PrintoutsToolkit.getEventsFromPrintout(resourceSet);
+			Assert.assertEquals(resourceSet.getResource(0).getName(), expectedEvents.size(), parsedEvents.size());
+			for (int i = 0; i < expectedEvents.size(); i++) {
+				Assert.assertEquals(resourceSet.getResource(0).getName() + ": events did not match expected",
+						expectedEvents.get(i), parsedEvents.get(i));
+			}
+		}
+	}
+
+	@Test
+	public void testSameEventCount() throws IOException, CouldNotLoadRecordingException {
+		IItemCollection columnar = RecordingToolkit.getNamedRecording("9u0.jfr");
+		System.clearProperty(COLUMNAR_PROPERTY);
+		IItemCollection boxed = RecordingToolkit.getNamedRecording("9u0.jfr");
+		Assert.assertEquals(PrintoutsToolkit.getEventsAsStrings(boxed), PrintoutsToolkit.getEventsAsStrings(columnar));
+	}
+
+	@Test
+	public void testSameAggregates() throws IOException, CouldNotLoadRecordingException {
+		IItemCollection columnar = RecordingToolkit.getNamedRecording("9u0.jfr");
+		System.clearProperty(COLUMNAR_PROPERTY);
+		IItemCollection boxed = RecordingToolkit.getNamedRecording("9u0.jfr");
+		List<IAggregator<IQuantity, ?>> aggregators = List.of(Aggregators.sum(JfrAttributes.DURATION),
+				Aggregators.avg(JfrAttributes.DURATION), Aggregators.stddev(JfrAttributes.DURATION),
+				Aggregators.min(JfrAttributes.DURATION), Aggregators.max(JfrAttributes.DURATION),
+				Aggregators.min(JfrAttributes.START_TIME), Aggregators.max(JfrAttributes.END_TIME),
+				Aggregators.percentile(JfrAttributes.DURATION, 90));
+		for (IAggregator<IQuantity, ?> aggregator : aggregators) {
+			Assert.assertEquals(aggregator.getName(), boxed.getAggregate(aggregator),
+					columnar.getAggregate(aggregator));
+		}
+		IItemCollection columnarCpu = columnar.apply(ItemFilters.type(JdkTypeIDs.CPU_LOAD));
+		IItemCollection boxedCpu = boxed.apply(ItemFilters.type(JdkTypeIDs.CPU_LOAD));
+		IAggregator<IQuantity, ?> avgCpu = Aggregators.avg(JdkAttributes.MACHINE_TOTAL);
+		Assert.assertNotNull(boxedCpu.getAggregate(avgCpu));
+		Assert.assertEquals(boxedCpu.getAggregate(avgCpu), columnarCpu.getAggregate(avgCpu));
+	}
+
+	@Test
+	public void testNamedRecordings() throws IOException, CouldNotLoadRecordingException {
+		for (String recording : NAMED_RECORDINGS) {
+			System.setProperty(COLUMNAR_PROPERTY, "true");
+			IItemCollection columnar = RecordingToolkit.getNamedRecording(recording);
+			System.clearProperty(COLUMNAR_PROPERTY);
+			IItemCollection boxed = RecordingToolkit.getNamedRecording(recording);
+			Assert.assertEquals(recording, PrintoutsToolkit.getEventsAsStrings(boxed),
+					PrintoutsToolkit.getEventsAsStrings(columnar));
+		}
+	}
+
+	@Test
+	public void testEqualEventsWhenIteratedAgain() throws IOException, CouldNotLoadRecordingException {
+		IItemCollection items = RecordingToolkit.getNamedRecording("9u0.jfr");
+		List<IItem> first = getEvents(items);
+		List<IItem> second = getEvents(items);
+		Assert.assertFalse(first.isEmpty());
+		Assert.assertEquals(first, second);
+		for (int i = 0; i < first.size(); i++) {
+			Assert.assertEquals(first.get(i).hashCode(), second.get(i).hashCode());
+		}
+	}
+
+	@Test
+	public void testParseCache() throws IOException, CouldNotLoadRecordingException {
+		File file = File.createTempFile("columnar", ".jfr");
+		file.deleteOnExit();
+		try (InputStream is = RecordingToolkit.getNamedRecordingResource("overlap.jfr")) {
+			Files.copy(is, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		File cacheFile = new File(file.getPath() + ".cache");
+		cacheFile.deleteOnExit();
+		IItemCollection parsed = JfrLoaderToolkit.loadEvents(file, ParserExtensionRegistry.getParserExtensions(),
+				cacheFile);
+		Assert.assertTrue(cacheFile.isFile());
+		IItemCollection cached = JfrLoaderToolkit.loadEvents(file, ParserExtensionRegistry.getParserExtensions(),
+				cacheFile);
+		System.clearProperty(COLUMNAR_PROPERTY);
+		IItemCollection boxed = JfrLoaderToolkit.loadEvents(file);
+		List<String> expected = PrintoutsToolkit.getEventsAsStrings(boxed);
+		Assert.assertEquals(expected, PrintoutsToolkit.getEventsAsStrings(parsed));
+		Assert.assertEquals(expected, PrintoutsToolkit.getEventsAsStrings(cached));
+	}
+
+	private static List<IItem> getEvents(IItemCollection items) {
+		List<IItem> events = new ArrayList<>();
+		for (IItemIterable iterable : items) {
+			for (IItem item : iterable) {
+				events.add(item);
+			}
+		}
+		return events;
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.flightrecorder.test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openjdk.jmc.common.item.IItem;
+import org.openjdk.jmc.common.item.IItemCollection;
+import org.openjdk.jmc.common.item.IItemIterable;
+import org.openjdk.jmc.common.item.IMemberAccessor;
+import org.openjdk.jmc.common.item.ItemToolkit;
+import org.openjdk.jmc.common.unit.IQuantity;
+import org.openjdk.jmc.flightrecorder.CouldNotLoadRecordingException;
+import org.openjdk.jmc.flightrecorder.JfrAttributes;
+import org.openjdk.jmc.flightrecorder.JfrChunkReader;
+import org.openjdk.jmc.flightrecorder.JfrLoaderToolkit;
+import org.openjdk.jmc.flightrecorder.test.util.PrintoutsToolkit;
+import org.openjdk.jmc.test.io.IOResource;
+import org.openjdk.jmc.test.io.IOResourceSet;
+
+/**
+ * Verifies that reading recordings chunk by chunk gives the same events as loading them at once,
+ * and that the events of each chunk can be iterated in timestamp order.
+ */
+@SuppressWarnings("nls")
+public class JfrChunkReaderTest {
+
+	@Test
+	public void testChunkEventsMatchLoadedEvents() throws IOException, CouldNotLoadRecordingException {
+		for (IOResourceSet resourceSet : PrintoutsToolkit.getTestResources()) {
+			IOResource resource = resourceSet.getResource(0);
+			long loadedCount;
+			try (InputStream is = resource.open()) {
+				loadedCount = count(JfrLoaderToolkit.loadEvents(is));
+			}
+			long streamedCount = 0;
+			int chunkCount = 0;
+			try (JfrChunkReader reader = JfrChunkReader.open(resource.open())) {
+				IItemCollection chunk;
+				while ((chunk = reader.nextChunk()) != null) {
+					streamedCount += count(chunk);
+					chunkCount++;
+				}
+			}
+			Assert.assertTrue(resource.getName(), chunkCount > 0);
+			Assert.assertEquals(resource.getName(), loadedCount, streamedCount);
+		}
+	}
+
+	@Test
+	public void testOrderedItems() throws IOException, CouldNotLoadRecordingException {
+		for (IOResourceSet resourceSet : PrintoutsToolkit.getTestResources()) {
+			IOResource resource = resourceSet.getResource(0);
+			try (JfrChunkReader reader = JfrChunkReader.open(resource.open())) {
+				IItemCollection chunk;
+				while ((chunk = reader.nextChunk()) != null) {
+					long ordered = 0;
+					IQuantity previous = null;
+					Iterator<IItem> it = JfrChunkReader.orderedItems(chunk);
+					while (it.hasNext()) {
+						IItem item = it.next();
+						IMemberAccessor<IQuantity, IItem> accessor = JfrAttributes.END_TIME
+								.getAccessor(ItemToolkit.getItemType(item));
+						IQuantity end = accessor == null ? null : accessor.getMember(item);
+						if (end != null) {
+							if (previous != null) {
+								Assert.assertTrue(resource.getName() + ": " + end + " before " + previous,
+										previous.compareTo(end) <= 0);
+							}
+							previous = end;
+						}
+						ordered++;
+					}
+					Assert.assertEquals(resource.getName(), count(chunk), ordered);
+				}
+			}
+		}
+	}
+
+	private static long count(IItemCollection items) {
+		long count = 0;
+		for (IItemIterable iterable : items) {
+			count += iterable.getItemCount();
+		}
+		return count;
+	}
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.flightrecorder.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openjdk.jmc.common.io.IOToolkit;
+import org.openjdk.jmc.common.item.Aggregators;
+import org.openjdk.jmc.common.item.IItem;
+import org.openjdk.jmc.common.item.IItemCollection;
+import org.openjdk.jmc.common.item.IItemFilter;
+import org.openjdk.jmc.common.item.IItemIterable;
+import org.openjdk.jmc.common.item.IMemberAccessor;
+import org.openjdk.jmc.common.item.ItemFilters;
+import org.openjdk.jmc.common.item.ItemToolkit;
+import org.openjdk.jmc.common.item.RangeMatchPolicy;
+import org.openjdk.jmc.common.unit.IQuantity;
+import org.openjdk.jmc.common.unit.QuantityRange;
+import org.openjdk.jmc.flightrecorder.CouldNotLoadRecordingException;
+import org.openjdk.jmc.flightrecorder.JfrAttributes;
+import org.openjdk.jmc.flightrecorder.JfrLoaderToolkit;
+import org.openjdk.jmc.flightrecorder.parser.ParserExtensionRegistry;
+import org.openjdk.jmc.flightrecorder.test.util.PrintoutsToolkit;
+import org.openjdk.jmc.flightrecorder.test.util.RecordingToolkit;
+import org.openjdk.jmc.test.io.IOResource;
+import org.openjdk.jmc.test.io.IOResourceSet;
+
+/**
+ * Verifies that recordings where chunks are parsed on demand give the same events as recordings
+ * that are loaded completely, also when the chunk cache is too small to hold any chunk.
+ */
+@SuppressWarnings("nls")
+public class LazyEventCollectionTest {
+	private static final int SLICES = 4;
+
+	@Test
+	public void testOnDemandEventsMatchLoaded() throws IOException, CouldNotLoadRecordingException {
+		for (IOResourceSet resourceSet : PrintoutsToolkit.getTestResources()) {
+			IOResource resource = resourceSet.getResource(0);
+			File file = copyToFile(resource);
+			IItemCollection loaded = JfrLoaderToolkit.loadEvents(file);
+			IItemCollection cached = JfrLoaderToolkit.loadEventsOnDemand(file);
+			IItemCollection uncached = JfrLoaderToolkit.loadEventsOnDemand(file,
+					ParserExtensionRegistry.getParserExtensions(), 0);
+			Assert.assertEquals(resource.getName(), loaded.getUnfilteredTimeRanges(), cached.getUnfilteredTimeRanges());
+			assertSameEvents(resource.getName(), loaded, cached);
+			assertSameEvents(resource.getName(), loaded, uncached);
+			// Iterate twice to read the chunks from the cache
+			assertSameEvents(resource.getName(), loaded, cached);
+
+			IQuantity first = loaded.getAggregate(Aggregators.min(JfrAttributes.START_TIME));
+			IQuantity last = loaded.getAggregate(Aggregators.max(JfrAttributes.END_TIME));
+			if (first == null || last == null) {
+				continue;
+			}
+			IQuantity slice = last.subtract(first).multiply(1.0 / SLICES);
+			for (int i = 0; i < SLICES; i++) {
+				IQuantity start = first.add(slice.multiply(i));
+				IQuantity end = start.add(slice);
+				for (IItemFilter filter : createFilters(start, end)) {
+					String message = resource.getName() + ": " + filter;
+					assertSameEvents(message, loaded.apply(filter), uncached.apply(filter));
+					Assert.assertEquals(message, loaded.apply(filter).hasItems(), uncached.apply(filter).hasItems());
+				}
+			}
+		}
+	}
+
+	private static List<IItemFilter> createFilters(IQuantity start, IQuantity end) {
+		List<IItemFilter> filters = new ArrayList<>();
+		for (RangeMatchPolicy policy : RangeMatchPolicy.values()) {
+			filters.add(
+					ItemFilters.matchRange(policy, JfrAttributes.LIFETIME, QuantityRange.createWithEnd(start, end)));
+		}
+		filters.add(ItemFilters.more(JfrAttributes.START_TIME, start));
+		filters.add(ItemFilters.less(JfrAttributes.END_TIME, end));
+		return filters;
+	}
+
+	private static void assertSameEvents(String message, IItemCollection expected, IItemCollection actual) {
+		Assert.assertEquals(message, expected.getAggregate(Aggregators.count()),
+				actual.getAggregate(Aggregators.count()));
+		Assert.assertEquals(message, describe(expected), describe(actual));
+	}
+
+	private static List<String> describe(IItemCollection items) {
+		List<String> events = new ArrayList<>();
+		for (IItemIterable iterable : items) {
+			IMemberAccessor<IQuantity, IItem> start = JfrAttributes.START_TIME.getAccessor(iterable.getType());
+			IMemberAccessor<IQuantity, IItem> end = JfrAttributes.END_TIME.getAccessor(iterable.getType());
+			for (IItem item : iterable) {
+				events.add(ItemToolkit.getItemType(item).getIdentifier() + " "
+						+ (start == null ? null : start.getMember(item)) + " "
+						+ (end == null ? null : end.getMember(item)));
+			}
+		}
+		Collections.sort(events);
+		return events;
+	}
+
+	private static File copyToFile(IOResource resource) throws IOException {
+		File file = RecordingToolkit.createResultFile("lazyTest", "tmp_recording", true);
+		// The test recordings may be compressed, but chunks can only be indexed in uncompressed files
+		try (InputStream is = IOToolkit.openUncompressedStream(resource.open())) {
+			Files.copy(is, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		return file;
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.flightrecorder.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openjdk.jmc.common.io.IOToolkit;
+import org.openjdk.jmc.common.item.IItemCollection;
+import org.openjdk.jmc.flightrecorder.CouldNotLoadRecordingException;
+import org.openjdk.jmc.flightrecorder.JfrLoaderToolkit;
+import org.openjdk.jmc.flightrecorder.internal.ChunkInfo;
+import org.openjdk.jmc.flightrecorder.internal.FlightRecordingLoader;
+import org.openjdk.jmc.flightrecorder.test.util.PrintoutsToolkit;
+import org.openjdk.jmc.flightrecorder.test.util.RecordingToolkit;
+import org.openjdk.jmc.test.io.IOResource;
+import org.openjdk.jmc.test.io.IOResourceSet;
+
+/**
+ * Verifies that loading recordings from memory mapped files gives the same result as loading them
+ * from streams.
+ */
+@SuppressWarnings("nls")
+public class MappedChunkLoadingTest {
+
+	@Test
+	public void testMappedEventsMatchStream() throws IOException, CouldNotLoadRecordingException {
+		for (IOResourceSet resourceSet : PrintoutsToolkit.getTestResources()) {
+			IOResource resource = resourceSet.getResource(0);
+			File file = copyToFile(resource);
+			IItemCollection streamItems;
+			try (InputStream is = resource.open()) {
+				streamItems = JfrLoaderToolkit.loadEvents(is);
+			}
+			IItemCollection mappedItems = JfrLoaderToolkit.loadEvents(file);
+			Assert.assertEquals(resource.getName() + ": events did not match",
+					PrintoutsToolkit.getEventsAsStrings(streamItems), PrintoutsToolkit.getEventsAsStrings(mappedItems));
+		}
+	}
+
+	@Test
+	public void testMappedChunkInfo() throws IOException, CouldNotLoadRecordingException {
+		for (IOResourceSet resourceSet : PrintoutsToolkit.getTestResources()) {
+			IOResource resource = resourceSet.getResource(0);
+			File file = copyToFile(resource);
+			List<ChunkInfo> fileChunks;
+			try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+				fileChunks = FlightRecordingLoader.readChunkInfo(FlightRecordingLoader.createChunkSupplier(raf));
+			}
+			List<ChunkInfo> mappedChunks;
+			try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+				mappedChunks = FlightRecordingLoader.readChunkInfo(FlightRecordingLoader.createChunkSupplier(channel));
+			}
+			Assert.assertEquals(resource.getName(), fileChunks.size(), mappedChunks.size());
+			for (int i = 0; i < fileChunks.size(); i++) {
+				Assert.assertEquals(fileChunks.get(i).getChunkPosistion(), mappedChunks.get(i).getChunkPosistion());
+				Assert.assertEquals(fileChunks.get(i).getChunkSize(), mappedChunks.get(i).getChunkSize());
+				Assert.assertEquals(fileChunks.get(i).getChunkRange(), mappedChunks.get(i).getChunkRange());
+			}
+		}
+	}
+
+	private static File copyToFile(IOResource resource) throws IOException {
+		File file = RecordingToolkit.createResultFile("mappedTest", "tmp_recording", true);
+		// The test recordings may be compressed, but only uncompressed files can be memory mapped
+		try (InputStream is = IOToolkit.openUncompressedStream(resource.open())) {
+			Files.copy(is, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		return file;
+	}
+}
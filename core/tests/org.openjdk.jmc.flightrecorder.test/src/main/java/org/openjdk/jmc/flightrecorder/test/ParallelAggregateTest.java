@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.flightrecorder.test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.openjdk.jmc.common.item.Aggregators;
+import org.openjdk.jmc.common.item.IAggregator;
+import org.openjdk.jmc.common.item.IItemCollection;
+import org.openjdk.jmc.common.item.ItemFilters;
+import org.openjdk.jmc.common.unit.IQuantity;
+import org.openjdk.jmc.flightrecorder.CouldNotLoadRecordingException;
+import org.openjdk.jmc.flightrecorder.JfrAttributes;
+import org.openjdk.jmc.flightrecorder.jdk.JdkTypeIDs;
+import org.openjdk.jmc.flightrecorder.test.util.PrintoutsToolkit;
+import org.openjdk.jmc.flightrecorder.test.util.RecordingToolkit;
+import org.openjdk.jmc.test.io.IOResourceSet;
+
+/**
+ * Verifies that aggregating in parallel gives the same values as aggregating on the calling thread.
+ */
+@SuppressWarnings("nls")
+public class ParallelAggregateTest {
+	private static final String SPLIT_SIZE_PROPERTY_KEY = "org.openjdk.jmc.flightrecorder.aggregateSplitSize";
+
+	private static ForkJoinPool pool;
+
+	@BeforeClass
+	public static void createPool() {
+		pool = new ForkJoinPool(4);
+	}
+
+	@AfterClass
+	public static void shutdownPool() {
+		pool.shutdown();
+	}
+
+	@Before
+	public void setSplitSize() {
+		// Small enough to split the events of most types into many ranges
+		System.setProperty(SPLIT_SIZE_PROPERTY_KEY, "16");
+	}
+
+	@After
+	public void resetSplitSize() {
+		System.clearProperty(SPLIT_SIZE_PROPERTY_KEY);
+	}
+
+	@Test
+	public void testParallelAggregatesMatchSequential() throws IOException, CouldNotLoadRecordingException {
+		for (IOResourceSet resourceSet : PrintoutsToolkit.getTestResources()) {
+			IItemCollection items = RecordingToolkit.getFlightRecording(resourceSet);
+			String name = resourceSet.getResource(0).getName();
+			assertSameAggregates(name, items);
+			assertSameAggregates(name + " (filtered)", items
+					.apply(ItemFilters.type(JdkTypeIDs.CPU_LOAD, JdkTypeIDs.GC_PAUSE, JdkTypeIDs.EXECUTION_SAMPLE)));
+		}
+	}
+
+	@Test
+	public void testEmptyCollection() throws IOException, CouldNotLoadRecordingException {
+		IItemCollection items = RecordingToolkit.getNamedRecording("9u0.jfr").apply(ItemFilters.type("no.such.Type"));
+		Assert.assertEquals(items.getAggregate(Aggregators.count()), items.getAggregate(Aggregators.count(), pool));
+		Assert.assertNull(items.getAggregate(Aggregators.max(JfrAttributes.DURATION), pool));
+	}
+
+	private static void assertSameAggregates(String message, IItemCollection items) {
+		List<IAggregator<IQuantity, ?>> aggregators = List.of(Aggregators.count(),
+				Aggregators.sum(JfrAttributes.DURATION), Aggregators.avg(JfrAttributes.DURATION),
+				Aggregators.min(JfrAttributes.START_TIME), Aggregators.max(JfrAttributes.END_TIME),
+				Aggregators.percentile(JfrAttributes.DURATION, 99));
+		for (IAggregator<IQuantity, ?> aggregator : aggregators) {
+			Assert.assertEquals(message + ": " + aggregator.getName(), items.getAggregate(aggregator),
+					items.getAggregate(aggregator, pool));
+		}
+		IAggregator<IQuantity, ?> stddev = Aggregators.stddev(JfrAttributes.DURATION);
+		IQuantity expected = items.getAggregate(stddev);
+		IQuantity actual = items.getAggregate(stddev, pool);
+		if (expected == null) {
+			Assert.assertNull(message, actual);
+		} else {
+			// The variance of the ranges is merged, which does not round the same way
+			Assert.assertEquals(message, expected.doubleValue(), actual.in(expected.getUnit()).doubleValue(),
+					Math.abs(expected.doubleValue()) * 1e-9);
+		}
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.flightrecorder.test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.openjdk.jmc.common.item.IItemCollection;
+import org.openjdk.jmc.flightrecorder.CouldNotLoadRecordingException;
+import org.openjdk.jmc.flightrecorder.JfrLoaderToolkit;
+import org.openjdk.jmc.flightrecorder.test.util.PrintoutsToolkit;
+import org.openjdk.jmc.test.io.IOResource;
+import org.openjdk.jmc.test.io.IOResourceSet;
+
+/**
+ * Verifies that decoding slices of a chunk in parallel gives the same events as decoding the whole
+ * chunk on one thread.
+ */
+@SuppressWarnings("nls")
+public class ParallelChunkDecodingTest {
+	private static final String SLICE_SIZE_PROPERTY_KEY = "org.openjdk.jmc.flightrecorder.parser.sliceSize";
+
+	@After
+	public void resetSliceSize() {
+		System.clearProperty(SLICE_SIZE_PROPERTY_KEY);
+	}
+
+	@Test
+	public void testSlicedEventsMatchSequential() throws IOException, CouldNotLoadRecordingException {
+		for (IOResourceSet resourceSet : PrintoutsToolkit.getTestResources()) {
+			IOResource resource = resourceSet.getResource(0);
+			System.setProperty(SLICE_SIZE_PROPERTY_KEY, "0");
+			List<String> sequential = load(resource);
+			// Small enough to split the chunks of all test recordings into many slices
+			System.setProperty(SLICE_SIZE_PROPERTY_KEY, "1024");
+			List<String> sliced = load(resource);
+			Assert.assertEquals(resource.getName() + ": events did not match", sequential, sliced);
+		}
+	}
+
+	private static List<String> load(IOResource resource) throws IOException, CouldNotLoadRecordingException {
+		try (InputStream is = resource.open()) {
+			IItemCollection items = JfrLoaderToolkit.loadEvents(is);
+			return PrintoutsToolkit.getEventsAsStrings(items);
+		}
+	}
+}
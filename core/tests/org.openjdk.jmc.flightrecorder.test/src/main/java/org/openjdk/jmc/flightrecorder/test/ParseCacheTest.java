@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.flightrecorder.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openjdk.jmc.common.io.IOToolkit;
+import org.openjdk.jmc.common.item.Aggregators;
+import org.openjdk.jmc.common.item.Attribute;
+import org.openjdk.jmc.common.item.IAccessorKey;
+import org.openjdk.jmc.common.item.IItem;
+import org.openjdk.jmc.common.item.IItemCollection;
+import org.openjdk.jmc.common.item.IItemIterable;
+import org.openjdk.jmc.common.unit.UnitLookup;
+import org.openjdk.jmc.flightrecorder.CouldNotLoadRecordingException;
+import org.openjdk.jmc.flightrecorder.JfrLoaderToolkit;
+import org.openjdk.jmc.flightrecorder.internal.EventArrays;
+import org.openjdk.jmc.flightrecorder.internal.FlightRecordingLoader;
+import org.openjdk.jmc.flightrecorder.internal.parser.ParserStats;
+import org.openjdk.jmc.flightrecorder.parser.IParserExtension;
+import org.openjdk.jmc.flightrecorder.parser.ParserExtensionRegistry;
+import org.openjdk.jmc.flightrecorder.test.util.PrintoutsToolkit;
+import org.openjdk.jmc.flightrecorder.test.util.RecordingToolkit;
+import org.openjdk.jmc.test.io.IOResource;
+import org.openjdk.jmc.test.io.IOResourceSet;
+
+/**
+ * Verifies that recordings read from a parse cache file give the same events, constant pools and
+ * parser statistics as parsing the recording, and that stale cache files are not used.
+ */
+@SuppressWarnings("nls")
+public class ParseCacheTest {
+
+	// Recordings from JDK 11 and later, in addition to the indexed recordings
+	private static final String[] NAMED_RECORDINGS = {"hs_err_jdk-16.jfr", "metadata_new.jfr", "flush_metadata.jfr",
+			"flush_incremental_metadata.jfr", "overlap.jfr", "char_attribute.jfr"};
+
+	@Test
+	public void testIndexedRecordings() throws IOException, CouldNotLoadRecordingException {
+		for (IOResourceSet resourceSet : PrintoutsToolkit.getTestResources()) {
+			IOResource resource = resourceSet.getResource(0);
+			try (InputStream is = resource.open()) {
+				checkRecording(resource.getName(), copyToFile(is));
+			}
+		}
+	}
+
+	@Test
+	public void testNamedRecordings() throws IOException, CouldNotLoadRecordingException {
+		for (String recording : NAMED_RECORDINGS) {
+			try (InputStream is = RecordingToolkit.getNamedRecordingResource(recording)) {
+				File file = copyToFile(is);
+				checkRecording(recording, file);
+				Assert.assertTrue(recording, getCacheFile(file).isFile());
+			}
+		}
+	}
+
+	@Test
+	public void testStaleCacheNotUsed() throws IOException, CouldNotLoadRecordingException {
+		List<IParserExtension> extensions = ParserExtensionRegistry.getParserExtensions();
+		try (InputStream is = RecordingToolkit.getNamedRecordingResource("overlap.jfr")) {
+			File file = copyToFile(is);
+			File cacheFile = getCacheFile(file);
+			IItemCollection loaded = JfrLoaderToolkit.loadEvents(file, extensions, cacheFile);
+			Assert.assertNotNull(FlightRecordingLoader.readParseCache(cacheFile, file, extensions, false, true));
+
+			Assert.assertNull(FlightRecordingLoader.readParseCache(cacheFile, file, extensions, true, true));
+			Assert.assertNull(FlightRecordingLoader.readParseCache(cacheFile, file,
+					Collections.<IParserExtension> emptyList(), false, true));
+
+			// A changed recording makes the cache stale, so it is replaced
+			byte[] cache = Files.readAllBytes(cacheFile.toPath());
+			Assert.assertTrue(file.setLastModified(file.lastModified() - 60000));
+			Assert.assertNull(FlightRecordingLoader.readParseCache(cacheFile, file, extensions, false, true));
+			assertSameEvents("overlap.jfr", loaded, JfrLoaderToolkit.loadEvents(file, extensions, cacheFile));
+			Assert.assertFalse(Arrays.equals(cache, Files.readAllBytes(cacheFile.toPath())));
+			Assert.assertNotNull(FlightRecordingLoader.readParseCache(cacheFile, file, extensions, false, true));
+		}
+	}
+
+	@Test
+	public void testCorruptCacheIgnored() throws IOException, CouldNotLoadRecordingException {
+		List<IParserExtension> extensions = ParserExtensionRegistry.getParserExtensions();
+		try (InputStream is = RecordingToolkit.getNamedRecordingResource("overlap.jfr")) {
+			File file = copyToFile(is);
+			File cacheFile = getCacheFile(file);
+			IItemCollection loaded = JfrLoaderToolkit.loadEvents(file, extensions, cacheFile);
+			byte[] cache = Files.readAllBytes(cacheFile.toPath());
+			Files.write(cacheFile.toPath(), Arrays.copyOf(cache, cache.length / 2));
+			assertSameEvents("overlap.jfr", loaded, JfrLoaderToolkit.loadEvents(file, extensions, cacheFile));
+			Assert.assertArrayEquals(cache, Files.readAllBytes(cacheFile.toPath()));
+		}
+	}
+
+	private static void checkRecording(String name, File file) throws IOException, CouldNotLoadRecordingException {
+		List<IParserExtension> extensions = ParserExtensionRegistry.getParserExtensions();
+		File cacheFile = getCacheFile(file);
+		IItemCollection loaded = JfrLoaderToolkit.loadEvents(file);
+
+		// The first load parses the recording and writes the cache
+		assertSameEvents(name, loaded, JfrLoaderToolkit.loadEvents(file, extensions, cacheFile));
+		if (!cacheFile.isFile()) {
+			// Not all recordings can be cached, but they must still load
+			return;
+		}
+		assertSameEvents(name, loaded, JfrLoaderToolkit.loadEvents(file, extensions, cacheFile));
+
+		EventArrays parsed;
+		try (InputStream is = IOToolkit.openUncompressedStream(file)) {
+			parsed = FlightRecordingLoader.loadStream(is, extensions, false, true);
+		}
+		EventArrays cached = FlightRecordingLoader.readParseCache(cacheFile, file, extensions, false, true);
+		Assert.assertNotNull(name, cached);
+		Assert.assertEquals(name, parsed.getArrays().length, cached.getArrays().length);
+		Assert.assertEquals(name, parsed.getChunkTimeranges(), cached.getChunkTimeranges());
+		ParserStats parsedStats = parsed.getParserStats();
+		ParserStats cachedStats = cached.getParserStats();
+		Assert.assertEquals(name, parsedStats.getMajorVersion(), cachedStats.getMajorVersion());
+		Assert.assertEquals(name, parsedStats.getMinorVersion(), cachedStats.getMinorVersion());
+		Assert.assertEquals(name, parsedStats.getChunkCount(), cachedStats.getChunkCount());
+		Assert.assertEquals(name, parsedStats.getSkippedEventCount(), cachedStats.getSkippedEventCount());
+		parsedStats.forEachEventType(stats -> {
+			Assert.assertEquals(name, stats.getCount(), cachedStats.getCount(stats.getName()));
+			Assert.assertEquals(name, stats.getTotalSize(), cachedStats.getTotalSize(stats.getName()));
+		});
+		Assert.assertEquals(name, getMembers(parsedStats.getConstantPools(), "name", "count", "size"),
+				getMembers(cachedStats.getConstantPools(), "name", "count", "size"));
+		Assert.assertEquals(name, getMembers(parsedStats.getConstants(), "typeName", "constant"),
+				getMembers(cachedStats.getConstants(), "typeName", "constant"));
+	}
+
+	private static void assertSameEvents(String message, IItemCollection expected, IItemCollection actual)
+			throws IOException {
+		Assert.assertEquals(message, expected.getAggregate(Aggregators.count()),
+				actual.getAggregate(Aggregators.count()));
+		Assert.assertEquals(message, PrintoutsToolkit.getEventsAsStrings(expected),
+				PrintoutsToolkit.getEventsAsStrings(actual));
+	}
+
+	/**
+	 * @return the members of the items, sorted since constant pools are added in the order that
+	 *         chunks finish loading
+	 */
+	private static List<String> getMembers(IItemCollection items, String ... identifiers) {
+		List<String> members = new ArrayList<>();
+		for (IItemIterable iterable : items) {
+			for (IItem item : iterable) {
+				StringBuilder sb = new StringBuilder();
+				for (String identifier : identifiers) {
+					IAccessorKey<Object> key = Attribute.attr(identifier, identifier, UnitLookup.UNKNOWN).getKey();
+					sb.append(format(iterable.getType().getAccessor(key).getMember(item))).append(';');
+				}
+				members.add(sb.toString());
+			}
+		}
+		Collections.sort(members);
+		return members;
+	}
+
+	private static String format(Object value) {
+		if (value instanceof Object[]) {
+			return Arrays.deepToString((Object[]) value);
+		}
+		try {
+			if (value != null && value.getClass().getMethod("toString").getDeclaringClass() == Object.class) {
+				// Avoid identity hash codes
+				return value.getClass().getName();
+			}
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException(e);
+		}
+		return String.valueOf(value);
+	}
+
+	private static File getCacheFile(File file) {
+		return new File(file.getPath() + ".cache");
+	}
+
+	private static File copyToFile(InputStream recording) throws IOException {
+		File file = RecordingToolkit.createResultFile("parseCacheTest", "tmp_recording", true);
+		try (InputStream is = IOToolkit.openUncompressedStream(recording)) {
+			Files.copy(is, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		getCacheFile(file).delete();
+		return file;
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.flightrecorder.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openjdk.jmc.common.io.IOToolkit;
+import org.openjdk.jmc.common.item.Aggregators;
+import org.openjdk.jmc.common.item.IItemCollection;
+import org.openjdk.jmc.common.item.IItemFilter;
+import org.openjdk.jmc.common.item.IItemIterable;
+import org.openjdk.jmc.common.item.ItemFilters;
+import org.openjdk.jmc.common.unit.IQuantity;
+import org.openjdk.jmc.flightrecorder.CouldNotLoadRecordingException;
+import org.openjdk.jmc.flightrecorder.JfrAttributes;
+import org.openjdk.jmc.flightrecorder.JfrLoaderToolkit;
+import org.openjdk.jmc.flightrecorder.parser.ParserExtensionRegistry;
+import org.openjdk.jmc.flightrecorder.test.util.PrintoutsToolkit;
+import org.openjdk.jmc.flightrecorder.test.util.RecordingToolkit;
+import org.openjdk.jmc.test.io.IOResource;
+import org.openjdk.jmc.test.io.IOResourceSet;
+
+/**
+ * Verifies that the sidecar index of recordings loaded on demand is written, reused and replaced
+ * when stale, and that queries give the same events with the index as without it.
+ */
+@SuppressWarnings("nls")
+public class RecordingIndexTest {
+
+	@Test
+	public void testIndexedEventsMatchLoaded() throws IOException, CouldNotLoadRecordingException {
+		for (IOResourceSet resourceSet : PrintoutsToolkit.getTestResources()) {
+			IOResource resource = resourceSet.getResource(0);
+			File file = copyToFile(resource);
+			File indexFile = new File(file.getPath() + ".idx");
+			indexFile.delete();
+			IItemCollection loaded = JfrLoaderToolkit.loadEvents(file);
+
+			// Parsing all chunks writes the index
+			IItemCollection first = open(file, indexFile);
+			assertSameEvents(resource.getName(), loaded, first);
+			Assert.assertTrue(resource.getName(), indexFile.isFile());
+
+			IItemCollection indexed = open(file, indexFile);
+			for (IItemFilter filter : createFilters(loaded)) {
+				String message = resource.getName() + ": " + filter;
+				assertSameEvents(message, loaded.apply(filter), indexed.apply(filter));
+				Assert.assertEquals(message, loaded.apply(filter).hasItems(), indexed.apply(filter).hasItems());
+			}
+
+			// A changed recording makes the index stale, so it is replaced
+			byte[] index = Files.readAllBytes(indexFile.toPath());
+			Assert.assertTrue(file.setLastModified(file.lastModified() - 60000));
+			assertSameEvents(resource.getName(), loaded, open(file, indexFile));
+			Assert.assertFalse(resource.getName(), Arrays.equals(index, Files.readAllBytes(indexFile.toPath())));
+		}
+	}
+
+	private static IItemCollection open(File file, File indexFile) throws IOException, CouldNotLoadRecordingException {
+		return JfrLoaderToolkit.loadEventsOnDemand(file, ParserExtensionRegistry.getParserExtensions(), 0, indexFile);
+	}
+
+	private static List<IItemFilter> createFilters(IItemCollection items) {
+		List<IItemFilter> filters = new ArrayList<>();
+		filters.add(ItemFilters.type("no.such.EventType"));
+		IQuantity start = items.getAggregate(Aggregators.min(JfrAttributes.START_TIME));
+		IQuantity end = items.getAggregate(Aggregators.max(JfrAttributes.END_TIME));
+		for (IItemIterable iterable : items) {
+			String typeId = iterable.getType().getIdentifier();
+			IItemFilter type = ItemFilters.type(typeId);
+			filters.add(type);
+			if (start != null && end != null) {
+				IQuantity middle = start.add(end.subtract(start).multiply(0.5));
+				filters.add(ItemFilters.and(type, ItemFilters.more(JfrAttributes.START_TIME, middle)));
+				filters.add(ItemFilters.and(type, ItemFilters.less(JfrAttributes.END_TIME, middle)));
+			}
+			if (filters.size() > 20) {
+				break;
+			}
+		}
+		return filters;
+	}
+
+	private static void assertSameEvents(String message, IItemCollection expected, IItemCollection actual)
+			throws IOException {
+		Assert.assertEquals(message, expected.getAggregate(Aggregators.count()),
+				actual.getAggregate(Aggregators.count()));
+		Assert.assertEquals(message, PrintoutsToolkit.getEventsAsStrings(expected),
+				PrintoutsToolkit.getEventsAsStrings(actual));
+	}
+
+	private static File copyToFile(IOResource resource) throws IOException {
+		File file = RecordingToolkit.createResultFile("indexTest", "tmp_recording", true);
+		try (InputStream is = IOToolkit.openUncompressedStream(resource.open())) {
+			Files.copy(is, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		return file;
+	}
+}
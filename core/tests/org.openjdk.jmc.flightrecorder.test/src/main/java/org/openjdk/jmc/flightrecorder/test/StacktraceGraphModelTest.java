@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.flightrecorder.test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openjdk.jmc.common.item.Aggregators;
+import org.openjdk.jmc.common.item.IItemCollection;
+import org.openjdk.jmc.common.item.IItemFilter;
+import org.openjdk.jmc.common.item.ItemCollectionToolkit;
+import org.openjdk.jmc.common.item.ItemFilters;
+import org.openjdk.jmc.common.unit.IQuantity;
+import org.openjdk.jmc.flightrecorder.CouldNotLoadRecordingException;
+import org.openjdk.jmc.flightrecorder.JfrAttributes;
+import org.openjdk.jmc.flightrecorder.jdk.JdkAttributes;
+import org.openjdk.jmc.flightrecorder.jdk.JdkFilters;
+import org.openjdk.jmc.flightrecorder.stacktrace.FrameSeparator;
+import org.openjdk.jmc.flightrecorder.stacktrace.FrameSeparator.FrameCategorization;
+import org.openjdk.jmc.flightrecorder.stacktrace.graph.Edge;
+import org.openjdk.jmc.flightrecorder.stacktrace.graph.Node;
+import org.openjdk.jmc.flightrecorder.stacktrace.graph.Pruning;
+import org.openjdk.jmc.flightrecorder.stacktrace.graph.StacktraceGraphModel;
+import org.openjdk.jmc.flightrecorder.test.util.PrintoutsToolkit;
+import org.openjdk.jmc.flightrecorder.test.util.RecordingToolkit;
+import org.openjdk.jmc.test.io.IOResourceSet;
+
+/**
+ * Verifies that graph models updated incrementally by a builder are the same as models built from
+ * scratch.
+ */
+@SuppressWarnings("nls")
+public class StacktraceGraphModelTest {
+	private static final FrameSeparator SEPARATOR = new FrameSeparator(FrameCategorization.METHOD, false);
+
+	@Test
+	public void testBuilderMatchesModel() throws IOException, CouldNotLoadRecordingException {
+		boolean anyNodes = false;
+		for (IOResourceSet resourceSet : PrintoutsToolkit.getTestResources()) {
+			IItemCollection items = RecordingToolkit.getFlightRecording(resourceSet);
+			String message = resourceSet.getResource(0).getName();
+			StacktraceGraphModel model = new StacktraceGraphModel(SEPARATOR, items, null);
+			anyNodes |= !model.isEmpty();
+			StacktraceGraphModel.Builder builder = new StacktraceGraphModel.Builder(SEPARATOR, null);
+			assertSameGraph(message, model, builder.add(items).build(items));
+
+			IQuantity first = items.getAggregate(Aggregators.min(JfrAttributes.START_TIME));
+			IQuantity last = items.getAggregate(Aggregators.max(JfrAttributes.START_TIME));
+			if (first == null || last == null) {
+				continue;
+			}
+			IItemFilter firstHalf = ItemFilters.less(JfrAttributes.START_TIME,
+					first.add(last.subtract(first).multiply(0.5)));
+			IItemCollection narrowed = items.apply(firstHalf);
+			builder.subtract(items.apply(ItemFilters.not(firstHalf)));
+			assertSameGraph(message + " narrowed", new StacktraceGraphModel(SEPARATOR, narrowed, null),
+					builder.build(narrowed));
+			builder.subtract(narrowed);
+			Assert.assertTrue(message, builder.build(ItemCollectionToolkit.EMPTY).isEmpty());
+			assertSameGraph(message + " restored", model, builder.add(items).build(items));
+		}
+		Assert.assertTrue(anyNodes);
+	}
+
+	@Test
+	public void testSubtractFirstEventsWithAttribute() throws IOException, CouldNotLoadRecordingException {
+		boolean anyEdges = false;
+		for (IOResourceSet resourceSet : PrintoutsToolkit.getTestResources()) {
+			IItemCollection items = RecordingToolkit.getFlightRecording(resourceSet).apply(JdkFilters.ALLOC_ALL);
+			String message = resourceSet.getResource(0).getName();
+			IQuantity first = items.getAggregate(Aggregators.min(JfrAttributes.START_TIME));
+			IQuantity last = items.getAggregate(Aggregators.max(JfrAttributes.START_TIME));
+			if (first == null || last == null) {
+				continue;
+			}
+			StacktraceGraphModel.Builder builder = new StacktraceGraphModel.Builder(SEPARATOR,
+					JdkAttributes.ALLOCATION_SIZE);
+			builder.add(items);
+			// Removes the first events of many traces, but not all events of the traces
+			IItemFilter firstHalf = ItemFilters.less(JfrAttributes.START_TIME,
+					first.add(last.subtract(first).multiply(0.5)));
+			IItemCollection narrowed = items.apply(ItemFilters.not(firstHalf));
+			builder.subtract(items.apply(firstHalf));
+			StacktraceGraphModel expected = new StacktraceGraphModel(SEPARATOR, narrowed,
+					JdkAttributes.ALLOCATION_SIZE);
+			anyEdges |= !expected.getEdges().isEmpty();
+			assertSameGraph(message + " narrowed", expected, builder.build(narrowed));
+		}
+		Assert.assertTrue(anyEdges);
+	}
+
+	@Test
+	public void testPrunedModel() throws IOException, CouldNotLoadRecordingException {
+		for (IOResourceSet resourceSet : PrintoutsToolkit.getTestResources()) {
+			IItemCollection items = RecordingToolkit.getFlightRecording(resourceSet);
+			StacktraceGraphModel model = new StacktraceGraphModel(SEPARATOR, items, null);
+			StacktraceGraphModel pruned = Pruning.prune(model, 10, false);
+			Assert.assertTrue(resourceSet.getResource(0).getName(), pruned.getNodes().size() <= 10);
+			Assert.assertEquals(resourceSet.getResource(0).getName(), model.isEmpty(), pruned.isEmpty());
+		}
+	}
+
+	private static void assertSameGraph(String message, StacktraceGraphModel expected, StacktraceGraphModel actual) {
+		Assert.assertEquals(message, expected.getTotalTraceCount(), actual.getTotalTraceCount());
+		Assert.assertEquals(message, expected.getTotalEdgeCount(), actual.getTotalEdgeCount());
+		Assert.assertEquals(message, describe(expected), describe(actual));
+	}
+
+	private static List<String> describe(StacktraceGraphModel model) {
+		List<String> result = new ArrayList<>();
+		for (Node node : model.getNodes()) {
+			result.add(node.toString());
+		}
+		for (Edge edge : model.getEdges()) {
+			result.add(edge.toString() + ", value = " + edge.getValue());
+		}
+		Collections.sort(result);
+		return result;
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2019, 2022, 2023, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2019, 2022, 2023, 2026, Oracle and/or its affiliates. All rights reserved.
  * Copyright (c) 2019, 2022, 2023, Datadog, Inc. All rights reserved.
  *
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
@@ -42,18 +42,25 @@ import java.util.Map;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.openjdk.jmc.common.IMCStackTrace;
+import org.openjdk.jmc.common.item.IItem;
 import org.openjdk.jmc.common.item.IItemCollection;
+import org.openjdk.jmc.common.item.IItemIterable;
+import org.openjdk.jmc.common.item.IMemberAccessor;
 import org.openjdk.jmc.flightrecorder.CouldNotLoadRecordingException;
+import org.openjdk.jmc.flightrecorder.JfrAttributes;
 import org.openjdk.jmc.flightrecorder.jdk.JdkAttributes;
 import org.openjdk.jmc.flightrecorder.stacktrace.FrameSeparator;
 import org.openjdk.jmc.flightrecorder.stacktrace.tree.Node;
 import org.openjdk.jmc.flightrecorder.stacktrace.tree.StacktraceTreeModel;
+import org.openjdk.jmc.flightrecorder.test.util.PrintoutsToolkit;
 import org.openjdk.jmc.flightrecorder.test.util.RecordingToolkit;
 import org.openjdk.jmc.flightrecorder.test.util.StacktraceTestToolkit;
 import org.openjdk.jmc.test.io.IOResourceSet;
 
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 public class StacktraceTreeModelTest {
 
@@ -169,6 +176,67 @@ public class StacktraceTreeModelTest {
 		assertEquals(expected, leafValues);
 	}
 
+	@Test
+	public void testTreeModelWeightsAddUp() throws IOException, CouldNotLoadRecordingException {
+		for (IOResourceSet resourceSet : PrintoutsToolkit.getTestResources()) {
+			IItemCollection items = RecordingToolkit.getFlightRecording(resourceSet);
+			for (boolean inverted : new boolean[] {false, true}) {
+				StacktraceTreeModel model = new StacktraceTreeModel(items, separator, inverted);
+				String message = resourceSet.getResource(0).getName() + " inverted=" + inverted;
+				double total = 0;
+				for (Node child : model.getRoot().getChildren()) {
+					total += child.getCumulativeWeight();
+					assertWeightsAddUp(message, child);
+				}
+				assertEquals(message, countEventsWithFrames(items), total, 0);
+				// Trees built from partial trees in parallel must be merged in a stable order
+				assertEquals(message, dump(model.getRoot()),
+						dump(new StacktraceTreeModel(items, separator, inverted).getRoot()));
+			}
+		}
+	}
+
+	private static long countEventsWithFrames(IItemCollection items) {
+		long count = 0;
+		for (IItemIterable iterable : items) {
+			IMemberAccessor<IMCStackTrace, IItem> accessor = JfrAttributes.EVENT_STACKTRACE
+					.getAccessor(iterable.getType());
+			if (accessor == null) {
+				continue;
+			}
+			for (IItem item : iterable) {
+				IMCStackTrace stacktrace = accessor.getMember(item);
+				if (stacktrace != null && stacktrace.getFrames() != null && !stacktrace.getFrames().isEmpty()) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	private static void assertWeightsAddUp(String message, Node node) {
+		double childWeights = 0;
+		for (Node child : node.getChildren()) {
+			assertSame(message, node, child.getParent());
+			childWeights += child.getCumulativeWeight();
+			assertWeightsAddUp(message, child);
+		}
+		assertEquals(message, node.getCumulativeWeight(), node.getWeight() + childWeights, 1e-6);
+	}
+
+	private static String dump(Node node) {
+		StringBuilder sb = new StringBuilder();
+		dump(node, 0, sb);
+		return sb.toString();
+	}
+
+	private static void dump(Node node, int depth, StringBuilder sb) {
+		sb.append(depth).append(' ').append(node).append('\n');
+		for (Node child : node.getChildren()) {
+			dump(child, depth + 1, sb);
+		}
+	}
+
 	private Map<String, List<Double>> getLeafNodeValues(Node root) {
 		Map<String, List<Double>> leafValues = new HashMap<>();
 		pickLeaves(root, leafValues);
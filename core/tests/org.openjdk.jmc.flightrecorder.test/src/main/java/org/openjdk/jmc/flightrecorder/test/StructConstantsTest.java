@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.flightrecorder.test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openjdk.jmc.common.IMCClassLoader;
+import org.openjdk.jmc.common.IMCFrame;
+import org.openjdk.jmc.common.IMCMethod;
+import org.openjdk.jmc.common.IMCModule;
+import org.openjdk.jmc.common.IMCPackage;
+import org.openjdk.jmc.common.IMCStackTrace;
+import org.openjdk.jmc.common.IMCThread;
+import org.openjdk.jmc.common.IMCThreadGroup;
+import org.openjdk.jmc.common.IMCType;
+import org.openjdk.jmc.common.item.IAccessorKey;
+import org.openjdk.jmc.common.item.IItem;
+import org.openjdk.jmc.common.item.IItemCollection;
+import org.openjdk.jmc.common.item.IItemIterable;
+import org.openjdk.jmc.common.item.IMemberAccessor;
+import org.openjdk.jmc.common.item.IType;
+import org.openjdk.jmc.flightrecorder.CouldNotLoadRecordingException;
+import org.openjdk.jmc.flightrecorder.test.util.RecordingToolkit;
+import org.openjdk.jmc.test.io.IOResource;
+
+/**
+ * Verifies that the struct constants of the test recordings, such as threads, stack traces, frames,
+ * methods and classes, are read and resolved into complete values. The getters of the parser's
+ * struct classes cast their fields, so a field that has been read into the wrong place, or has been
+ * left unresolved, causes a failure here.
+ */
+@SuppressWarnings("nls")
+public class StructConstantsTest {
+	private static final String STRUCT_TYPES_PREFIX = "org.openjdk.jmc.flightrecorder.internal.parser.v1.StructTypes$";
+
+	// Recordings from JDK 11 and later, which use the jdk.types struct names, in addition to the
+	// indexed recordings
+	private static final String[] JDK_TYPES_RECORDINGS = {"hs_err_jdk-16.jfr", "metadata_new.jfr", "flush_metadata.jfr",
+			"overlap.jfr"};
+
+	@Test
+	public void testStructConstantsResolved() throws IOException, CouldNotLoadRecordingException {
+		Map<String, Integer> structCounts = new TreeMap<>();
+		for (IOResource recording : RecordingToolkit.getRecordings()) {
+			checkRecording(recording.getName(), RecordingToolkit.getFlightRecording(recording), structCounts);
+		}
+		assertStructsRead(structCounts);
+	}
+
+	@Test
+	public void testJdkTypesStructConstantsResolved() throws IOException, CouldNotLoadRecordingException {
+		Map<String, Integer> structCounts = new TreeMap<>();
+		for (String recording : JDK_TYPES_RECORDINGS) {
+			checkRecording(recording, RecordingToolkit.getNamedRecording(recording), structCounts);
+		}
+		assertStructsRead(structCounts);
+	}
+
+	private static void checkRecording(String recording, IItemCollection items, Map<String, Integer> structCounts) {
+		Set<Object> checked = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (IItemIterable iterable : items) {
+			IType<IItem> type = iterable.getType();
+			for (IAccessorKey<?> key : type.getAccessorKeys().keySet()) {
+				IMemberAccessor<?, IItem> accessor = type.getAccessor(key);
+				for (IItem item : iterable) {
+					checkValue(accessor.getMember(item), checked, structCounts,
+							recording + " " + type.getIdentifier() + "." + key.getIdentifier());
+				}
+			}
+		}
+	}
+
+	private static void assertStructsRead(Map<String, Integer> structCounts) {
+		for (String structType : new String[] {"JfrThread", "JfrStackTrace", "JfrFrame", "JfrMethod", "JfrJavaClass",
+				"JfrJavaPackage"}) {
+			Assert.assertTrue("No " + structType + " read, found " + structCounts,
+					structCounts.getOrDefault(structType, 0) > 0);
+		}
+	}
+
+	private static void checkValue(
+		Object value, Set<Object> checked, Map<String, Integer> structCounts, String context) {
+		if (value == null || !checked.add(value)) {
+			return;
+		}
+		String className = value.getClass().getName();
+		if (className.startsWith(STRUCT_TYPES_PREFIX)) {
+			structCounts.merge(className.substring(STRUCT_TYPES_PREFIX.length()), 1, Integer::sum);
+		}
+		try {
+			if (value instanceof IMCStackTrace) {
+				IMCStackTrace stackTrace = (IMCStackTrace) value;
+				Assert.assertNotNull(context, stackTrace.getFrames());
+				stackTrace.getTruncationState();
+				for (IMCFrame frame : stackTrace.getFrames()) {
+					Assert.assertNotNull(context, frame);
+					checkValue(frame, checked, structCounts, context);
+				}
+			} else if (value instanceof IMCFrame) {
+				IMCFrame frame = (IMCFrame) value;
+				frame.getFrameLineNumber();
+				frame.getBCI();
+				frame.getType();
+				Assert.assertNotNull(context, frame.getMethod());
+				checkValue(frame.getMethod(), checked, structCounts, context);
+			} else if (value instanceof IMCMethod) {
+				IMCMethod method = (IMCMethod) value;
+				// Symbols are missing from the constant pools of some recordings, so names may be null
+				method.getMethodName();
+				method.getFormalDescriptor();
+				method.getModifier();
+				method.isNative();
+				method.isHidden();
+				Assert.assertNotNull(context, method.getType());
+				checkValue(method.getType(), checked, structCounts, context);
+			} else if (value instanceof IMCType) {
+				IMCType type = (IMCType) value;
+				type.getFullName();
+				type.getTypeName();
+				checkValue(type.getPackage(), checked, structCounts, context);
+			} else if (value instanceof IMCPackage) {
+				IMCPackage pkg = (IMCPackage) value;
+				pkg.getName();
+				pkg.isExported();
+				checkValue(pkg.getModule(), checked, structCounts, context);
+			} else if (value instanceof IMCModule) {
+				IMCModule module = (IMCModule) value;
+				module.getName();
+				module.getVersion();
+				module.getLocation();
+				checkValue(module.getClassLoader(), checked, structCounts, context);
+			} else if (value instanceof IMCClassLoader) {
+				IMCClassLoader classLoader = (IMCClassLoader) value;
+				classLoader.getName();
+				checkValue(classLoader.getType(), checked, structCounts, context);
+			} else if (value instanceof IMCThread) {
+				IMCThread thread = (IMCThread) value;
+				thread.getThreadId();
+				thread.getThreadName();
+				checkValue(thread.getThreadGroup(), checked, structCounts, context);
+			} else if (value instanceof IMCThreadGroup) {
+				IMCThreadGroup threadGroup = (IMCThreadGroup) value;
+				threadGroup.getName();
+				checkValue(threadGroup.getParent(), checked, structCounts, context);
+			}
+		} catch (ClassCastException e) {
+			throw new AssertionError(context + ": unresolved or misplaced field in " + className, e);
+		}
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2026, Oracle and/or its affiliates. All rights reserved.
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The contents of this file are subject to the terms of either the Universal Permissive License
+ * v 1.0 as shown at http://oss.oracle.com/licenses/upl
+ *
+ * or the following license:
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted
+ * provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions
+ * and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided with
+ * the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+ * WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.openjdk.jmc.flightrecorder.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openjdk.jmc.common.item.Aggregators;
+import org.openjdk.jmc.common.item.IItem;
+import org.openjdk.jmc.common.item.IItemCollection;
+import org.openjdk.jmc.common.item.IItemFilter;
+import org.openjdk.jmc.common.item.IItemIterable;
+import org.openjdk.jmc.common.item.ItemFilters;
+import org.openjdk.jmc.common.item.RangeMatchPolicy;
+import org.openjdk.jmc.common.unit.IQuantity;
+import org.openjdk.jmc.common.unit.QuantityRange;
+import org.openjdk.jmc.flightrecorder.JfrAttributes;
+import org.openjdk.jmc.flightrecorder.jdk.JdkFilters;
+import org.openjdk.jmc.flightrecorder.test.util.PrintoutsToolkit;
+import org.openjdk.jmc.flightrecorder.test.util.RecordingToolkit;
+import org.openjdk.jmc.test.io.IOResourceSet;
+
+/**
+ * Verifies that time range filters, which are evaluated using a time index, give the same events as
+ * evaluating the filter predicate on every event.
+ */
+@SuppressWarnings("nls")
+public class TimeRangeFilterTest {
+	private static final int SLICES = 5;
+
+	@Test
+	public void testTimeRangeFilters() throws Exception {
+		for (IOResourceSet resourceSet : PrintoutsToolkit.getTestResources()) {
+			IItemCollection items = RecordingToolkit.getFlightRecording(resourceSet);
+			IQuantity first = items.getAggregate(Aggregators.min(JfrAttributes.START_TIME));
+			IQuantity last = items.getAggregate(Aggregators.max(JfrAttributes.END_TIME));
+			if (first == null || last == null) {
+				continue;
+			}
+			IQuantity slice = last.subtract(first).multiply(1.0 / SLICES);
+			for (int i = 0; i < SLICES; i++) {
+				IQuantity start = first.add(slice.multiply(i));
+				IQuantity end = start.add(slice.multiply(2));
+				for (IItemFilter filter : createFilters(start, end)) {
+					Assert.assertEquals(resourceSet.getResource(0).getName() + ": " + filter,
+							getMatchingEvents(items, filter), getEvents(items.apply(filter)));
+				}
+			}
+		}
+	}
+
+	private static List<IItemFilter> createFilters(IQuantity start, IQuantity end) {
+		List<IItemFilter> filters = new ArrayList<>();
+		for (RangeMatchPolicy policy : RangeMatchPolicy.values()) {
+			filters.add(
+					ItemFilters.matchRange(policy, JfrAttributes.LIFETIME, QuantityRange.createWithEnd(start, end)));
+		}
+		filters.add(ItemFilters.interval(JfrAttributes.END_TIME, start, true, end, false));
+		filters.add(ItemFilters.interval(JfrAttributes.START_TIME, start, false, end, true));
+		filters.add(ItemFilters.more(JfrAttributes.START_TIME, start));
+		filters.add(ItemFilters.less(JfrAttributes.END_TIME, end));
+		filters.add(ItemFilters.and(JdkFilters.EXECUTION_SAMPLE,
+				ItemFilters.interval(JfrAttributes.END_TIME, start, true, end, true)));
+		filters.add(ItemFilters.or(ItemFilters.less(JfrAttributes.START_TIME, start),
+				ItemFilters.more(JfrAttributes.END_TIME, end)));
+		return filters;
+	}
+
+	private static List<IItem> getMatchingEvents(IItemCollection items, IItemFilter filter) {
+		List<IItem> events = new ArrayList<>();
+		for (IItemIterable iterable : items) {
+			for (IItem item : iterable) {
+				if (filter.getPredicate(iterable.getType()).test(item)) {
+					events.add(item);
+				}
+			}
+		}
+		return events;
+	}
+
+	private static List<IItem> getEvents(IItemCollection items) {
+		List<IItem> events = new ArrayList<>();
+		long count = 0;
+		for (IItemIterable iterable : items) {
+			count += iterable.getItemCount();
+			for (IItem item : iterable) {
+				events.add(item);
+			}
+		}
+		Assert.assertEquals(events.size(), count);
+		return events;
+	}
+}
@@ -43,6 +43,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -67,6 +68,7 @@ import org.openjdk.jmc.common.item.IAttribute;
 import org.openjdk.jmc.common.item.IItem;
 import org.openjdk.jmc.common.item.IItemCollection;
 import org.openjdk.jmc.common.item.IItemIterable;
+import org.openjdk.jmc.common.item.IMemberAccessor;
 import org.openjdk.jmc.common.item.IType;
 import org.openjdk.jmc.common.unit.IQuantity;
 import org.openjdk.jmc.common.unit.UnitLookup;
@@ -122,6 +124,26 @@ class RecordingImplTest {
 		public Thread eventThread;
 	}
 
+	public static final class AllTypesEvent extends Event {
+		public byte byteFld;
+		public char charFld;
+		public short shortFld;
+		public int intFld;
+		public long longFld;
+		public float floatFld;
+		public double doubleFld;
+		public boolean booleanFld;
+		public String stringFld;
+		public String nullStringFld;
+		public Thread threadFld;
+	}
+
+	@StackTrace(false)
+	public static final class ConcurrentEvent extends Event {
+		public String producer;
+		public long sequence;
+	}
+
 	private RecordingImpl recording;
 	private ByteArrayOutputStream bos;
 
@@ -337,6 +359,112 @@ class RecordingImplTest {
 
 	}
 
+	@Test
+	void writeJfrEventSameAsReflective() throws Exception {
+		List<String> generated = writeAndRead(false);
+		List<String> reflective = writeAndRead(true);
+		assertEquals(3, generated.size());
+		assertEquals(reflective, generated);
+	}
+
+	private List<String> writeAndRead(boolean reflective) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (RecordingImpl rec = new RecordingImpl(out, new RecordingSettings())) {
+			for (int i = 0; i < 3; i++) {
+				AllTypesEvent e = new AllTypesEvent();
+				e.byteFld = (byte) i;
+				e.charFld = (char) ('a' + i);
+				e.shortFld = (short) (1000 * i);
+				e.intFld = -100_000 * i;
+				e.longFld = Long.MAX_VALUE - i;
+				e.floatFld = 1.5f * i;
+				e.doubleFld = -2.25d * i;
+				e.booleanFld = i % 2 == 0;
+				e.stringFld = i == 0 ? "" : "value" + i;
+				e.threadFld = Thread.currentThread();
+				if (reflective) {
+					rec.writeEventReflectively(e);
+				} else {
+					rec.writeEvent(e);
+				}
+			}
+		}
+		List<String> values = new ArrayList<>();
+		IItemCollection events = JfrLoaderToolkit.loadEvents(new ByteArrayInputStream(out.toByteArray()));
+		for (IItemIterable lane : events) {
+			IType<IItem> type = lane.getType();
+			if (type.getIdentifier().equals(AllTypesEvent.class.getSimpleName())) {
+				for (IItem event : lane) {
+					StringBuilder sb = new StringBuilder();
+					for (IAttribute<?> attr : type.getAttributes()) {
+						if (attr.getIdentifier().equals("stackTrace")) {
+							// the stack traces differ since the events are written from different methods
+							continue;
+						}
+						sb.append(attr.getIdentifier()).append('=').append(attr.getAccessor(type).getMember(event))
+								.append(';');
+					}
+					values.add(sb.toString());
+				}
+			}
+		}
+		return values;
+	}
+
+	@Test
+	void writeEventsConcurrently() throws Exception {
+		int threadCount = 4;
+		// enough events to make every thread hand off several batches of chunk data
+		int eventsPerThread = 100_000;
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (RecordingImpl rec = new RecordingImpl(out, new RecordingSettings())) {
+			List<Thread> threads = new ArrayList<>();
+			for (int t = 0; t < threadCount; t++) {
+				String producer = "producer-" + t;
+				threads.add(new Thread(() -> {
+					for (long i = 0; i < eventsPerThread; i++) {
+						ConcurrentEvent event = new ConcurrentEvent();
+						event.producer = producer;
+						event.sequence = i;
+						rec.writeEvent(event);
+					}
+				}));
+			}
+			threads.forEach(Thread::start);
+			for (Thread thread : threads) {
+				thread.join();
+			}
+		}
+
+		IItemCollection events = JfrLoaderToolkit.loadEvents(new ByteArrayInputStream(out.toByteArray()));
+		long[] counts = new long[threadCount];
+		long[] sequenceSums = new long[threadCount];
+		for (IItemIterable lane : events) {
+			IType<IItem> type = lane.getType();
+			if (type.getIdentifier().equals(ConcurrentEvent.class.getSimpleName())) {
+				IMemberAccessor<?, IItem> producerAccessor = null;
+				IMemberAccessor<?, IItem> sequenceAccessor = null;
+				for (IAttribute<?> attr : type.getAttributes()) {
+					if (attr.getIdentifier().equals("producer")) {
+						producerAccessor = attr.getAccessor(type);
+					} else if (attr.getIdentifier().equals("sequence")) {
+						sequenceAccessor = attr.getAccessor(type);
+					}
+				}
+				for (IItem event : lane) {
+					String producer = (String) producerAccessor.getMember(event);
+					int idx = Integer.parseInt(producer.substring(producer.indexOf('-') + 1));
+					counts[idx]++;
+					sequenceSums[idx] += ((Number) sequenceAccessor.getMember(event)).longValue();
+				}
+			}
+		}
+		for (int t = 0; t < threadCount; t++) {
+			assertEquals(eventsPerThread, counts[t]);
+			assertEquals((long) eventsPerThread * (eventsPerThread - 1) / 2, sequenceSums[t]);
+		}
+	}
+
 	@Test
 	void registerAnnotationTypeNullName() {
 		assertThrows(IllegalArgumentException.class, () -> recording.registerAnnotationType(null));